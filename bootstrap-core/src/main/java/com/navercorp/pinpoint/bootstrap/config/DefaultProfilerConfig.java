@@ -108,6 +108,7 @@ public class DefaultProfilerConfig implements ProfilerConfig {
     private int collectorTcpServerPort = 9994;
 
     private int spanDataSenderWriteQueueSize = 1024 * 5;
+    private String spanDataSenderWriteQueueType = "LINKED";
     private int spanDataSenderSocketSendBufferSize = 1024 * 64 * 16;
     private int spanDataSenderSocketTimeout = 1000 * 3;
     private int spanDataSenderChunkSize = 1024 * 16;
@@ -115,6 +116,7 @@ public class DefaultProfilerConfig implements ProfilerConfig {
     private String spanDataSenderSocketType = "OIO";
 
     private int statDataSenderWriteQueueSize = 1024 * 5;
+    private String statDataSenderWriteQueueType = "LINKED";
     private int statDataSenderSocketSendBufferSize = 1024 * 64 * 16;
     private int statDataSenderSocketTimeout = 1000 * 3;
     private int statDataSenderChunkSize = 1024 * 16;
@@ -136,6 +138,7 @@ public class DefaultProfilerConfig implements ProfilerConfig {
     private long deadlockMonitorInterval = 60000L;
 
     private int callStackMaxDepth = 512;
+    private int callStackRecyclePoolSize = 0;
 
     private int jdbcSqlCacheSize = 1024;
     private boolean traceSqlBindValue = false;
@@ -144,6 +147,11 @@ public class DefaultProfilerConfig implements ProfilerConfig {
     // Sampling
     private boolean samplingEnable = true;
     private int samplingRate = 1;
+    private boolean samplingAdaptiveEnable = false;
+    private int samplingAdaptiveTargetTps = 20;
+    private boolean samplingTailEnable = false;
+    private int samplingTailLatencyThreshold = 3000;
+    private int samplingTailMaxSpanEventSize = 64;
 
     // span buffering
     private boolean ioBufferingEnable;
@@ -224,6 +232,11 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         return statDataSenderWriteQueueSize;
     }
 
+    @Override
+    public String getStatDataSenderWriteQueueType() {
+        return statDataSenderWriteQueueType;
+    }
+
     @Override
     public int getStatDataSenderSocketSendBufferSize() {
         return statDataSenderSocketSendBufferSize;
@@ -249,6 +262,11 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         return spanDataSenderWriteQueueSize;
     }
 
+    @Override
+    public String getSpanDataSenderWriteQueueType() {
+        return spanDataSenderWriteQueueType;
+    }
+
     @Override
     public int getSpanDataSenderSocketSendBufferSize() {
         return spanDataSenderSocketSendBufferSize;
@@ -360,6 +378,31 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         return samplingRate;
     }
 
+    @Override
+    public boolean isSamplingAdaptiveEnable() {
+        return samplingAdaptiveEnable;
+    }
+
+    @Override
+    public int getSamplingAdaptiveTargetTps() {
+        return samplingAdaptiveTargetTps;
+    }
+
+    @Override
+    public boolean isSamplingTailEnable() {
+        return samplingTailEnable;
+    }
+
+    @Override
+    public int getSamplingTailLatencyThreshold() {
+        return samplingTailLatencyThreshold;
+    }
+
+    @Override
+    public int getSamplingTailMaxSpanEventSize() {
+        return samplingTailMaxSpanEventSize;
+    }
+
     @Override
     public boolean isIoBufferingEnable() {
         return ioBufferingEnable;
@@ -429,6 +472,15 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         this.callStackMaxDepth = callStackMaxDepth;
     }
 
+    @Override
+    public int getCallStackRecyclePoolSize() {
+        return callStackRecyclePoolSize;
+    }
+
+    public void setCallStackRecyclePoolSize(int callStackRecyclePoolSize) {
+        this.callStackRecyclePoolSize = callStackRecyclePoolSize;
+    }
+
     @Override
     public boolean isPropagateInterceptorException() {
         return propagateInterceptorException;
@@ -484,6 +536,8 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         this.instrumentMatcherCacheConfig.setAnnotationCacheEntrySize(readInt("profiler.instrument.matcher.annotation.cache.entry.size", 4));
         this.instrumentMatcherCacheConfig.setSuperCacheSize(readInt("profiler.instrument.matcher.super.cache.size", 4));
         this.instrumentMatcherCacheConfig.setSuperCacheEntrySize(readInt("profiler.instrument.matcher.super.cache.entry.size", 4));
+        this.instrumentMatcherCacheConfig.setClassMetadataCacheSize(readInt("profiler.instrument.matcher.classmetadata.cache.size", 512));
+        this.instrumentMatcherCacheConfig.setPersistentCachePath(readString("profiler.instrument.matcher.persistent.cache.path", ""));
 
         this.interceptorRegistrySize = readInt("profiler.interceptorregistry.size", 1024 * 8);
 
@@ -497,6 +551,7 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         this.collectorTcpServerPort = readInt("profiler.collector.tcp.port", 9994);
 
         this.spanDataSenderWriteQueueSize = readInt("profiler.spandatasender.write.queue.size", 1024 * 5);
+        this.spanDataSenderWriteQueueType = readString("profiler.spandatasender.write.queue.type", "LINKED");
         this.spanDataSenderSocketSendBufferSize = readInt("profiler.spandatasender.socket.sendbuffersize", 1024 * 64 * 16);
         this.spanDataSenderSocketTimeout = readInt("profiler.spandatasender.socket.timeout", 1000 * 3);
         this.spanDataSenderChunkSize = readInt("profiler.spandatasender.chunk.size", 1024 * 16);
@@ -504,6 +559,7 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         this.spanDataSenderTransportType = readString("profiler.spandatasender.transport.type", "UDP");
 
         this.statDataSenderWriteQueueSize = readInt("profiler.statdatasender.write.queue.size", 1024 * 5);
+        this.statDataSenderWriteQueueType = readString("profiler.statdatasender.write.queue.type", "LINKED");
         this.statDataSenderSocketSendBufferSize = readInt("profiler.statdatasender.socket.sendbuffersize", 1024 * 64 * 16);
         this.statDataSenderSocketTimeout = readInt("profiler.statdatasender.socket.timeout", 1000 * 3);
         this.statDataSenderChunkSize = readInt("profiler.statdatasender.chunk.size", 1024 * 16);
@@ -529,6 +585,7 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         if (this.callStackMaxDepth < 2) {
             this.callStackMaxDepth = 2;
         }
+        this.callStackRecyclePoolSize = readInt("profiler.callstack.recycle.pool.size", 0);
 
         // JDBC
         this.jdbcSqlCacheSize = readInt("profiler.jdbc.sqlcachesize", 1024);
@@ -537,6 +594,11 @@ public class DefaultProfilerConfig implements ProfilerConfig {
 
         this.samplingEnable = readBoolean("profiler.sampling.enable", true);
         this.samplingRate = readInt("profiler.sampling.rate", 1);
+        this.samplingAdaptiveEnable = readBoolean("profiler.sampling.adaptive.enable", false);
+        this.samplingAdaptiveTargetTps = readInt("profiler.sampling.adaptive.target.tps", 20);
+        this.samplingTailEnable = readBoolean("profiler.sampling.tail.enable", false);
+        this.samplingTailLatencyThreshold = readInt("profiler.sampling.tail.latency.threshold", 3000);
+        this.samplingTailMaxSpanEventSize = readInt("profiler.sampling.tail.max.spanevent.size", 64);
 
         // configuration for sampling and IO buffer 
         this.ioBufferingEnable = readBoolean("profiler.io.buffering.enable", true);
@@ -696,12 +758,14 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         sb.append(", collectorTcpServerIp='").append(collectorTcpServerIp).append('\'');
         sb.append(", collectorTcpServerPort=").append(collectorTcpServerPort);
         sb.append(", spanDataSenderWriteQueueSize=").append(spanDataSenderWriteQueueSize);
+        sb.append(", spanDataSenderWriteQueueType='").append(spanDataSenderWriteQueueType).append('\'');
         sb.append(", spanDataSenderSocketSendBufferSize=").append(spanDataSenderSocketSendBufferSize);
         sb.append(", spanDataSenderSocketTimeout=").append(spanDataSenderSocketTimeout);
         sb.append(", spanDataSenderChunkSize=").append(spanDataSenderChunkSize);
         sb.append(", spanDataSenderTransportType='").append(spanDataSenderTransportType).append('\'');
         sb.append(", spanDataSenderSocketType='").append(spanDataSenderSocketType).append('\'');
         sb.append(", statDataSenderWriteQueueSize=").append(statDataSenderWriteQueueSize);
+        sb.append(", statDataSenderWriteQueueType='").append(statDataSenderWriteQueueType).append('\'');
         sb.append(", statDataSenderSocketSendBufferSize=").append(statDataSenderSocketSendBufferSize);
         sb.append(", statDataSenderSocketTimeout=").append(statDataSenderSocketTimeout);
         sb.append(", statDataSenderChunkSize=").append(statDataSenderChunkSize);
@@ -718,11 +782,17 @@ public class DefaultProfilerConfig implements ProfilerConfig {
         sb.append(", deadlockMonitorEnable=").append(deadlockMonitorEnable);
         sb.append(", deadlockMonitorInterval=").append(deadlockMonitorInterval);
         sb.append(", callStackMaxDepth=").append(callStackMaxDepth);
+        sb.append(", callStackRecyclePoolSize=").append(callStackRecyclePoolSize);
         sb.append(", jdbcSqlCacheSize=").append(jdbcSqlCacheSize);
         sb.append(", traceSqlBindValue=").append(traceSqlBindValue);
         sb.append(", maxSqlBindValueSize=").append(maxSqlBindValueSize);
         sb.append(", samplingEnable=").append(samplingEnable);
         sb.append(", samplingRate=").append(samplingRate);
+        sb.append(", samplingAdaptiveEnable=").append(samplingAdaptiveEnable);
+        sb.append(", samplingAdaptiveTargetTps=").append(samplingAdaptiveTargetTps);
+        sb.append(", samplingTailEnable=").append(samplingTailEnable);
+        sb.append(", samplingTailLatencyThreshold=").append(samplingTailLatencyThreshold);
+        sb.append(", samplingTailMaxSpanEventSize=").append(samplingTailMaxSpanEventSize);
         sb.append(", ioBufferingEnable=").append(ioBufferingEnable);
         sb.append(", ioBufferingBufferSize=").append(ioBufferingBufferSize);
         sb.append(", profileJvmVendorName='").append(profileJvmVendorName).append('\'');
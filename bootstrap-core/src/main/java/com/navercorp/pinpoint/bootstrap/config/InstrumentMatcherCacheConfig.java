@@ -26,6 +26,8 @@ public class InstrumentMatcherCacheConfig {
     private int annotationCacheEntrySize = 0;
     private int superCacheSize = 0;
     private int superCacheEntrySize = 0;
+    private int classMetadataCacheSize = 0;
+    private String persistentCachePath = null;
 
     public int getInterfaceCacheSize() {
         return interfaceCacheSize;
@@ -75,6 +77,22 @@ public class InstrumentMatcherCacheConfig {
         this.superCacheEntrySize = superCacheEntrySize;
     }
 
+    public int getClassMetadataCacheSize() {
+        return classMetadataCacheSize;
+    }
+
+    public void setClassMetadataCacheSize(int classMetadataCacheSize) {
+        this.classMetadataCacheSize = classMetadataCacheSize;
+    }
+
+    public String getPersistentCachePath() {
+        return persistentCachePath;
+    }
+
+    public void setPersistentCachePath(String persistentCachePath) {
+        this.persistentCachePath = persistentCachePath;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("{");
@@ -84,6 +102,8 @@ public class InstrumentMatcherCacheConfig {
         sb.append(", annotationCacheEntrySize=").append(annotationCacheEntrySize);
         sb.append(", superCacheSize=").append(superCacheSize);
         sb.append(", superCacheEntrySize=").append(superCacheEntrySize);
+        sb.append(", classMetadataCacheSize=").append(classMetadataCacheSize);
+        sb.append(", persistentCachePath=").append(persistentCachePath);
         sb.append('}');
         return sb.toString();
     }
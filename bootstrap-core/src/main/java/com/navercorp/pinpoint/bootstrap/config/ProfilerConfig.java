@@ -40,6 +40,8 @@ public interface ProfilerConfig {
 
     int getStatDataSenderWriteQueueSize();
 
+    String getStatDataSenderWriteQueueType();
+
     int getStatDataSenderSocketSendBufferSize();
 
     int getStatDataSenderSocketTimeout();
@@ -50,6 +52,8 @@ public interface ProfilerConfig {
 
     int getSpanDataSenderWriteQueueSize();
 
+    String getSpanDataSenderWriteQueueType();
+
     int getSpanDataSenderSocketSendBufferSize();
 
     boolean isTcpDataSenderCommandAcceptEnable();
@@ -94,6 +98,16 @@ public interface ProfilerConfig {
 
     int getSamplingRate();
 
+    boolean isSamplingAdaptiveEnable();
+
+    int getSamplingAdaptiveTargetTps();
+
+    boolean isSamplingTailEnable();
+
+    int getSamplingTailLatencyThreshold();
+
+    int getSamplingTailMaxSpanEventSize();
+
     boolean isIoBufferingEnable();
 
     int getIoBufferingBufferSize();
@@ -119,6 +133,8 @@ public interface ProfilerConfig {
 
     int getCallStackMaxDepth();
 
+    int getCallStackRecyclePoolSize();
+
     boolean isPropagateInterceptorException();
 
     String getProfileInstrumentEngine();
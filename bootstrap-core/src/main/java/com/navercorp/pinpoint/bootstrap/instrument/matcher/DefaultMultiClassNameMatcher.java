@@ -53,4 +53,12 @@ public class DefaultMultiClassNameMatcher implements MultiClassNameMatcher {
     public int hashCode() {
         return classNameList.hashCode();
     }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DefaultMultiClassNameMatcher{");
+        sb.append("classNameList=").append(classNameList);
+        sb.append('}');
+        return sb.toString();
+    }
 }
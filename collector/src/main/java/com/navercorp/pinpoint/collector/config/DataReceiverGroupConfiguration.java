@@ -35,6 +35,8 @@ public interface DataReceiverGroupConfiguration {
 
     int getUdpReceiveBufferSize();
 
+    int getUdpSocketCount();
+
     int getWorkerThreadSize();
 
     int getWorkerQueueSize();
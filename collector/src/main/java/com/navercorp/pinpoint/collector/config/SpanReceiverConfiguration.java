@@ -43,6 +43,8 @@ public final class SpanReceiverConfiguration implements DataReceiverGroupConfigu
     private final int udpBindPort;
     private static final String UDP_RECEIVE_BUFFER_SIZE = PREFIX + ".udp.receiveBufferSize";
     private final int udpReceiveBufferSize;
+    private static final String UDP_SOCKET_COUNT = PREFIX + ".udp.socketCount";
+    private final int udpSocketCount;
 
     private static final String WORKER_THREAD_SIZE = PREFIX + ".worker.threadSize";
     private final int workerThreadSize;
@@ -65,6 +67,7 @@ public final class SpanReceiverConfiguration implements DataReceiverGroupConfigu
         this.udpBindIp = getUdpBindIp(properties, deprecatedConfiguration, CollectorConfiguration.DEFAULT_LISTEN_IP);
         this.udpBindPort = getUdpBindPort(properties, deprecatedConfiguration, 9996);
         this.udpReceiveBufferSize = getUdpReceiveBufferSize(properties, deprecatedConfiguration, 1024 * 4096);
+        this.udpSocketCount = CollectorConfiguration.readInt(properties, UDP_SOCKET_COUNT, 0);
 
         this.workerThreadSize = getWorkerThreadSize(properties, deprecatedConfiguration, 256);
         Assert.isTrue(workerThreadSize > 0, "workerThreadSize must be greater than 0");
@@ -88,6 +91,7 @@ public final class SpanReceiverConfiguration implements DataReceiverGroupConfigu
             Objects.requireNonNull(udpBindIp, "udpBindIp must not be null");
             Assert.isTrue(udpBindPort > 0, "udpBindPort must be greater than 0");
             Assert.isTrue(udpReceiveBufferSize > 0, "udpReceiveBufferSize must be greater than 0");
+            Assert.isTrue(udpSocketCount >= 0, "udpSocketCount must not be negative");
         }
     }
 
@@ -207,6 +211,11 @@ public final class SpanReceiverConfiguration implements DataReceiverGroupConfigu
         return udpReceiveBufferSize;
     }
 
+    @Override
+    public int getUdpSocketCount() {
+        return udpSocketCount;
+    }
+
     @Override
     public int getWorkerThreadSize() {
         return workerThreadSize;
@@ -232,6 +241,7 @@ public final class SpanReceiverConfiguration implements DataReceiverGroupConfigu
         sb.append(", udpBindIp='").append(udpBindIp).append('\'');
         sb.append(", udpBindPort=").append(udpBindPort);
         sb.append(", udpReceiveBufferSize=").append(udpReceiveBufferSize);
+        sb.append(", udpSocketCount=").append(udpSocketCount);
         sb.append(", workerThreadSize=").append(workerThreadSize);
         sb.append(", workerQueueSize=").append(workerQueueSize);
         sb.append(", workerMonitorEnable=").append(workerMonitorEnable);
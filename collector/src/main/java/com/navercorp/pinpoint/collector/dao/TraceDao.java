@@ -2,6 +2,7 @@ package com.navercorp.pinpoint.collector.dao;
 
 import com.navercorp.pinpoint.common.server.bo.SpanBo;
 import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
 
 /**
  * @author Woonduk Kang(emeroad)
@@ -9,5 +10,7 @@ import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
 public interface TraceDao {
     void insert(SpanBo span);
 
+    void insert(TSpan span);
+
     void insertSpanChunk(SpanChunkBo spanChunk);
 }
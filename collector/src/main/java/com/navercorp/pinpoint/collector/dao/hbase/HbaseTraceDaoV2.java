@@ -6,10 +6,15 @@ import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.common.server.bo.SpanBo;
 import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
 import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.server.bo.SpanFactory;
 import com.navercorp.pinpoint.common.server.bo.serializer.RowKeyEncoder;
 import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanChunkSerializerV2;
 import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.SpanSerializerV2;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.ThriftSpanSerializerV2;
+import com.navercorp.pinpoint.common.server.util.AcceptedTimeService;
+import com.navercorp.pinpoint.common.server.util.SpanUtils;
 import com.navercorp.pinpoint.common.util.TransactionId;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Put;
@@ -17,6 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -43,6 +49,18 @@ public class HbaseTraceDaoV2 implements TraceDao {
     @Autowired
     private SpanChunkSerializerV2 spanChunkSerializer;
 
+    @Autowired
+    private ThriftSpanSerializerV2 thriftSpanSerializer;
+
+    @Autowired
+    private SpanFactory spanFactory;
+
+    @Autowired
+    private AcceptedTimeService acceptedTimeService;
+
+    @Value("#{pinpoint_collector_properties['collector.span.encoding.direct'] ?: true}")
+    private boolean directEncoding;
+
     @Autowired
     @Qualifier("traceRowKeyEncoderV2")
     private RowKeyEncoder<TransactionId> rowKeyEncoder;
@@ -73,6 +91,31 @@ public class HbaseTraceDaoV2 implements TraceDao {
 
 
 
+    @Override
+    public void insert(final TSpan tSpan) {
+        if (tSpan == null) {
+            throw new NullPointerException("tSpan must not be null");
+        }
+        if (!directEncoding) {
+            insert(spanFactory.buildSpanBo(tSpan));
+            return;
+        }
+
+        final long acceptedTime = acceptedTimeService.getAcceptedTime();
+
+        final TransactionId transactionId = SpanUtils.parseTransactionId(tSpan);
+        final byte[] rowKey = this.rowKeyEncoder.encodeRowKey(transactionId);
+        final Put put = new Put(rowKey, acceptedTime);
+
+        this.thriftSpanSerializer.serialize(tSpan, put, null);
+
+        TableName traceTableName = tableNameProvider.getTableName(TRACE_V2_STR);
+        boolean success = hbaseTemplate.asyncPut(traceTableName, put);
+        if (!success) {
+            hbaseTemplate.put(traceTableName, put);
+        }
+    }
+
     @Override
     public void insertSpanChunk(SpanChunkBo spanChunkBo) {
 
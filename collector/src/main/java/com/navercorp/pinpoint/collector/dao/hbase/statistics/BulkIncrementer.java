@@ -16,36 +16,206 @@
 
 package com.navercorp.pinpoint.collector.dao.hbase.statistics;
 
-import com.google.common.util.concurrent.AtomicLongMap;
-import com.navercorp.pinpoint.collector.util.AtomicLongMapUtils;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.common.util.CpuUtils;
 import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Increment;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Counters are striped by thread so that handler threads incrementing the same row do not contend on a single counter.
+ * Stripes share a single {@link RowInfo} instance per row/column, and are drained and summed per {@link RowInfo}
+ * before {@link RowKeyMerge} builds the increments.
+ *
  * @author HyunGil Jeong
  */
 public class BulkIncrementer {
 
+    private static final int DEFAULT_STRIPE_SIZE = CpuUtils.cpuCount() * 2;
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
     private final RowKeyMerge rowKeyMerge;
 
-    private final AtomicLongMap<RowInfo> counter = AtomicLongMap.create();
+    private final ConcurrentMap<RowInfo, AtomicLong>[] stripes;
+    private final int stripeMask;
+
+    // RowInfo instances shared by the stripes, cleared as rows are drained
+    private final ConcurrentMap<RowInfo, RowInfo> rowInfos = new ConcurrentHashMap<>();
+    private final ThreadLocal<RowInfoLookupKey> lookupKey = ThreadLocal.withInitial(RowInfoLookupKey::new);
 
     public BulkIncrementer(RowKeyMerge rowKeyMerge) {
+        this(rowKeyMerge, DEFAULT_STRIPE_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public BulkIncrementer(RowKeyMerge rowKeyMerge, int stripeSize) {
         this.rowKeyMerge = Objects.requireNonNull(rowKeyMerge, "rowKeyMerge must not be null");
+        Assert.isTrue(stripeSize > 0, "stripeSize must be greater than 0");
+
+        final int powerOfTwoStripeSize = ceilingPowerOfTwo(stripeSize);
+        this.stripes = new ConcurrentMap[powerOfTwoStripeSize];
+        for (int i = 0; i < powerOfTwoStripeSize; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.stripeMask = powerOfTwoStripeSize - 1;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        final int highestOneBit = Integer.highestOneBit(value);
+        if (highestOneBit == value) {
+            return value;
+        }
+        return highestOneBit << 1;
     }
 
     public void increment(TableName tableName, RowKey rowKey, ColumnName columnName) {
-        RowInfo rowInfo = new DefaultRowInfo(tableName, rowKey, columnName);
-        counter.incrementAndGet(rowInfo);
+        Objects.requireNonNull(tableName, "tableName must not be null");
+        Objects.requireNonNull(rowKey, "rowKey must not be null");
+        Objects.requireNonNull(columnName, "columnName must not be null");
+
+        final ConcurrentMap<RowInfo, AtomicLong> stripe = stripes[stripeIndex(Thread.currentThread().getId(), stripeMask)];
+        final RowInfoLookupKey lookupKey = this.lookupKey.get();
+        lookupKey.set(tableName, rowKey, columnName);
+        try {
+            increment(stripe, lookupKey);
+        } finally {
+            lookupKey.clear();
+        }
+    }
+
+    static int stripeIndex(long threadId, int stripeMask) {
+        // fibonacci hashing, pooled threads with contiguous ids do not pile up on neighbouring stripes
+        final long hash = threadId * GOLDEN_RATIO;
+        return (int) (hash >>> 32) & stripeMask;
+    }
+
+    private void increment(ConcurrentMap<RowInfo, AtomicLong> stripe, RowInfoLookupKey lookupKey) {
+        while (true) {
+            AtomicLong counter = stripe.get(lookupKey);
+            if (counter == null) {
+                counter = stripe.putIfAbsent(getRowInfo(lookupKey), new AtomicLong(1));
+                if (counter == null) {
+                    return;
+                }
+            }
+            while (true) {
+                final long count = counter.get();
+                if (count == 0) {
+                    // drained by getIncrements(), replace it with a new counter
+                    if (stripe.replace(lookupKey, counter, new AtomicLong(1))) {
+                        return;
+                    }
+                    break;
+                }
+                if (counter.compareAndSet(count, count + 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private RowInfo getRowInfo(RowInfoLookupKey lookupKey) {
+        final RowInfo rowInfo = rowInfos.get(lookupKey);
+        if (rowInfo != null) {
+            return rowInfo;
+        }
+        final RowInfo newRowInfo = new DefaultRowInfo(lookupKey.getTableName(), lookupKey.getRowKey(), lookupKey.getColumnName());
+        final RowInfo before = rowInfos.putIfAbsent(newRowInfo, newRowInfo);
+        if (before != null) {
+            return before;
+        }
+        return newRowInfo;
     }
 
     public Map<TableName, List<Increment>> getIncrements(RowKeyDistributorByHashPrefix rowKeyDistributor) {
-        final Map<RowInfo, Long> snapshot = AtomicLongMapUtils.remove(counter);
+        final Map<RowInfo, Long> snapshot = snapshot();
         return rowKeyMerge.createBulkIncrement(snapshot, rowKeyDistributor);
     }
+
+    private Map<RowInfo, Long> snapshot() {
+        final Map<RowInfo, Long> snapshot = new HashMap<>();
+        for (ConcurrentMap<RowInfo, AtomicLong> stripe : stripes) {
+            // Do not iterate keySet() directly while removing
+            final List<RowInfo> rowInfoList = new ArrayList<>(stripe.keySet());
+            for (RowInfo rowInfo : rowInfoList) {
+                final AtomicLong counter = stripe.get(rowInfo);
+                if (counter == null) {
+                    continue;
+                }
+                // a zero counter is never incremented again, see increment()
+                final long count = counter.getAndSet(0);
+                stripe.remove(rowInfo, counter);
+                if (count != 0) {
+                    // same row/column from different stripes become a single column increment
+                    snapshot.merge(rowInfo, count, Long::sum);
+                }
+            }
+        }
+        for (RowInfo rowInfo : snapshot.keySet()) {
+            rowInfos.remove(rowInfo);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Mutable key matching {@link DefaultRowInfo}, looks up existing counters without allocating a {@link RowInfo}.
+     */
+    private static class RowInfoLookupKey implements RowInfo {
+
+        private TableName tableName;
+        private RowKey rowKey;
+        private ColumnName columnName;
+
+        private void set(TableName tableName, RowKey rowKey, ColumnName columnName) {
+            this.tableName = tableName;
+            this.rowKey = rowKey;
+            this.columnName = columnName;
+        }
+
+        private void clear() {
+            set(null, null, null);
+        }
+
+        @Override
+        public TableName getTableName() {
+            return tableName;
+        }
+
+        @Override
+        public RowKey getRowKey() {
+            return rowKey;
+        }
+
+        @Override
+        public ColumnName getColumnName() {
+            return columnName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RowInfo)) return false;
+
+            RowInfo that = (RowInfo) o;
+
+            if (!tableName.equals(that.getTableName())) return false;
+            if (!rowKey.equals(that.getRowKey())) return false;
+            return columnName.equals(that.getColumnName());
+        }
+
+        @Override
+        public int hashCode() {
+            return DefaultRowInfo.hashCode(tableName, rowKey, columnName);
+        }
+    }
 }
@@ -50,12 +50,12 @@ public class RowKeyMerge {
         }
 
         final Map<TableName, List<Increment>> tableIncrementMap = new HashMap<>();
-        final Map<TableName, Map<RowKey, List<ColumnName>>> tableRowKeyMap = mergeRowKeys(data);
+        final Map<TableName, Map<RowKey, List<Map.Entry<RowInfo, Long>>>> tableRowKeyMap = mergeRowKeys(data);
 
-        for (Map.Entry<TableName, Map<RowKey, List<ColumnName>>> tableRowKeys : tableRowKeyMap.entrySet()) {
+        for (Map.Entry<TableName, Map<RowKey, List<Map.Entry<RowInfo, Long>>>> tableRowKeys : tableRowKeyMap.entrySet()) {
             final TableName tableName = tableRowKeys.getKey();
             final List<Increment> incrementList = new ArrayList<>();
-            for (Map.Entry<RowKey, List<ColumnName>> rowKeyEntry : tableRowKeys.getValue().entrySet()) {
+            for (Map.Entry<RowKey, List<Map.Entry<RowInfo, Long>>> rowKeyEntry : tableRowKeys.getValue().entrySet()) {
                 Increment increment = createIncrement(rowKeyEntry, rowKeyDistributorByHashPrefix);
                 incrementList.add(increment);
             }
@@ -64,7 +64,7 @@ public class RowKeyMerge {
         return tableIncrementMap;
     }
 
-    private Increment createIncrement(Map.Entry<RowKey, List<ColumnName>> rowKeyEntry, RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix) {
+    private Increment createIncrement(Map.Entry<RowKey, List<Map.Entry<RowInfo, Long>>> rowKeyEntry, RowKeyDistributorByHashPrefix rowKeyDistributorByHashPrefix) {
         RowKey rowKey = rowKeyEntry.getKey();
         byte[] key = null;
         if (rowKeyDistributorByHashPrefix == null) {
@@ -73,28 +73,26 @@ public class RowKeyMerge {
             key = rowKeyDistributorByHashPrefix.getDistributedKey(rowKey.getRowKey());
         }
         final Increment increment = new Increment(key);
-        for (ColumnName columnName : rowKeyEntry.getValue()) {
-            increment.addColumn(family, columnName.getColumnName(), columnName.getCallCount());
+        for (Map.Entry<RowInfo, Long> columnEntry : rowKeyEntry.getValue()) {
+            final ColumnName columnName = columnEntry.getKey().getColumnName();
+            increment.addColumn(family, columnName.getColumnName(), columnEntry.getValue());
         }
         logger.trace("create increment row:{}, column:{}", rowKey, rowKeyEntry.getValue());
         return increment;
     }
 
-    private Map<TableName, Map<RowKey, List<ColumnName>>> mergeRowKeys(Map<RowInfo, Long> data) {
-        final Map<TableName, Map<RowKey, List<ColumnName>>> tables = new HashMap<>();
+    private Map<TableName, Map<RowKey, List<Map.Entry<RowInfo, Long>>>> mergeRowKeys(Map<RowInfo, Long> data) {
+        final Map<TableName, Map<RowKey, List<Map.Entry<RowInfo, Long>>>> tables = new HashMap<>();
 
         for (Map.Entry<RowInfo, Long> entry : data.entrySet()) {
+            // callCount is carried with the entry, the RowInfo may still be a live key of BulkIncrementer and must not be modified
             final RowInfo rowInfo = entry.getKey();
-            // write callCount to columnName and throw away
-            long callCount = entry.getValue();
-            rowInfo.getColumnName().setCallCount(callCount);
-
             final TableName tableName = rowInfo.getTableName();
             final RowKey rowKey = rowInfo.getRowKey();
 
-            Map<RowKey, List<ColumnName>> rows = tables.computeIfAbsent(tableName, k -> new HashMap<>());
-            List<ColumnName> columnNames = rows.computeIfAbsent(rowKey, k -> new ArrayList<>());
-            columnNames.add(rowInfo.getColumnName());
+            Map<RowKey, List<Map.Entry<RowInfo, Long>>> rows = tables.computeIfAbsent(tableName, k -> new HashMap<>());
+            List<Map.Entry<RowInfo, Long>> columns = rows.computeIfAbsent(rowKey, k -> new ArrayList<>());
+            columns.add(entry);
         }
         return tables;
     }
@@ -19,9 +19,10 @@ package com.navercorp.pinpoint.collector.handler;
 import java.util.List;
 
 import com.navercorp.pinpoint.collector.dao.TraceDao;
-import com.navercorp.pinpoint.common.server.bo.SpanBo;
-import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
-import com.navercorp.pinpoint.common.server.bo.SpanFactory;
+import com.navercorp.pinpoint.common.server.bo.filter.EmptySpanEventFilter;
+import com.navercorp.pinpoint.common.server.bo.filter.SpanEventFilter;
+import com.navercorp.pinpoint.common.server.util.SpanEventUtils;
+import com.navercorp.pinpoint.common.server.util.SpanUtils;
 import com.navercorp.pinpoint.common.service.ServiceTypeRegistryService;
 import com.navercorp.pinpoint.common.trace.ServiceType;
 
@@ -34,6 +35,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import com.navercorp.pinpoint.collector.dao.ApplicationTraceIndexDao;
 import com.navercorp.pinpoint.collector.dao.HostApplicationMapDao;
 import com.navercorp.pinpoint.thrift.dto.TSpan;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
 
 import org.springframework.stereotype.Service;
 
@@ -61,8 +63,12 @@ public class SpanHandler implements SimpleHandler {
     @Autowired
     private ServiceTypeRegistryService registry;
 
-    @Autowired
-    private SpanFactory spanFactory;
+    private SpanEventFilter spanEventFilter = new EmptySpanEventFilter();
+
+    @Autowired(required = false)
+    public void setSpanEventFilter(SpanEventFilter spanEventFilter) {
+        this.spanEventFilter = spanEventFilter;
+    }
 
     public void handleSimple(TBase<?, ?> tbase) {
 
@@ -76,51 +82,48 @@ public class SpanHandler implements SimpleHandler {
                 logger.debug("Received SPAN={}", tSpan);
             }
 
-
-            final SpanBo spanBo = spanFactory.buildSpanBo(tSpan);
-
-            traceDao.insert(spanBo);
+            traceDao.insert(tSpan);
             applicationTraceIndexDao.insert(tSpan);
 
             // insert statistics info for server map
-            insertAcceptorHost(spanBo);
-            insertSpanStat(spanBo);
-            insertSpanEventStat(spanBo);
+            insertAcceptorHost(tSpan);
+            insertSpanStat(tSpan);
+            insertSpanEventStat(tSpan);
         } catch (Exception e) {
             logger.warn("Span handle error. Caused:{}. Span:{}",e.getMessage(), tbase, e);
         }
     }
 
 
-    private void insertSpanStat(SpanBo span) {
+    private void insertSpanStat(TSpan span) {
         final ServiceType applicationServiceType = getApplicationServiceType(span);
         final ServiceType spanServiceType = registry.findServiceType(span.getServiceType());
 
-        final boolean isError = span.getErrCode() != 0;
+        final boolean isError = span.getErr() != 0;
         int bugCheck = 0;
         if (span.getParentSpanId() == -1) {
             if (spanServiceType.isQueue()) {
                 // create virtual queue node
-                statisticsHandler.updateCaller(span.getAcceptorHost(), spanServiceType, span.getRemoteAddr(), span.getApplicationId(), applicationServiceType, span.getEndPoint(), span.getElapsed(), isError);
+                statisticsHandler.updateCaller(span.getAcceptorHost(), spanServiceType, span.getRemoteAddr(), span.getApplicationName(), applicationServiceType, span.getEndPoint(), span.getElapsed(), isError);
 
-                statisticsHandler.updateCallee(span.getApplicationId(), applicationServiceType, span.getAcceptorHost(), spanServiceType, span.getAgentId(), span.getElapsed(), isError);
+                statisticsHandler.updateCallee(span.getApplicationName(), applicationServiceType, span.getAcceptorHost(), spanServiceType, span.getAgentId(), span.getElapsed(), isError);
             } else {
                 // create virtual user
-                statisticsHandler.updateCaller(span.getApplicationId(), ServiceType.USER, span.getAgentId(), span.getApplicationId(), applicationServiceType, span.getAgentId(), span.getElapsed(), isError);
+                statisticsHandler.updateCaller(span.getApplicationName(), ServiceType.USER, span.getAgentId(), span.getApplicationName(), applicationServiceType, span.getAgentId(), span.getElapsed(), isError);
 
                 // update the span information of the current node (self)
-                statisticsHandler.updateCallee(span.getApplicationId(), applicationServiceType, span.getApplicationId(), ServiceType.USER, span.getAgentId(), span.getElapsed(), isError);
+                statisticsHandler.updateCallee(span.getApplicationName(), applicationServiceType, span.getApplicationName(), ServiceType.USER, span.getAgentId(), span.getElapsed(), isError);
             }
             bugCheck++;
         }
 
         // save statistics info only when parentApplicationContext exists
         // when drawing server map based on statistics info, you must know the application name of the previous node.
-        if (span.getParentApplicationId() != null) {
-            String parentApplicationName = span.getParentApplicationId();
+        if (span.getParentApplicationName() != null) {
+            String parentApplicationName = span.getParentApplicationName();
             logger.debug("Received parent application name. {}", parentApplicationName);
 
-            ServiceType parentApplicationType = registry.findServiceType(span.getParentApplicationServiceType());
+            ServiceType parentApplicationType = registry.findServiceType(span.getParentApplicationType());
 
             // create virtual queue node if current' span's service type is a queue AND :
             // 1. parent node's application service type is not a queue (it may have come from a queue that is traced)
@@ -130,14 +133,14 @@ public class SpanHandler implements SimpleHandler {
                     // emulate virtual queue node's accept Span and record it's acceptor host
                     hostApplicationMapDao.insert(span.getRemoteAddr(), span.getAcceptorHost(), spanServiceType.getCode(), parentApplicationName, parentApplicationType.getCode());
                     // emulate virtual queue node's send SpanEvent
-                    statisticsHandler.updateCaller(span.getAcceptorHost(), spanServiceType, span.getRemoteAddr(), span.getApplicationId(), applicationServiceType, span.getEndPoint(), span.getElapsed(), isError);
+                    statisticsHandler.updateCaller(span.getAcceptorHost(), spanServiceType, span.getRemoteAddr(), span.getApplicationName(), applicationServiceType, span.getEndPoint(), span.getElapsed(), isError);
 
                     parentApplicationName = span.getAcceptorHost();
                     parentApplicationType = spanServiceType;
                 }
             }
 
-            statisticsHandler.updateCallee(span.getApplicationId(), applicationServiceType, parentApplicationName, parentApplicationType, span.getAgentId(), span.getElapsed(), isError);
+            statisticsHandler.updateCallee(span.getApplicationName(), applicationServiceType, parentApplicationName, parentApplicationType, span.getAgentId(), span.getElapsed(), isError);
             bugCheck++;
         }
 
@@ -146,16 +149,16 @@ public class SpanHandler implements SimpleHandler {
         // it is odd to record reversely, because of already recording the caller data at previous node.
         // the data may be different due to timeout or network error.
         
-        statisticsHandler.updateResponseTime(span.getApplicationId(), applicationServiceType, span.getAgentId(), span.getElapsed(), isError);
+        statisticsHandler.updateResponseTime(span.getApplicationName(), applicationServiceType, span.getAgentId(), span.getElapsed(), isError);
 
         if (bugCheck != 1) {
             logger.warn("ambiguous span found(bug). span:{}", span);
         }
     }
 
-    private void insertSpanEventStat(SpanBo span) {
+    private void insertSpanEventStat(TSpan span) {
 
-        final List<SpanEventBo> spanEventList = span.getSpanEventBoList();
+        final List<TSpanEvent> spanEventList = span.getSpanEventList();
         if (CollectionUtils.isEmpty(spanEventList)) {
             return;
         }
@@ -164,7 +167,10 @@ public class SpanHandler implements SimpleHandler {
 
         logger.debug("handle spanEvent size:{}", spanEventList.size());
         // TODO need to batch update later.
-        for (SpanEventBo spanEvent : spanEventList) {
+        for (TSpanEvent spanEvent : spanEventList) {
+            if (!spanEventFilter.filter(spanEvent)) {
+                continue;
+            }
             final ServiceType spanEventType = registry.findServiceType(spanEvent.getServiceType());
             if (!spanEventType.isRecordStatistics()) {
                 continue;
@@ -172,31 +178,31 @@ public class SpanHandler implements SimpleHandler {
 
             // if terminal update statistics
             final int elapsed = spanEvent.getEndElapsed();
-            final boolean hasException = spanEvent.hasException();
+            final boolean hasException = SpanEventUtils.hasException(spanEvent);
 
             /*
              * save information to draw a server map based on statistics
              */
             // save the information of caller (the spanevent that called span)
-            statisticsHandler.updateCaller(span.getApplicationId(), applicationServiceType, span.getAgentId(), spanEvent.getDestinationId(), spanEventType, spanEvent.getEndPoint(), elapsed, hasException);
+            statisticsHandler.updateCaller(span.getApplicationName(), applicationServiceType, span.getAgentId(), spanEvent.getDestinationId(), spanEventType, spanEvent.getEndPoint(), elapsed, hasException);
 
             // save the information of callee (the span that spanevent called)
-            statisticsHandler.updateCallee(spanEvent.getDestinationId(), spanEventType, span.getApplicationId(), applicationServiceType, span.getEndPoint(), elapsed, hasException);
+            statisticsHandler.updateCallee(spanEvent.getDestinationId(), spanEventType, span.getApplicationName(), applicationServiceType, span.getEndPoint(), elapsed, hasException);
         }
     }
 
-    private void insertAcceptorHost(SpanBo span) {
+    private void insertAcceptorHost(TSpan span) {
         // save host application map
         // acceptor host is set at profiler module only when the span is not the kind of root span
         final String acceptorHost = span.getAcceptorHost();
         if (acceptorHost == null) {
             return;
         }
-        final String spanApplicationName = span.getApplicationId();
+        final String spanApplicationName = span.getApplicationName();
         final short applicationServiceTypeCode = getApplicationServiceType(span).getCode();
 
-        final String parentApplicationName = span.getParentApplicationId();
-        final short parentServiceType = span.getParentApplicationServiceType();
+        final String parentApplicationName = span.getParentApplicationName();
+        final short parentServiceType = span.getParentApplicationType();
 
         final ServiceType spanServiceType = registry.findServiceType(span.getServiceType());
         if (spanServiceType.isQueue()) {
@@ -206,9 +212,9 @@ public class SpanHandler implements SimpleHandler {
         }
     }
     
-    private ServiceType getApplicationServiceType(SpanBo span) {
+    private ServiceType getApplicationServiceType(TSpan span) {
         // Check if applicationServiceType is set. If not, use span's service type.
-        final short applicationServiceTypeCode = span.getApplicationServiceType();
+        final short applicationServiceTypeCode = SpanUtils.getApplicationServiceType(span);
         return registry.findServiceType(applicationServiceTypeCode);
     }
 }
@@ -21,6 +21,7 @@ import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricSet;
 import com.navercorp.pinpoint.common.hbase.HBaseAsyncOperation;
+import com.navercorp.pinpoint.common.hbase.SpillableHBaseAsyncOperation;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -38,6 +39,12 @@ public class HBaseAsyncOperationMetrics implements MetricSet {
     private static final String WAITING_COUNT = HBASE_ASYNC_OPS + ".waiting.count";
     private static final String AVERAGE_LATENCY = HBASE_ASYNC_OPS + ".latency.value";
 
+    private static final String HBASE_ASYNC_SPILL = "hbase.async.spill";
+    private static final String SPILL_DEPTH = HBASE_ASYNC_SPILL + ".depth";
+    private static final String SPILL_COUNT = HBASE_ASYNC_SPILL + ".count";
+    private static final String SPILL_REJECTED_COUNT = HBASE_ASYNC_SPILL + ".rejected.count";
+    private static final String SPILL_REPLAYED_COUNT = HBASE_ASYNC_SPILL + ".replayed.count";
+
     private final HBaseAsyncOperation hBaseAsyncOperation;
 
     public HBaseAsyncOperationMetrics(HBaseAsyncOperation hBaseAsyncOperation) {
@@ -85,7 +92,39 @@ public class HBaseAsyncOperationMetrics implements MetricSet {
             }
         });
 
+        if (hBaseAsyncOperation instanceof SpillableHBaseAsyncOperation) {
+            addSpillGauges(gauges, (SpillableHBaseAsyncOperation) hBaseAsyncOperation);
+        }
+
         return Collections.unmodifiableMap(gauges);
     }
 
+    private void addSpillGauges(Map<String, Metric> gauges, final SpillableHBaseAsyncOperation spillableAsyncOperation) {
+        gauges.put(SPILL_DEPTH, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return spillableAsyncOperation.getSpillDepth();
+            }
+        });
+        gauges.put(SPILL_COUNT, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return spillableAsyncOperation.getSpilledCount();
+            }
+        });
+        gauges.put(SPILL_REJECTED_COUNT, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return spillableAsyncOperation.getSpillRejectedCount();
+            }
+        });
+        // replay rate is the delta of this counter between two reports
+        gauges.put(SPILL_REPLAYED_COUNT, new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return spillableAsyncOperation.getReplayedCount();
+            }
+        });
+    }
+
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.monitor;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.navercorp.pinpoint.rpc.client.RequestLatencyHistogram;
+import com.navercorp.pinpoint.rpc.client.RequestLatencyRecorder;
+
+import java.util.Objects;
+
+/**
+ * Registers the request latency histograms of a {@link RequestLatencyRecorder} as gauges, one set per request type.
+ */
+public class RequestLatencyMetrics implements RequestLatencyRecorder.HistogramListener {
+
+    private final String name;
+    private final MetricRegistry metricRegistry;
+
+    public RequestLatencyMetrics(String name, RequestLatencyRecorder requestLatencyRecorder, MetricRegistry metricRegistry) {
+        this.name = Objects.requireNonNull(name, "name must not be null");
+        Objects.requireNonNull(requestLatencyRecorder, "requestLatencyRecorder must not be null");
+        this.metricRegistry = Objects.requireNonNull(metricRegistry, "metricRegistry must not be null");
+        requestLatencyRecorder.addHistogramListener(this);
+    }
+
+    @Override
+    public void histogramAdded(final RequestLatencyHistogram histogram) {
+        final String prefix = MetricRegistry.name(name, "type" + histogram.getRequestType());
+
+        final long[] upperBounds = RequestLatencyHistogram.getUpperBounds();
+        for (int i = 0; i <= upperBounds.length; i++) {
+            final int slot = i;
+            final String slotName = slot < upperBounds.length ? "le" + upperBounds[slot] + "ms" : "gt" + upperBounds[upperBounds.length - 1] + "ms";
+            register(MetricRegistry.name(prefix, slotName), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return histogram.getCount(slot);
+                }
+            });
+        }
+        register(MetricRegistry.name(prefix, "avg"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return histogram.getAvgElapsed();
+            }
+        });
+        register(MetricRegistry.name(prefix, "max"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return histogram.getMaxElapsed();
+            }
+        });
+        register(MetricRegistry.name(prefix, "timeout"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return histogram.getTimeoutCount();
+            }
+        });
+        register(MetricRegistry.name(prefix, "fail"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return histogram.getFailCount();
+            }
+        });
+    }
+
+    private void register(String metricName, Gauge<Long> gauge) {
+        // a histogram added while this listener was being attached may be reported twice
+        if (metricRegistry.getMetrics().containsKey(metricName)) {
+            return;
+        }
+        try {
+            metricRegistry.register(metricName, gauge);
+        } catch (IllegalArgumentException ignore) {
+            // registered concurrently
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.receiver;
+
+import com.navercorp.pinpoint.rpc.netty4.Netty4PinpointServerAcceptor;
+import com.navercorp.pinpoint.rpc.server.ChannelFilter;
+import com.navercorp.pinpoint.rpc.server.PinpointServerAcceptor;
+import com.navercorp.pinpoint.rpc.server.ServerAcceptor;
+import org.springframework.beans.factory.FactoryBean;
+
+import java.util.Objects;
+
+/**
+ * Creates the agent {@link ServerAcceptor} on the configured transport, netty3 (default) or netty4.
+ */
+public class ServerAcceptorFactoryBean implements FactoryBean<ServerAcceptor> {
+
+    public static final String NETTY3 = "netty3";
+    public static final String NETTY4 = "netty4";
+
+    private final ChannelFilter channelFilter;
+    private String transport = NETTY3;
+
+    public ServerAcceptorFactoryBean(ChannelFilter channelFilter) {
+        this.channelFilter = Objects.requireNonNull(channelFilter, "channelFilter must not be null");
+    }
+
+    public void setTransport(String transport) {
+        this.transport = Objects.requireNonNull(transport, "transport must not be null");
+    }
+
+    @Override
+    public ServerAcceptor getObject() throws Exception {
+        if (NETTY3.equalsIgnoreCase(transport)) {
+            return new PinpointServerAcceptor(channelFilter);
+        }
+        if (NETTY4.equalsIgnoreCase(transport)) {
+            return new Netty4PinpointServerAcceptor(channelFilter);
+        }
+        throw new IllegalArgumentException("unknown transport:" + transport);
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return ServerAcceptor.class;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+}
@@ -16,9 +16,13 @@
 
 package com.navercorp.pinpoint.collector.receiver;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
 import com.navercorp.pinpoint.collector.receiver.udp.BaseUDPHandlerFactory;
+import com.navercorp.pinpoint.collector.receiver.udp.DatagramReceiver;
 import com.navercorp.pinpoint.collector.receiver.udp.NetworkAvailabilityCheckPacketFilter;
 import com.navercorp.pinpoint.collector.receiver.udp.PacketHandlerFactory;
+import com.navercorp.pinpoint.collector.receiver.udp.ReusePortUDPReceiver;
 import com.navercorp.pinpoint.collector.receiver.udp.TBaseFilter;
 import com.navercorp.pinpoint.collector.receiver.udp.TBaseFilterChain;
 import com.navercorp.pinpoint.collector.receiver.udp.UDPReceiver;
@@ -51,8 +55,12 @@ public class UDPReceiverBean implements InitializingBean, DisposableBean, BeanNa
     private int bindPort;
     private int udpBufferSize;
 
-    private UDPReceiver udpReceiver;
+    // 0 : UDPReceiver, 1 or more : ReusePortUDPReceiver
+    private int socketCount = 0;
+
+    private DatagramReceiver udpReceiver;
     private Executor executor;
+    private MetricRegistry metricRegistry;
 
     private DispatchHandler dispatchHandler;
     private AddressFilter addressFilter;
@@ -72,16 +80,22 @@ public class UDPReceiverBean implements InitializingBean, DisposableBean, BeanNa
 
         udpReceiver = createUdpReceiver(beanName, this.bindIp, bindPort, udpBufferSize, executor, dispatchHandler, addressFilter);
         udpReceiver.start();
+        if (metricRegistry != null && udpReceiver instanceof MetricSet) {
+            metricRegistry.registerAll((MetricSet) udpReceiver);
+        }
     }
 
 
-    private UDPReceiver createUdpReceiver(String name, String bindIp, int port, int udpBufferSize, Executor executor, DispatchHandler dispatchHandler, AddressFilter ignoreAddressFilter) {
+    private DatagramReceiver createUdpReceiver(String name, String bindIp, int port, int udpBufferSize, Executor executor, DispatchHandler dispatchHandler, AddressFilter ignoreAddressFilter) {
         TBaseFilterChain filterChain = newTBaseFilterChain();
         @SuppressWarnings("unchecked")
         PacketHandlerFactory<DatagramPacket> packetHandlerFactory = new BaseUDPHandlerFactory<DatagramPacket>(dispatchHandler, filterChain, ignoreAddressFilter);
 
         InetSocketAddress bindAddress = new InetSocketAddress(bindIp, port);
 
+        if (socketCount > 0) {
+            return new ReusePortUDPReceiver(name, packetHandlerFactory, executor, udpBufferSize, bindAddress, socketCount, datagramPoolSize);
+        }
         ObjectPoolFactory<DatagramPacket> packetFactory = new DatagramPacketFactory();
         ObjectPool<DatagramPacket> pool = new DefaultObjectPool<>(packetFactory, datagramPoolSize);
         return new UDPReceiver(name, packetHandlerFactory, executor, udpBufferSize, bindAddress, pool);
@@ -133,6 +147,14 @@ public class UDPReceiverBean implements InitializingBean, DisposableBean, BeanNa
         this.datagramPoolSize = datagramPoolSize;
     }
 
+    public void setSocketCount(int socketCount) {
+        this.socketCount = socketCount;
+    }
+
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
     @Override
     public void setBeanName(String name) {
         this.beanName = name;
@@ -32,7 +32,7 @@ import com.navercorp.pinpoint.rpc.packet.PingPayloadPacket;
 import com.navercorp.pinpoint.rpc.packet.RequestPacket;
 import com.navercorp.pinpoint.rpc.packet.SendPacket;
 import com.navercorp.pinpoint.rpc.server.PinpointServer;
-import com.navercorp.pinpoint.rpc.server.PinpointServerAcceptor;
+import com.navercorp.pinpoint.rpc.server.ServerAcceptor;
 import com.navercorp.pinpoint.rpc.server.ServerMessageListener;
 import com.navercorp.pinpoint.rpc.server.handler.ServerStateChangeEventHandler;
 import com.navercorp.pinpoint.rpc.util.MapUtils;
@@ -56,7 +56,7 @@ public class AgentBaseDataReceiver {
 
     private final Logger logger = LoggerFactory.getLogger(AgentBaseDataReceiver.class);
 
-    private PinpointServerAcceptor acceptor;
+    private ServerAcceptor acceptor;
 
     private final AgentBaseDataReceiverConfiguration configuration;
 
@@ -76,11 +76,11 @@ public class AgentBaseDataReceiver {
     @Resource(name = "channelStateChangeEventHandlers")
     private List<ServerStateChangeEventHandler> channelStateChangeEventHandlers = Collections.emptyList();
 
-    public AgentBaseDataReceiver(AgentBaseDataReceiverConfiguration configuration, Executor executor, PinpointServerAcceptor acceptor, DispatchHandler dispatchHandler) {
+    public AgentBaseDataReceiver(AgentBaseDataReceiverConfiguration configuration, Executor executor, ServerAcceptor acceptor, DispatchHandler dispatchHandler) {
         this(configuration, executor, acceptor, dispatchHandler, null);
     }
 
-    public AgentBaseDataReceiver(AgentBaseDataReceiverConfiguration configuration, Executor executor, PinpointServerAcceptor acceptor, DispatchHandler dispatchHandler, ZookeeperClusterService service) {
+    public AgentBaseDataReceiver(AgentBaseDataReceiverConfiguration configuration, Executor executor, ServerAcceptor acceptor, DispatchHandler dispatchHandler, ZookeeperClusterService service) {
         this.configuration = Assert.requireNonNull(configuration, "config must not be null");
         this.executor = Objects.requireNonNull(executor, "executor must not be null");
         this.acceptor = Objects.requireNonNull(acceptor, "acceptor must not be null");
@@ -149,7 +149,7 @@ public class AgentBaseDataReceiver {
         }
     }
 
-    private void prepare(PinpointServerAcceptor acceptor) {
+    private void prepare(ServerAcceptor acceptor) {
         if (clusterService != null && clusterService.isEnable()) {
             acceptor.addStateChangeEventHandler(clusterService.getChannelStateChangeEventHandler());
         }
@@ -19,9 +19,13 @@ package com.navercorp.pinpoint.collector.receiver.udp;
 import com.navercorp.pinpoint.collector.receiver.DispatchHandler;
 import com.navercorp.pinpoint.collector.util.PacketUtils;
 import com.navercorp.pinpoint.common.server.util.AddressFilter;
+import com.navercorp.pinpoint.thrift.io.ChunkHeaderTBaseDeserializer;
+import com.navercorp.pinpoint.thrift.io.ChunkHeaderTBaseDeserializerFactory;
 import com.navercorp.pinpoint.thrift.io.DeserializerFactory;
+import com.navercorp.pinpoint.thrift.io.Header;
 import com.navercorp.pinpoint.thrift.io.HeaderTBaseDeserializer;
 import com.navercorp.pinpoint.thrift.io.HeaderTBaseDeserializerFactory;
+import com.navercorp.pinpoint.thrift.io.TBaseLocator;
 import com.navercorp.pinpoint.thrift.io.ThreadLocalHeaderTBaseDeserializerFactory;
 import org.apache.thrift.TBase;
 import org.apache.thrift.TException;
@@ -32,6 +36,7 @@ import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketAddress;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -45,6 +50,10 @@ public class BaseUDPHandlerFactory<T extends DatagramPacket> implements PacketHa
 
     private final DeserializerFactory<HeaderTBaseDeserializer> deserializerFactory = new ThreadLocalHeaderTBaseDeserializerFactory<>(new HeaderTBaseDeserializerFactory());
 
+    // several messages packed into one datagram. see PackedUdpDataSender
+    private final DeserializerFactory<ChunkHeaderTBaseDeserializer> chunkDeserializerFactory = new ThreadLocalHeaderTBaseDeserializerFactory<>(ChunkHeaderTBaseDeserializerFactory.DEFAULT_FACTORY);
+    private final TBaseLocator chunkLocator = ChunkHeaderTBaseDeserializerFactory.DEFAULT_FACTORY.getLocator();
+
     private final DispatchHandler dispatchHandler;
 
     private final TBaseFilter<SocketAddress> filter;
@@ -75,7 +84,11 @@ public class BaseUDPHandlerFactory<T extends DatagramPacket> implements PacketHa
             if (isIgnoreAddress(packet.getAddress())) {
                 return;
             }
-            
+            if (isChunkPacket(packet)) {
+                receiveChunk(localSocket, packet);
+                return;
+            }
+
             final HeaderTBaseDeserializer deserializer = deserializerFactory.createDeserializer();
             SocketAddress socketAddress = packet.getSocketAddress();
             TBase<?, ?> tBase = null;
@@ -105,6 +118,48 @@ public class BaseUDPHandlerFactory<T extends DatagramPacket> implements PacketHa
             }
         }
         
+        private void receiveChunk(DatagramSocket localSocket, T packet) {
+            final ChunkHeaderTBaseDeserializer deserializer = chunkDeserializerFactory.createDeserializer();
+            final SocketAddress socketAddress = packet.getSocketAddress();
+            try {
+                final List<TBase<?, ?>> tBaseList = deserializer.deserialize(packet.getData(), packet.getOffset(), packet.getLength());
+                for (TBase<?, ?> tBase : tBaseList) {
+                    if (filter.filter(localSocket, tBase, socketAddress) == TBaseFilter.BREAK) {
+                        continue;
+                    }
+                    // dispatch signifies business logic execution
+                    dispatchHandler.dispatchSendMessage(tBase);
+                }
+            } catch (TException e) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("chunk packet serialize error. SendSocketAddress:{} Cause:{}", socketAddress, e.getMessage(), e);
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("packet dump hex:{}", PacketUtils.dumpDatagramPacket(packet));
+                }
+            } catch (Exception e) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("Unexpected error. SendSocketAddress:{} Cause:{}", socketAddress, e.getMessage(), e);
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("packet dump hex:{}", PacketUtils.dumpDatagramPacket(packet));
+                }
+            }
+        }
+
+        private boolean isChunkPacket(T packet) {
+            if (packet.getLength() < Header.HEADER_SIZE) {
+                return false;
+            }
+            final byte[] data = packet.getData();
+            final int offset = packet.getOffset();
+            if (data[offset] != Header.SIGNATURE) {
+                return false;
+            }
+            final short type = (short) (((data[offset + 2] & 0xff) << 8) | (data[offset + 3] & 0xff));
+            return chunkLocator.isChunkHeader(type);
+        }
+
         private boolean isIgnoreAddress(InetAddress remoteAddress) {
             if (remoteAddress == null) {
                 return false;
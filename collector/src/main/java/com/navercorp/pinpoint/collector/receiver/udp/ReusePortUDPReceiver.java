@@ -0,0 +1,337 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.receiver.udp;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import com.navercorp.pinpoint.collector.util.DatagramPacketFactory;
+import com.navercorp.pinpoint.collector.util.DefaultObjectPool;
+import com.navercorp.pinpoint.collector.util.ObjectPool;
+import com.navercorp.pinpoint.collector.util.PooledObject;
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Binds several {@link DatagramChannel}s to the same address with SO_REUSEPORT, so the kernel spreads packets over the sockets.
+ * Each socket has its own reader thread, direct receive buffer and packet pool.
+ * Falls back to one socket shared by all reader threads when SO_REUSEPORT is not supported by the JVM or the OS.
+ */
+public class ReusePortUDPReceiver implements DatagramReceiver, MetricSet {
+
+    private static final SocketOption<Boolean> SO_REUSEPORT = findReusePortOption();
+
+    private final Logger logger;
+
+    private final String name;
+
+    private final InetSocketAddress bindAddress;
+
+    private final int socketCount;
+
+    private final int receiveBufferSize;
+
+    private final int packetPoolSize;
+
+    private final Executor worker;
+
+    private final PacketHandlerFactory<DatagramPacket> packetHandlerFactory;
+
+    private final List<Reader> readers = new ArrayList<>();
+
+    private ExecutorService ioExecutor;
+
+    private final AtomicBoolean state = new AtomicBoolean(true);
+
+    public ReusePortUDPReceiver(String name, PacketHandlerFactory<DatagramPacket> packetHandlerFactory, Executor worker,
+                                int receiveBufferSize, InetSocketAddress bindAddress, int socketCount, int packetPoolSize) {
+        this.name = Objects.requireNonNull(name);
+        this.logger = LoggerFactory.getLogger(name);
+
+        this.bindAddress = Objects.requireNonNull(bindAddress, "bindAddress must not be null");
+        this.packetHandlerFactory = Objects.requireNonNull(packetHandlerFactory, "packetHandlerFactory must not be null");
+        this.worker = Objects.requireNonNull(worker, "worker must not be null");
+
+        Assert.isTrue(receiveBufferSize > 0, "receiveBufferSize must be greater than 0");
+        Assert.isTrue(socketCount > 0, "socketCount must be greater than 0");
+        Assert.isTrue(packetPoolSize > 0, "packetPoolSize must be greater than 0");
+        this.receiveBufferSize = receiveBufferSize;
+        this.socketCount = socketCount;
+        this.packetPoolSize = packetPoolSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> findReusePortOption() {
+        // StandardSocketOptions.SO_REUSEPORT is available since jdk9
+        try {
+            final Field field = StandardSocketOptions.class.getField("SO_REUSEPORT");
+            return (SocketOption<Boolean>) field.get(null);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (logger.isInfoEnabled()) {
+            logger.info("{} start() started", name);
+        }
+
+        final List<DatagramChannel> channels = openChannels();
+        final int poolSizePerReader = Math.max(1, packetPoolSize / socketCount);
+        for (int i = 0; i < socketCount; i++) {
+            // shared socket when SO_REUSEPORT is not supported
+            final DatagramChannel channel = channels.get(i % channels.size());
+            final ObjectPool<DatagramPacket> pool = new DefaultObjectPool<>(new DatagramPacketFactory(), poolSizePerReader);
+            readers.add(new Reader(i, channel, pool));
+        }
+
+        final ThreadFactory threadFactory = new PinpointThreadFactory(name + "-Io", true);
+        this.ioExecutor = Executors.newFixedThreadPool(socketCount, threadFactory);
+        for (Reader reader : readers) {
+            ioExecutor.execute(reader);
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info("{} start() completed. socket:{}, reader:{}", name, channels.size(), readers.size());
+        }
+    }
+
+    private List<DatagramChannel> openChannels() {
+        final DatagramChannel first = openChannel(true);
+        if (!isReusePort(first)) {
+            logger.warn("SO_REUSEPORT not supported. {} readers share one socket", socketCount);
+            bindChannel(first);
+            return Collections.singletonList(first);
+        }
+
+        final List<DatagramChannel> channels = new ArrayList<>(socketCount);
+        channels.add(first);
+        for (int i = 1; i < socketCount; i++) {
+            channels.add(openChannel(true));
+        }
+        for (DatagramChannel channel : channels) {
+            bindChannel(channel);
+        }
+        return channels;
+    }
+
+    private boolean isReusePort(DatagramChannel channel) {
+        if (SO_REUSEPORT == null) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(channel.getOption(SO_REUSEPORT));
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private DatagramChannel openChannel(boolean reusePort) {
+        try {
+            final DatagramChannel channel = DatagramChannel.open();
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+            if (logger.isWarnEnabled()) {
+                final int checkReceiveBufferSize = channel.getOption(StandardSocketOptions.SO_RCVBUF);
+                if (receiveBufferSize != checkReceiveBufferSize) {
+                    logger.warn("DatagramChannel.setOption(SO_RCVBUF) error. {}!={}", receiveBufferSize, checkReceiveBufferSize);
+                }
+            }
+            if (reusePort && SO_REUSEPORT != null && channel.supportedOptions().contains(SO_REUSEPORT)) {
+                channel.setOption(SO_REUSEPORT, Boolean.TRUE);
+            }
+            return channel;
+        } catch (IOException ex) {
+            throw new RuntimeException("DatagramChannel create Fail. Caused:" + ex.getMessage(), ex);
+        }
+    }
+
+    private void bindChannel(DatagramChannel channel) {
+        try {
+            logger.info("DatagramChannel.bind() {}/{}", bindAddress.getHostString(), bindAddress.getPort());
+            channel.bind(bindAddress);
+        } catch (IOException ex) {
+            throw new IllegalStateException("DatagramChannel bind Fail. port:" + bindAddress.getPort() + " Caused:" + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (logger.isInfoEnabled()) {
+            logger.info("{} shutdown() started", this.name);
+        }
+
+        state.set(false);
+        for (Reader reader : readers) {
+            reader.close();
+        }
+        if (ioExecutor != null) {
+            ioExecutor.shutdown();
+            try {
+                ioExecutor.awaitTermination(1000 * 10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                logger.info("{}.shutdown() Interrupted", name, e);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info("{} shutdown() completed", this.name);
+        }
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        final Map<String, Metric> gauges = new HashMap<>();
+        for (final Reader reader : readers) {
+            final String prefix = MetricRegistry.name(name, "socket" + reader.id);
+            gauges.put(MetricRegistry.name(prefix, "received"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return reader.receivedCount.sum();
+                }
+            });
+            gauges.put(MetricRegistry.name(prefix, "dropped"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return reader.droppedCount.sum();
+                }
+            });
+        }
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    private class Reader implements Runnable {
+
+        private final int id;
+        private final DatagramChannel channel;
+        private final DatagramSocket localSocket;
+        private final ObjectPool<DatagramPacket> pool;
+        // Caution. reader thread only
+        private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(DatagramPacketFactory.UDP_MAX_PACKET_LENGTH);
+
+        private final LongAdder receivedCount = new LongAdder();
+        private final LongAdder droppedCount = new LongAdder();
+
+        private Reader(int id, DatagramChannel channel, ObjectPool<DatagramPacket> pool) {
+            this.id = id;
+            this.channel = channel;
+            this.localSocket = channel.socket();
+            this.pool = pool;
+        }
+
+        @Override
+        public void run() {
+            if (logger.isInfoEnabled()) {
+                logger.info("start ioThread localAddress:{}, IoThread:{}", localSocket.getLocalSocketAddress(), Thread.currentThread().getName());
+            }
+
+            while (state.get()) {
+                final PooledObject<DatagramPacket> pooledPacket = read0();
+                if (pooledPacket == null) {
+                    continue;
+                }
+                try {
+                    worker.execute(new Task(localSocket, packetHandlerFactory, pooledPacket));
+                } catch (RejectedExecutionException e) {
+                    droppedCount.increment();
+                    pooledPacket.returnObject();
+                }
+            }
+
+            if (logger.isInfoEnabled()) {
+                logger.info("stop ioThread IoThread:{}", Thread.currentThread().getName());
+            }
+        }
+
+        private PooledObject<DatagramPacket> read0() {
+            final SocketAddress remoteAddress;
+            try {
+                receiveBuffer.clear();
+                remoteAddress = channel.receive(receiveBuffer);
+            } catch (ClosedChannelException e) {
+                // shutdown
+                return null;
+            } catch (IOException e) {
+                if (state.get()) {
+                    logger.error("IoError, Caused:{}", e.getMessage(), e);
+                }
+                return null;
+            }
+            if (remoteAddress == null) {
+                return null;
+            }
+            receiveBuffer.flip();
+            final int length = receiveBuffer.remaining();
+            if (length == 0) {
+                // L4 health check packet
+                return null;
+            }
+            receivedCount.increment();
+
+            final PooledObject<DatagramPacket> pooledObject = pool.getObject();
+            if (pooledObject == null) {
+                droppedCount.increment();
+                logger.error("datagramPacketPool is empty");
+                return null;
+            }
+            final DatagramPacket packet = pooledObject.getObject();
+            receiveBuffer.get(packet.getData(), 0, length);
+            packet.setLength(length);
+            packet.setSocketAddress(remoteAddress);
+            return pooledObject;
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("DatagramChannel.close() error. Caused:{}", e.getMessage(), e);
+            }
+        }
+    }
+
+}
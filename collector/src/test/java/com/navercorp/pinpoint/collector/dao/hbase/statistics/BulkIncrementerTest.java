@@ -225,6 +225,129 @@ public class BulkIncrementerTest {
         }
     }
 
+    @Test
+    public void stripesAggregated() throws Exception {
+        // Given
+        final BulkIncrementer stripedIncrementer = new BulkIncrementer(new RowKeyMerge(CF), 4);
+        TableName tableA = TableName.valueOf("A");
+        final int numThreads = 8;
+        final int callCountPerThread = 1000;
+        TestDataSet testDataSetA_0_0 = new TestDataSet(tableA, 0, 0, numThreads * callCountPerThread);
+        final List<TestData> testDatas = testDataSetA_0_0.getTestDatas();
+
+        // When
+        List<Thread> threads = new ArrayList<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            final List<TestData> partition = testDatas.subList(i * callCountPerThread, (i + 1) * callCountPerThread);
+            Thread thread = new Thread(() -> {
+                for (TestData testData : partition) {
+                    stripedIncrementer.increment(testData.getTableName(), testData.getRowKey(), testData.getColumnName());
+                }
+            }, "Incrementer-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        // Then
+        Map<TableName, List<Increment>> incrementMap = stripedIncrementer.getIncrements(rowKeyDistributor);
+        Assert.assertEquals(1, incrementMap.get(tableA).size());
+        TestVerifier verifier = new TestVerifier(incrementMap);
+        verifier.verify(testDataSetA_0_0);
+
+        Assert.assertTrue(stripedIncrementer.getIncrements(rowKeyDistributor).isEmpty());
+    }
+
+    @Test
+    public void concurrentFlush_calleeColumnName() throws Exception {
+        // Given
+        final BulkIncrementer stripedIncrementer = new BulkIncrementer(new RowKeyMerge(CF), 2);
+        final TableName tableA = TableName.valueOf("A");
+        final RowKey rowKey = new CallRowKey("callApplication", (short) 1000, 0L);
+        final int numThreads = 8;
+        final int callCountPerThread = 200000;
+        final ColumnName expectedColumnName = newCalleeColumnName();
+
+        // When
+        final CountDownLatch completeLatch = new CountDownLatch(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < callCountPerThread; j++) {
+                    // a new column name per call, as the statistics daos do
+                    stripedIncrementer.increment(tableA, rowKey, newCalleeColumnName());
+                }
+                completeLatch.countDown();
+            }, "Incrementer-" + i).start();
+        }
+        long callCount = 0;
+        do {
+            callCount += sumCallCount(stripedIncrementer.getIncrements(rowKeyDistributor).get(tableA), expectedColumnName);
+        } while (completeLatch.getCount() != 0);
+        Assert.assertTrue(completeLatch.await(30L, TimeUnit.SECONDS));
+        callCount += sumCallCount(stripedIncrementer.getIncrements(rowKeyDistributor).get(tableA), expectedColumnName);
+
+        // Then
+        Assert.assertEquals(numThreads * callCountPerThread, callCount);
+
+        // keys handed out during the flushes are still usable
+        stripedIncrementer.increment(tableA, rowKey, newCalleeColumnName());
+        Map<TableName, List<Increment>> incrementMap = stripedIncrementer.getIncrements(rowKeyDistributor);
+        Assert.assertEquals(1, incrementMap.get(tableA).size());
+        Assert.assertEquals(1, sumCallCount(incrementMap.get(tableA), expectedColumnName));
+        Assert.assertTrue(stripedIncrementer.getIncrements(rowKeyDistributor).isEmpty());
+    }
+
+    @Test
+    public void rowKeyMerge_keepsRowInfo() {
+        // Given
+        TableName tableA = TableName.valueOf("A");
+        RowKey rowKey = new CallRowKey("callApplication", (short) 1000, 0L);
+        RowInfo rowInfo = new DefaultRowInfo(tableA, rowKey, newCalleeColumnName());
+        final int hashCode = rowInfo.hashCode();
+
+        // When
+        Map<TableName, List<Increment>> incrementMap = new RowKeyMerge(CF).createBulkIncrement(Collections.singletonMap(rowInfo, 5L), null);
+
+        // Then
+        Assert.assertEquals(5, sumCallCount(incrementMap.get(tableA), rowInfo.getColumnName()));
+        Assert.assertEquals(new DefaultRowInfo(tableA, rowKey, newCalleeColumnName()), rowInfo);
+        Assert.assertEquals(hashCode, rowInfo.hashCode());
+    }
+
+    private static ColumnName newCalleeColumnName() {
+        return new CalleeColumnName("callerAgentId", (short) 2000, "calleeApplication", "callHost", (short) 1);
+    }
+
+    private static long sumCallCount(List<Increment> increments, ColumnName columnName) {
+        if (increments == null) {
+            return 0;
+        }
+        long sum = 0;
+        for (Increment increment : increments) {
+            Long callCount = increment.getFamilyMapOfLongs().get(CF).get(columnName.getColumnName());
+            if (callCount != null) {
+                sum += callCount;
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void stripeIndex_contiguousThreadIds() {
+        final int stripeSize = 16;
+        final int threadsPerStripe = 64;
+        final int[] stripeCounts = new int[stripeSize];
+        final long startThreadId = 100;
+        for (long threadId = startThreadId; threadId < startThreadId + stripeSize * threadsPerStripe; threadId++) {
+            stripeCounts[BulkIncrementer.stripeIndex(threadId, stripeSize - 1)]++;
+        }
+        for (int stripeCount : stripeCounts) {
+            Assert.assertTrue("uneven stripe " + stripeCount, Math.abs(stripeCount - threadsPerStripe) <= threadsPerStripe / 4);
+        }
+    }
+
     private class Incrementer implements Runnable {
 
         private final Logger logger = LoggerFactory.getLogger(this.getClass());
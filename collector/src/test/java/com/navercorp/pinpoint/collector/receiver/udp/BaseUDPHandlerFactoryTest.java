@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.receiver.udp;
+
+import com.navercorp.pinpoint.collector.receiver.DispatchHandler;
+import com.navercorp.pinpoint.common.server.util.AddressFilter;
+import com.navercorp.pinpoint.thrift.dto.TAgentInfo;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializer;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializerFactory;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BaseUDPHandlerFactoryTest {
+
+    // signature, version, type(CHUNK)
+    private static final byte[] CHUNK_HEADER = {(byte) 0xef, 0x10, 0x01, (byte) 0x90};
+
+    @Test
+    public void receiveChunkPacket() throws Exception {
+        DispatchHandler dispatchHandler = mock(DispatchHandler.class);
+        TBaseFilter<SocketAddress> filter = TBaseFilter.CONTINUE_FILTER;
+        BaseUDPHandlerFactory<DatagramPacket> handlerFactory = new BaseUDPHandlerFactory<>(dispatchHandler, filter, AddressFilter.ALL);
+
+        HeaderTBaseSerializer serializer = new HeaderTBaseSerializerFactory().createSerializer();
+        TAgentInfo agentInfo1 = new TAgentInfo();
+        agentInfo1.setAgentId("agent1");
+        TAgentInfo agentInfo2 = new TAgentInfo();
+        agentInfo2.setAgentId("agent2");
+
+        ByteArrayOutputStream packed = new ByteArrayOutputStream();
+        packed.write(CHUNK_HEADER);
+        packed.write(serializer.serialize(agentInfo1));
+        packed.write(serializer.serialize(agentInfo2));
+        byte[] bytes = packed.toByteArray();
+
+        DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
+        packet.setSocketAddress(new InetSocketAddress("127.0.0.1", 9995));
+        handlerFactory.createPacketHandler().receive(null, packet);
+
+        verify(dispatchHandler).dispatchSendMessage(agentInfo1);
+        verify(dispatchHandler).dispatchSendMessage(agentInfo2);
+    }
+
+    @Test
+    public void receivePacket() throws Exception {
+        DispatchHandler dispatchHandler = mock(DispatchHandler.class);
+        TBaseFilter<SocketAddress> filter = TBaseFilter.CONTINUE_FILTER;
+        BaseUDPHandlerFactory<DatagramPacket> handlerFactory = new BaseUDPHandlerFactory<>(dispatchHandler, filter, AddressFilter.ALL);
+
+        HeaderTBaseSerializer serializer = new HeaderTBaseSerializerFactory().createSerializer();
+        TAgentInfo agentInfo = new TAgentInfo();
+        agentInfo.setAgentId("agent");
+        byte[] bytes = serializer.serialize(agentInfo);
+
+        DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
+        packet.setSocketAddress(new InetSocketAddress("127.0.0.1", 9995));
+        handlerFactory.createPacketHandler().receive(null, packet);
+
+        verify(dispatchHandler, times(1)).dispatchSendMessage(agentInfo);
+    }
+}
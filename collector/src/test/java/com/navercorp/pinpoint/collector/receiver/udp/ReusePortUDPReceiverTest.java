@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.collector.receiver.udp;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import org.apache.hadoop.hbase.shaded.org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.util.SocketUtils;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReusePortUDPReceiverTest {
+
+    private static final String ADDRESS = "127.0.0.1";
+
+    @Test
+    public void receive() throws Exception {
+        final int port = SocketUtils.findAvailableUdpPort(11999);
+        final AtomicInteger receiveCounter = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(2);
+
+        PacketHandlerFactory<DatagramPacket> packetHandlerFactory = newPacketHandlerFactory(receiveCounter, latch);
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+
+        ReusePortUDPReceiver receiver = new ReusePortUDPReceiver("test", packetHandlerFactory, executor, 1024 * 64, new InetSocketAddress(ADDRESS, port), 2, 10);
+        DatagramSocket datagramSocket = null;
+        try {
+            receiver.start();
+
+            datagramSocket = new DatagramSocket();
+            datagramSocket.connect(new InetSocketAddress(ADDRESS, port));
+            // L4 health check packet
+            datagramSocket.send(new DatagramPacket(new byte[0], 0));
+            datagramSocket.send(new DatagramPacket(new byte[1], 1));
+            datagramSocket.send(new DatagramPacket(new byte[2], 2));
+
+            Assert.assertTrue(latch.await(30000, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(2, receiveCounter.get());
+            Assert.assertEquals(2L, sum(receiver.getMetrics(), "received"));
+            Assert.assertEquals(0L, sum(receiver.getMetrics(), "dropped"));
+        } finally {
+            receiver.shutdown();
+            IOUtils.closeQuietly(datagramSocket);
+        }
+    }
+
+    @Test
+    public void rejected() throws Exception {
+        final int port = SocketUtils.findAvailableUdpPort(12999);
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        PacketHandlerFactory<DatagramPacket> packetHandlerFactory = newPacketHandlerFactory(new AtomicInteger(), new CountDownLatch(1));
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                latch.countDown();
+                throw new RejectedExecutionException("test");
+            }
+        };
+
+        ReusePortUDPReceiver receiver = new ReusePortUDPReceiver("test", packetHandlerFactory, executor, 1024 * 64, new InetSocketAddress(ADDRESS, port), 1, 10);
+        DatagramSocket datagramSocket = null;
+        try {
+            receiver.start();
+
+            datagramSocket = new DatagramSocket();
+            datagramSocket.connect(new InetSocketAddress(ADDRESS, port));
+            datagramSocket.send(new DatagramPacket(new byte[1], 1));
+
+            Assert.assertTrue(latch.await(30000, TimeUnit.MILLISECONDS));
+            // dropped is counted after execute() throws
+            for (int i = 0; i < 100 && sum(receiver.getMetrics(), "dropped") == 0; i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(1L, sum(receiver.getMetrics(), "received"));
+            Assert.assertEquals(1L, sum(receiver.getMetrics(), "dropped"));
+        } finally {
+            receiver.shutdown();
+            IOUtils.closeQuietly(datagramSocket);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private PacketHandlerFactory<DatagramPacket> newPacketHandlerFactory(final AtomicInteger receiveCounter, final CountDownLatch latch) {
+        PacketHandler<DatagramPacket> packetHandler = new PacketHandler<DatagramPacket>() {
+            @Override
+            public void receive(DatagramSocket localSocket, DatagramPacket packet) {
+                receiveCounter.incrementAndGet();
+                latch.countDown();
+            }
+        };
+        PacketHandlerFactory<DatagramPacket> packetHandlerFactory = mock(PacketHandlerFactory.class);
+        when(packetHandlerFactory.createPacketHandler()).thenReturn(packetHandler);
+        return packetHandlerFactory;
+    }
+
+    @SuppressWarnings("unchecked")
+    private long sum(Map<String, Metric> metrics, String suffix) {
+        long sum = 0;
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            if (entry.getKey().endsWith(suffix)) {
+                sum += ((Gauge<Long>) entry.getValue()).getValue();
+            }
+        }
+        return sum;
+    }
+
+}
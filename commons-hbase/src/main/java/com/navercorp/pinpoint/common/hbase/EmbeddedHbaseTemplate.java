@@ -0,0 +1,507 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+import com.sematext.hbase.wd.DistributedScanner;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link HbaseOperations2} backed by local segment files instead of an HBase cluster.
+ * Puts and increments built by the DAOs are appended to a {@link MutationLogStore} as they are, so the whole write path
+ * above the storage runs unchanged on a single box. Gets and scans are served by a {@link TableReader},
+ * by default a {@link MutationLogIndex} over the same directory, so a web started with the embedded storage reads
+ * what a collector on the same box writes.
+ * Segments deleted by the retention of the store are dropped from the index as well.
+ * Deletes are appended as tombstones, a template without a store writes them to the
+ * {@link MutationLogIndex#DELETE_DIRECTORY} instead, so a web can delete rows of the segments of a collector.
+ * A template without a store does not accept puts and increments, and table callbacks are not supported.
+ * Increments return an empty result, {@link #incrementColumnValue} reads the counter back.
+ * Parallel scans run in the calling thread.
+ */
+public class EmbeddedHbaseTemplate implements HbaseOperations2 {
+
+    private static final Result EMPTY_RESULT = Result.create(Collections.<Cell>emptyList());
+
+    private static final int DEFAULT_WRITE_BUFFER_SIZE = 256 * 1024;
+
+    private static final long DELETE_SEGMENT_SIZE = 1024 * 1024;
+    private static final int DELETE_WRITE_BUFFER_SIZE = 4 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final MutationLogStore store;
+    private final TableReader tableReader;
+
+    // tombstones of a template without a store, created on the first delete
+    private final File deleteDirectory;
+    private MutationLogStore deleteStore;
+
+    /**
+     * read and write
+     */
+    public EmbeddedHbaseTemplate(String path, long segmentSize) throws IOException {
+        this(path, segmentSize, MutationLogStore.UNLIMITED_RETENTION, MutationLogStore.UNLIMITED_RETENTION);
+    }
+
+    /**
+     * read and write, the oldest segments are deleted over the retention size or period
+     */
+    public EmbeddedHbaseTemplate(String path, long segmentSize, long retentionSize, long retentionMillis) throws IOException {
+        this(new MutationLogStore(new File(path), segmentSize, DEFAULT_WRITE_BUFFER_SIZE, MutationLogStore.DEFAULT_FLUSH_PERIOD, retentionSize, retentionMillis),
+                new MutationLogIndex(new File(path)));
+    }
+
+    /**
+     * read and delete only
+     */
+    public EmbeddedHbaseTemplate(String path) {
+        this(null, new MutationLogIndex(new File(path)), new File(path, MutationLogIndex.DELETE_DIRECTORY));
+    }
+
+    /**
+     * @param store {@code null} for a read only template
+     */
+    public EmbeddedHbaseTemplate(MutationLogStore store, TableReader tableReader) {
+        this(store, tableReader, null);
+    }
+
+    private EmbeddedHbaseTemplate(MutationLogStore store, TableReader tableReader, File deleteDirectory) {
+        if (tableReader == null) {
+            throw new NullPointerException("tableReader must not be null");
+        }
+        this.store = store;
+        this.tableReader = tableReader;
+        this.deleteDirectory = deleteDirectory;
+        logger.info("EmbeddedHbaseTemplate store:{} tableReader:{}", store, tableReader);
+    }
+
+    public void close() throws IOException {
+        if (store != null) {
+            logger.info("close EmbeddedHbaseTemplate. records:{}", store.getRecordCount());
+            store.close();
+        }
+        synchronized (this) {
+            if (deleteStore != null) {
+                deleteStore.close();
+            }
+        }
+    }
+
+    /**
+     * makes the records appended by this template visible to its reads
+     */
+    private void flushStore() throws IOException {
+        if (store != null) {
+            store.flush();
+        }
+    }
+
+    private MutationLogStore getStore() {
+        if (store == null) {
+            throw new UnsupportedOperationException("read only embedded storage");
+        }
+        return store;
+    }
+
+    @Override
+    public <T> T get(TableName tableName, byte[] rowName, final RowMapper<T> mapper) {
+        return get(tableName, rowName, null, null, mapper);
+    }
+
+    @Override
+    public <T> T get(TableName tableName, byte[] rowName, byte[] familyName, final RowMapper<T> mapper) {
+        return get(tableName, rowName, familyName, null, mapper);
+    }
+
+    @Override
+    public <T> T get(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final RowMapper<T> mapper) {
+        Get get = new Get(rowName);
+        if (familyName != null) {
+            if (qualifier != null) {
+                get.addColumn(familyName, qualifier);
+            } else {
+                get.addFamily(familyName);
+            }
+        }
+        return get(tableName, get, mapper);
+    }
+
+    @Override
+    public <T> T get(TableName tableName, final Get get, final RowMapper<T> mapper) {
+        try {
+            flushStore();
+            Result result = tableReader.get(tableName, get);
+            return mapper.mapRow(result, 0);
+        } catch (Exception e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public <T> List<T> get(TableName tableName, final List<Get> getList, final RowMapper<T> mapper) {
+        try {
+            flushStore();
+            List<T> list = new ArrayList<>(getList.size());
+            for (int i = 0; i < getList.size(); i++) {
+                Result result = tableReader.get(tableName, getList.get(i));
+                list.add(mapper.mapRow(result, i));
+            }
+            return list;
+        } catch (Exception e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public void put(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final byte[] value) {
+        put(tableName, rowName, familyName, qualifier, null, value);
+    }
+
+    @Override
+    public void put(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final Long timestamp, final byte[] value) {
+        Put put = createPut(rowName, familyName, timestamp, qualifier, value);
+        put(tableName, put);
+    }
+
+    @Override
+    public <T> void put(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final T value, final ValueMapper<T> mapper) {
+        put(tableName, rowName, familyName, qualifier, null, value, mapper);
+    }
+
+    @Override
+    public <T> void put(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final Long timestamp, final T value, final ValueMapper<T> mapper) {
+        byte[] bytes = mapper.mapValue(value);
+        Put put = createPut(rowName, familyName, timestamp, qualifier, bytes);
+        put(tableName, put);
+    }
+
+    @Override
+    public void put(TableName tableName, final Put put) {
+        try {
+            getStore().append(tableName, put);
+        } catch (IOException e) {
+            throw new HbaseSystemException(e);
+        }
+    }
+
+    @Override
+    public void put(TableName tableName, final List<Put> puts) {
+        for (Put put : puts) {
+            put(tableName, put);
+        }
+    }
+
+    @Override
+    public boolean asyncPut(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final byte[] value) {
+        return asyncPut(tableName, rowName, familyName, qualifier, null, value);
+    }
+
+    @Override
+    public boolean asyncPut(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final Long timestamp, final byte[] value) {
+        Put put = createPut(rowName, familyName, timestamp, qualifier, value);
+        return asyncPut(tableName, put);
+    }
+
+    @Override
+    public <T> boolean asyncPut(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final T value, final ValueMapper<T> mapper) {
+        return asyncPut(tableName, rowName, familyName, qualifier, null, value, mapper);
+    }
+
+    @Override
+    public <T> boolean asyncPut(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final Long timestamp, final T value, final ValueMapper<T> mapper) {
+        byte[] bytes = mapper.mapValue(value);
+        Put put = createPut(rowName, familyName, timestamp, qualifier, bytes);
+        return asyncPut(tableName, put);
+    }
+
+    @Override
+    public boolean asyncPut(TableName tableName, final Put put) {
+        put(tableName, put);
+        return true;
+    }
+
+    @Override
+    public List<Put> asyncPut(TableName tableName, final List<Put> puts) {
+        put(tableName, puts);
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void delete(TableName tableName, final Delete delete) {
+        delete(tableName, Collections.singletonList(delete));
+    }
+
+    @Override
+    public void delete(TableName tableName, final List<Delete> deletes) {
+        try {
+            if (store != null) {
+                for (Delete delete : deletes) {
+                    store.append(tableName, delete);
+                }
+                return;
+            }
+            final MutationLogStore deleteStore = getDeleteStore();
+            for (Delete delete : deletes) {
+                deleteStore.append(tableName, delete);
+            }
+            // rare, written through so the tombstones are visible to every reader at once
+            deleteStore.flush();
+        } catch (IOException e) {
+            throw new HbaseSystemException(e);
+        }
+    }
+
+    private synchronized MutationLogStore getDeleteStore() throws IOException {
+        if (deleteStore == null) {
+            if (deleteDirectory == null) {
+                throw new UnsupportedOperationException("read only embedded storage");
+            }
+            deleteStore = new MutationLogStore(deleteDirectory, DELETE_SEGMENT_SIZE, DELETE_WRITE_BUFFER_SIZE);
+        }
+        return deleteStore;
+    }
+
+    @Override
+    public <T> List<T> find(TableName tableName, final List<Scan> scans, final ResultsExtractor<T> action) {
+        List<T> result = new ArrayList<>(scans.size());
+        for (Scan scan : scans) {
+            result.add(find(tableName, scan, action));
+        }
+        return result;
+    }
+
+    @Override
+    public <T> List<List<T>> find(TableName tableName, final List<Scan> scans, final RowMapper<T> action) {
+        return find(tableName, scans, new RowMapperResultsExtractor<>(action));
+    }
+
+    @Override
+    public <T> List<T> findParallel(TableName tableName, final List<Scan> scans, final ResultsExtractor<T> action) {
+        return find(tableName, scans, action);
+    }
+
+    @Override
+    public <T> List<List<T>> findParallel(TableName tableName, final List<Scan> scans, final RowMapper<T> action) {
+        return find(tableName, scans, action);
+    }
+
+    @Override
+    public <T> List<T> find(TableName tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final RowMapper<T> action) {
+        return find(tableName, scan, rowKeyDistributor, new RowMapperResultsExtractor<>(action));
+    }
+
+    @Override
+    public <T> List<T> find(TableName tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, int limit, final RowMapper<T> action) {
+        return find(tableName, scan, rowKeyDistributor, new LimitRowMapperResultsExtractor<>(action, limit));
+    }
+
+    @Override
+    public <T> List<T> find(TableName tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, int limit, final RowMapper<T> action, final LimitEventHandler limitEventHandler) {
+        return find(tableName, scan, rowKeyDistributor, new LimitRowMapperResultsExtractor<>(action, limit, limitEventHandler));
+    }
+
+    @Override
+    public <T> T find(TableName tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final ResultsExtractor<T> action) {
+        try {
+            flushStore();
+            final Scan[] scans = rowKeyDistributor.getDistributedScans(scan);
+            final ResultScanner[] scanners = new ResultScanner[scans.length];
+            for (int i = 0; i < scans.length; i++) {
+                scanners[i] = tableReader.getScanner(tableName, scans[i]);
+            }
+            return extractData(new DistributedScanner(rowKeyDistributor, scanners), action);
+        } catch (Exception e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public <T> List<T> findParallel(TableName tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final RowMapper<T> action, int numParallelThreads) {
+        return find(tableName, scan, rowKeyDistributor, action);
+    }
+
+    @Override
+    public <T> List<T> findParallel(TableName tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, int limit, final RowMapper<T> action, int numParallelThreads) {
+        return find(tableName, scan, rowKeyDistributor, limit, action);
+    }
+
+    @Override
+    public <T> List<T> findParallel(TableName tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, int limit, final RowMapper<T> action, final LimitEventHandler limitEventHandler, int numParallelThreads) {
+        return find(tableName, scan, rowKeyDistributor, limit, action, limitEventHandler);
+    }
+
+    @Override
+    public <T> T findParallel(TableName tableName, final Scan scan, final AbstractRowKeyDistributor rowKeyDistributor, final ResultsExtractor<T> action, int numParallelThreads) {
+        return find(tableName, scan, rowKeyDistributor, action);
+    }
+
+    @Override
+    public Result increment(TableName tableName, final Increment increment) {
+        try {
+            getStore().append(tableName, increment);
+        } catch (IOException e) {
+            throw new HbaseSystemException(e);
+        }
+        return EMPTY_RESULT;
+    }
+
+    @Override
+    public List<Result> increment(TableName tableName, final List<Increment> incrementList) {
+        final List<Result> resultList = new ArrayList<>(incrementList.size());
+        for (Increment increment : incrementList) {
+            resultList.add(increment(tableName, increment));
+        }
+        return resultList;
+    }
+
+    @Override
+    public long incrementColumnValue(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final long amount) {
+        return incrementColumnValue(tableName, rowName, familyName, qualifier, amount, true);
+    }
+
+    @Override
+    public long incrementColumnValue(TableName tableName, final byte[] rowName, final byte[] familyName, final byte[] qualifier, final long amount, final boolean writeToWAL) {
+        Increment increment = new Increment(rowName);
+        increment.addColumn(familyName, qualifier, amount);
+        increment(tableName, increment);
+        // increments are applied when the log is read, read the counter back once this one is written
+        // not atomic, increments of other threads written in the meantime are included
+        try {
+            flushStore();
+            Get get = new Get(rowName);
+            get.addColumn(familyName, qualifier);
+            Result result = tableReader.get(tableName, get);
+            return Bytes.toLong(result.getValue(familyName, qualifier));
+        } catch (Exception e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public <T> T execute(TableName tableName, TableCallback<T> action) {
+        throw unsupportedOperation();
+    }
+
+    @Override
+    public <T> T find(TableName tableName, String family, final ResultsExtractor<T> action) {
+        Scan scan = new Scan();
+        scan.addFamily(Bytes.toBytes(family));
+        return find(tableName, scan, action);
+    }
+
+    @Override
+    public <T> T find(TableName tableName, String family, String qualifier, final ResultsExtractor<T> action) {
+        Scan scan = new Scan();
+        scan.addColumn(Bytes.toBytes(family), Bytes.toBytes(qualifier));
+        return find(tableName, scan, action);
+    }
+
+    @Override
+    public <T> T find(TableName tableName, final Scan scan, final ResultsExtractor<T> action) {
+        try {
+            flushStore();
+            return extractData(tableReader.getScanner(tableName, scan), action);
+        } catch (Exception e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public <T> List<T> find(TableName tableName, String family, final RowMapper<T> action) {
+        Scan scan = new Scan();
+        scan.addFamily(Bytes.toBytes(family));
+        return find(tableName, scan, action);
+    }
+
+    @Override
+    public <T> List<T> find(TableName tableName, String family, String qualifier, final RowMapper<T> action) {
+        Scan scan = new Scan();
+        scan.addColumn(Bytes.toBytes(family), Bytes.toBytes(qualifier));
+        return find(tableName, scan, action);
+    }
+
+    @Override
+    public <T> List<T> find(TableName tableName, final Scan scan, final RowMapper<T> action) {
+        return find(tableName, scan, new RowMapperResultsExtractor<>(action));
+    }
+
+    @Override
+    public <T> T get(TableName tableName, String rowName, final RowMapper<T> mapper) {
+        return get(tableName, rowName, null, null, mapper);
+    }
+
+    @Override
+    public <T> T get(TableName tableName, String rowName, String familyName, final RowMapper<T> mapper) {
+        return get(tableName, rowName, familyName, null, mapper);
+    }
+
+    @Override
+    public <T> T get(TableName tableName, final String rowName, final String familyName, final String qualifier, final RowMapper<T> mapper) {
+        final byte[] family = familyName != null ? Bytes.toBytes(familyName) : null;
+        final byte[] qualifierBytes = qualifier != null ? Bytes.toBytes(qualifier) : null;
+        return get(tableName, Bytes.toBytes(rowName), family, qualifierBytes, mapper);
+    }
+
+    private <T> T extractData(ResultScanner scanner, ResultsExtractor<T> action) throws Exception {
+        try {
+            return action.extractData(scanner);
+        } finally {
+            scanner.close();
+        }
+    }
+
+    private RuntimeException translate(Exception e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        return new HbaseSystemException(e);
+    }
+
+    private Put createPut(byte[] rowName, byte[] familyName, Long timestamp, byte[] qualifier, byte[] value) {
+        Put put = new Put(rowName);
+        if (familyName != null) {
+            if (timestamp == null) {
+                put.addColumn(familyName, qualifier, value);
+            } else {
+                put.addColumn(familyName, qualifier, timestamp, value);
+            }
+        }
+        return put;
+    }
+
+    private UnsupportedOperationException unsupportedOperation() {
+        return new UnsupportedOperationException("not supported by the embedded storage");
+    }
+}
@@ -22,6 +22,7 @@ import org.apache.hadoop.hbase.client.Connection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -43,6 +44,21 @@ public class HBaseAsyncOperationFactory {
     public static final String ASYNC_RETRY_COUNT = "hbase.client.max.retries.in.queue";
     public static final int DEFAULT_ASYNC_RETRY_COUNT = 10;
 
+    public static final String ENABLE_ASYNC_SPILL = "hbase.client.async.spill.enable";
+    public static final boolean DEFAULT_ENABLE_ASYNC_SPILL = false;
+
+    public static final String ASYNC_SPILL_PATH = "hbase.client.async.spill.path";
+    public static final String DEFAULT_ASYNC_SPILL_PATH = "spill";
+
+    public static final String ASYNC_SPILL_SEGMENT_SIZE = "hbase.client.async.spill.segment.size";
+    public static final int DEFAULT_ASYNC_SPILL_SEGMENT_SIZE = 32 * 1024 * 1024;
+
+    public static final String ASYNC_SPILL_MAX_SEGMENT_COUNT = "hbase.client.async.spill.segment.max.count";
+    public static final int DEFAULT_ASYNC_SPILL_MAX_SEGMENT_COUNT = 16;
+
+    public static final String ASYNC_SPILL_REPLAY_PERIOD = "hbase.client.async.spill.replay.period.ms";
+    public static final long DEFAULT_ASYNC_SPILL_REPLAY_PERIOD = 100;
+
     public static HBaseAsyncOperation create(Configuration configuration) throws IOException {
         boolean enableAsyncMethod = configuration.getBoolean(ENABLE_ASYNC_METHOD, DEFAULT_ENABLE_ASYNC_METHOD);
         if (!enableAsyncMethod) {
@@ -59,7 +75,7 @@ public class HBaseAsyncOperationFactory {
             configuration.setInt(ASYNC_RETRY_COUNT, DEFAULT_ASYNC_RETRY_COUNT);
         }
 
-        return new HBaseAsyncTemplate(configuration, queueSize);
+        return wrapSpill(configuration, new HBaseAsyncTemplate(configuration, queueSize));
     }
 
     public static HBaseAsyncOperation create(Connection connection, Configuration configuration) throws IOException {
@@ -78,7 +94,23 @@ public class HBaseAsyncOperationFactory {
             configuration.setInt(ASYNC_RETRY_COUNT, DEFAULT_ASYNC_RETRY_COUNT);
         }
 
-        return new HBaseAsyncTemplate(connection, configuration, queueSize);
+        return wrapSpill(configuration, new HBaseAsyncTemplate(connection, configuration, queueSize));
+    }
+
+    private static HBaseAsyncOperation wrapSpill(Configuration configuration, HBaseAsyncOperation asyncOperation) throws IOException {
+        boolean enableSpill = configuration.getBoolean(ENABLE_ASYNC_SPILL, DEFAULT_ENABLE_ASYNC_SPILL);
+        if (!enableSpill) {
+            return asyncOperation;
+        }
+
+        File spillPath = new File(configuration.get(ASYNC_SPILL_PATH, DEFAULT_ASYNC_SPILL_PATH));
+        int segmentSize = configuration.getInt(ASYNC_SPILL_SEGMENT_SIZE, DEFAULT_ASYNC_SPILL_SEGMENT_SIZE);
+        int maxSegmentCount = configuration.getInt(ASYNC_SPILL_MAX_SEGMENT_COUNT, DEFAULT_ASYNC_SPILL_MAX_SEGMENT_COUNT);
+        long replayPeriod = configuration.getLong(ASYNC_SPILL_REPLAY_PERIOD, DEFAULT_ASYNC_SPILL_REPLAY_PERIOD);
+
+        PutSpillJournal journal = new PutSpillJournal(spillPath, segmentSize, maxSegmentCount);
+        LOGGER.info("hbase async spill enabled. journal:{}", journal);
+        return new SpillableHBaseAsyncOperation(asyncOperation, journal, replayPeriod);
     }
 
 }
\ No newline at end of file
@@ -74,6 +74,8 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
     private boolean enableParallelScan = false;
     private int maxThreads = DEFAULT_MAX_THREADS_FOR_PARALLEL_SCANNER;
     private int maxThreadsPerParallelScan = DEFAULT_MAX_THREADS_PER_PARALLEL_SCAN;
+    // 0 : scan caching
+    private int parallelScanPrefetchSize = 0;
 
     private HBaseAsyncOperation asyncOperation = DisabledHBaseAsyncOperation.INSTANCE;
 
@@ -96,6 +98,10 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
         this.maxThreadsPerParallelScan = maxThreadsPerParallelScan;
     }
 
+    public void setParallelScanPrefetchSize(int parallelScanPrefetchSize) {
+        this.parallelScanPrefetchSize = parallelScanPrefetchSize;
+    }
+
     public void setAsyncOperation(HBaseAsyncOperation asyncOperation) {
         if (asyncOperation == null) {
             throw new NullPointerException("asyncOperation");
@@ -667,7 +673,7 @@ public class HbaseTemplate2 extends HbaseAccessor implements HbaseOperations2, I
                 watch = new StopWatch();
                 watch.start();
             }
-            ParallelResultScanner scanner = new ParallelResultScanner(tableName, this, this.executor, scan, rowKeyDistributor, numParallelThreads);
+            ParallelResultScanner scanner = new ParallelResultScanner(tableName, this, this.executor, scan, rowKeyDistributor, numParallelThreads, parallelScanPrefetchSize);
             if (debugEnabled) {
                 logger.debug("ParallelDistributedScanner createTime: {}ms", watch.stop());
                 watch.start();
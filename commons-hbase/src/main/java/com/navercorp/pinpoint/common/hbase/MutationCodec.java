@@ -0,0 +1,221 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary format of a mutation kept in local files.
+ * <pre>
+ * [tableName][row][long timestamp][int cellCount]([family][qualifier][long timestamp][value])...
+ * </pre>
+ * Byte arrays are prefixed by their int length. Only the row, column, timestamp and value of each cell are kept,
+ * attributes and durability of the mutation are not. The value of a {@link Delete} cell is its one byte {@link KeyValue.Type}.
+ */
+final class MutationCodec {
+
+    private static final int LENGTH_SIZE = 4;
+
+    private MutationCodec() {
+    }
+
+    static int getLength(TableName tableName, Mutation mutation) {
+        int length = LENGTH_SIZE + tableName.getName().length;
+        length += LENGTH_SIZE + mutation.getRow().length;
+        length += 8 + 4;
+        for (Map.Entry<byte[], List<Cell>> entry : mutation.getFamilyCellMap().entrySet()) {
+            for (Cell cell : entry.getValue()) {
+                length += LENGTH_SIZE + cell.getFamilyLength();
+                length += LENGTH_SIZE + cell.getQualifierLength();
+                length += 8;
+                length += LENGTH_SIZE + getValueLength(mutation, cell);
+            }
+        }
+        return length;
+    }
+
+    private static int getValueLength(Mutation mutation, Cell cell) {
+        if (mutation instanceof Delete) {
+            return 1;
+        }
+        return cell.getValueLength();
+    }
+
+    static void encode(ByteBuffer buffer, TableName tableName, Mutation mutation) {
+        encode(buffer, tableName, mutation, HConstants.LATEST_TIMESTAMP);
+    }
+
+    /**
+     * @param latestTimestamp written instead of {@link HConstants#LATEST_TIMESTAMP}, the way a region server stamps a mutation
+     */
+    static void encode(ByteBuffer buffer, TableName tableName, Mutation mutation, long latestTimestamp) {
+        final byte[] name = tableName.getName();
+        putBytes(buffer, name, 0, name.length);
+        final byte[] row = mutation.getRow();
+        putBytes(buffer, row, 0, row.length);
+        buffer.putLong(stamp(mutation.getTimeStamp(), latestTimestamp));
+
+        final int cellCountPosition = buffer.position();
+        buffer.putInt(0);
+        int cellCount = 0;
+        for (Map.Entry<byte[], List<Cell>> entry : mutation.getFamilyCellMap().entrySet()) {
+            for (Cell cell : entry.getValue()) {
+                putBytes(buffer, cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength());
+                putBytes(buffer, cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+                buffer.putLong(stamp(cell.getTimestamp(), latestTimestamp));
+                if (mutation instanceof Delete) {
+                    buffer.putInt(1);
+                    buffer.put(cell.getTypeByte());
+                } else {
+                    putBytes(buffer, cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+                }
+                cellCount++;
+            }
+        }
+        buffer.putInt(cellCountPosition, cellCount);
+    }
+
+    private static long stamp(long timestamp, long latestTimestamp) {
+        if (timestamp == HConstants.LATEST_TIMESTAMP) {
+            return latestTimestamp;
+        }
+        return timestamp;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes, int offset, int length) {
+        buffer.putInt(length);
+        buffer.put(bytes, offset, length);
+    }
+
+    static TableName decodeTableName(ByteBuffer buffer) {
+        return TableName.valueOf(getBytes(buffer));
+    }
+
+    /**
+     * decodes the mutation following the table name
+     */
+    static Put decodePut(ByteBuffer buffer) {
+        final byte[] row = getBytes(buffer);
+        final long timestamp = buffer.getLong();
+        final Put put = new Put(row, timestamp);
+        final int cellCount = buffer.getInt();
+        for (int i = 0; i < cellCount; i++) {
+            final byte[] family = getBytes(buffer);
+            final byte[] qualifier = getBytes(buffer);
+            final long cellTimestamp = buffer.getLong();
+            final byte[] value = getBytes(buffer);
+            put.addColumn(family, qualifier, cellTimestamp, value);
+        }
+        return put;
+    }
+
+    /**
+     * decodes the mutation following the table name
+     */
+    static Increment decodeIncrement(ByteBuffer buffer) {
+        final byte[] row = getBytes(buffer);
+        // increments are applied with the time their cells were written
+        buffer.getLong();
+        final Increment increment = new Increment(row);
+        final int cellCount = buffer.getInt();
+        for (int i = 0; i < cellCount; i++) {
+            final byte[] family = getBytes(buffer);
+            final byte[] qualifier = getBytes(buffer);
+            final long cellTimestamp = buffer.getLong();
+            final byte[] value = getBytes(buffer);
+            if (cellTimestamp == HConstants.LATEST_TIMESTAMP) {
+                increment.addColumn(family, qualifier, Bytes.toLong(value));
+            } else {
+                addCell(increment, new KeyValue(row, family, qualifier, cellTimestamp, value));
+            }
+        }
+        return increment;
+    }
+
+    private static void addCell(Increment increment, Cell cell) {
+        try {
+            increment.add(cell);
+        } catch (IOException e) {
+            // thrown only for a cell of another row
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * decodes the mutation following the table name
+     */
+    static Delete decodeDelete(ByteBuffer buffer) {
+        final byte[] row = getBytes(buffer);
+        final long timestamp = buffer.getLong();
+        final Delete delete = new Delete(row, timestamp);
+        final int cellCount = buffer.getInt();
+        for (int i = 0; i < cellCount; i++) {
+            final byte[] family = getBytes(buffer);
+            final byte[] qualifier = getBytes(buffer);
+            final long cellTimestamp = buffer.getLong();
+            final byte[] value = getBytes(buffer);
+            if (value.length != 1) {
+                throw new BufferUnderflowException();
+            }
+            final KeyValue.Type type = toType(value[0]);
+            if (type == KeyValue.Type.DeleteFamily) {
+                delete.addFamily(family, cellTimestamp);
+            } else if (type == KeyValue.Type.DeleteFamilyVersion) {
+                delete.addFamilyVersion(family, cellTimestamp);
+            } else if (type == KeyValue.Type.DeleteColumn) {
+                delete.addColumns(family, qualifier, cellTimestamp);
+            } else {
+                delete.addColumn(family, qualifier, cellTimestamp);
+            }
+        }
+        return delete;
+    }
+
+    private static KeyValue.Type toType(byte code) {
+        for (KeyValue.Type type : KeyValue.Type.values()) {
+            if (type.getCode() == code) {
+                return type;
+            }
+        }
+        // not written by encode()
+        throw new BufferUnderflowException();
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
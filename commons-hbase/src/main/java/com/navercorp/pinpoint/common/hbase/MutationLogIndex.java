@@ -0,0 +1,514 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.io.TimeRange;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * {@link TableReader} over the rows of a {@link MutationLogStore} directory, kept in memory.
+ * New records are applied before every read, so the rows written by a collector using the same directory are visible
+ * once its writer has flushed them.
+ * Only the latest version of each column is kept, as every pinpoint table is created with a single version,
+ * and increments are added to the current value of their counter.
+ * Deletes are kept as tombstones, which hide the cells with the same or an older timestamp whenever they are read.
+ * Tombstones are read from the segments and from the {@link #DELETE_DIRECTORY} next to them.
+ * Cells are dropped once the segment they were last written to is deleted by the retention of the store,
+ * a counter keeps the increments of older segments until then.
+ */
+public class MutationLogIndex implements TableReader {
+
+    /**
+     * tombstones written by a template which does not own the segments, like a web reading the segments of a collector
+     */
+    public static final String DELETE_DIRECTORY = "deletes";
+
+    private static final Result EMPTY_RESULT = Result.create(Collections.<Cell>emptyList());
+
+    private final MutationLogReader reader;
+    private final MutationLogReader deleteReader;
+    private final ConcurrentMap<TableName, ConcurrentNavigableMap<byte[], Row>> tables = new ConcurrentHashMap<>();
+    // guarded by this
+    private long firstSegmentSequence = -1;
+    private final MutationLogStore.RecordHandler recordHandler = new MutationLogStore.RecordHandler() {
+        @Override
+        public void handlePut(TableName tableName, Put put) {
+            getRow(tableName, put.getRow()).put(put, System.currentTimeMillis(), reader.getSegmentSequence());
+        }
+
+        @Override
+        public void handleIncrement(TableName tableName, Increment increment) {
+            getRow(tableName, increment.getRow()).increment(increment, System.currentTimeMillis(), reader.getSegmentSequence());
+        }
+
+        @Override
+        public void handleDelete(TableName tableName, Delete delete) {
+            getRow(tableName, delete.getRow()).delete(delete, System.currentTimeMillis());
+        }
+    };
+
+    public MutationLogIndex(File directory) {
+        this.reader = new MutationLogReader(directory);
+        this.deleteReader = new MutationLogReader(new File(directory, DELETE_DIRECTORY));
+    }
+
+    /**
+     * Applies the records written since the last refresh and drops the cells of deleted segments.
+     */
+    public synchronized void refresh() throws IOException {
+        reader.read(recordHandler);
+        // tombstones hide older cells read later as well, the order of the two logs does not matter
+        deleteReader.read(recordHandler);
+
+        final long currentFirstSegmentSequence = reader.getFirstSegmentSequence();
+        if (currentFirstSegmentSequence > firstSegmentSequence) {
+            if (firstSegmentSequence != -1) {
+                evict(currentFirstSegmentSequence);
+            }
+            firstSegmentSequence = currentFirstSegmentSequence;
+        }
+    }
+
+    private void evict(long firstSegmentSequence) {
+        for (ConcurrentNavigableMap<byte[], Row> table : tables.values()) {
+            final Iterator<Row> rows = table.values().iterator();
+            while (rows.hasNext()) {
+                if (rows.next().evict(firstSegmentSequence)) {
+                    rows.remove();
+                }
+            }
+        }
+    }
+
+    private Row getRow(TableName tableName, byte[] rowKey) {
+        ConcurrentNavigableMap<byte[], Row> table = tables.get(tableName);
+        if (table == null) {
+            final ConcurrentNavigableMap<byte[], Row> newTable = new ConcurrentSkipListMap<>(Bytes.BYTES_COMPARATOR);
+            final ConcurrentNavigableMap<byte[], Row> oldTable = tables.putIfAbsent(tableName, newTable);
+            table = oldTable != null ? oldTable : newTable;
+        }
+        Row row = table.get(rowKey);
+        if (row == null) {
+            // rows are only added and removed by refresh
+            row = new Row(rowKey);
+            table.put(rowKey, row);
+        }
+        return row;
+    }
+
+    @Override
+    public Result get(TableName tableName, Get get) throws IOException {
+        refresh();
+        final ConcurrentNavigableMap<byte[], Row> table = tables.get(tableName);
+        if (table == null) {
+            return EMPTY_RESULT;
+        }
+        final Row row = table.get(get.getRow());
+        if (row == null) {
+            return EMPTY_RESULT;
+        }
+        final List<Cell> cells = selectCells(row, get.getFamilyMap(), get.getTimeRange(), get.getFilter());
+        return Result.create(cells);
+    }
+
+    @Override
+    public ResultScanner getScanner(TableName tableName, Scan scan) throws IOException {
+        refresh();
+        final ConcurrentNavigableMap<byte[], Row> table = tables.get(tableName);
+        if (table == null) {
+            return new RowScanner(Collections.<Row>emptyIterator(), scan);
+        }
+        return new RowScanner(selectRows(table, scan).values().iterator(), scan);
+    }
+
+    private NavigableMap<byte[], Row> selectRows(ConcurrentNavigableMap<byte[], Row> table, Scan scan) {
+        final byte[] startRow = scan.getStartRow();
+        final byte[] stopRow = scan.getStopRow();
+        final boolean hasStartRow = startRow != null && startRow.length > 0;
+        final boolean hasStopRow = stopRow != null && stopRow.length > 0;
+        if (scan.isReversed()) {
+            // a reversed scan starts at the larger key
+            NavigableMap<byte[], Row> rows = table.descendingMap();
+            if (hasStartRow) {
+                rows = rows.tailMap(startRow, true);
+            }
+            if (hasStopRow) {
+                rows = rows.headMap(stopRow, false);
+            }
+            return rows;
+        }
+        NavigableMap<byte[], Row> rows = table;
+        if (hasStartRow) {
+            rows = rows.tailMap(startRow, true);
+        }
+        if (hasStopRow) {
+            rows = rows.headMap(stopRow, false);
+        }
+        return rows;
+    }
+
+    private static List<Cell> selectCells(Row row, Map<byte[], NavigableSet<byte[]>> familyMap, TimeRange timeRange, Filter filter) throws IOException {
+        final List<Cell> cells = row.getCells(familyMap, timeRange);
+        if (filter == null || cells.isEmpty()) {
+            return cells;
+        }
+        filter.reset();
+        if (filter.filterRowKey(row.key, 0, row.key.length)) {
+            return Collections.emptyList();
+        }
+        final List<Cell> filteredCells = new ArrayList<>(cells.size());
+        for (Cell cell : cells) {
+            final Filter.ReturnCode returnCode = filter.filterKeyValue(cell);
+            if (returnCode == Filter.ReturnCode.INCLUDE || returnCode == Filter.ReturnCode.INCLUDE_AND_NEXT_COL) {
+                filteredCells.add(filter.transformCell(cell));
+            } else if (returnCode == Filter.ReturnCode.NEXT_ROW) {
+                break;
+            }
+        }
+        if (filter.hasFilterRow()) {
+            filter.filterRowCells(filteredCells);
+        }
+        if (filter.filterRow()) {
+            return Collections.emptyList();
+        }
+        return filteredCells;
+    }
+
+    private static final class Row {
+        private static final long NOT_DELETED = Long.MIN_VALUE;
+
+        private final byte[] key;
+        // guarded by this, the latest cell of each column
+        private final NavigableMap<byte[], NavigableMap<byte[], Column>> families = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+        // guarded by this, the latest tombstone of the row, of each family and of each column
+        private long rowDeleted = NOT_DELETED;
+        private NavigableMap<byte[], Long> familyDeleted;
+        private NavigableMap<byte[], NavigableMap<byte[], Long>> columnDeleted;
+
+        private Row(byte[] key) {
+            this.key = key;
+        }
+
+        synchronized void put(Put put, long currentTime, long segmentSequence) {
+            for (List<Cell> cells : put.getFamilyCellMap().values()) {
+                for (Cell cell : cells) {
+                    long timestamp = cell.getTimestamp();
+                    if (timestamp == HConstants.LATEST_TIMESTAMP) {
+                        timestamp = currentTime;
+                    }
+                    final byte[] family = CellUtil.cloneFamily(cell);
+                    final byte[] qualifier = CellUtil.cloneQualifier(cell);
+                    if (timestamp <= getDeleted(family, qualifier)) {
+                        continue;
+                    }
+                    final NavigableMap<byte[], Column> columns = getColumns(family);
+                    final Column latest = columns.get(qualifier);
+                    if (latest != null && latest.cell.getTimestamp() > timestamp) {
+                        continue;
+                    }
+                    final Cell newCell = new KeyValue(key, family, qualifier, timestamp, CellUtil.cloneValue(cell));
+                    columns.put(qualifier, new Column(newCell, segmentSequence));
+                }
+            }
+        }
+
+        synchronized void increment(Increment increment, long currentTime, long segmentSequence) {
+            for (List<Cell> cells : increment.getFamilyCellMap().values()) {
+                for (Cell cell : cells) {
+                    long timestamp = cell.getTimestamp();
+                    if (timestamp == HConstants.LATEST_TIMESTAMP) {
+                        timestamp = currentTime;
+                    }
+                    final byte[] family = CellUtil.cloneFamily(cell);
+                    final byte[] qualifier = CellUtil.cloneQualifier(cell);
+                    if (timestamp <= getDeleted(family, qualifier)) {
+                        continue;
+                    }
+                    final NavigableMap<byte[], Column> columns = getColumns(family);
+                    final Column latest = columns.get(qualifier);
+                    long value = Bytes.toLong(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+                    if (latest != null) {
+                        final Cell latestCell = latest.cell;
+                        value += Bytes.toLong(latestCell.getValueArray(), latestCell.getValueOffset(), latestCell.getValueLength());
+                        timestamp = Math.max(timestamp, latestCell.getTimestamp());
+                    }
+                    final Cell newCell = new KeyValue(key, family, qualifier, timestamp, Bytes.toBytes(value));
+                    columns.put(qualifier, new Column(newCell, segmentSequence));
+                }
+            }
+        }
+
+        synchronized void delete(Delete delete, long currentTime) {
+            if (delete.getFamilyCellMap().isEmpty()) {
+                final long timestamp = resolve(delete.getTimeStamp(), currentTime);
+                rowDeleted = Math.max(rowDeleted, timestamp);
+                for (NavigableMap<byte[], Column> columns : families.values()) {
+                    removeCells(columns, timestamp, false);
+                }
+                return;
+            }
+            for (List<Cell> cells : delete.getFamilyCellMap().values()) {
+                for (Cell cell : cells) {
+                    final long timestamp = resolve(cell.getTimestamp(), currentTime);
+                    final byte[] family = CellUtil.cloneFamily(cell);
+                    final NavigableMap<byte[], Column> columns = families.get(family);
+                    final KeyValue.Type type = KeyValue.Type.codeToType(cell.getTypeByte());
+                    if (type == KeyValue.Type.DeleteFamilyVersion) {
+                        // a single version, nothing written later is hidden
+                        if (columns != null) {
+                            removeCells(columns, timestamp, true);
+                        }
+                    } else if (type == KeyValue.Type.DeleteFamily) {
+                        if (familyDeleted == null) {
+                            familyDeleted = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+                        }
+                        familyDeleted.merge(family, timestamp, Math::max);
+                        if (columns != null) {
+                            removeCells(columns, timestamp, false);
+                        }
+                    } else {
+                        // only the latest version is kept, a version delete removes the column as well
+                        final byte[] qualifier = CellUtil.cloneQualifier(cell);
+                        if (columnDeleted == null) {
+                            columnDeleted = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+                        }
+                        columnDeleted.computeIfAbsent(family, k -> new TreeMap<>(Bytes.BYTES_COMPARATOR)).merge(qualifier, timestamp, Math::max);
+                        if (columns != null) {
+                            final Column latest = columns.get(qualifier);
+                            if (latest != null && latest.cell.getTimestamp() <= timestamp) {
+                                columns.remove(qualifier);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private static long resolve(long timestamp, long currentTime) {
+            if (timestamp == HConstants.LATEST_TIMESTAMP) {
+                return currentTime;
+            }
+            return timestamp;
+        }
+
+        private static void removeCells(NavigableMap<byte[], Column> columns, long timestamp, boolean exactTimestamp) {
+            final Iterator<Column> iterator = columns.values().iterator();
+            while (iterator.hasNext()) {
+                final long cellTimestamp = iterator.next().cell.getTimestamp();
+                if (exactTimestamp ? cellTimestamp == timestamp : cellTimestamp <= timestamp) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        /**
+         * @return the timestamp of the latest tombstone covering the column, {@link #NOT_DELETED} if there is none
+         */
+        private long getDeleted(byte[] family, byte[] qualifier) {
+            long deleted = rowDeleted;
+            if (familyDeleted != null) {
+                final Long familyTimestamp = familyDeleted.get(family);
+                if (familyTimestamp != null) {
+                    deleted = Math.max(deleted, familyTimestamp);
+                }
+            }
+            if (columnDeleted != null) {
+                final NavigableMap<byte[], Long> columns = columnDeleted.get(family);
+                if (columns != null) {
+                    final Long columnTimestamp = columns.get(qualifier);
+                    if (columnTimestamp != null) {
+                        deleted = Math.max(deleted, columnTimestamp);
+                    }
+                }
+            }
+            return deleted;
+        }
+
+        /**
+         * Removes the cells last written to a segment older than the given one.
+         *
+         * @return whether the row is left without cells and tombstones
+         */
+        synchronized boolean evict(long firstSegmentSequence) {
+            final Iterator<NavigableMap<byte[], Column>> familyIterator = families.values().iterator();
+            while (familyIterator.hasNext()) {
+                final NavigableMap<byte[], Column> columns = familyIterator.next();
+                columns.values().removeIf(column -> column.segmentSequence < firstSegmentSequence);
+                if (columns.isEmpty()) {
+                    familyIterator.remove();
+                }
+            }
+            return families.isEmpty() && rowDeleted == NOT_DELETED && familyDeleted == null && columnDeleted == null;
+        }
+
+        private NavigableMap<byte[], Column> getColumns(byte[] family) {
+            NavigableMap<byte[], Column> columns = families.get(family);
+            if (columns == null) {
+                columns = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+                families.put(family, columns);
+            }
+            return columns;
+        }
+
+        /**
+         * @param familyMap families and qualifiers of a get or scan, all families when empty and all qualifiers of a family when {@code null}
+         * @return the selected cells sorted by family and qualifier
+         */
+        synchronized List<Cell> getCells(Map<byte[], NavigableSet<byte[]>> familyMap, TimeRange timeRange) {
+            final List<Cell> cells = new ArrayList<>();
+            for (Map.Entry<byte[], NavigableMap<byte[], Column>> family : families.entrySet()) {
+                NavigableSet<byte[]> qualifiers = null;
+                if (!familyMap.isEmpty()) {
+                    if (!familyMap.containsKey(family.getKey())) {
+                        continue;
+                    }
+                    qualifiers = familyMap.get(family.getKey());
+                }
+                for (Map.Entry<byte[], Column> column : family.getValue().entrySet()) {
+                    if (qualifiers != null && !qualifiers.contains(column.getKey())) {
+                        continue;
+                    }
+                    final Cell cell = column.getValue().cell;
+                    if (timeRange.withinTimeRange(cell.getTimestamp())) {
+                        cells.add(cell);
+                    }
+                }
+            }
+            return cells;
+        }
+    }
+
+    private static final class Column {
+        private final Cell cell;
+        // the segment the cell was last written to
+        private final long segmentSequence;
+
+        private Column(Cell cell, long segmentSequence) {
+            this.cell = cell;
+            this.segmentSequence = segmentSequence;
+        }
+    }
+
+    private static final class RowScanner implements ResultScanner {
+        private final Iterator<Row> rows;
+        private final Scan scan;
+
+        private RowScanner(Iterator<Row> rows, Scan scan) {
+            this.rows = rows;
+            this.scan = scan;
+        }
+
+        @Override
+        public Result next() throws IOException {
+            final Filter filter = scan.getFilter();
+            while (rows.hasNext()) {
+                if (filter != null && filter.filterAllRemaining()) {
+                    return null;
+                }
+                final Row row = rows.next();
+                final List<Cell> cells = selectCells(row, scan.getFamilyMap(), scan.getTimeRange(), filter);
+                if (!cells.isEmpty()) {
+                    return Result.create(cells);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Result[] next(int nbRows) throws IOException {
+            final List<Result> results = new ArrayList<>(nbRows);
+            for (int i = 0; i < nbRows; i++) {
+                final Result result = next();
+                if (result == null) {
+                    break;
+                }
+                results.add(result);
+            }
+            return results.toArray(new Result[0]);
+        }
+
+        @Override
+        public Iterator<Result> iterator() {
+            return new Iterator<Result>() {
+                private Result next;
+
+                @Override
+                public boolean hasNext() {
+                    if (next == null) {
+                        try {
+                            next = RowScanner.this.next();
+                        } catch (IOException e) {
+                            throw new HbaseSystemException(e);
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Result next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final Result result = next;
+                    next = null;
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MutationLogIndex{" +
+                "reader=" + reader +
+                ", deleteReader=" + deleteReader +
+                '}';
+    }
+}
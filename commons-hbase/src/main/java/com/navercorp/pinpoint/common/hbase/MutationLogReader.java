@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Reads the records of a {@link MutationLogStore} directory in write order.
+ * The reader remembers where it stopped, so calling {@link #read(MutationLogStore.RecordHandler)} again only reads the
+ * records written since, and a store that is still being written by another process can be followed.
+ * An incomplete record at the end of the last segment is read again once it is complete,
+ * a broken record in any other segment ends that segment.
+ * Segments deleted by the retention of the store are skipped, including the one being read.
+ */
+public class MutationLogReader {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final File directory;
+
+    // guarded by this
+    private long segmentSequence = -1;
+    private long segmentPosition;
+    private long firstSegmentSequence = -1;
+
+    public MutationLogReader(File directory) {
+        if (directory == null) {
+            throw new NullPointerException("directory must not be null");
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * @return the number of records read
+     */
+    public synchronized long read(MutationLogStore.RecordHandler handler) throws IOException {
+        if (handler == null) {
+            throw new NullPointerException("handler must not be null");
+        }
+        final List<File> segments = MutationLogStore.listSegments(directory);
+        if (!segments.isEmpty()) {
+            firstSegmentSequence = MutationLogStore.parseSequence(segments.get(0));
+        }
+        long count = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            final File segment = segments.get(i);
+            final long sequence = MutationLogStore.parseSequence(segment);
+            if (sequence < segmentSequence) {
+                continue;
+            }
+            if (sequence > segmentSequence) {
+                segmentSequence = sequence;
+                segmentPosition = 0;
+            }
+            final boolean lastSegment = i == segments.size() - 1;
+            count += readSegment(segment, handler, lastSegment);
+        }
+        return count;
+    }
+
+    private long readSegment(File segment, MutationLogStore.RecordHandler handler, boolean lastSegment) throws IOException {
+        final long mappedPosition = segmentPosition;
+        final ByteBuffer buffer;
+        final FileInputStream inputStream;
+        try {
+            inputStream = new FileInputStream(segment);
+        } catch (FileNotFoundException e) {
+            logger.info("segment deleted before read:{}", segment);
+            return 0;
+        }
+        try (FileChannel channel = inputStream.getChannel()) {
+            final long size = channel.size();
+            if (size <= segmentPosition) {
+                return 0;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, segmentPosition, size - segmentPosition);
+        }
+
+        long count = 0;
+        while (buffer.remaining() >= MutationLogStore.HEADER_SIZE) {
+            final int length = buffer.getInt();
+            if (length <= 0) {
+                skipBrokenSegment(segment, mappedPosition + buffer.limit());
+                break;
+            }
+            if (length > buffer.remaining()) {
+                if (!lastSegment) {
+                    skipBrokenSegment(segment, mappedPosition + buffer.limit());
+                }
+                // still being written
+                break;
+            }
+            final ByteBuffer record = buffer.slice();
+            record.limit(length);
+            buffer.position(buffer.position() + length);
+
+            if (!readRecord(record, handler)) {
+                skipBrokenSegment(segment, mappedPosition + buffer.limit());
+                break;
+            }
+            segmentPosition += 4 + length;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the sequence of the segment being read, while a record is handled
+     */
+    synchronized long getSegmentSequence() {
+        return segmentSequence;
+    }
+
+    /**
+     * @return the sequence of the oldest segment left at the last read, -1 if there was none
+     */
+    synchronized long getFirstSegmentSequence() {
+        return firstSegmentSequence;
+    }
+
+    private void skipBrokenSegment(File segment, long segmentEnd) {
+        logger.warn("broken record, skip the rest of the segment. segment:{} position:{}", segment, segmentPosition);
+        segmentPosition = segmentEnd;
+    }
+
+    private boolean readRecord(ByteBuffer record, MutationLogStore.RecordHandler handler) {
+        final byte type = record.get();
+        final TableName tableName;
+        final Mutation mutation;
+        try {
+            tableName = MutationCodec.decodeTableName(record);
+            if (type == MutationLogStore.PUT) {
+                mutation = MutationCodec.decodePut(record);
+            } else if (type == MutationLogStore.INCREMENT) {
+                mutation = MutationCodec.decodeIncrement(record);
+            } else if (type == MutationLogStore.DELETE) {
+                mutation = MutationCodec.decodeDelete(record);
+            } else {
+                return false;
+            }
+        } catch (BufferUnderflowException e) {
+            return false;
+        }
+        if (mutation instanceof Put) {
+            handler.handlePut(tableName, (Put) mutation);
+        } else if (mutation instanceof Increment) {
+            handler.handleIncrement(tableName, (Increment) mutation);
+        } else {
+            handler.handleDelete(tableName, (Delete) mutation);
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "MutationLogReader{" +
+                "directory=" + directory +
+                '}';
+    }
+}
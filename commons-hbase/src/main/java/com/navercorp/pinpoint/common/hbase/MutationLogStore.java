@@ -0,0 +1,534 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only store of mutations in rotating segment files.
+ * Records are encoded into the write buffer of the stripe the calling thread maps to, so appending never does any I/O
+ * and only contends with the threads sharing the stripe. Full buffers are handed to a dedicated writer thread, which also
+ * collects the partially filled buffers every flush period and on {@link #flush()}.
+ * Records of one thread are written in append order, records of different threads in the order their buffers were handed over.
+ * A new segment is started once the current one grows over the segment size, existing segments are never rewritten.
+ * The oldest segments are deleted once the segments grow over the retention size or get older than the retention period,
+ * checked whenever a new segment is started.
+ *
+ * <pre>
+ * record : [int length][byte type][mutation]
+ * </pre>
+ * The mutation is encoded by {@link MutationCodec}, timestamps left to the server are stamped with the append time.
+ * A delete is kept as a tombstone record. {@link MutationLogReader} reads the records back.
+ */
+public class MutationLogStore implements Closeable {
+
+    public static final byte PUT = 1;
+    public static final byte INCREMENT = 2;
+    public static final byte DELETE = 3;
+
+    static final int HEADER_SIZE = 4 + 1;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile(SEGMENT_PREFIX + "(\\d+)" + SEGMENT_SUFFIX);
+
+    private static final int STRIPE_SIZE = 8;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+    static final long DEFAULT_FLUSH_PERIOD = 1000;
+
+    /**
+     * retention size or period which keeps every segment
+     */
+    public static final long UNLIMITED_RETENTION = 0;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final File directory;
+    private final long segmentSize;
+    private final int writeBufferSize;
+    private final long flushPeriodMillis;
+    private final long retentionSize;
+    private final long retentionMillis;
+
+    private final Stripe[] stripes;
+    // one spare buffer per stripe, a stripe waits for a written buffer to come back when all of them are queued
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+    private final BlockingQueue<WriteRequest> writeQueue = new LinkedBlockingQueue<>();
+    private final WriteRequest closeRequest = new WriteRequest(null, false, new CountDownLatch(1));
+    private final Thread writerThread;
+    private final AtomicReference<IOException> writeError = new AtomicReference<>();
+    private final LongAdder recordCount = new LongAdder();
+    private volatile boolean closed;
+
+    // confined to the writer thread once it is started
+    private FileChannel channel;
+    private long segmentSequence;
+    private long segmentPosition;
+
+    public MutationLogStore(File directory, long segmentSize, int writeBufferSize) throws IOException {
+        this(directory, segmentSize, writeBufferSize, DEFAULT_FLUSH_PERIOD);
+    }
+
+    public MutationLogStore(File directory, long segmentSize, int writeBufferSize, long flushPeriodMillis) throws IOException {
+        this(directory, segmentSize, writeBufferSize, flushPeriodMillis, UNLIMITED_RETENTION, UNLIMITED_RETENTION);
+    }
+
+    /**
+     * @param retentionSize total size of the segments in bytes, {@link #UNLIMITED_RETENTION} to keep them regardless of size
+     * @param retentionMillis age of the oldest segment, {@link #UNLIMITED_RETENTION} to keep them regardless of age
+     */
+    public MutationLogStore(File directory, long segmentSize, int writeBufferSize, long flushPeriodMillis,
+                            long retentionSize, long retentionMillis) throws IOException {
+        if (directory == null) {
+            throw new NullPointerException("directory must not be null");
+        }
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("segmentSize must be greater than 0");
+        }
+        if (writeBufferSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("writeBufferSize too small:" + writeBufferSize);
+        }
+        if (flushPeriodMillis <= 0) {
+            throw new IllegalArgumentException("flushPeriodMillis must be greater than 0");
+        }
+        if (retentionSize < 0) {
+            throw new IllegalArgumentException("negative retentionSize:" + retentionSize);
+        }
+        if (retentionMillis < 0) {
+            throw new IllegalArgumentException("negative retentionMillis:" + retentionMillis);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.writeBufferSize = writeBufferSize;
+        this.flushPeriodMillis = flushPeriodMillis;
+        this.retentionSize = retentionSize;
+        this.retentionMillis = retentionMillis;
+
+        this.stripes = new Stripe[STRIPE_SIZE];
+        this.freeBuffers = new ArrayBlockingQueue<>(STRIPE_SIZE);
+        for (int i = 0; i < STRIPE_SIZE; i++) {
+            this.stripes[i] = new Stripe(ByteBuffer.allocateDirect(writeBufferSize));
+            this.freeBuffers.add(ByteBuffer.allocateDirect(writeBufferSize));
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("storage directory create fail:" + directory);
+        }
+        // never append to a segment left by a previous process, its tail may be broken
+        this.segmentSequence = findLastSequence(directory) + 1;
+        this.channel = openSegment(segmentSequence);
+        deleteExpiredSegments();
+
+        this.writerThread = new Thread(new Writer(), "Pinpoint-embedded-storage-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    private static long findLastSequence(File directory) {
+        long lastSequence = -1;
+        for (File segment : listSegments(directory)) {
+            lastSequence = Math.max(lastSequence, parseSequence(segment));
+        }
+        return lastSequence;
+    }
+
+    private FileChannel openSegment(long sequence) throws IOException {
+        final File file = new File(directory, SEGMENT_PREFIX + sequence + SEGMENT_SUFFIX);
+        logger.info("open segment:{}", file);
+        return new FileOutputStream(file, true).getChannel();
+    }
+
+    public void append(TableName tableName, Put put) throws IOException {
+        append(PUT, tableName, put);
+    }
+
+    public void append(TableName tableName, Increment increment) throws IOException {
+        append(INCREMENT, tableName, increment);
+    }
+
+    public void append(TableName tableName, Delete delete) throws IOException {
+        append(DELETE, tableName, delete);
+    }
+
+    private void append(byte type, TableName tableName, Mutation mutation) throws IOException {
+        if (tableName == null) {
+            throw new NullPointerException("tableName must not be null");
+        }
+        if (mutation == null) {
+            throw new NullPointerException("mutation must not be null");
+        }
+
+        final int length = 1 + MutationCodec.getLength(tableName, mutation);
+        final int recordSize = 4 + length;
+        final long currentTime = System.currentTimeMillis();
+        final Stripe stripe = stripes[(int) (Thread.currentThread().getId() & STRIPE_MASK)];
+
+        ByteBuffer spareBuffer = null;
+        try {
+            while (true) {
+                stripe.lock.lock();
+                try {
+                    if (closed) {
+                        throw new IOException("already closed");
+                    }
+                    if (stripe.buffer.remaining() < recordSize && stripe.buffer.position() > 0) {
+                        if (spareBuffer == null) {
+                            spareBuffer = freeBuffers.poll();
+                        }
+                        if (spareBuffer != null) {
+                            handOver(stripe.buffer);
+                            stripe.buffer = spareBuffer;
+                            spareBuffer = null;
+                        }
+                    }
+                    final ByteBuffer buffer = stripe.buffer;
+                    if (buffer.remaining() >= recordSize) {
+                        putRecord(buffer, length, type, tableName, mutation, currentTime);
+                        recordCount.increment();
+                        return;
+                    }
+                    if (buffer.position() == 0) {
+                        // larger than a write buffer, handed over as it is after the records buffered before it
+                        final ByteBuffer largeBuffer = ByteBuffer.allocate(recordSize);
+                        putRecord(largeBuffer, length, type, tableName, mutation, currentTime);
+                        largeBuffer.flip();
+                        writeQueue.add(new WriteRequest(largeBuffer, false, null));
+                        recordCount.increment();
+                        return;
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+                // every spare buffer is queued for writing, wait for one without holding the stripe
+                spareBuffer = takeFreeBuffer();
+            }
+        } finally {
+            if (spareBuffer != null) {
+                freeBuffers.add(spareBuffer);
+            }
+        }
+    }
+
+    private void putRecord(ByteBuffer buffer, int length, byte type, TableName tableName, Mutation mutation, long currentTime) {
+        buffer.putInt(length);
+        buffer.put(type);
+        MutationCodec.encode(buffer, tableName, mutation, currentTime);
+    }
+
+    private void handOver(ByteBuffer buffer) {
+        buffer.flip();
+        writeQueue.add(new WriteRequest(buffer, true, null));
+    }
+
+    private ByteBuffer takeFreeBuffer() throws InterruptedIOException {
+        try {
+            return freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a write buffer");
+        }
+    }
+
+    /**
+     * Hands the partially filled buffers over to the writer.
+     *
+     * @param wait whether to wait for a spare buffer, otherwise a stripe without one is left for the next drain
+     */
+    private void drainStripes(boolean wait) throws InterruptedIOException {
+        for (Stripe stripe : stripes) {
+            ByteBuffer spareBuffer = wait ? takeFreeBuffer() : freeBuffers.poll();
+            if (spareBuffer == null) {
+                continue;
+            }
+            stripe.lock.lock();
+            try {
+                if (stripe.buffer.position() > 0) {
+                    handOver(stripe.buffer);
+                    stripe.buffer = spareBuffer;
+                    spareBuffer = null;
+                }
+            } finally {
+                stripe.lock.unlock();
+                if (spareBuffer != null) {
+                    freeBuffers.add(spareBuffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the records appended so far to the current segment.
+     */
+    public void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+        drainStripes(true);
+        awaitWriter(new WriteRequest(null, false, new CountDownLatch(1)));
+        throwWriteError();
+    }
+
+    private void awaitWriter(WriteRequest request) throws InterruptedIOException {
+        writeQueue.add(request);
+        try {
+            request.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for the writer");
+        }
+    }
+
+    private void throwWriteError() throws IOException {
+        final IOException error = writeError.getAndSet(null);
+        if (error != null) {
+            throw new IOException("segment write fail", error);
+        }
+    }
+
+    public long getRecordCount() {
+        return recordCount.sum();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // appends check closed under the stripe lock, nothing is buffered after the drain
+        drainStripes(true);
+        awaitWriter(closeRequest);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throwWriteError();
+    }
+
+    private class Writer implements Runnable {
+        @Override
+        public void run() {
+            long nextDrainTime = System.currentTimeMillis() + flushPeriodMillis;
+            while (true) {
+                final WriteRequest request;
+                try {
+                    request = writeQueue.poll(Math.max(0, nextDrainTime - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // stopped by close only
+                    continue;
+                }
+                if (request != null) {
+                    if (request.buffer != null) {
+                        write(request.buffer);
+                        if (request.recycle) {
+                            request.buffer.clear();
+                            freeBuffers.add(request.buffer);
+                        }
+                    }
+                    if (request == closeRequest) {
+                        closeChannel();
+                        request.done.countDown();
+                        return;
+                    }
+                    if (request.done != null) {
+                        request.done.countDown();
+                    }
+                }
+                final long currentTime = System.currentTimeMillis();
+                if (currentTime >= nextDrainTime) {
+                    try {
+                        drainStripes(false);
+                    } catch (InterruptedIOException e) {
+                        // never thrown without waiting
+                    }
+                    nextDrainTime = currentTime + flushPeriodMillis;
+                }
+            }
+        }
+    }
+
+    private void write(ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                segmentPosition += channel.write(buffer);
+            }
+            if (segmentPosition >= segmentSize) {
+                rotate();
+            }
+        } catch (IOException e) {
+            logger.warn("segment write fail. caused:{}", e.getMessage(), e);
+            writeError.set(e);
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        segmentSequence++;
+        segmentPosition = 0;
+        channel = openSegment(segmentSequence);
+        deleteExpiredSegments();
+    }
+
+    /**
+     * Deletes the oldest segments over the retention size or period, never the current one.
+     */
+    private void deleteExpiredSegments() {
+        if (retentionSize == UNLIMITED_RETENTION && retentionMillis == UNLIMITED_RETENTION) {
+            return;
+        }
+        final List<File> segments = listSegments(directory);
+        long totalSize = 0;
+        for (File segment : segments) {
+            totalSize += segment.length();
+        }
+        final long expireTime = retentionMillis == UNLIMITED_RETENTION ? Long.MIN_VALUE : System.currentTimeMillis() - retentionMillis;
+        for (File segment : segments) {
+            if (parseSequence(segment) >= segmentSequence) {
+                break;
+            }
+            final boolean oversized = retentionSize != UNLIMITED_RETENTION && totalSize > retentionSize;
+            if (!oversized && segment.lastModified() >= expireTime) {
+                break;
+            }
+            final long size = segment.length();
+            if (!segment.delete()) {
+                logger.warn("segment delete fail:{}", segment);
+                break;
+            }
+            logger.info("delete segment:{}", segment);
+            totalSize -= size;
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            writeError.set(e);
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("segment close fail. caused:{}", e.getMessage(), e);
+            }
+        }
+    }
+
+    static List<File> listSegments(File directory) {
+        final List<File> segments = new ArrayList<>();
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return segments;
+        }
+        for (File file : files) {
+            if (SEGMENT_PATTERN.matcher(file.getName()).matches()) {
+                segments.add(file);
+            }
+        }
+        segments.sort((f1, f2) -> Long.compare(parseSequence(f1), parseSequence(f2)));
+        return segments;
+    }
+
+    static long parseSequence(File file) {
+        final Matcher matcher = SEGMENT_PATTERN.matcher(file.getName());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("invalid segment file:" + file);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * Reads every record of the store in the given directory in write order. A broken record ends the segment it belongs to.
+     *
+     * @return the number of records read
+     */
+    public static long read(File directory, RecordHandler handler) throws IOException {
+        if (handler == null) {
+            throw new NullPointerException("handler must not be null");
+        }
+        return new MutationLogReader(directory).read(handler);
+    }
+
+    public interface RecordHandler {
+        void handlePut(TableName tableName, Put put);
+
+        void handleIncrement(TableName tableName, Increment increment);
+
+        void handleDelete(TableName tableName, Delete delete);
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        // guarded by lock
+        private ByteBuffer buffer;
+
+        private Stripe(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class WriteRequest {
+        private final ByteBuffer buffer;
+        private final boolean recycle;
+        private final CountDownLatch done;
+
+        private WriteRequest(ByteBuffer buffer, boolean recycle, CountDownLatch done) {
+            this.buffer = buffer;
+            this.recycle = recycle;
+            this.done = done;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MutationLogStore{" +
+                "directory=" + directory +
+                ", segmentSize=" + segmentSize +
+                ", writeBufferSize=" + writeBufferSize +
+                ", retentionSize=" + retentionSize +
+                ", retentionMillis=" + retentionMillis +
+                '}';
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded journal of {@link Put}s backed by memory-mapped segment files.
+ * Records are appended to the last segment and consumed from the first one. A new segment is created when a record does not
+ * fit anymore, and a segment is deleted once it is fully consumed. The read offset is kept in the segment header, so
+ * records left over by a previous process are replayed when the journal is opened again.
+ * <p>
+ * A record is consumed in two steps: {@link #peek()} returns the oldest record, and {@link #commit()} advances the read
+ * offset past it once the put is handed over. A crash between the two replays the record again, so a put may be
+ * written twice but is never lost. Writes to the mapping reach the disk when {@link #force()} is called.
+ *
+ * <pre>
+ * segment : [int readOffset][record]...[int 0]
+ * record  : [int length][mutation]
+ * </pre>
+ * The mutation is encoded by {@link MutationCodec}.
+ */
+public class PutSpillJournal {
+
+    private static final String SEGMENT_PREFIX = "spill-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile(SEGMENT_PREFIX + "(\\d+)" + SEGMENT_SUFFIX);
+
+    private static final int HEADER_SIZE = 4;
+    private static final int LENGTH_SIZE = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final File directory;
+    private final int segmentSize;
+    private final int maxSegmentCount;
+
+    // guarded by this
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long nextSequence;
+    private long depth;
+    private boolean closed;
+    private SpilledPut peeked;
+    private boolean dirty;
+
+    public PutSpillJournal(File directory, int segmentSize, int maxSegmentCount) throws IOException {
+        if (directory == null) {
+            throw new NullPointerException("directory must not be null");
+        }
+        if (segmentSize <= HEADER_SIZE + LENGTH_SIZE) {
+            throw new IllegalArgumentException("segmentSize too small:" + segmentSize);
+        }
+        if (maxSegmentCount <= 0) {
+            throw new IllegalArgumentException("maxSegmentCount must be greater than 0");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegmentCount = maxSegmentCount;
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("spill directory create fail:" + directory);
+        }
+        recover();
+    }
+
+    private void recover() throws IOException {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        final List<File> segmentFiles = new ArrayList<>();
+        for (File file : files) {
+            if (SEGMENT_PATTERN.matcher(file.getName()).matches()) {
+                segmentFiles.add(file);
+            }
+        }
+        segmentFiles.sort((f1, f2) -> Long.compare(parseSequence(f1), parseSequence(f2)));
+
+        for (File file : segmentFiles) {
+            nextSequence = Math.max(nextSequence, parseSequence(file) + 1);
+            final Segment segment = Segment.open(file, file.length());
+            if (segment.readOffset >= segment.writeOffset) {
+                segment.delete();
+                continue;
+            }
+            segments.addLast(segment);
+            depth += segment.countRecords();
+        }
+        if (depth > 0) {
+            logger.info("recover spilled puts. segments:{}, depth:{}", segments.size(), depth);
+        }
+    }
+
+    private static long parseSequence(File file) {
+        final Matcher matcher = SEGMENT_PATTERN.matcher(file.getName());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("invalid segment file:" + file);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * @return {@code false} if the journal is full or closed
+     */
+    public synchronized boolean append(TableName tableName, Put put) {
+        if (tableName == null) {
+            throw new NullPointerException("tableName must not be null");
+        }
+        if (put == null) {
+            throw new NullPointerException("put must not be null");
+        }
+        if (closed) {
+            return false;
+        }
+
+        final int recordSize = LENGTH_SIZE + MutationCodec.getLength(tableName, put);
+        // keep room for the end marker
+        if (recordSize > segmentSize - HEADER_SIZE - LENGTH_SIZE) {
+            logger.warn("put too large to spill. size:{}", recordSize);
+            return false;
+        }
+
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.remaining() < recordSize + LENGTH_SIZE) {
+            if (segments.size() >= maxSegmentCount) {
+                return false;
+            }
+            try {
+                segment = newSegment();
+            } catch (IOException e) {
+                logger.warn("spill segment create fail. caused:{}", e.getMessage(), e);
+                return false;
+            }
+            segments.addLast(segment);
+        }
+        segment.write(recordSize - LENGTH_SIZE, tableName, put);
+        depth++;
+        dirty = true;
+        return true;
+    }
+
+    private Segment newSegment() throws IOException {
+        final File file = new File(directory, SEGMENT_PREFIX + nextSequence + SEGMENT_SUFFIX);
+        nextSequence++;
+        return Segment.open(file, segmentSize);
+    }
+
+    /**
+     * Returns the oldest spilled put without consuming it. The same put is returned until {@link #commit()} is called.
+     *
+     * @return the oldest spilled put, {@code null} if the journal is empty or closed
+     */
+    public synchronized SpilledPut peek() {
+        if (closed) {
+            return null;
+        }
+        if (peeked != null) {
+            return peeked;
+        }
+        while (true) {
+            final Segment segment = segments.peekFirst();
+            if (segment == null) {
+                return null;
+            }
+            if (segment.readOffset < segment.writeOffset) {
+                final SpilledPut spilledPut = readRecord(segment);
+                if (spilledPut != null) {
+                    this.peeked = spilledPut;
+                    return spilledPut;
+                }
+                continue;
+            }
+            if (segment == segments.peekLast()) {
+                return null;
+            }
+            segments.pollFirst();
+            segment.delete();
+        }
+    }
+
+    private SpilledPut readRecord(Segment segment) {
+        try {
+            return segment.read();
+        } catch (RuntimeException e) {
+            // broken tail of a recovered segment
+            logger.warn("spilled put read fail, skip segment. offset:{} caused:{}", segment.readOffset, e.getMessage(), e);
+            depth -= segment.countRecords();
+            segment.skipAll();
+            dirty = true;
+            return null;
+        }
+    }
+
+    /**
+     * Consumes the put returned by the last {@link #peek()}.
+     */
+    public synchronized void commit() {
+        if (peeked == null) {
+            throw new IllegalStateException("no peeked put");
+        }
+        this.peeked = null;
+        if (closed) {
+            return;
+        }
+        segments.getFirst().commit();
+        depth--;
+        dirty = true;
+    }
+
+    /**
+     * Writes appended and consumed records of the mapped segments to the disk.
+     */
+    public synchronized void force() {
+        if (closed || !dirty) {
+            return;
+        }
+        for (Segment segment : segments) {
+            segment.force();
+        }
+        dirty = false;
+    }
+
+    public synchronized long getDepth() {
+        return depth;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Releases the segment files. Records which are not consumed yet are kept on disk.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        peeked = null;
+        for (Segment segment : segments) {
+            segment.force();
+            segment.close();
+        }
+        segments.clear();
+    }
+
+    public static class SpilledPut {
+        private final TableName tableName;
+        private final Put put;
+
+        SpilledPut(TableName tableName, Put put) {
+            this.tableName = tableName;
+            this.put = put;
+        }
+
+        public TableName getTableName() {
+            return tableName;
+        }
+
+        public Put getPut() {
+            return put;
+        }
+    }
+
+    private static class Segment {
+        private final File file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int readOffset;
+        private int writeOffset;
+        // end of the record returned by read(), not committed yet
+        private int peekOffset;
+
+        private Segment(File file, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(File file, long size) throws IOException {
+            final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            final FileChannel channel = randomAccessFile.getChannel();
+            final MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            final Segment segment = new Segment(file, channel, buffer);
+            segment.writeOffset = segment.scanWriteOffset();
+            segment.readOffset = Math.min(Math.max(HEADER_SIZE, buffer.getInt(0)), segment.writeOffset);
+            return segment;
+        }
+
+        private int scanWriteOffset() {
+            int offset = HEADER_SIZE;
+            while (offset + LENGTH_SIZE <= buffer.capacity()) {
+                final int length = buffer.getInt(offset);
+                if (length <= 0 || offset + LENGTH_SIZE + length > buffer.capacity()) {
+                    break;
+                }
+                offset += LENGTH_SIZE + length;
+            }
+            return offset;
+        }
+
+        int countRecords() {
+            int count = 0;
+            int offset = readOffset;
+            while (offset < writeOffset) {
+                final int length = buffer.getInt(offset);
+                if (length <= 0) {
+                    break;
+                }
+                offset += LENGTH_SIZE + length;
+                count++;
+            }
+            return count;
+        }
+
+        int remaining() {
+            return buffer.capacity() - writeOffset;
+        }
+
+        void write(int length, TableName tableName, Put put) {
+            buffer.position(writeOffset);
+            buffer.putInt(length);
+            MutationCodec.encode(buffer, tableName, put);
+            writeOffset = buffer.position();
+        }
+
+        SpilledPut read() {
+            buffer.position(readOffset);
+            final int length = buffer.getInt();
+            final int end = buffer.position() + length;
+            if (length <= 0 || end > writeOffset) {
+                throw new BufferUnderflowException();
+            }
+            final TableName tableName = MutationCodec.decodeTableName(buffer);
+            final Put put = MutationCodec.decodePut(buffer);
+            peekOffset = end;
+            return new SpilledPut(tableName, put);
+        }
+
+        void commit() {
+            readOffset = peekOffset;
+            buffer.putInt(0, readOffset);
+        }
+
+        void skipAll() {
+            readOffset = writeOffset;
+            buffer.putInt(0, readOffset);
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+                // skip
+            }
+        }
+
+        void delete() {
+            close();
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Segment{" +
+                    "file=" + file +
+                    ", readOffset=" + readOffset +
+                    ", writeOffset=" + writeOffset +
+                    '}';
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PutSpillJournal{" +
+                "directory=" + directory +
+                ", segmentSize=" + segmentSize +
+                ", maxSegmentCount=" + maxSegmentCount +
+                '}';
+    }
+}
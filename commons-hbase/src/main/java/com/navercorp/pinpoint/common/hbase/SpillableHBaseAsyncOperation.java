@@ -0,0 +1,227 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Put;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link HBaseAsyncOperation} which spills puts rejected by the delegate into a {@link PutSpillJournal} instead of
+ * handing them back to the caller, who would otherwise fall back to a synchronous put on its own thread.
+ * Spilled puts are replayed in order by a background thread as soon as the delegate accepts puts again.
+ * Puts are only handed back when the journal is full.
+ * <p>
+ * New puts go to the delegate directly and do not wait for the backlog, so they can overtake older spilled puts.
+ * A spilled put is removed from the journal only after the delegate accepted it, and the journal is forced to the disk
+ * on every replay period. A put may therefore be replayed twice after a crash, but is not lost.
+ */
+public class SpillableHBaseAsyncOperation implements HBaseAsyncOperation, Closeable {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final HBaseAsyncOperation delegate;
+    private final PutSpillJournal journal;
+    private final ScheduledExecutorService replayExecutor;
+
+    private final AtomicLong spilledCount = new AtomicLong();
+    private final AtomicLong spillRejectedCount = new AtomicLong();
+    private final AtomicLong replayedCount = new AtomicLong();
+
+    public SpillableHBaseAsyncOperation(HBaseAsyncOperation delegate, PutSpillJournal journal, long replayPeriodMillis) {
+        if (delegate == null) {
+            throw new NullPointerException("delegate must not be null");
+        }
+        if (journal == null) {
+            throw new NullPointerException("journal must not be null");
+        }
+        if (replayPeriodMillis <= 0) {
+            throw new IllegalArgumentException("replayPeriodMillis must be greater than 0");
+        }
+        this.delegate = delegate;
+        this.journal = journal;
+
+        this.replayExecutor = Executors.newSingleThreadScheduledExecutor(new PinpointThreadFactory("Pinpoint-HBase-spill-replay", true));
+        this.replayExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                replay();
+            }
+        }, replayPeriodMillis, replayPeriodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    @Override
+    public boolean put(TableName tableName, Put put) {
+        if (delegate.put(tableName, put)) {
+            return true;
+        }
+        return spill(tableName, put);
+    }
+
+    @Override
+    public List<Put> put(TableName tableName, List<Put> puts) {
+        final List<Put> rejectedPuts = delegate.put(tableName, puts);
+        if (rejectedPuts == null || rejectedPuts.isEmpty()) {
+            return rejectedPuts;
+        }
+
+        List<Put> unspilledPuts = null;
+        for (Put rejectedPut : rejectedPuts) {
+            if (!spill(tableName, rejectedPut)) {
+                if (unspilledPuts == null) {
+                    unspilledPuts = new ArrayList<>();
+                }
+                unspilledPuts.add(rejectedPut);
+            }
+        }
+        if (unspilledPuts == null) {
+            return Collections.emptyList();
+        }
+        return unspilledPuts;
+    }
+
+    private boolean spill(TableName tableName, Put put) {
+        if (journal.append(tableName, put)) {
+            spilledCount.incrementAndGet();
+            return true;
+        }
+        spillRejectedCount.incrementAndGet();
+        return false;
+    }
+
+    void replay() {
+        try {
+            while (true) {
+                final PutSpillJournal.SpilledPut spilledPut = journal.peek();
+                if (spilledPut == null) {
+                    return;
+                }
+                if (!delegate.put(spilledPut.getTableName(), spilledPut.getPut())) {
+                    // no capacity yet, retry on the next period
+                    return;
+                }
+                journal.commit();
+                replayedCount.incrementAndGet();
+            }
+        } catch (Exception e) {
+            logger.warn("spilled put replay fail. caused:{}", e.getMessage(), e);
+        } finally {
+            journal.force();
+        }
+    }
+
+    /**
+     * @return the number of spilled puts which are not replayed yet
+     */
+    public long getSpillDepth() {
+        return journal.getDepth();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    /**
+     * @return the number of rejected puts handed back to the caller because the journal was full
+     */
+    public long getSpillRejectedCount() {
+        return spillRejectedCount.get();
+    }
+
+    public long getReplayedCount() {
+        return replayedCount.get();
+    }
+
+    @Override
+    public Long getOpsCount() {
+        return delegate.getOpsCount();
+    }
+
+    @Override
+    public Long getOpsRejectedCount() {
+        return delegate.getOpsRejectedCount();
+    }
+
+    @Override
+    public Long getCurrentOpsCount() {
+        return delegate.getCurrentOpsCount() + getSpillDepth();
+    }
+
+    @Override
+    public Long getOpsFailedCount() {
+        return delegate.getOpsFailedCount();
+    }
+
+    @Override
+    public Long getOpsAverageLatency() {
+        return delegate.getOpsAverageLatency();
+    }
+
+    @Override
+    public Map<String, Long> getCurrentOpsCountForEachRegionServer() {
+        return delegate.getCurrentOpsCountForEachRegionServer();
+    }
+
+    @Override
+    public Map<String, Long> getOpsFailedCountForEachRegionServer() {
+        return delegate.getOpsFailedCountForEachRegionServer();
+    }
+
+    @Override
+    public Map<String, Long> getOpsAverageLatencyForEachRegionServer() {
+        return delegate.getOpsAverageLatencyForEachRegionServer();
+    }
+
+    /**
+     * Stops replaying and releases the journal. Puts which are not replayed yet stay on disk and are replayed on the next start.
+     */
+    @Override
+    public void close() {
+        replayExecutor.shutdown();
+        try {
+            replayExecutor.awaitTermination(3000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    @Override
+    public String toString() {
+        return "SpillableHBaseAsyncOperation{" +
+                "delegate=" + delegate +
+                ", journal=" + journal +
+                '}';
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+
+import java.io.IOException;
+
+/**
+ * Read access to the rows of a storage that is not an HBase cluster.
+ * Gets and scans keep the HBase semantics the DAOs rely on: rows are sorted by key, the requested families, columns,
+ * time range and filter are applied, and a row without any selected cell is not returned by a scan.
+ */
+public interface TableReader {
+
+    Result get(TableName tableName, Get get) throws IOException;
+
+    ResultScanner getScanner(TableName tableName, Scan scan) throws IOException;
+}
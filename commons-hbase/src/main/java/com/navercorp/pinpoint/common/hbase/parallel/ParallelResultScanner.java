@@ -27,21 +27,49 @@ import org.apache.hadoop.hbase.util.Bytes;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.concurrent.ExecutorService;
 
 /**
+ * Results of the {@link ScanTask}s are merged in original row key order using a heap of the head result of each task.
+ * Each task prefetches up to {@code prefetchSize} results ahead of the consumer, and {@link #close()} stops every task
+ * before it requests the next batch from the region servers.
+ *
  * @author HyunGil Jeong
  */
 public class ParallelResultScanner implements ResultScanner {
 
+    private static final Comparator<TaskHead> TASK_HEAD_COMPARATOR = new Comparator<TaskHead>() {
+        @Override
+        public int compare(TaskHead o1, TaskHead o2) {
+            final int compare = Bytes.compareTo(o1.originalKey, o2.originalKey);
+            if (compare != 0) {
+                return compare;
+            }
+            return Integer.compare(o1.taskIndex, o2.taskIndex);
+        }
+    };
+
     private final AbstractRowKeyDistributor keyDistributor;
     private final List<ScanTask> scanTasks;
-    private final Result[] nextResults;
+    private final PriorityQueue<TaskHead> taskHeads;
+    private boolean initialized = false;
+    // task of the last returned result, refilled lazily so that the task keeps scanning while the caller consumes the result
+    private int refillTaskIndex = -1;
+    private boolean closed = false;
     private Result next = null;
 
     public ParallelResultScanner(TableName tableName, HbaseAccessor hbaseAccessor, ExecutorService executor, Scan originalScan, AbstractRowKeyDistributor keyDistributor, int numParallelThreads) throws IOException {
+        this(tableName, hbaseAccessor, executor, originalScan, keyDistributor, numParallelThreads, 0);
+    }
+
+    /**
+     * @param prefetchSize maximum number of results buffered per {@link ScanTask}, scan caching is used if 0 or less
+     */
+    public ParallelResultScanner(TableName tableName, HbaseAccessor hbaseAccessor, ExecutorService executor, Scan originalScan, AbstractRowKeyDistributor keyDistributor, int numParallelThreads, int prefetchSize) throws IOException {
         if (hbaseAccessor == null) {
             throw new NullPointerException("hbaseAccessor must not be null");
         }
@@ -56,11 +84,12 @@ public class ParallelResultScanner implements ResultScanner {
         }
         this.keyDistributor = keyDistributor;
 
-        final ScanTaskConfig scanTaskConfig = new ScanTaskConfig(tableName, hbaseAccessor, keyDistributor, originalScan.getCaching());
+        final int scanTaskQueueSize = prefetchSize > 0 ? prefetchSize : originalScan.getCaching();
+        final ScanTaskConfig scanTaskConfig = new ScanTaskConfig(tableName, hbaseAccessor, keyDistributor, scanTaskQueueSize);
         final Scan[] splitScans = splitScans(originalScan);
 
         this.scanTasks = createScanTasks(scanTaskConfig, splitScans, numParallelThreads);
-        this.nextResults = new Result[scanTasks.size()];
+        this.taskHeads = new PriorityQueue<>(scanTasks.size(), TASK_HEAD_COMPARATOR);
         for (ScanTask scanTask : scanTasks) {
             executor.execute(scanTask);
         }
@@ -119,33 +148,42 @@ public class ParallelResultScanner implements ResultScanner {
     }
 
     private Result nextInternal() throws IOException {
-        Result result = null;
-        int indexOfResultToUse = -1;
-        for (int i = 0; i < this.scanTasks.size(); i++) {
-            ScanTask scanTask = this.scanTasks.get(i);
-            // fail fast in case of errors
-            checkTask(scanTask);
-            if (nextResults[i] == null) {
-                try {
-                    nextResults[i] = scanTask.getResult();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return null;
-                }
-                if (nextResults[i] == null) {
-                    continue;
+        if (closed) {
+            return null;
+        }
+        try {
+            if (!initialized) {
+                for (int i = 0; i < this.scanTasks.size(); i++) {
+                    pollTask(i);
                 }
+                initialized = true;
+            } else if (refillTaskIndex >= 0) {
+                pollTask(refillTaskIndex);
+                refillTaskIndex = -1;
             }
-            if (result == null || Bytes.compareTo(keyDistributor.getOriginalKey(nextResults[i].getRow()),
-                    keyDistributor.getOriginalKey(result.getRow())) < 0) {
-                result = nextResults[i];
-                indexOfResultToUse = i;
-            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         }
-        if (indexOfResultToUse >= 0) {
-            nextResults[indexOfResultToUse] = null;
+
+        final TaskHead taskHead = taskHeads.poll();
+        if (taskHead == null) {
+            return null;
+        }
+        refillTaskIndex = taskHead.taskIndex;
+        return taskHead.result;
+    }
+
+    private void pollTask(int taskIndex) throws InterruptedException {
+        final ScanTask scanTask = this.scanTasks.get(taskIndex);
+        // fail fast in case of errors
+        checkTask(scanTask);
+        final Result result = scanTask.getResult();
+        checkTask(scanTask);
+        if (result != null) {
+            final byte[] originalKey = keyDistributor.getOriginalKey(result.getRow());
+            taskHeads.add(new TaskHead(taskIndex, originalKey, result));
         }
-        return result;
     }
 
     private void checkTask(ScanTask scanTask) {
@@ -173,9 +211,14 @@ public class ParallelResultScanner implements ResultScanner {
 
     @Override
     public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
         for (ScanTask scanTask : this.scanTasks) {
             scanTask.close();
         }
+        taskHeads.clear();
     }
 
     @Override
@@ -223,4 +266,16 @@ public class ParallelResultScanner implements ResultScanner {
             }
         };
     }
+
+    private static class TaskHead {
+        private final int taskIndex;
+        private final byte[] originalKey;
+        private final Result result;
+
+        private TaskHead(int taskIndex, byte[] originalKey, Result result) {
+            this.taskIndex = taskIndex;
+            this.originalKey = originalKey;
+            this.result = result;
+        }
+    }
 }
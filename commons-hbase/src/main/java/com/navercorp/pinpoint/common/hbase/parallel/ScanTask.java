@@ -28,6 +28,7 @@ import org.apache.hadoop.hbase.client.Table;
 import java.io.IOException;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author HyunGil Jeong
@@ -36,6 +37,8 @@ public class ScanTask implements Runnable {
 
     private static final Result END_RESULT = new Result();
 
+    private static final long PUT_CHECK_INTERVAL_MILLIS = 100;
+
     private final TableName tableName;
     private final TableFactory tableFactory;
     private final AbstractRowKeyDistributor rowKeyDistributor;
@@ -45,7 +48,7 @@ public class ScanTask implements Runnable {
 
     private volatile Throwable throwable;
     private volatile boolean isQueueClosed = false;
-    private volatile boolean isDone = false;
+    private volatile boolean isClosed = false;
 
     public ScanTask(ScanTaskConfig scanTaskConfig, Scan... scans) {
         if (scanTaskConfig == null) {
@@ -67,29 +70,67 @@ public class ScanTask implements Runnable {
     @Override
     public void run() {
         Table table = null;
+        ResultScanner scanner = null;
         try {
             // TODO Avoid ThreadPool Deadlock : tableFactory.getTable(this.tableName, ParallelScannerThreadPool);
             table = tableFactory.getTable(this.tableName);
-            ResultScanner scanner = createResultScanner(table);
-            try {
-                for (Result result : scanner) {
-                    this.resultQueue.put(result);
-                    if (this.isDone) {
-                        break;
-                    }
+            scanner = createResultScanner(table);
+            // check before every scanner.next() so that a closed task does not fetch the next batch from region servers
+            while (!this.isClosed) {
+                final Result result = scanner.next();
+                if (result == null) {
+                    break;
+                }
+                if (!putResult(result)) {
+                    break;
                 }
-            } finally {
-                this.isDone = true;
-                this.resultQueue.put(END_RESULT);
-                scanner.close();
             }
         } catch (Throwable th) {
             this.throwable = th;
-            this.resultQueue.clear();
-            this.resultQueue.offer(END_RESULT);
         } finally {
+            closeScanner(scanner);
             tableFactory.releaseTable(table);
+            // throwable must be set before END_RESULT is published, the consumer checks it right after END_RESULT
+            putEndResult();
+        }
+    }
+
+    private void closeScanner(ResultScanner scanner) {
+        if (scanner == null) {
+            return;
+        }
+        try {
+            scanner.close();
+        } catch (Throwable th) {
+            if (this.throwable == null) {
+                this.throwable = th;
+            }
+        }
+    }
+
+    private void putEndResult() {
+        if (this.throwable == null) {
+            try {
+                // skipped if close() has already signaled the consumer
+                putResult(END_RESULT);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.throwable = e;
+            }
         }
+        this.resultQueue.clear();
+        this.resultQueue.offer(END_RESULT);
+    }
+
+    private boolean putResult(Result result) throws InterruptedException {
+        // do not block forever on a full queue once the consumer has gone away
+        while (!this.isClosed) {
+            if (this.resultQueue.offer(result, PUT_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private ResultScanner createResultScanner(Table table) throws IOException {
@@ -118,10 +159,14 @@ public class ScanTask implements Runnable {
     }
 
     public void close() {
-        this.isDone = true;
+        this.isClosed = true;
         // signal threads blocked on resultQueue
         this.resultQueue.clear();
-        this.resultQueue.add(END_RESULT);
+        this.resultQueue.offer(END_RESULT);
+    }
+
+    public boolean isClosed() {
+        return this.isClosed;
     }
 
     public Throwable getThrowable() {
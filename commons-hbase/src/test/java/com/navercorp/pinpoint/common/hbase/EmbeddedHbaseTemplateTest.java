@@ -0,0 +1,283 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.BinaryPrefixComparator;
+import org.apache.hadoop.hbase.filter.CompareFilter;
+import org.apache.hadoop.hbase.filter.QualifierFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EmbeddedHbaseTemplateTest {
+
+    private static final TableName TABLE_NAME = TableName.valueOf("TraceV2");
+    private static final byte[] FAMILY = Bytes.toBytes("S");
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("embedded", "");
+        Assert.assertTrue(directory.delete());
+    }
+
+    @After
+    public void tearDown() {
+        delete(directory);
+    }
+
+    private void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    public void write() throws IOException {
+        EmbeddedHbaseTemplate template = new EmbeddedHbaseTemplate(directory.getPath(), 1024 * 1024);
+
+        template.put(TABLE_NAME, Bytes.toBytes("row1"), FAMILY, Bytes.toBytes("q"), Bytes.toBytes("value"));
+        Assert.assertTrue(template.asyncPut(TABLE_NAME, newPut("row2")));
+        List<Put> rejectedPuts = template.asyncPut(TABLE_NAME, Arrays.asList(newPut("row3"), newPut("row4")));
+        Assert.assertTrue(rejectedPuts.isEmpty());
+
+        Increment increment = new Increment(Bytes.toBytes("row5"));
+        increment.addColumn(FAMILY, Bytes.toBytes("q"), 1L);
+        Assert.assertEquals(2, template.increment(TABLE_NAME, Arrays.asList(increment, increment)).size());
+        template.incrementColumnValue(TABLE_NAME, Bytes.toBytes("row6"), FAMILY, Bytes.toBytes("q"), 10L);
+        template.close();
+
+        final AtomicInteger putCount = new AtomicInteger();
+        final AtomicInteger incrementCount = new AtomicInteger();
+        long count = MutationLogStore.read(directory, new MutationLogStore.RecordHandler() {
+            @Override
+            public void handlePut(TableName tableName, Put put) {
+                putCount.incrementAndGet();
+            }
+
+            @Override
+            public void handleIncrement(TableName tableName, Increment increment) {
+                incrementCount.incrementAndGet();
+            }
+
+            @Override
+            public void handleDelete(TableName tableName, Delete delete) {
+                Assert.fail("unexpected delete");
+            }
+        });
+        Assert.assertEquals(7, count);
+        Assert.assertEquals(4, putCount.get());
+        Assert.assertEquals(3, incrementCount.get());
+    }
+
+    @Test
+    public void get() throws IOException {
+        EmbeddedHbaseTemplate template = new EmbeddedHbaseTemplate(directory.getPath(), 1024 * 1024);
+        template.put(TABLE_NAME, Bytes.toBytes("row1"), FAMILY, Bytes.toBytes("q1"), 10L, Bytes.toBytes("old"));
+        template.put(TABLE_NAME, Bytes.toBytes("row1"), FAMILY, Bytes.toBytes("q1"), 20L, Bytes.toBytes("new"));
+        template.put(TABLE_NAME, Bytes.toBytes("row1"), FAMILY, Bytes.toBytes("q2"), 5L, Bytes.toBytes("value2"));
+        template.put(TABLE_NAME, Bytes.toBytes("row1"), Bytes.toBytes("A"), Bytes.toBytes("q3"), 5L, Bytes.toBytes("value3"));
+        template.close();
+
+        EmbeddedHbaseTemplate readOnlyTemplate = new EmbeddedHbaseTemplate(directory.getPath());
+        Result result = readOnlyTemplate.get(TABLE_NAME, Bytes.toBytes("row1"), FAMILY, RESULT_MAPPER);
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("new", Bytes.toString(result.getValue(FAMILY, Bytes.toBytes("q1"))));
+        Assert.assertEquals("value2", Bytes.toString(result.getValue(FAMILY, Bytes.toBytes("q2"))));
+
+        Get get = new Get(Bytes.toBytes("row1"));
+        get.addFamily(FAMILY);
+        get.setFilter(new QualifierFilter(CompareFilter.CompareOp.EQUAL, new BinaryPrefixComparator(Bytes.toBytes("q2"))));
+        Result filtered = readOnlyTemplate.get(TABLE_NAME, get, RESULT_MAPPER);
+        Assert.assertEquals(1, filtered.size());
+
+        Assert.assertEquals(3, readOnlyTemplate.get(TABLE_NAME, Bytes.toBytes("row1"), RESULT_MAPPER).size());
+        Assert.assertTrue(readOnlyTemplate.get(TABLE_NAME, Bytes.toBytes("row2"), RESULT_MAPPER).isEmpty());
+    }
+
+    @Test
+    public void followWrites() throws IOException {
+        MutationLogStore store = new MutationLogStore(directory, 1024 * 1024, 1024);
+        EmbeddedHbaseTemplate template = new EmbeddedHbaseTemplate(store, new MutationLogIndex(directory));
+        EmbeddedHbaseTemplate readOnlyTemplate = new EmbeddedHbaseTemplate(directory.getPath());
+
+        Assert.assertEquals(3L, template.incrementColumnValue(TABLE_NAME, Bytes.toBytes("row1"), FAMILY, Bytes.toBytes("q"), 3L));
+        Assert.assertEquals(3L, Bytes.toLong(readOnlyTemplate.get(TABLE_NAME, Bytes.toBytes("row1"), RESULT_MAPPER).value()));
+
+        Assert.assertEquals(7L, template.incrementColumnValue(TABLE_NAME, Bytes.toBytes("row1"), FAMILY, Bytes.toBytes("q"), 4L));
+        Assert.assertEquals(7L, Bytes.toLong(readOnlyTemplate.get(TABLE_NAME, Bytes.toBytes("row1"), RESULT_MAPPER).value()));
+        Assert.assertEquals(7L, Bytes.toLong(template.get(TABLE_NAME, Bytes.toBytes("row1"), RESULT_MAPPER).value()));
+        template.close();
+    }
+
+    @Test
+    public void distributedScan() throws IOException {
+        AbstractRowKeyDistributor rowKeyDistributor = new RowKeyDistributorByHashPrefix(new RowKeyDistributorByHashPrefix.OneByteSimpleHash(4));
+        EmbeddedHbaseTemplate template = new EmbeddedHbaseTemplate(directory.getPath(), 1024 * 1024);
+        for (int i = 0; i < 10; i++) {
+            byte[] row = rowKeyDistributor.getDistributedKey(Bytes.toBytes("row" + i));
+            template.put(TABLE_NAME, row, FAMILY, Bytes.toBytes("q"), 1L, Bytes.toBytes(i));
+        }
+        // other family only
+        template.put(TABLE_NAME, rowKeyDistributor.getDistributedKey(Bytes.toBytes("row5a")), Bytes.toBytes("A"), Bytes.toBytes("q"), 1L, Bytes.toBytes(100));
+
+        Scan scan = new Scan();
+        scan.setStartRow(Bytes.toBytes("row2"));
+        scan.setStopRow(Bytes.toBytes("row8"));
+        scan.addFamily(FAMILY);
+        List<Integer> values = template.find(TABLE_NAME, scan, rowKeyDistributor, VALUE_MAPPER);
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7), values);
+
+        final List<Result> lastResult = new ArrayList<>();
+        List<Integer> limited = template.findParallel(TABLE_NAME, scan, rowKeyDistributor, 3, VALUE_MAPPER, new LimitEventHandler() {
+            @Override
+            public void handleLastResult(Result result) {
+                lastResult.add(result);
+            }
+        }, 4);
+        Assert.assertEquals(Arrays.asList(2, 3, 4), limited);
+        Assert.assertEquals(4, Bytes.toInt(lastResult.get(0).value()));
+        template.close();
+    }
+
+    @Test
+    public void reversedScan() throws IOException {
+        EmbeddedHbaseTemplate template = new EmbeddedHbaseTemplate(directory.getPath(), 1024 * 1024);
+        for (int i = 0; i < 5; i++) {
+            template.put(TABLE_NAME, Bytes.toBytes("row" + i), FAMILY, Bytes.toBytes("q"), 1L, Bytes.toBytes(i));
+        }
+        Scan scan = new Scan();
+        scan.setReversed(true);
+        scan.setStartRow(Bytes.toBytes("row3"));
+        scan.setStopRow(Bytes.toBytes("row0"));
+        Assert.assertEquals(Arrays.asList(3, 2, 1), template.find(TABLE_NAME, scan, VALUE_MAPPER));
+        template.close();
+    }
+
+    @Test
+    public void delete() throws IOException {
+        MutationLogStore store = new MutationLogStore(directory, 1024 * 1024, 1024);
+        EmbeddedHbaseTemplate template = new EmbeddedHbaseTemplate(store, new MutationLogIndex(directory));
+        template.put(TABLE_NAME, Bytes.toBytes("row1"), FAMILY, Bytes.toBytes("q1"), Bytes.toBytes("value1"));
+        template.put(TABLE_NAME, Bytes.toBytes("row1"), FAMILY, Bytes.toBytes("q2"), Bytes.toBytes("value2"));
+        template.put(TABLE_NAME, Bytes.toBytes("row2"), FAMILY, Bytes.toBytes("q"), Bytes.toBytes("value"));
+        template.put(TABLE_NAME, Bytes.toBytes("row3"), FAMILY, Bytes.toBytes("q"), Bytes.toBytes("value"));
+        template.incrementColumnValue(TABLE_NAME, Bytes.toBytes("row4"), FAMILY, Bytes.toBytes("q"), 3L);
+        store.flush();
+
+        // a web deletes the rows written by a collector
+        EmbeddedHbaseTemplate readOnlyTemplate = new EmbeddedHbaseTemplate(directory.getPath());
+        Delete columnDelete = new Delete(Bytes.toBytes("row1"));
+        columnDelete.addColumns(FAMILY, Bytes.toBytes("q1"));
+        readOnlyTemplate.delete(TABLE_NAME, Arrays.asList(columnDelete, new Delete(Bytes.toBytes("row2"))));
+        // the collector deletes through its own store
+        template.delete(TABLE_NAME, new Delete(Bytes.toBytes("row3")));
+        template.delete(TABLE_NAME, new Delete(Bytes.toBytes("row4")));
+        // written after the deletes
+        template.put(TABLE_NAME, Bytes.toBytes("row2"), FAMILY, Bytes.toBytes("q"), System.currentTimeMillis() + 1000, Bytes.toBytes("new"));
+        template.put(TABLE_NAME, Bytes.toBytes("row3"), FAMILY, Bytes.toBytes("q"), 1L, Bytes.toBytes("old"));
+        store.flush();
+
+        assertDeleted(readOnlyTemplate);
+        assertDeleted(template);
+        Assert.assertEquals(5L, template.incrementColumnValue(TABLE_NAME, Bytes.toBytes("row4"), FAMILY, Bytes.toBytes("q"), 5L));
+        template.close();
+        readOnlyTemplate.close();
+
+        // tombstones are read back on restart
+        EmbeddedHbaseTemplate restartedTemplate = new EmbeddedHbaseTemplate(directory.getPath());
+        assertDeleted(restartedTemplate);
+        restartedTemplate.close();
+    }
+
+    @Test
+    public void retention() throws IOException {
+        MutationLogStore store = new MutationLogStore(directory, 256, 128, 1000, 1024, MutationLogStore.UNLIMITED_RETENTION);
+        EmbeddedHbaseTemplate template = new EmbeddedHbaseTemplate(store, new MutationLogIndex(directory));
+        template.put(TABLE_NAME, Bytes.toBytes("row0"), FAMILY, Bytes.toBytes("q"), new byte[10]);
+        store.flush();
+        Assert.assertFalse(template.get(TABLE_NAME, Bytes.toBytes("row0"), RESULT_MAPPER).isEmpty());
+
+        final int count = 100;
+        for (int i = 1; i < count; i++) {
+            template.put(TABLE_NAME, Bytes.toBytes("row" + i), FAMILY, Bytes.toBytes("q"), new byte[10]);
+        }
+        store.flush();
+
+        // the segment of row0 is deleted, the rows of the current segment are kept
+        Assert.assertTrue(template.get(TABLE_NAME, Bytes.toBytes("row0"), RESULT_MAPPER).isEmpty());
+        Assert.assertFalse(template.get(TABLE_NAME, Bytes.toBytes("row" + (count - 1)), RESULT_MAPPER).isEmpty());
+        template.close();
+    }
+
+    private void assertDeleted(EmbeddedHbaseTemplate template) {
+        Result row1 = template.get(TABLE_NAME, Bytes.toBytes("row1"), RESULT_MAPPER);
+        Assert.assertEquals(1, row1.size());
+        Assert.assertEquals("value2", Bytes.toString(row1.getValue(FAMILY, Bytes.toBytes("q2"))));
+        Assert.assertEquals("new", Bytes.toString(template.get(TABLE_NAME, Bytes.toBytes("row2"), RESULT_MAPPER).value()));
+        Assert.assertTrue(template.get(TABLE_NAME, Bytes.toBytes("row3"), RESULT_MAPPER).isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnly() throws IOException {
+        EmbeddedHbaseTemplate template = new EmbeddedHbaseTemplate(directory.getPath());
+        template.put(TABLE_NAME, newPut("row1"));
+    }
+
+    private static final RowMapper<Result> RESULT_MAPPER = new RowMapper<Result>() {
+        @Override
+        public Result mapRow(Result result, int rowNum) throws Exception {
+            return result;
+        }
+    };
+
+    private static final RowMapper<Integer> VALUE_MAPPER = new RowMapper<Integer>() {
+        @Override
+        public Integer mapRow(Result result, int rowNum) throws Exception {
+            return Bytes.toInt(result.value());
+        }
+    };
+
+    private Put newPut(String row) {
+        Put put = new Put(Bytes.toBytes(row));
+        put.addColumn(FAMILY, Bytes.toBytes("q"), 1L, Bytes.toBytes("value"));
+        return put;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MutationLogStoreTest {
+
+    private static final TableName TABLE_NAME = TableName.valueOf("MapStatisticsCaller");
+    private static final byte[] FAMILY = Bytes.toBytes("C");
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("store", "");
+        Assert.assertTrue(directory.delete());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void appendAndRead() throws IOException {
+        MutationLogStore store = new MutationLogStore(directory, 1024 * 1024, 1024);
+        Put put = new Put(Bytes.toBytes("row1"), 100L);
+        put.addColumn(FAMILY, Bytes.toBytes("q1"), 200L, Bytes.toBytes("value1"));
+        store.append(TABLE_NAME, put);
+
+        Increment increment = new Increment(Bytes.toBytes("row2"));
+        increment.addColumn(FAMILY, Bytes.toBytes("q2"), 3L);
+        store.append(TABLE_NAME, increment);
+        store.close();
+
+        RecordingHandler handler = new RecordingHandler();
+        Assert.assertEquals(2, MutationLogStore.read(directory, handler));
+
+        Assert.assertEquals(1, handler.puts.size());
+        Put readPut = handler.puts.get(0);
+        Assert.assertEquals("row1", new String(readPut.getRow()));
+        Assert.assertEquals(100L, readPut.getTimeStamp());
+        Cell cell = readPut.getFamilyCellMap().get(FAMILY).get(0);
+        Assert.assertEquals(200L, cell.getTimestamp());
+        Assert.assertEquals("value1", new String(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength()));
+
+        Assert.assertEquals(1, handler.increments.size());
+        Increment readIncrement = handler.increments.get(0);
+        Assert.assertEquals("row2", new String(readIncrement.getRow()));
+        Cell incrementCell = readIncrement.getFamilyCellMap().get(FAMILY).get(0);
+        Assert.assertEquals(3L, Bytes.toLong(copyValue(incrementCell)));
+    }
+
+    @Test
+    public void rotateSegment() throws IOException {
+        MutationLogStore store = new MutationLogStore(directory, 256, 128);
+        final int count = 100;
+        for (int i = 0; i < count; i++) {
+            Put put = new Put(Bytes.toBytes("row" + i));
+            put.addColumn(FAMILY, Bytes.toBytes("q"), 1L, new byte[10]);
+            store.append(TABLE_NAME, put);
+        }
+        store.close();
+        Assert.assertEquals(count, store.getRecordCount());
+        Assert.assertTrue(directory.listFiles().length > 1);
+
+        RecordingHandler handler = new RecordingHandler();
+        Assert.assertEquals(count, MutationLogStore.read(directory, handler));
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals("row" + i, new String(handler.puts.get(i).getRow()));
+        }
+    }
+
+    @Test
+    public void retentionSize() throws IOException {
+        final long retentionSize = 1024;
+        MutationLogStore store = new MutationLogStore(directory, 256, 128, 1000, retentionSize, MutationLogStore.UNLIMITED_RETENTION);
+        final int count = 100;
+        for (int i = 0; i < count; i++) {
+            Put put = new Put(Bytes.toBytes("row" + i));
+            put.addColumn(FAMILY, Bytes.toBytes("q"), 1L, new byte[10]);
+            store.append(TABLE_NAME, put);
+        }
+        store.close();
+
+        long totalSize = 0;
+        for (File segment : directory.listFiles()) {
+            totalSize += segment.length();
+        }
+        // the current segment is written over the retention until the next rotation
+        Assert.assertTrue(totalSize <= retentionSize + 256 + 128);
+
+        RecordingHandler handler = new RecordingHandler();
+        final long readCount = MutationLogStore.read(directory, handler);
+        Assert.assertTrue(readCount < count);
+        for (int i = 0; i < readCount; i++) {
+            Assert.assertEquals("row" + (count - readCount + i), new String(handler.puts.get(i).getRow()));
+        }
+    }
+
+    @Test
+    public void retentionPeriod() throws IOException {
+        MutationLogStore store = new MutationLogStore(directory, 1024, 1024);
+        store.append(TABLE_NAME, new Put(Bytes.toBytes("row1")));
+        store.close();
+        File[] oldSegments = directory.listFiles();
+        Assert.assertEquals(1, oldSegments.length);
+        Assert.assertTrue(oldSegments[0].setLastModified(System.currentTimeMillis() - 60 * 60 * 1000));
+
+        MutationLogStore reopened = new MutationLogStore(directory, 1024, 1024, 1000, MutationLogStore.UNLIMITED_RETENTION, 60 * 1000);
+        reopened.append(TABLE_NAME, new Put(Bytes.toBytes("row2")));
+        reopened.close();
+
+        Assert.assertFalse(oldSegments[0].exists());
+        RecordingHandler handler = new RecordingHandler();
+        Assert.assertEquals(1, MutationLogStore.read(directory, handler));
+        Assert.assertEquals("row2", new String(handler.puts.get(0).getRow()));
+    }
+
+    @Test
+    public void reopen() throws IOException {
+        MutationLogStore store = new MutationLogStore(directory, 1024, 1024);
+        store.append(TABLE_NAME, new Put(Bytes.toBytes("row1")));
+        store.close();
+
+        MutationLogStore reopened = new MutationLogStore(directory, 1024, 1024);
+        reopened.append(TABLE_NAME, new Put(Bytes.toBytes("row2")));
+        reopened.close();
+
+        Assert.assertEquals(2, directory.listFiles().length);
+        RecordingHandler handler = new RecordingHandler();
+        Assert.assertEquals(2, MutationLogStore.read(directory, handler));
+        Assert.assertEquals("row1", new String(handler.puts.get(0).getRow()));
+        Assert.assertEquals("row2", new String(handler.puts.get(1).getRow()));
+    }
+
+    @Test
+    public void concurrentAppend() throws Exception {
+        final MutationLogStore store = new MutationLogStore(directory, 4 * 1024, 256);
+        final int threadCount = 16;
+        final int count = 1000;
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final String prefix = "thread" + i + "-";
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < count; j++) {
+                            Put put = new Put(Bytes.toBytes(prefix + j));
+                            put.addColumn(FAMILY, Bytes.toBytes("q"), 1L, Bytes.toBytes(j));
+                            store.append(TABLE_NAME, put);
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        store.close();
+
+        RecordingHandler handler = new RecordingHandler();
+        Assert.assertEquals(threadCount * count, MutationLogStore.read(directory, handler));
+        // records of a thread keep their order
+        int[] next = new int[threadCount];
+        for (Put put : handler.puts) {
+            String row = new String(put.getRow());
+            int thread = Integer.parseInt(row.substring("thread".length(), row.indexOf('-')));
+            Assert.assertEquals(prefix(thread) + next[thread], row);
+            next[thread]++;
+        }
+    }
+
+    @Test
+    public void largeRecord() throws IOException {
+        MutationLogStore store = new MutationLogStore(directory, 1024 * 1024, 64);
+        store.append(TABLE_NAME, new Put(Bytes.toBytes("row1")));
+        Put put = new Put(Bytes.toBytes("row2"));
+        put.addColumn(FAMILY, Bytes.toBytes("q"), 1L, new byte[1024]);
+        store.append(TABLE_NAME, put);
+        store.append(TABLE_NAME, new Put(Bytes.toBytes("row3")));
+        store.close();
+
+        RecordingHandler handler = new RecordingHandler();
+        Assert.assertEquals(3, MutationLogStore.read(directory, handler));
+        Assert.assertEquals("row1", new String(handler.puts.get(0).getRow()));
+        Assert.assertEquals("row2", new String(handler.puts.get(1).getRow()));
+        Assert.assertEquals("row3", new String(handler.puts.get(2).getRow()));
+    }
+
+    @Test
+    public void followStore() throws IOException {
+        MutationLogStore store = new MutationLogStore(directory, 1024 * 1024, 1024);
+        MutationLogReader reader = new MutationLogReader(directory);
+        store.append(TABLE_NAME, new Put(Bytes.toBytes("row1")));
+        store.flush();
+
+        RecordingHandler handler = new RecordingHandler();
+        Assert.assertEquals(1, reader.read(handler));
+        Assert.assertEquals(0, reader.read(handler));
+
+        store.append(TABLE_NAME, new Put(Bytes.toBytes("row2")));
+        store.close();
+        Assert.assertEquals(1, reader.read(handler));
+        Assert.assertEquals("row2", new String(handler.puts.get(1).getRow()));
+    }
+
+    @Test(expected = IOException.class)
+    public void appendAfterClose() throws IOException {
+        MutationLogStore store = new MutationLogStore(directory, 1024, 1024);
+        store.close();
+        store.append(TABLE_NAME, new Put(Bytes.toBytes("row1")));
+    }
+
+    private String prefix(int thread) {
+        return "thread" + thread + "-";
+    }
+
+    private byte[] copyValue(Cell cell) {
+        byte[] value = new byte[cell.getValueLength()];
+        System.arraycopy(cell.getValueArray(), cell.getValueOffset(), value, 0, value.length);
+        return value;
+    }
+
+    private static class RecordingHandler implements MutationLogStore.RecordHandler {
+        private final List<Put> puts = new ArrayList<>();
+        private final List<Increment> increments = new ArrayList<>();
+
+        @Override
+        public void handlePut(TableName tableName, Put put) {
+            Assert.assertEquals(TABLE_NAME, tableName);
+            puts.add(put);
+        }
+
+        @Override
+        public void handleIncrement(TableName tableName, Increment increment) {
+            Assert.assertEquals(TABLE_NAME, tableName);
+            increments.add(increment);
+        }
+
+        @Override
+        public void handleDelete(TableName tableName, Delete delete) {
+            Assert.fail("unexpected delete");
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Put;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class PutSpillJournalTest {
+
+    private static final TableName TABLE_NAME = TableName.valueOf("TraceV2");
+    private static final byte[] FAMILY = "S".getBytes(StandardCharsets.UTF_8);
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("spill", "");
+        Assert.assertTrue(directory.delete());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void appendAndConsume() throws IOException {
+        PutSpillJournal journal = new PutSpillJournal(directory, 1024, 2);
+
+        Assert.assertTrue(journal.append(TABLE_NAME, newPut("row1", "value1")));
+        Assert.assertTrue(journal.append(TABLE_NAME, newPut("row2", "value2")));
+        Assert.assertEquals(2, journal.getDepth());
+
+        assertSpilledPut(consume(journal), "row1", "value1");
+        assertSpilledPut(consume(journal), "row2", "value2");
+        Assert.assertNull(journal.peek());
+        Assert.assertEquals(0, journal.getDepth());
+
+        journal.close();
+    }
+
+    @Test
+    public void rotateSegment() throws IOException {
+        final int maxSegmentCount = 3;
+        PutSpillJournal journal = new PutSpillJournal(directory, 256, maxSegmentCount);
+
+        int appendCount = 0;
+        while (journal.append(TABLE_NAME, newPut("row" + appendCount, "value"))) {
+            appendCount++;
+        }
+        Assert.assertTrue(appendCount > maxSegmentCount);
+        Assert.assertEquals(maxSegmentCount, journal.getSegmentCount());
+        Assert.assertEquals(maxSegmentCount, directory.listFiles().length);
+
+        for (int i = 0; i < appendCount; i++) {
+            assertSpilledPut(consume(journal), "row" + i, "value");
+        }
+        Assert.assertNull(journal.peek());
+        // consumed segments are deleted
+        Assert.assertEquals(1, journal.getSegmentCount());
+        Assert.assertEquals(1, directory.listFiles().length);
+
+        journal.close();
+    }
+
+    @Test
+    public void tooLargePut() throws IOException {
+        PutSpillJournal journal = new PutSpillJournal(directory, 64, 2);
+
+        Assert.assertFalse(journal.append(TABLE_NAME, newPut("row", new String(new char[64]))));
+        Assert.assertEquals(0, journal.getDepth());
+
+        journal.close();
+    }
+
+    @Test
+    public void recover() throws IOException {
+        PutSpillJournal journal = new PutSpillJournal(directory, 256, 4);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(journal.append(TABLE_NAME, newPut("row" + i, "value")));
+        }
+        assertSpilledPut(consume(journal), "row0", "value");
+        journal.close();
+        Assert.assertFalse(journal.append(TABLE_NAME, newPut("closed", "value")));
+
+        PutSpillJournal recovered = new PutSpillJournal(directory, 256, 4);
+        Assert.assertEquals(4, recovered.getDepth());
+        for (int i = 1; i < 5; i++) {
+            assertSpilledPut(consume(recovered), "row" + i, "value");
+        }
+        Assert.assertTrue(recovered.append(TABLE_NAME, newPut("row5", "value")));
+        assertSpilledPut(consume(recovered), "row5", "value");
+        Assert.assertNull(recovered.peek());
+
+        recovered.close();
+    }
+
+    @Test
+    public void peekWithoutCommit() throws IOException {
+        PutSpillJournal journal = new PutSpillJournal(directory, 256, 4);
+        Assert.assertTrue(journal.append(TABLE_NAME, newPut("row0", "value")));
+        Assert.assertTrue(journal.append(TABLE_NAME, newPut("row1", "value")));
+
+        assertSpilledPut(journal.peek(), "row0", "value");
+        assertSpilledPut(journal.peek(), "row0", "value");
+        Assert.assertEquals(2, journal.getDepth());
+        journal.force();
+        // crash before commit
+        journal.close();
+
+        PutSpillJournal recovered = new PutSpillJournal(directory, 256, 4);
+        Assert.assertEquals(2, recovered.getDepth());
+        assertSpilledPut(consume(recovered), "row0", "value");
+        assertSpilledPut(consume(recovered), "row1", "value");
+        Assert.assertNull(recovered.peek());
+
+        recovered.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void commitWithoutPeek() throws IOException {
+        PutSpillJournal journal = new PutSpillJournal(directory, 256, 4);
+        try {
+            Assert.assertTrue(journal.append(TABLE_NAME, newPut("row0", "value")));
+            journal.commit();
+        } finally {
+            journal.close();
+        }
+    }
+
+    private PutSpillJournal.SpilledPut consume(PutSpillJournal journal) {
+        PutSpillJournal.SpilledPut spilledPut = journal.peek();
+        if (spilledPut != null) {
+            journal.commit();
+        }
+        return spilledPut;
+    }
+
+    private Put newPut(String row, String value) {
+        Put put = new Put(row.getBytes(StandardCharsets.UTF_8), 100L);
+        put.addColumn(FAMILY, "qualifier".getBytes(StandardCharsets.UTF_8), 200L, value.getBytes(StandardCharsets.UTF_8));
+        return put;
+    }
+
+    private void assertSpilledPut(PutSpillJournal.SpilledPut spilledPut, String row, String value) {
+        Assert.assertNotNull(spilledPut);
+        Assert.assertEquals(TABLE_NAME, spilledPut.getTableName());
+
+        Put put = spilledPut.getPut();
+        Assert.assertEquals(row, new String(put.getRow(), StandardCharsets.UTF_8));
+        Assert.assertEquals(100L, put.getTimeStamp());
+
+        List<Cell> cells = put.getFamilyCellMap().get(FAMILY);
+        Assert.assertEquals(1, cells.size());
+        Cell cell = cells.get(0);
+        Assert.assertEquals("qualifier", new String(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength(), StandardCharsets.UTF_8));
+        Assert.assertEquals(200L, cell.getTimestamp());
+        Assert.assertEquals(value, new String(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength(), StandardCharsets.UTF_8));
+    }
+}
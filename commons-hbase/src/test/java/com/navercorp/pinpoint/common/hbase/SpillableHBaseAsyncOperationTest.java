@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Put;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class SpillableHBaseAsyncOperationTest {
+
+    private static final TableName TABLE_NAME = TableName.valueOf("TraceV2");
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("spill", "");
+        Assert.assertTrue(directory.delete());
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void spillAndReplay() throws IOException {
+        CapacityAsyncOperation delegate = new CapacityAsyncOperation();
+        SpillableHBaseAsyncOperation asyncOperation = new SpillableHBaseAsyncOperation(delegate, new PutSpillJournal(directory, 1024, 2), 60000);
+
+        delegate.available = false;
+        Assert.assertTrue(asyncOperation.put(TABLE_NAME, newPut("row1")));
+        List<Put> rejectedPuts = asyncOperation.put(TABLE_NAME, Arrays.asList(newPut("row2"), newPut("row3")));
+        Assert.assertTrue(rejectedPuts.isEmpty());
+        Assert.assertEquals(3, asyncOperation.getSpillDepth());
+        Assert.assertEquals(3, asyncOperation.getSpilledCount());
+
+        asyncOperation.replay();
+        Assert.assertEquals(3, asyncOperation.getSpillDepth());
+        Assert.assertEquals(0, asyncOperation.getReplayedCount());
+        // the rejected put is still on disk
+        PutSpillJournal reopened = new PutSpillJournal(directory, 1024, 2);
+        Assert.assertEquals(3, reopened.getDepth());
+        reopened.close();
+
+        delegate.available = true;
+        asyncOperation.replay();
+        Assert.assertEquals(0, asyncOperation.getSpillDepth());
+        Assert.assertEquals(3, asyncOperation.getReplayedCount());
+        Assert.assertEquals(Arrays.asList("row1", "row2", "row3"), delegate.rows);
+
+        asyncOperation.close();
+    }
+
+    @Test
+    public void journalFull() throws IOException {
+        CapacityAsyncOperation delegate = new CapacityAsyncOperation();
+        SpillableHBaseAsyncOperation asyncOperation = new SpillableHBaseAsyncOperation(delegate, new PutSpillJournal(directory, 128, 1), 60000);
+
+        delegate.available = false;
+        Assert.assertTrue(asyncOperation.put(TABLE_NAME, newPut("row1")));
+        Assert.assertFalse(asyncOperation.put(TABLE_NAME, newPut("row2")));
+        Assert.assertEquals(1, asyncOperation.getSpillDepth());
+        Assert.assertEquals(1, asyncOperation.getSpillRejectedCount());
+
+        asyncOperation.close();
+    }
+
+    private Put newPut(String row) {
+        Put put = new Put(row.getBytes(StandardCharsets.UTF_8));
+        put.addColumn("S".getBytes(StandardCharsets.UTF_8), "qualifier".getBytes(StandardCharsets.UTF_8), 1L, new byte[40]);
+        return put;
+    }
+
+    private static class CapacityAsyncOperation implements HBaseAsyncOperation {
+        private volatile boolean available = true;
+        private final List<String> rows = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public boolean put(TableName tableName, Put put) {
+            if (!available) {
+                return false;
+            }
+            rows.add(new String(put.getRow(), StandardCharsets.UTF_8));
+            return true;
+        }
+
+        @Override
+        public List<Put> put(TableName tableName, List<Put> puts) {
+            List<Put> rejectedPuts = new ArrayList<>();
+            for (Put put : puts) {
+                if (!put(tableName, put)) {
+                    rejectedPuts.add(put);
+                }
+            }
+            return rejectedPuts;
+        }
+
+        @Override
+        public Long getOpsCount() {
+            return 0L;
+        }
+
+        @Override
+        public Long getOpsRejectedCount() {
+            return 0L;
+        }
+
+        @Override
+        public Long getCurrentOpsCount() {
+            return 0L;
+        }
+
+        @Override
+        public Long getOpsFailedCount() {
+            return 0L;
+        }
+
+        @Override
+        public Long getOpsAverageLatency() {
+            return 0L;
+        }
+
+        @Override
+        public Map<String, Long> getCurrentOpsCountForEachRegionServer() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<String, Long> getOpsFailedCountForEachRegionServer() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<String, Long> getOpsAverageLatencyForEachRegionServer() {
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.hbase.parallel;
+
+import com.navercorp.pinpoint.common.hbase.HbaseAccessor;
+import com.navercorp.pinpoint.common.hbase.TableFactory;
+import com.sematext.hbase.wd.AbstractRowKeyDistributor;
+import com.sematext.hbase.wd.RowKeyDistributorByHashPrefix;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ParallelResultScannerTest {
+
+    private static final TableName TABLE_NAME = TableName.valueOf("test");
+    private static final byte[] FAMILY = Bytes.toBytes("F");
+    private static final byte[] QUALIFIER = Bytes.toBytes("Q");
+
+    private static final int BUCKET_SIZE = 4;
+
+    private final AbstractRowKeyDistributor keyDistributor = new RowKeyDistributorByHashPrefix(new RowKeyDistributorByHashPrefix.OneByteSimpleHash(BUCKET_SIZE));
+
+    @Mock
+    private HbaseAccessor hbaseAccessor;
+    @Mock
+    private TableFactory tableFactory;
+    @Mock
+    private Table table;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(BUCKET_SIZE);
+        when(hbaseAccessor.getTableFactory()).thenReturn(tableFactory);
+        when(tableFactory.getTable(TABLE_NAME)).thenReturn(table);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void mergeInRowKeyOrder() throws Exception {
+        // Given
+        final int numRows = 1000;
+        final Map<Byte, FakeResultScanner> scanners = createScanners(numRows);
+
+        // When
+        List<Integer> ids = new ArrayList<>(numRows);
+        try (ParallelResultScanner scanner = newScanner(scanners, 10)) {
+            for (Result result : scanner) {
+                byte[] originalKey = keyDistributor.getOriginalKey(result.getRow());
+                ids.add(Bytes.toInt(originalKey));
+            }
+        }
+
+        // Then
+        Assert.assertEquals(numRows, ids.size());
+        List<Integer> sortedIds = new ArrayList<>(ids);
+        Collections.sort(sortedIds);
+        Assert.assertEquals(sortedIds, ids);
+    }
+
+    @Test
+    public void closeStopsScanTasks() throws Exception {
+        // Given
+        final int numRows = 100000;
+        final Map<Byte, FakeResultScanner> scanners = createScanners(numRows);
+
+        // When
+        ParallelResultScanner scanner = newScanner(scanners, 1);
+        Result[] results = scanner.next(10);
+        scanner.close();
+
+        // Then
+        Assert.assertEquals(10, results.length);
+        Assert.assertNull(scanner.next());
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        for (FakeResultScanner fakeResultScanner : scanners.values()) {
+            Assert.assertTrue(fakeResultScanner.isClosed());
+            Assert.assertTrue(fakeResultScanner.getNextCount() < numRows / BUCKET_SIZE);
+        }
+    }
+
+    @Test
+    public void scanTaskErrorAfterResults() throws Exception {
+        // Given
+        final int numRows = 1000;
+        final int failAfter = 10;
+
+        for (int i = 0; i < 20; i++) {
+            final Map<Byte, FakeResultScanner> scanners = createScanners(numRows);
+            scanners.get((byte) 1).failAfter(failAfter);
+
+            // When
+            int resultCount = 0;
+            try (ParallelResultScanner scanner = newScanner(scanners, 1)) {
+                while (scanner.next() != null) {
+                    resultCount++;
+                }
+                // Then
+                Assert.fail("scan task error must not be swallowed, results:" + resultCount);
+            } catch (ScanTaskException e) {
+                Assert.assertTrue(e.getCause() instanceof IOException);
+            }
+        }
+    }
+
+    private ParallelResultScanner newScanner(final Map<Byte, FakeResultScanner> scanners, int prefetchSize) throws IOException {
+        when(table.getScanner(any(Scan.class))).thenAnswer(invocation -> {
+            Scan scan = invocation.getArgument(0);
+            byte bucket = scan.getStartRow()[0];
+            return scanners.get(bucket);
+        });
+        Scan scan = new Scan(Bytes.toBytes(0), Bytes.toBytes(Integer.MAX_VALUE));
+        return new ParallelResultScanner(TABLE_NAME, hbaseAccessor, executor, scan, keyDistributor, BUCKET_SIZE, prefetchSize);
+    }
+
+    private Map<Byte, FakeResultScanner> createScanners(int numRows) {
+        final Map<Byte, List<Result>> buckets = new HashMap<>();
+        // ids are increasing, so results of each bucket are already in row key order
+        for (int id = 0; id < numRows; id++) {
+            byte[] distributedKey = keyDistributor.getDistributedKey(Bytes.toBytes(id));
+            List<Result> results = buckets.computeIfAbsent(distributedKey[0], k -> new ArrayList<>());
+            Cell cell = new KeyValue(distributedKey, FAMILY, QUALIFIER, Bytes.toBytes(id));
+            results.add(Result.create(new Cell[]{cell}));
+        }
+        final Map<Byte, FakeResultScanner> scanners = new HashMap<>();
+        for (byte bucket = 0; bucket < BUCKET_SIZE; bucket++) {
+            List<Result> results = buckets.getOrDefault(bucket, Collections.<Result>emptyList());
+            scanners.put(bucket, new FakeResultScanner(results));
+        }
+        return scanners;
+    }
+
+    private static class FakeResultScanner implements ResultScanner {
+
+        private final Iterator<Result> results;
+        private final AtomicInteger nextCount = new AtomicInteger();
+        private volatile int failAfter = -1;
+        private volatile boolean closed = false;
+
+        private FakeResultScanner(List<Result> results) {
+            this.results = results.iterator();
+        }
+
+        @Override
+        public Result next() throws IOException {
+            final int count = nextCount.incrementAndGet();
+            if (failAfter >= 0 && count > failAfter) {
+                throw new IOException("scanner failed after " + failAfter + " results");
+            }
+            if (results.hasNext()) {
+                return results.next();
+            }
+            return null;
+        }
+
+        @Override
+        public Result[] next(int nbRows) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public Iterator<Result> iterator() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void failAfter(int failAfter) {
+            this.failAfter = failAfter;
+        }
+
+        private boolean isClosed() {
+            return closed;
+        }
+
+        private int getNextCount() {
+            return nextCount.get();
+        }
+    }
+}
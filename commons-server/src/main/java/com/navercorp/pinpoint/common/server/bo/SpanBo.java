@@ -55,6 +55,8 @@ public class SpanBo implements Event, BasicSpan {
     private int errCode;
 
     private List<SpanEventBo> spanEventBoList = new ArrayList<SpanEventBo>();
+    // span events not decoded yet, see SpanDecoderV0
+    private transient SpanEventBoReader spanEventBoReader;
 
     private long collectorAcceptTime;
 
@@ -208,6 +210,7 @@ public class SpanBo implements Event, BasicSpan {
         if (spanEventBoList == null) {
             return;
         }
+        readSpanEventBoList();
         this.spanEventBoList.addAll(spanEventBoList);
     }
 
@@ -216,13 +219,33 @@ public class SpanBo implements Event, BasicSpan {
         if (spanEventBo == null) {
             return;
         }
+        readSpanEventBoList();
         spanEventBoList.add(spanEventBo);
     }
 
     public List<SpanEventBo> getSpanEventBoList() {
+        readSpanEventBoList();
         return spanEventBoList;
     }
 
+    /**
+     * Defers span event decoding until the span events are accessed.
+     * Span events added before that are kept after the ones read by {@code spanEventBoReader}.
+     */
+    public void setSpanEventBoReader(SpanEventBoReader spanEventBoReader) {
+        this.spanEventBoReader = spanEventBoReader;
+    }
+
+    private void readSpanEventBoList() {
+        final SpanEventBoReader reader = this.spanEventBoReader;
+        if (reader == null) {
+            return;
+        }
+        this.spanEventBoReader = null;
+        final List<SpanEventBo> decodedSpanEventBoList = reader.read();
+        this.spanEventBoList.addAll(0, decodedSpanEventBoList);
+    }
+
     public short getServiceType() {
         return serviceType;
     }
@@ -361,7 +384,7 @@ public class SpanBo implements Event, BasicSpan {
                 ", annotationBoList=" + annotationBoList +
                 ", flag=" + flag +
                 ", errCode=" + errCode +
-                ", spanEventBoList=" + spanEventBoList +
+                ", spanEventBoList=" + getSpanEventBoList() +
                 ", collectorAcceptTime=" + collectorAcceptTime +
                 ", hasException=" + hasException +
                 ", exceptionId=" + exceptionId +
@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.common.server.bo.codec.stat;
 
 import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.server.bo.codec.stat.strategy.UnsignedLongEncodingStrategy;
 import com.navercorp.pinpoint.common.server.bo.codec.strategy.EncodingStrategy;
 import org.springframework.stereotype.Component;
 
@@ -58,6 +59,21 @@ public class AgentStatDataPointCodec {
         return timestamps;
     }
 
+    public long[] decodeTimestampArray(long initialTimestamp, Buffer buffer, int numValues) {
+        if (numValues < 1) {
+            return new long[0];
+        }
+        long[] timestamps = new long[numValues];
+        timestamps[0] = initialTimestamp;
+        long prevDelta = 0;
+        for (int i = 1; i < numValues; i++) {
+            long timestampDelta = prevDelta + buffer.readVLong();
+            timestamps[i] = timestamps[i - 1] + timestampDelta;
+            prevDelta = timestampDelta;
+        }
+        return timestamps;
+    }
+
     public <T> void encodeValues(Buffer buffer, EncodingStrategy<T> encodingStrategy, List<T> values) {
         encodingStrategy.encodeValues(buffer, values);
     }
@@ -65,6 +81,10 @@ public class AgentStatDataPointCodec {
     public <T> List<T> decodeValues(Buffer buffer, EncodingStrategy<T> encodingStrategy, int numValues) {
         return encodingStrategy.decodeValues(buffer, numValues);
     }
+
+    public long[] decodeLongValues(Buffer buffer, UnsignedLongEncodingStrategy encodingStrategy, int numValues) {
+        return encodingStrategy.decodeLongValues(buffer, numValues);
+    }
 }
 
 
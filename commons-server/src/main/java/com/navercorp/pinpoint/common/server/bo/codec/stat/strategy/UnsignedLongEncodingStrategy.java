@@ -17,9 +17,8 @@
 package com.navercorp.pinpoint.common.server.bo.codec.stat.strategy;
 
 import com.navercorp.pinpoint.common.buffer.Buffer;
-import com.navercorp.pinpoint.common.server.bo.codec.ArithmeticOperation;
-import com.navercorp.pinpoint.common.server.bo.codec.TypedBufferHandler;
 import com.navercorp.pinpoint.common.server.bo.codec.strategy.EncodingStrategy;
+import com.navercorp.pinpoint.common.server.bo.codec.strategy.LongEncodingStrategy;
 import com.navercorp.pinpoint.common.server.bo.codec.strategy.impl.DeltaEncodingStrategy;
 import com.navercorp.pinpoint.common.server.bo.codec.strategy.impl.DeltaOfDeltaEncodingStrategy;
 import com.navercorp.pinpoint.common.server.bo.codec.strategy.impl.RepeatCountEncodingStrategy;
@@ -36,17 +35,17 @@ import java.util.Set;
 /**
  * @author HyunGil Jeong
  */
-public enum UnsignedLongEncodingStrategy implements EncodingStrategy<Long> {
-    NONE(new ValueEncodingStrategy.Unsigned<Long>(TypedBufferHandler.LONG_BUFFER_HANDLER)),
-    REPEAT_COUNT(new RepeatCountEncodingStrategy.Unsigned<Long>(TypedBufferHandler.LONG_BUFFER_HANDLER)),
-    DELTA(new DeltaEncodingStrategy.Unsigned<Long>(TypedBufferHandler.LONG_BUFFER_HANDLER, ArithmeticOperation.LONG_OPERATIONS)),
-    DELTA_OF_DELTA(new DeltaOfDeltaEncodingStrategy.Unsigned<Long>(TypedBufferHandler.LONG_BUFFER_HANDLER, ArithmeticOperation.LONG_OPERATIONS));
+public enum UnsignedLongEncodingStrategy implements LongEncodingStrategy {
+    NONE(new ValueEncodingStrategy.UnsignedLong()),
+    REPEAT_COUNT(new RepeatCountEncodingStrategy.UnsignedLong()),
+    DELTA(new DeltaEncodingStrategy.UnsignedLong()),
+    DELTA_OF_DELTA(new DeltaOfDeltaEncodingStrategy.UnsignedLong());
 
-    private final EncodingStrategy<Long> delegate;
+    private final LongEncodingStrategy delegate;
 
     private static final Set<UnsignedLongEncodingStrategy> UNSIGNED_LONG_ENCODING_STRATEGY = EnumSet.allOf(UnsignedLongEncodingStrategy.class);
 
-    UnsignedLongEncodingStrategy(EncodingStrategy<Long> delegate) {
+    UnsignedLongEncodingStrategy(LongEncodingStrategy delegate) {
         this.delegate = delegate;
     }
 
@@ -65,6 +64,11 @@ public enum UnsignedLongEncodingStrategy implements EncodingStrategy<Long> {
         return this.delegate.decodeValues(buffer, numValues);
     }
 
+    @Override
+    public long[] decodeLongValues(Buffer buffer, int numValues) {
+        return this.delegate.decodeLongValues(buffer, numValues);
+    }
+
     public static UnsignedLongEncodingStrategy getFromCode(int code) {
 
         for (UnsignedLongEncodingStrategy encodingStrategy : UNSIGNED_LONG_ENCODING_STRATEGY) {
@@ -82,8 +82,8 @@ public class AgentStatCodecV2<T extends AgentStatDataPoint> implements AgentStat
 
         int numValues = valueBuffer.readVInt();
         final AgentStatDataPointCodec codec = codecFactory.getCodec();
-        List<Long> startTimestamps = codec.decodeValues(valueBuffer, UnsignedLongEncodingStrategy.REPEAT_COUNT, numValues);
-        List<Long> timestamps = codec.decodeTimestamps(initialTimestamp, valueBuffer, numValues);
+        long[] startTimestamps = codec.decodeLongValues(valueBuffer, UnsignedLongEncodingStrategy.REPEAT_COUNT, numValues);
+        long[] timestamps = codec.decodeTimestampArray(initialTimestamp, valueBuffer, numValues);
 
         CodecDecoder<T> codecDecoder = codecFactory.createCodecDecoder();
 
@@ -97,8 +97,8 @@ public class AgentStatCodecV2<T extends AgentStatDataPoint> implements AgentStat
         for (int i = 0; i < numValues; i++) {
             T newObject = codecDecoder.getValue(i);
             newObject.setAgentId(agentId);
-            newObject.setStartTimestamp(startTimestamps.get(i));
-            newObject.setTimestamp(timestamps.get(i));
+            newObject.setStartTimestamp(startTimestamps[i]);
+            newObject.setTimestamp(timestamps[i]);
             result.add(newObject);
         }
 
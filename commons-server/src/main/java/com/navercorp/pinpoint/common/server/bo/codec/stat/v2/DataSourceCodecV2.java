@@ -161,8 +161,8 @@ public class DataSourceCodecV2 implements AgentStatCodec<DataSourceListBo> {
 
         int numValues = valueBuffer.readVInt();
 
-        List<Long> startTimestamps = this.codec.decodeValues(valueBuffer, UnsignedLongEncodingStrategy.REPEAT_COUNT, numValues);
-        List<Long> timestamps = this.codec.decodeTimestamps(initialTimestamp, valueBuffer, numValues);
+        long[] startTimestamps = this.codec.decodeLongValues(valueBuffer, UnsignedLongEncodingStrategy.REPEAT_COUNT, numValues);
+        long[] timestamps = this.codec.decodeTimestampArray(initialTimestamp, valueBuffer, numValues);
 
         // decode headers
         final byte[] header = valueBuffer.readPrefixedBytes();
@@ -186,14 +186,14 @@ public class DataSourceCodecV2 implements AgentStatCodec<DataSourceListBo> {
         for (int i = 0; i < numValues; i++) {
             if (i == 0) {
                 dataSourceListBo.setAgentId(agentId);
-                dataSourceListBo.setTimestamp(timestamps.get(i));
-                dataSourceListBo.setStartTimestamp(startTimestamps.get(i));
+                dataSourceListBo.setTimestamp(timestamps[i]);
+                dataSourceListBo.setStartTimestamp(startTimestamps[i]);
             }
 
             DataSourceBo dataSourceBo = new DataSourceBo();
             dataSourceBo.setAgentId(agentId);
-            dataSourceBo.setStartTimestamp(startTimestamps.get(i));
-            dataSourceBo.setTimestamp(timestamps.get(i));
+            dataSourceBo.setStartTimestamp(startTimestamps[i]);
+            dataSourceBo.setTimestamp(timestamps[i]);
 
             dataSourceBo.setId(ids.get(i));
             dataSourceBo.setServiceTypeCode(serviceTypeCodes.get(i));
@@ -26,7 +26,6 @@ import com.navercorp.pinpoint.common.server.bo.codec.stat.header.BitCountingHead
 import com.navercorp.pinpoint.common.server.bo.codec.stat.header.BitCountingHeaderEncoder;
 import com.navercorp.pinpoint.common.server.bo.codec.stat.strategy.StrategyAnalyzer;
 import com.navercorp.pinpoint.common.server.bo.codec.stat.strategy.UnsignedLongEncodingStrategy;
-import com.navercorp.pinpoint.common.server.bo.codec.strategy.EncodingStrategy;
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatDecodingContext;
 import com.navercorp.pinpoint.common.server.bo.stat.JvmGcBo;
 import org.apache.commons.collections.CollectionUtils;
@@ -91,8 +90,8 @@ public class JvmGcCodecV2 implements AgentStatCodec<JvmGcBo> {
 
         final JvmGcType gcType = JvmGcType.getTypeByCode(valueBuffer.readVInt());
         int numValues = valueBuffer.readVInt();
-        List<Long> startTimestamps = this.codec.decodeValues(valueBuffer, UnsignedLongEncodingStrategy.REPEAT_COUNT, numValues);
-        List<Long> timestamps = this.codec.decodeTimestamps(initialTimestamp, valueBuffer, numValues);
+        long[] startTimestamps = this.codec.decodeLongValues(valueBuffer, UnsignedLongEncodingStrategy.REPEAT_COUNT, numValues);
+        long[] timestamps = this.codec.decodeTimestampArray(initialTimestamp, valueBuffer, numValues);
 
         // decode headers
         final byte[] header = valueBuffer.readPrefixedBytes();
@@ -105,8 +104,8 @@ public class JvmGcCodecV2 implements AgentStatCodec<JvmGcBo> {
         for (int i = 0; i < numValues; i++) {
             JvmGcBo jvmGcBo = decoder.getValue(i);
             jvmGcBo.setAgentId(agentId);
-            jvmGcBo.setStartTimestamp(startTimestamps.get(i));
-            jvmGcBo.setTimestamp(timestamps.get(i));
+            jvmGcBo.setStartTimestamp(startTimestamps[i]);
+            jvmGcBo.setTimestamp(timestamps[i]);
             jvmGcBo.setGcType(gcType);
             jvmGcBos.add(jvmGcBo);
         }
@@ -169,12 +168,12 @@ public class JvmGcCodecV2 implements AgentStatCodec<JvmGcBo> {
     public static class JvmGcCodecDecoder implements AgentStatCodec.CodecDecoder<JvmGcBo> {
 
         private final AgentStatDataPointCodec codec;
-        private List<Long> heapUseds;
-        private List<Long> heapMaxes;
-        private List<Long> nonHeapUseds;
-        private List<Long> nonHeapMaxes;
-        private List<Long> gcOldCounts;
-        private List<Long> gcOldTimes;
+        private long[] heapUseds;
+        private long[] heapMaxes;
+        private long[] nonHeapUseds;
+        private long[] nonHeapMaxes;
+        private long[] gcOldCounts;
+        private long[] gcOldTimes;
 
         public JvmGcCodecDecoder(AgentStatDataPointCodec codec) {
             Assert.notNull(codec, "codec must not be null");
@@ -183,30 +182,30 @@ public class JvmGcCodecV2 implements AgentStatCodec<JvmGcBo> {
 
         @Override
         public void decode(Buffer valueBuffer, AgentStatHeaderDecoder headerDecoder, int valueSize) {
-            EncodingStrategy<Long> heapUsedEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
-            EncodingStrategy<Long> heapMaxEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
-            EncodingStrategy<Long> nonHeapUsedEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
-            EncodingStrategy<Long> nonHeapMaxEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
-            EncodingStrategy<Long> gcOldCountEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
-            EncodingStrategy<Long> gcOldTimeEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
+            UnsignedLongEncodingStrategy heapUsedEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
+            UnsignedLongEncodingStrategy heapMaxEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
+            UnsignedLongEncodingStrategy nonHeapUsedEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
+            UnsignedLongEncodingStrategy nonHeapMaxEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
+            UnsignedLongEncodingStrategy gcOldCountEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
+            UnsignedLongEncodingStrategy gcOldTimeEncodingStrategy = UnsignedLongEncodingStrategy.getFromCode(headerDecoder.getCode());
             // decode values
-            this.heapUseds = this.codec.decodeValues(valueBuffer, heapUsedEncodingStrategy, valueSize);
-            this.heapMaxes = this.codec.decodeValues(valueBuffer, heapMaxEncodingStrategy, valueSize);
-            this.nonHeapUseds = this.codec.decodeValues(valueBuffer, nonHeapUsedEncodingStrategy, valueSize);
-            this.nonHeapMaxes = this.codec.decodeValues(valueBuffer, nonHeapMaxEncodingStrategy, valueSize);
-            this.gcOldCounts = this.codec.decodeValues(valueBuffer, gcOldCountEncodingStrategy,  valueSize);
-            this.gcOldTimes = this.codec.decodeValues(valueBuffer, gcOldTimeEncodingStrategy, valueSize);
+            this.heapUseds = this.codec.decodeLongValues(valueBuffer, heapUsedEncodingStrategy, valueSize);
+            this.heapMaxes = this.codec.decodeLongValues(valueBuffer, heapMaxEncodingStrategy, valueSize);
+            this.nonHeapUseds = this.codec.decodeLongValues(valueBuffer, nonHeapUsedEncodingStrategy, valueSize);
+            this.nonHeapMaxes = this.codec.decodeLongValues(valueBuffer, nonHeapMaxEncodingStrategy, valueSize);
+            this.gcOldCounts = this.codec.decodeLongValues(valueBuffer, gcOldCountEncodingStrategy, valueSize);
+            this.gcOldTimes = this.codec.decodeLongValues(valueBuffer, gcOldTimeEncodingStrategy, valueSize);
         }
 
         @Override
         public JvmGcBo getValue(int index) {
             JvmGcBo jvmGcBo = new JvmGcBo();
-            jvmGcBo.setHeapUsed(heapUseds.get(index));
-            jvmGcBo.setHeapMax(heapMaxes.get(index));
-            jvmGcBo.setNonHeapUsed(nonHeapUseds.get(index));
-            jvmGcBo.setNonHeapMax(nonHeapMaxes.get(index));
-            jvmGcBo.setGcOldCount(gcOldCounts.get(index));
-            jvmGcBo.setGcOldTime(gcOldTimes.get(index));
+            jvmGcBo.setHeapUsed(heapUseds[index]);
+            jvmGcBo.setHeapMax(heapMaxes[index]);
+            jvmGcBo.setNonHeapUsed(nonHeapUseds[index]);
+            jvmGcBo.setNonHeapMax(nonHeapMaxes[index]);
+            jvmGcBo.setGcOldCount(gcOldCounts[index]);
+            jvmGcBo.setGcOldTime(gcOldTimes[index]);
             return jvmGcBo;
         }
 
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.codec.strategy;
+
+import com.navercorp.pinpoint.common.buffer.Buffer;
+
+/**
+ * {@link EncodingStrategy} for long values that can also decode into a primitive array.
+ */
+public interface LongEncodingStrategy extends EncodingStrategy<Long> {
+    long[] decodeLongValues(Buffer buffer, int numValues);
+}
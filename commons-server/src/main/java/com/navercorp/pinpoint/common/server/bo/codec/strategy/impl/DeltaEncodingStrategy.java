@@ -20,6 +20,7 @@ import com.navercorp.pinpoint.common.buffer.Buffer;
 import com.navercorp.pinpoint.common.server.bo.codec.ArithmeticOperation;
 import com.navercorp.pinpoint.common.server.bo.codec.TypedBufferHandler;
 import com.navercorp.pinpoint.common.server.bo.codec.strategy.EncodingStrategy;
+import com.navercorp.pinpoint.common.server.bo.codec.strategy.LongEncodingStrategy;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -85,4 +86,24 @@ public abstract class DeltaEncodingStrategy<T extends Number> implements Encodin
             return values;
         }
     }
+
+    public static class UnsignedLong extends Unsigned<Long> implements LongEncodingStrategy {
+
+        public UnsignedLong() {
+            super(TypedBufferHandler.LONG_BUFFER_HANDLER, ArithmeticOperation.LONG_OPERATIONS);
+        }
+
+        @Override
+        public long[] decodeLongValues(Buffer buffer, int numValues) {
+            if (numValues < 1) {
+                return new long[0];
+            }
+            long[] values = new long[numValues];
+            values[0] = buffer.readVLong();
+            for (int i = 1; i < numValues; i++) {
+                values[i] = values[i - 1] ^ buffer.readVLong();
+            }
+            return values;
+        }
+    }
 }
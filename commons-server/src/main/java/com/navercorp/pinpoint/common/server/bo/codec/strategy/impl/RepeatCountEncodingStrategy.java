@@ -19,8 +19,10 @@ package com.navercorp.pinpoint.common.server.bo.codec.strategy.impl;
 import com.navercorp.pinpoint.common.buffer.Buffer;
 import com.navercorp.pinpoint.common.server.bo.codec.TypedBufferHandler;
 import com.navercorp.pinpoint.common.server.bo.codec.strategy.EncodingStrategy;
+import com.navercorp.pinpoint.common.server.bo.codec.strategy.LongEncodingStrategy;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -84,4 +86,30 @@ public abstract class RepeatCountEncodingStrategy<T extends Number> implements E
             return values;
         }
     }
+
+    public static class UnsignedLong extends Unsigned<Long> implements LongEncodingStrategy {
+
+        public UnsignedLong() {
+            super(TypedBufferHandler.LONG_BUFFER_HANDLER);
+        }
+
+        @Override
+        public long[] decodeLongValues(Buffer buffer, int numValues) {
+            if (numValues < 1) {
+                return new long[0];
+            }
+            long[] values = new long[numValues];
+            int totalCount = 0;
+            while (totalCount < numValues) {
+                int count = buffer.readVInt();
+                long value = buffer.readVLong();
+                if (count < 1 || count > numValues - totalCount) {
+                    throw new IllegalStateException("invalid repeat count:" + count + ", decoded:" + totalCount + ", numValues:" + numValues);
+                }
+                Arrays.fill(values, totalCount, totalCount + count, value);
+                totalCount += count;
+            }
+            return values;
+        }
+    }
 }
@@ -19,6 +19,7 @@ package com.navercorp.pinpoint.common.server.bo.codec.strategy.impl;
 import com.navercorp.pinpoint.common.buffer.Buffer;
 import com.navercorp.pinpoint.common.server.bo.codec.TypedBufferHandler;
 import com.navercorp.pinpoint.common.server.bo.codec.strategy.EncodingStrategy;
+import com.navercorp.pinpoint.common.server.bo.codec.strategy.LongEncodingStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -63,4 +64,23 @@ public abstract class ValueEncodingStrategy<T extends Number> implements Encodin
             return values;
         }
     }
+
+    public static class UnsignedLong extends Unsigned<Long> implements LongEncodingStrategy {
+
+        public UnsignedLong() {
+            super(TypedBufferHandler.LONG_BUFFER_HANDLER);
+        }
+
+        @Override
+        public long[] decodeLongValues(Buffer buffer, int numValues) {
+            if (numValues < 1) {
+                return new long[0];
+            }
+            long[] values = new long[numValues];
+            for (int i = 0; i < numValues; i++) {
+                values[i] = buffer.readVLong();
+            }
+            return values;
+        }
+    }
 }
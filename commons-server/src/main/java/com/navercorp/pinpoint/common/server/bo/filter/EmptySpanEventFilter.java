@@ -1,6 +1,7 @@
 package com.navercorp.pinpoint.common.server.bo.filter;
 
 import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
 
 /**
  * @author Woonduk Kang(emeroad)
@@ -14,4 +15,9 @@ public class EmptySpanEventFilter implements SpanEventFilter {
     public boolean filter(SpanEventBo spanEventBo) {
         return ACCEPT;
     }
+
+    @Override
+    public boolean filter(TSpanEvent tSpanEvent) {
+        return ACCEPT;
+    }
 }
@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.common.server.bo.filter;
 
 import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,4 +59,19 @@ public class SequenceSpanEventFilter implements SpanEventFilter {
         }
         return ACCEPT;
     }
+
+    @Override
+    public boolean filter(TSpanEvent tSpanEvent) {
+        if (tSpanEvent == null) {
+            return REJECT;
+        }
+        final int sequence = tSpanEvent.getSequence();
+        if (sequence > sequenceLimit) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("discard spanEvent:{}", tSpanEvent);
+            }
+            return REJECT;
+        }
+        return ACCEPT;
+    }
 }
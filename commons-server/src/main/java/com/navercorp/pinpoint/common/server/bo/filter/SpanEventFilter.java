@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.common.server.bo.filter;
 
 import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
 
 /**
  * @author Woonduk Kang(emeroad)
@@ -26,4 +27,6 @@ public interface SpanEventFilter {
     boolean REJECT = false;
 
     boolean filter(SpanEventBo spanEventBo);
+
+    boolean filter(TSpanEvent tSpanEvent);
 }
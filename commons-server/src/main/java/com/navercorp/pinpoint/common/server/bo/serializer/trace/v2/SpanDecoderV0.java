@@ -1,11 +1,13 @@
 package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
 
 import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.OffsetFixedBuffer;
 import com.navercorp.pinpoint.common.server.bo.AnnotationBo;
 import com.navercorp.pinpoint.common.server.bo.BasicSpan;
 import com.navercorp.pinpoint.common.server.bo.SpanBo;
 import com.navercorp.pinpoint.common.server.bo.SpanChunkBo;
 import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.server.bo.SpanEventBoReader;
 import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.bitfield.SpanBitFiled;
 import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.bitfield.SpanEventBitField;
 import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.bitfield.SpanEventQualifierBitField;
@@ -85,7 +87,7 @@ public class SpanDecoderV0 implements SpanDecoder {
         }
         spanChunk.setVersion(version);
 
-        List<SpanEventBo> spanEventBoList = readSpanEvent(buffer, firstSpanEvent, decodingContext);
+        List<SpanEventBo> spanEventBoList = readSpanEvent(buffer, firstSpanEvent);
         spanChunk.addSpanEventBoList(spanEventBoList);
     }
 
@@ -151,17 +153,18 @@ public class SpanDecoderV0 implements SpanDecoder {
 
 
         if (bitFiled.isSetAnnotation()) {
-            List<AnnotationBo> annotationBoList = readAnnotationList(buffer, decodingContext);
+            List<AnnotationBo> annotationBoList = readAnnotationList(buffer);
             span.setAnnotationBoList(annotationBoList);
         }
 
-        List<SpanEventBo> spanEventBoList = readSpanEvent(buffer, firstSpanEvent, decodingContext);
-        span.addSpanEventBoList(spanEventBoList);
+        // span events are decoded when SpanBo.getSpanEventBoList() is first called
+        final Buffer spanEventBuffer = new OffsetFixedBuffer(buffer.getInternalBuffer(), buffer.getOffset(), buffer.remaining());
+        span.setSpanEventBoReader(new LazySpanEventBoReader(spanEventBuffer, firstSpanEvent));
 
 
     }
 
-    private List<SpanEventBo> readSpanEvent(Buffer buffer, SpanEventBo firstSpanEvent, SpanDecodingContext decodingContext) {
+    private List<SpanEventBo> readSpanEvent(Buffer buffer, SpanEventBo firstSpanEvent) {
         final int spanEventSize = buffer.readVInt();
         if (spanEventSize <= 0) {
             return new ArrayList<SpanEventBo>();
@@ -171,9 +174,9 @@ public class SpanDecoderV0 implements SpanDecoder {
         for (int i = 0; i < spanEventSize; i++) {
             SpanEventBo spanEvent;
             if (i == 0) {
-                spanEvent = readFirstSpanEvent(buffer, firstSpanEvent, decodingContext);
+                spanEvent = readFirstSpanEvent(buffer, firstSpanEvent);
             } else {
-                spanEvent = readNextSpanEvent(buffer, prev, decodingContext);
+                spanEvent = readNextSpanEvent(buffer, prev);
             }
             prev = spanEvent;
             spanEventBoList.add(spanEvent);
@@ -182,7 +185,7 @@ public class SpanDecoderV0 implements SpanDecoder {
         return spanEventBoList;
     }
 
-    private SpanEventBo readNextSpanEvent(final Buffer buffer, final SpanEventBo prev, SpanDecodingContext decodingContext) {
+    private SpanEventBo readNextSpanEvent(final Buffer buffer, final SpanEventBo prev) {
         final SpanEventBo spanEventBo = new SpanEventBo();
 
         final SpanEventBitField bitField = new SpanEventBitField(buffer.readShort());
@@ -262,7 +265,7 @@ public class SpanDecoderV0 implements SpanDecoder {
         }
 
         if (bitField.isSetAnnotation()) {
-            List<AnnotationBo> annotationBoList = readAnnotationList(buffer, decodingContext);
+            List<AnnotationBo> annotationBoList = readAnnotationList(buffer);
             spanEventBo.setAnnotationBoList(annotationBoList);
         }
 
@@ -278,7 +281,7 @@ public class SpanDecoderV0 implements SpanDecoder {
         return spanEventBo;
     }
 
-    private SpanEventBo readFirstSpanEvent(Buffer buffer, SpanEventBo firstSpanEvent, SpanDecodingContext decodingContext) {
+    private SpanEventBo readFirstSpanEvent(Buffer buffer, SpanEventBo firstSpanEvent) {
         SpanEventBitField bitField = new SpanEventBitField(buffer.readByte());
 
         firstSpanEvent.setStartElapsed(buffer.readVInt());
@@ -312,7 +315,7 @@ public class SpanDecoderV0 implements SpanDecoder {
         }
 
         if (bitField.isSetAnnotation()) {
-            List<AnnotationBo> annotationBoList = readAnnotationList(buffer, decodingContext);
+            List<AnnotationBo> annotationBoList = readAnnotationList(buffer);
             firstSpanEvent.setAnnotationBoList(annotationBoList);
         }
 
@@ -327,7 +330,7 @@ public class SpanDecoderV0 implements SpanDecoder {
         return firstSpanEvent;
     }
 
-    private List<AnnotationBo> readAnnotationList(Buffer buffer, SpanDecodingContext decodingContext) {
+    private List<AnnotationBo> readAnnotationList(Buffer buffer) {
         int annotationListSize = buffer.readVInt();
         List<AnnotationBo> annotationBoList = new ArrayList<AnnotationBo>(annotationListSize);
 
@@ -420,6 +423,22 @@ public class SpanDecoderV0 implements SpanDecoder {
         decodingContext.next();
     }
 
+    private class LazySpanEventBoReader implements SpanEventBoReader {
+
+        private final Buffer buffer;
+        private final SpanEventBo firstSpanEvent;
+
+        private LazySpanEventBoReader(Buffer buffer, SpanEventBo firstSpanEvent) {
+            this.buffer = buffer;
+            this.firstSpanEvent = firstSpanEvent;
+        }
+
+        @Override
+        public List<SpanEventBo> read() {
+            return readSpanEvent(buffer, firstSpanEvent);
+        }
+    }
+
 
 
 }
@@ -0,0 +1,490 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
+
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.server.bo.filter.EmptySpanEventFilter;
+import com.navercorp.pinpoint.common.server.bo.filter.SpanEventFilter;
+import com.navercorp.pinpoint.common.server.bo.serializer.HbaseSerializer;
+import com.navercorp.pinpoint.common.server.bo.serializer.SerializationContext;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.bitfield.SpanBitFiled;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.bitfield.SpanEventBitField;
+import com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.bitfield.SpanEventQualifierBitField;
+import com.navercorp.pinpoint.common.server.util.IntegerUtils;
+import com.navercorp.pinpoint.common.server.util.ShortUtils;
+import com.navercorp.pinpoint.common.server.util.SpanEventUtils;
+import com.navercorp.pinpoint.common.server.util.SpanUtils;
+import com.navercorp.pinpoint.common.util.AnnotationTranscoder;
+import com.navercorp.pinpoint.thrift.dto.TAnnotation;
+import com.navercorp.pinpoint.thrift.dto.TIntStringValue;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
+import org.apache.hadoop.hbase.client.Put;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.TRACE_V2_CF_SPAN;
+
+/**
+ * Writes the V2 span column straight from a {@link TSpan}, producing the same bytes as
+ * {@link com.navercorp.pinpoint.common.server.bo.SpanFactory} followed by {@link SpanSerializerV2} without building the
+ * intermediate {@code SpanBo} graph.
+ * <p>
+ * Qualifier and column value are written into growable buffers kept per thread and reused
+ * for every span. {@link Put} copies both into its own cell, so the buffers can be rewound
+ * as soon as {@link #serialize(TSpan, Put, SerializationContext)} returns.
+ *
+ * @see SpanEncoderV0
+ */
+@Component
+public class ThriftSpanSerializerV2 implements HbaseSerializer<TSpan, Put> {
+
+    // the span version written by SpanFactory (SpanBo default)
+    private static final byte SPAN_VERSION = 0;
+
+    private static final int QUALIFIER_BUFFER_SIZE = 128;
+    private static final int COLUMN_VALUE_BUFFER_SIZE = 1024 * 4;
+    // buffers grown past this size by a huge span are dropped instead of being kept for the thread
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 256;
+
+    private static final AnnotationTranscoder transcoder = new AnnotationTranscoder();
+
+    private final ThreadLocal<EncodingBuffer> localBuffer = new ThreadLocal<EncodingBuffer>() {
+        @Override
+        protected EncodingBuffer initialValue() {
+            return new EncodingBuffer();
+        }
+    };
+
+    private SpanEventFilter spanEventFilter = new EmptySpanEventFilter();
+
+    public ThriftSpanSerializerV2() {
+    }
+
+    @Autowired(required = false)
+    public void setSpanEventFilter(SpanEventFilter spanEventFilter) {
+        if (spanEventFilter == null) {
+            throw new NullPointerException("spanEventFilter must not be null");
+        }
+        this.spanEventFilter = spanEventFilter;
+    }
+
+    @Override
+    public void serialize(TSpan tSpan, Put put, SerializationContext context) {
+        if (tSpan == null) {
+            throw new NullPointerException("tSpan must not be null");
+        }
+        final EncodingBuffer encodingBuffer = localBuffer.get();
+        try {
+            final TSpanEvent[] spanEvents = encodingBuffer.sortSpanEvents(tSpan.getSpanEventList(), spanEventFilter);
+            final int spanEventSize = encodingBuffer.getSpanEventSize();
+
+            final Buffer qualifierBuffer = encodingBuffer.getQualifierBuffer();
+            final TSpanEvent firstEvent = spanEventSize == 0 ? null : spanEvents[0];
+            writeQualifier(qualifierBuffer, tSpan, firstEvent);
+
+            final long acceptedTime = put.getTimeStamp();
+            final Buffer columnValueBuffer = encodingBuffer.getColumnValueBuffer();
+            writeColumnValue(columnValueBuffer, tSpan, acceptedTime, encodingBuffer);
+
+            final ByteBuffer qualifier = qualifierBuffer.wrapByteBuffer();
+            final ByteBuffer columnValue = columnValueBuffer.wrapByteBuffer();
+            put.addColumn(TRACE_V2_CF_SPAN, qualifier, acceptedTime, columnValue);
+        } finally {
+            encodingBuffer.reset();
+        }
+    }
+
+    private void writeQualifier(Buffer buffer, TSpan tSpan, TSpanEvent firstEvent) {
+        buffer.putByte(SpanEncoder.TYPE_SPAN);
+        buffer.putPrefixedString(tSpan.getApplicationName());
+        buffer.putPrefixedString(tSpan.getAgentId());
+        buffer.putVLong(tSpan.getAgentStartTime());
+        buffer.putLong(tSpan.getSpanId());
+
+        if (firstEvent != null) {
+            buffer.putSVInt(firstEvent.getSequence());
+
+            final byte bitField = SpanEventQualifierBitField.buildBitField(firstEvent);
+            buffer.putByte(bitField);
+            // case : async span
+            if (SpanEventQualifierBitField.isSetAsync(bitField)) {
+                buffer.putInt(SpanEventUtils.getAsyncId(firstEvent));
+                buffer.putVInt(SpanEventUtils.getAsyncSequence(firstEvent));
+            }
+        }
+    }
+
+    private void writeColumnValue(Buffer buffer, TSpan span, long acceptedTime, EncodingBuffer encodingBuffer) {
+        final SpanBitFiled bitField = SpanBitFiled.build(span);
+
+        buffer.putByte(SPAN_VERSION);
+
+        // bit field
+        buffer.putByte(bitField.getBitField());
+
+        buffer.putShort(span.getServiceType());
+
+        switch (bitField.getApplicationServiceTypeEncodingStrategy()) {
+            case PREV_EQUALS:
+                break;
+            case RAW:
+                buffer.putShort(SpanUtils.getApplicationServiceType(span));
+                break;
+            default:
+                throw new IllegalStateException("applicationServiceType");
+        }
+
+        if (!bitField.isRoot()) {
+            buffer.putLong(span.getParentSpanId());
+        }
+
+        final long startTimeDelta = acceptedTime - span.getStartTime();
+        buffer.putVLong(startTimeDelta);
+        buffer.putVInt(span.getElapsed());
+
+        buffer.putPrefixedString(span.getRpc());
+
+        buffer.putPrefixedString(span.getEndPoint());
+        buffer.putPrefixedString(span.getRemoteAddr());
+        buffer.putSVInt(span.getApiId());
+
+        // BIT flag
+        if (bitField.isSetErrorCode()) {
+            buffer.putInt(span.getErr());
+        }
+
+        if (bitField.isSetHasException()) {
+            final TIntStringValue exceptionInfo = span.getExceptionInfo();
+            buffer.putSVInt(exceptionInfo.getIntValue());
+            buffer.putPrefixedString(exceptionInfo.getStringValue());
+        }
+
+        if (bitField.isSetFlag()) {
+            buffer.putShort(span.getFlag());
+        }
+
+        if (bitField.isSetLoggingTransactionInfo()) {
+            buffer.putByte(span.getLoggingTransactionInfo());
+        }
+
+        buffer.putPrefixedString(span.getAcceptorHost());
+
+        if (bitField.isSetAnnotation()) {
+            writeAnnotationList(buffer, span.getAnnotations(), encodingBuffer);
+        }
+
+        writeSpanEventList(buffer, encodingBuffer);
+    }
+
+    private void writeSpanEventList(Buffer buffer, EncodingBuffer encodingBuffer) {
+        final TSpanEvent[] spanEvents = encodingBuffer.getSpanEvents();
+        final int spanEventSize = encodingBuffer.getSpanEventSize();
+
+        buffer.putVInt(spanEventSize);
+
+        TSpanEvent prevSpanEvent = null;
+        for (int i = 0; i < spanEventSize; i++) {
+            final TSpanEvent spanEvent = spanEvents[i];
+            if (prevSpanEvent == null) {
+                writeFirstSpanEvent(buffer, spanEvent, encodingBuffer);
+            } else {
+                writeNextSpanEvent(buffer, spanEvent, prevSpanEvent, encodingBuffer);
+            }
+            prevSpanEvent = spanEvent;
+        }
+    }
+
+    private void writeFirstSpanEvent(Buffer buffer, TSpanEvent spanEvent, EncodingBuffer encodingBuffer) {
+        final SpanEventBitField bitField = SpanEventBitField.buildFirst(spanEvent);
+
+        buffer.putByte((byte) bitField.getBitField());
+
+        buffer.putVInt(spanEvent.getStartElapsed());
+        buffer.putVInt(spanEvent.getEndElapsed());
+
+        buffer.putShort(spanEvent.getSequence());
+        buffer.putSVInt(SpanEventUtils.getDepth(spanEvent));
+        buffer.putShort(spanEvent.getServiceType());
+
+        if (bitField.isSetRpc()) {
+            buffer.putPrefixedString(spanEvent.getRpc());
+        }
+
+        if (bitField.isSetEndPoint()) {
+            buffer.putPrefixedString(spanEvent.getEndPoint());
+        }
+        if (bitField.isSetDestinationId()) {
+            buffer.putPrefixedString(spanEvent.getDestinationId());
+        }
+
+        buffer.putSVInt(spanEvent.getApiId());
+
+        if (bitField.isSetNextSpanId()) {
+            buffer.putLong(spanEvent.getNextSpanId());
+        }
+
+        if (bitField.isSetHasException()) {
+            final TIntStringValue exceptionInfo = spanEvent.getExceptionInfo();
+            buffer.putSVInt(exceptionInfo.getIntValue());
+            buffer.putPrefixedString(exceptionInfo.getStringValue());
+        }
+
+        if (bitField.isSetAnnotation()) {
+            writeAnnotationList(buffer, spanEvent.getAnnotations(), encodingBuffer);
+        }
+
+        if (bitField.isSetNextAsyncId()) {
+            buffer.putSVInt(spanEvent.getNextAsyncId());
+        }
+    }
+
+    private void writeNextSpanEvent(Buffer buffer, TSpanEvent spanEvent, TSpanEvent prevSpanEvent, EncodingBuffer encodingBuffer) {
+        final SpanEventBitField bitField = SpanEventBitField.build(spanEvent, prevSpanEvent);
+
+        buffer.putShort(bitField.getBitField());
+
+        switch (bitField.getStartElapsedEncodingStrategy()) {
+            case PREV_DELTA:
+                final int startTimeDelta = spanEvent.getStartElapsed() - prevSpanEvent.getStartElapsed();
+                buffer.putVInt(startTimeDelta);
+                break;
+            case PREV_EQUALS:
+                // skip bitfield
+                break;
+            default:
+                throw new IllegalStateException("unsupported StartElapsedEncodingStrategy");
+        }
+        buffer.putVInt(spanEvent.getEndElapsed());
+
+        switch (bitField.getSequenceEncodingStrategy()) {
+            case PREV_DELTA:
+                final int sequenceDelta = spanEvent.getSequence() - prevSpanEvent.getSequence();
+                buffer.putVInt(sequenceDelta);
+                break;
+            case PREV_ADD1:
+                // skip bitfield
+                break;
+            default:
+                throw new IllegalStateException("unsupported SequenceEncodingStrategy");
+        }
+
+        switch (bitField.getDepthEncodingStrategy()) {
+            case RAW:
+                buffer.putSVInt(SpanEventUtils.getDepth(spanEvent));
+                break;
+            case PREV_EQUALS:
+                // skip bitfield
+                break;
+            default:
+                throw new IllegalStateException("unsupported DepthEncodingStrategy");
+        }
+
+        switch (bitField.getServiceTypeEncodingStrategy()) {
+            case RAW:
+                buffer.putShort(spanEvent.getServiceType());
+                break;
+            case PREV_EQUALS:
+                // skip bitfield
+                break;
+            default:
+                throw new IllegalStateException("unsupported ServiceTypeEncodingStrategy");
+        }
+
+        buffer.putSVInt(spanEvent.getApiId());
+
+        if (bitField.isSetRpc()) {
+            buffer.putPrefixedString(spanEvent.getRpc());
+        }
+
+        if (bitField.isSetEndPoint()) {
+            buffer.putPrefixedString(spanEvent.getEndPoint());
+        }
+        if (bitField.isSetDestinationId()) {
+            buffer.putPrefixedString(spanEvent.getDestinationId());
+        }
+
+        if (bitField.isSetNextSpanId()) {
+            buffer.putLong(spanEvent.getNextSpanId());
+        }
+
+        if (bitField.isSetHasException()) {
+            final TIntStringValue exceptionInfo = spanEvent.getExceptionInfo();
+            buffer.putSVInt(exceptionInfo.getIntValue());
+            buffer.putPrefixedString(exceptionInfo.getStringValue());
+        }
+
+        if (bitField.isSetAnnotation()) {
+            writeAnnotationList(buffer, spanEvent.getAnnotations(), encodingBuffer);
+        }
+
+        if (bitField.isSetNextAsyncId()) {
+            buffer.putSVInt(spanEvent.getNextAsyncId());
+        }
+
+        if (bitField.isSetAsyncId()) {
+            buffer.putInt(SpanEventUtils.getAsyncId(spanEvent));
+            buffer.putVInt(SpanEventUtils.getAsyncSequence(spanEvent));
+        }
+    }
+
+    private void writeAnnotationList(Buffer buffer, List<TAnnotation> annotationList, EncodingBuffer encodingBuffer) {
+        final TAnnotation[] annotations = encodingBuffer.sortAnnotations(annotationList);
+        final int annotationSize = annotationList.size();
+
+        buffer.putVInt(annotationSize);
+
+        int prevKey = 0;
+        for (int i = 0; i < annotationSize; i++) {
+            final TAnnotation annotation = annotations[i];
+            final int key = annotation.getKey();
+            // the first key is raw, the others are the delta from the previous key
+            buffer.putSVInt(key - prevKey);
+
+            final Object value = transcoder.getMappingValue(annotation);
+            final byte valueTypeCode = transcoder.getTypeCode(value);
+            final byte[] valueBytes = transcoder.encode(value, valueTypeCode);
+
+            buffer.putByte(valueTypeCode);
+            buffer.putPrefixedBytes(valueBytes);
+
+            prevKey = key;
+        }
+        encodingBuffer.clearAnnotations(annotationSize);
+    }
+
+
+    private static class EncodingBuffer {
+
+        private AutomaticBuffer qualifierBuffer = new AutomaticBuffer(QUALIFIER_BUFFER_SIZE);
+        private AutomaticBuffer columnValueBuffer = new AutomaticBuffer(COLUMN_VALUE_BUFFER_SIZE);
+
+        private TSpanEvent[] spanEvents = new TSpanEvent[64];
+        private int spanEventSize = 0;
+
+        private TAnnotation[] annotations = new TAnnotation[16];
+
+        private Buffer getQualifierBuffer() {
+            return qualifierBuffer;
+        }
+
+        private Buffer getColumnValueBuffer() {
+            return columnValueBuffer;
+        }
+
+        private TSpanEvent[] getSpanEvents() {
+            return spanEvents;
+        }
+
+        private int getSpanEventSize() {
+            return spanEventSize;
+        }
+
+        private TSpanEvent[] sortSpanEvents(List<TSpanEvent> spanEventList, SpanEventFilter spanEventFilter) {
+            if (spanEventList == null || spanEventList.isEmpty()) {
+                return spanEvents;
+            }
+            if (spanEvents.length < spanEventList.size()) {
+                spanEvents = new TSpanEvent[spanEventList.size()];
+            }
+            int size = 0;
+            for (TSpanEvent spanEvent : spanEventList) {
+                if (spanEvent == null) {
+                    throw new NullPointerException("tSpanEvent must not be null");
+                }
+                if (!spanEventFilter.filter(spanEvent)) {
+                    continue;
+                }
+                spanEvents[size++] = spanEvent;
+            }
+            this.spanEventSize = size;
+            // stable sort, same order as SpanEventComparator on the SpanBo path
+            Arrays.sort(spanEvents, 0, size, SpanEventOrder.INSTANCE);
+            return spanEvents;
+        }
+
+        private TAnnotation[] sortAnnotations(List<TAnnotation> annotationList) {
+            final int size = annotationList.size();
+            if (annotations.length < size) {
+                annotations = new TAnnotation[size];
+            }
+            for (int i = 0; i < size; i++) {
+                final TAnnotation annotation = annotationList.get(i);
+                if (annotation == null) {
+                    throw new NullPointerException("annotation must not be null");
+                }
+                annotations[i] = annotation;
+            }
+            Arrays.sort(annotations, 0, size, AnnotationOrder.INSTANCE);
+            return annotations;
+        }
+
+        private void clearAnnotations(int size) {
+            Arrays.fill(annotations, 0, size, null);
+        }
+
+        private void reset() {
+            Arrays.fill(spanEvents, 0, spanEventSize, null);
+            spanEventSize = 0;
+
+            qualifierBuffer = rewind(qualifierBuffer, QUALIFIER_BUFFER_SIZE);
+            columnValueBuffer = rewind(columnValueBuffer, COLUMN_VALUE_BUFFER_SIZE);
+        }
+
+        private AutomaticBuffer rewind(AutomaticBuffer buffer, int initialSize) {
+            if (buffer.getInternalBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+                return new AutomaticBuffer(initialSize);
+            }
+            buffer.setOffset(0);
+            return buffer;
+        }
+    }
+
+    private static class SpanEventOrder implements Comparator<TSpanEvent> {
+
+        private static final SpanEventOrder INSTANCE = new SpanEventOrder();
+
+        @Override
+        public int compare(TSpanEvent o1, TSpanEvent o2) {
+            final int sequenceCompare = ShortUtils.compare(o1.getSequence(), o2.getSequence());
+            if (sequenceCompare != 0) {
+                return sequenceCompare;
+            }
+            final int asyncIdCompare = IntegerUtils.compare(SpanEventUtils.getAsyncId(o1), SpanEventUtils.getAsyncId(o2));
+            if (asyncIdCompare != 0) {
+                return asyncIdCompare;
+            }
+            return IntegerUtils.compare(SpanEventUtils.getAsyncSequence(o1), SpanEventUtils.getAsyncSequence(o2));
+        }
+    }
+
+    private static class AnnotationOrder implements Comparator<TAnnotation> {
+
+        private static final AnnotationOrder INSTANCE = new AnnotationOrder();
+
+        @Override
+        public int compare(TAnnotation o1, TAnnotation o2) {
+            return IntegerUtils.compare(o1.getKey(), o2.getKey());
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.bitfield;
 
 import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.util.SpanUtils;
 import com.navercorp.pinpoint.common.trace.LoggingInfo;
 import com.navercorp.pinpoint.common.util.BitFieldUtils;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
 import org.apache.commons.collections.CollectionUtils;
 
 /**
@@ -63,6 +65,43 @@ public class SpanBitFiled {
         return spanBitFiled;
     }
 
+    public static SpanBitFiled build(TSpan tSpan) {
+        if (tSpan == null) {
+            throw new NullPointerException("tSpan must not be null");
+        }
+        final SpanBitFiled spanBitFiled = new SpanBitFiled();
+
+        if (tSpan.getServiceType() == SpanUtils.getApplicationServiceType(tSpan)) {
+            spanBitFiled.setApplicationServiceTypeEncodingStrategy(ServiceTypeEncodingStrategy.PREV_EQUALS);
+        } else {
+            spanBitFiled.setApplicationServiceTypeEncodingStrategy(ServiceTypeEncodingStrategy.RAW);
+        }
+
+        if (tSpan.getParentSpanId() == ROOT_PARENT_SPAN_ID) {
+            spanBitFiled.setRoot(true);
+        }
+        if (tSpan.getErr() != 0) {
+            spanBitFiled.setErrorCode(true);
+        }
+
+        if (tSpan.getExceptionInfo() != null) {
+            spanBitFiled.setHasException(true);
+        }
+
+        if (tSpan.getFlag() != 0) {
+            spanBitFiled.setFlag(true);
+        }
+
+        if (tSpan.getLoggingTransactionInfo() != LoggingInfo.NOT_LOGGED.getCode()) {
+            spanBitFiled.setLoggingTransactionInfo(true);
+        }
+        if (CollectionUtils.isNotEmpty(tSpan.getAnnotations())) {
+            spanBitFiled.setAnnotation(true);
+        }
+
+        return spanBitFiled;
+    }
+
     public SpanBitFiled() {
     }
 
@@ -2,7 +2,9 @@ package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.bitfield;
 
 import com.navercorp.pinpoint.common.server.bo.AnnotationBo;
 import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.server.util.SpanEventUtils;
 import com.navercorp.pinpoint.common.util.BitFieldUtils;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
 import org.apache.commons.collections.CollectionUtils;
 
 import java.util.List;
@@ -117,6 +119,85 @@ public class SpanEventBitField {
         return bitFiled;
     }
 
+    public static SpanEventBitField buildFirst(TSpanEvent tSpanEvent) {
+        if (tSpanEvent == null) {
+            throw new NullPointerException("tSpanEvent must not be null");
+        }
+        final SpanEventBitField bitFiled = new SpanEventBitField();
+
+        if (tSpanEvent.getRpc() != null) {
+            bitFiled.setRpc(true);
+        }
+        if (tSpanEvent.getEndPoint() != null) {
+            bitFiled.setEndPoint(true);
+        }
+
+        if (tSpanEvent.getDestinationId() != null) {
+            bitFiled.setDestinationId(true);
+        }
+
+        if (SpanEventUtils.getNextSpanId(tSpanEvent) != -1) {
+            bitFiled.setNextSpanId(true);
+        }
+
+        if (SpanEventUtils.hasException(tSpanEvent)) {
+            bitFiled.setHasException(true);
+        }
+
+        if (CollectionUtils.isNotEmpty(tSpanEvent.getAnnotations())) {
+            bitFiled.setAnnotation(true);
+        }
+
+        if (SpanEventUtils.getNextAsyncId(tSpanEvent) != -1)  {
+            bitFiled.setNextAsyncId(true);
+        }
+
+        if (SpanEventUtils.getAsyncId(tSpanEvent) == -1 && SpanEventUtils.getAsyncSequence(tSpanEvent) == -1) {
+            bitFiled.setAsyncId(false);
+        } else {
+            bitFiled.setAsyncId(true);
+        }
+        return bitFiled;
+    }
+
+    public static SpanEventBitField build(TSpanEvent tSpanEvent, TSpanEvent prevTSpanEvent) {
+        if (tSpanEvent == null) {
+            throw new NullPointerException("tSpanEvent must not be null");
+        }
+        if (prevTSpanEvent == null) {
+            throw new NullPointerException("prevTSpanEvent must not be null");
+        }
+
+        final SpanEventBitField bitFiled = buildFirst(tSpanEvent);
+
+        if (tSpanEvent.getStartElapsed() == prevTSpanEvent.getStartElapsed()) {
+            bitFiled.setStartElapsedEncodingStrategy(StartElapsedTimeEncodingStrategy.PREV_EQUALS);
+        } else {
+            bitFiled.setStartElapsedEncodingStrategy(StartElapsedTimeEncodingStrategy.PREV_DELTA);
+        }
+
+        final short sequenceDelta = (short) (tSpanEvent.getSequence() - prevTSpanEvent.getSequence());
+        if (sequenceDelta == 1) {
+            bitFiled.setSequenceEncodingStrategy(SequenceEncodingStrategy.PREV_ADD1);
+        } else {
+            bitFiled.setSequenceEncodingStrategy(SequenceEncodingStrategy.PREV_DELTA);
+        }
+
+        if (SpanEventUtils.getDepth(tSpanEvent) == SpanEventUtils.getDepth(prevTSpanEvent)) {
+            bitFiled.setDepthEncodingStrategy(DepthEncodingStrategy.PREV_EQUALS);
+        } else {
+            bitFiled.setDepthEncodingStrategy(DepthEncodingStrategy.RAW);
+        }
+
+        if (prevTSpanEvent.getServiceType() == tSpanEvent.getServiceType()) {
+            bitFiled.setServiceTypeEncodingStrategy(ServiceTypeEncodingStrategy.PREV_EQUALS);
+        } else {
+            bitFiled.setServiceTypeEncodingStrategy(ServiceTypeEncodingStrategy.RAW);
+        }
+
+        return bitFiled;
+    }
+
     public SpanEventBitField() {
     }
 
@@ -1,7 +1,9 @@
 package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2.bitfield;
 
 import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.common.server.util.SpanEventUtils;
 import com.navercorp.pinpoint.common.util.BitFieldUtils;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
 
 /**
  * @author Woonduk Kang(emeroad)
@@ -29,6 +31,21 @@ public class SpanEventQualifierBitField {
         return bitField;
     }
 
+    public static byte buildBitField(TSpanEvent firstSpanEvent) {
+        if (firstSpanEvent == null) {
+            // no async bit field
+            return 0;
+        }
+
+        final int asyncId = SpanEventUtils.getAsyncId(firstSpanEvent);
+        final short asyncSequence = SpanEventUtils.getAsyncSequence(firstSpanEvent);
+        if (asyncId == -1 && asyncSequence == -1) {
+            return setAsync((byte) 0, false);
+        } else {
+            return setAsync((byte) 0, true);
+        }
+    }
+
     private SpanEventQualifierBitField() {
     }
 
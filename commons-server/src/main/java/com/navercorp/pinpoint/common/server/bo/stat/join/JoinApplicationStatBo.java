@@ -37,18 +37,29 @@ public class JoinApplicationStatBo implements JoinStatBo {
     private StatType statType = StatType.APP_STST;
 
     public static JoinApplicationStatBo joinApplicationStatBoByTimeSlice(final List<JoinApplicationStatBo> joinApplicationStatBoList) {
+        return joinApplicationStatBoByTimeSlice(joinApplicationStatBoList, SHIFT_RANGE);
+    }
+
+    /**
+     * Joins data points that fall in the same {@code timeSliceSize} slice, min/max are kept and averages are averaged.
+     * Used to roll 10 second application stats up into coarser resolutions.
+     */
+    public static JoinApplicationStatBo joinApplicationStatBoByTimeSlice(final List<JoinApplicationStatBo> joinApplicationStatBoList, final long timeSliceSize) {
+        if (timeSliceSize <= 0) {
+            throw new IllegalArgumentException("timeSliceSize must be greater than 0");
+        }
         if (joinApplicationStatBoList.isEmpty()) {
             return EMPTY_JOIN_APPLICATION_STAT_BO;
         }
 
         JoinApplicationStatBo newJoinApplicationStatBo = new JoinApplicationStatBo();
         newJoinApplicationStatBo.setId(joinApplicationStatBoList.get(0).getId());
-        newJoinApplicationStatBo.setJoinCpuLoadBoList(joinCpuLoadBoByTimeSlice(joinApplicationStatBoList));
-        newJoinApplicationStatBo.setJoinMemoryBoList(joinMemoryBoByTimeSlice(joinApplicationStatBoList));
-        newJoinApplicationStatBo.setJoinTransactionBoList(joinTransactionBoByTimeSlice(joinApplicationStatBoList));
-        newJoinApplicationStatBo.setJoinActiveTraceBoList(joinActiveTraceBoByTimeSlice(joinApplicationStatBoList));
-        newJoinApplicationStatBo.setJoinResponseTimeBoList(joinResponseTimeBoByTimeSlice(joinApplicationStatBoList));
-        newJoinApplicationStatBo.setJoinDataSourceListBoList(JoinDataSourceListBoBytTimeSlice(joinApplicationStatBoList));
+        newJoinApplicationStatBo.setJoinCpuLoadBoList(joinCpuLoadBoByTimeSlice(joinApplicationStatBoList, timeSliceSize));
+        newJoinApplicationStatBo.setJoinMemoryBoList(joinMemoryBoByTimeSlice(joinApplicationStatBoList, timeSliceSize));
+        newJoinApplicationStatBo.setJoinTransactionBoList(joinTransactionBoByTimeSlice(joinApplicationStatBoList, timeSliceSize));
+        newJoinApplicationStatBo.setJoinActiveTraceBoList(joinActiveTraceBoByTimeSlice(joinApplicationStatBoList, timeSliceSize));
+        newJoinApplicationStatBo.setJoinResponseTimeBoList(joinResponseTimeBoByTimeSlice(joinApplicationStatBoList, timeSliceSize));
+        newJoinApplicationStatBo.setJoinDataSourceListBoList(JoinDataSourceListBoBytTimeSlice(joinApplicationStatBoList, timeSliceSize));
         newJoinApplicationStatBo.setTimestamp(extractMinTimestamp(newJoinApplicationStatBo));
         return newJoinApplicationStatBo;
     }
@@ -95,12 +106,12 @@ public class JoinApplicationStatBo implements JoinStatBo {
         return minTimestamp;
     }
 
-    private static List<JoinResponseTimeBo> joinResponseTimeBoByTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList) {
+    private static List<JoinResponseTimeBo> joinResponseTimeBoByTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList, long timeSliceSize) {
         Map<Long, List<JoinResponseTimeBo>> joinResponseTimeBoMap = new HashMap<Long, List<JoinResponseTimeBo>>();
 
         for (JoinApplicationStatBo joinApplicationStatBo : joinApplicationStatBoList) {
             for (JoinResponseTimeBo joinResponseTimeBo : joinApplicationStatBo.getJoinResponseTimeBoList()) {
-                long shiftTimestamp = shiftTimestamp(joinResponseTimeBo.getTimestamp());
+                long shiftTimestamp = shiftTimestamp(joinResponseTimeBo.getTimestamp(), timeSliceSize);
                 List<JoinResponseTimeBo> joinResponseTimeBoList = joinResponseTimeBoMap.get(shiftTimestamp);
 
                 if (joinResponseTimeBoList == null) {
@@ -123,12 +134,12 @@ public class JoinApplicationStatBo implements JoinStatBo {
         return newJoinResponseTimeBoList;
     }
 
-    private static List<JoinDataSourceListBo> JoinDataSourceListBoBytTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList) {
+    private static List<JoinDataSourceListBo> JoinDataSourceListBoBytTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList, long timeSliceSize) {
         Map<Long, List<JoinDataSourceListBo>> joinDataSourceListBoMap = new HashMap<Long, List<JoinDataSourceListBo>>();
 
         for (JoinApplicationStatBo joinApplicationStatBo : joinApplicationStatBoList) {
             for (JoinDataSourceListBo joinDataSourceListBo : joinApplicationStatBo.getJoinDataSourceListBoList()) {
-                long shiftTimestamp = shiftTimestamp(joinDataSourceListBo.getTimestamp());
+                long shiftTimestamp = shiftTimestamp(joinDataSourceListBo.getTimestamp(), timeSliceSize);
                 List<JoinDataSourceListBo> joinDataSourceListBoList = joinDataSourceListBoMap.get(shiftTimestamp);
 
                 if (joinDataSourceListBoList == null) {
@@ -151,12 +162,12 @@ public class JoinApplicationStatBo implements JoinStatBo {
         return newJoinDataSourceListBoList;
     }
 
-    private static List<JoinActiveTraceBo> joinActiveTraceBoByTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList) {
+    private static List<JoinActiveTraceBo> joinActiveTraceBoByTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList, long timeSliceSize) {
         Map<Long, List<JoinActiveTraceBo>> joinActiveTraceBoMap = new HashMap<Long, List<JoinActiveTraceBo>>();
 
         for (JoinApplicationStatBo joinApplicationStatBo : joinApplicationStatBoList) {
             for (JoinActiveTraceBo joinActiveTraceBo : joinApplicationStatBo.getJoinActiveTraceBoList()) {
-                long shiftTimestamp = shiftTimestamp(joinActiveTraceBo.getTimestamp());
+                long shiftTimestamp = shiftTimestamp(joinActiveTraceBo.getTimestamp(), timeSliceSize);
                 List<JoinActiveTraceBo> joinActiveTraceBoList = joinActiveTraceBoMap.get(shiftTimestamp);
 
                 if (joinActiveTraceBoList == null) {
@@ -180,12 +191,12 @@ public class JoinApplicationStatBo implements JoinStatBo {
     }
 
 
-    private static List<JoinTransactionBo> joinTransactionBoByTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList) {
+    private static List<JoinTransactionBo> joinTransactionBoByTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList, long timeSliceSize) {
         Map<Long, List<JoinTransactionBo>> joinTransactionBoMap = new HashMap<Long, List<JoinTransactionBo>>();
 
         for (JoinApplicationStatBo joinApplicationStatBo : joinApplicationStatBoList) {
             for (JoinTransactionBo joinTransactionBo : joinApplicationStatBo.getJoinTransactionBoList()) {
-                long shiftTimestamp = shiftTimestamp(joinTransactionBo.getTimestamp());
+                long shiftTimestamp = shiftTimestamp(joinTransactionBo.getTimestamp(), timeSliceSize);
                 List<JoinTransactionBo> joinTransactionBoList = joinTransactionBoMap.get(shiftTimestamp);
 
                 if (joinTransactionBoList == null) {
@@ -208,12 +219,12 @@ public class JoinApplicationStatBo implements JoinStatBo {
         return newJoinTransactionBoList;
     }
 
-    private static List<JoinMemoryBo> joinMemoryBoByTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList) {
+    private static List<JoinMemoryBo> joinMemoryBoByTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList, long timeSliceSize) {
         Map<Long, List<JoinMemoryBo>> joinMemoryBoMap = new HashMap<Long, List<JoinMemoryBo>>();
 
         for (JoinApplicationStatBo joinApplicationStatBo : joinApplicationStatBoList) {
             for (JoinMemoryBo joinMemoryBo : joinApplicationStatBo.getJoinMemoryBoList()) {
-                long shiftTimestamp = shiftTimestamp(joinMemoryBo.getTimestamp());
+                long shiftTimestamp = shiftTimestamp(joinMemoryBo.getTimestamp(), timeSliceSize);
                 List<JoinMemoryBo> joinMemoryBoList = joinMemoryBoMap.get(shiftTimestamp);
 
                 if (joinMemoryBoList == null) {
@@ -237,12 +248,12 @@ public class JoinApplicationStatBo implements JoinStatBo {
     }
 
 
-    private static List<JoinCpuLoadBo> joinCpuLoadBoByTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList) {
+    private static List<JoinCpuLoadBo> joinCpuLoadBoByTimeSlice(List<JoinApplicationStatBo> joinApplicationStatBoList, long timeSliceSize) {
         Map<Long, List<JoinCpuLoadBo>> joinCpuLoadBoMap = new HashMap<Long, List<JoinCpuLoadBo>>();
 
         for (JoinApplicationStatBo joinApplicationStatBo : joinApplicationStatBoList) {
             for (JoinCpuLoadBo joinCpuLoadBo : joinApplicationStatBo.getJoinCpuLoadBoList()) {
-                long shiftTimestamp = shiftTimestamp(joinCpuLoadBo.getTimestamp());
+                long shiftTimestamp = shiftTimestamp(joinCpuLoadBo.getTimestamp(), timeSliceSize);
                 List<JoinCpuLoadBo> joinCpuLoadBoList = joinCpuLoadBoMap.get(shiftTimestamp);
 
                 if (joinCpuLoadBoList == null) {
@@ -288,8 +299,8 @@ public class JoinApplicationStatBo implements JoinStatBo {
         return newJoinApplicationStatBo;
     }
 
-    private static long shiftTimestamp(long timestamp) {
-        return timestamp - (timestamp % SHIFT_RANGE);
+    private static long shiftTimestamp(long timestamp, long timeSliceSize) {
+        return timestamp - (timestamp % timeSliceSize);
     }
 
     public long getTimestamp() {
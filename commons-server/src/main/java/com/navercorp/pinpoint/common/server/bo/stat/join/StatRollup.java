@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.stat.join;
+
+/**
+ * Coarser resolutions of application stat data, written alongside the raw 10 second data points
+ * so that long ranges can be read without down sampling every raw point.
+ */
+public enum StatRollup {
+    // declared from the finest to the coarsest, each rollup is built from the previous one
+    FIVE_MINUTES(5 * 60 * 1000L, 10),
+    ONE_HOUR(60 * 60 * 1000L, 20);
+
+    private final long interval;
+    private final int typeCodeOffset;
+
+    StatRollup(long interval, int typeCodeOffset) {
+        this.interval = interval;
+        this.typeCodeOffset = typeCodeOffset;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * @param rawStatType one of APP_CPU_LOAD ~ APP_DATA_SOURCE
+     * @return rolled up StatType of {@code rawStatType}
+     */
+    public StatType getStatType(StatType rawStatType) {
+        if (rawStatType == null) {
+            throw new NullPointerException("rawStatType must not be null");
+        }
+        if (rawStatType.getTypeCode() < StatType.APP_CPU_LOAD.getTypeCode() || rawStatType.getTypeCode() > StatType.APP_DATA_SOURCE.getTypeCode()) {
+            throw new IllegalArgumentException("not a raw application StatType:" + rawStatType.name());
+        }
+        return StatType.fromTypeCode((byte) (rawStatType.getTypeCode() + typeCodeOffset));
+    }
+
+    /**
+     * @return the coarsest rollup whose interval fits in {@code windowSlotSize}, {@code null} if raw data should be used
+     */
+    public static StatRollup findRollup(long windowSlotSize) {
+        StatRollup matched = null;
+        for (StatRollup statRollup : values()) {
+            if (statRollup.interval <= windowSlotSize) {
+                if (matched == null || matched.interval < statRollup.interval) {
+                    matched = statRollup;
+                }
+            }
+        }
+        return matched;
+    }
+
+}
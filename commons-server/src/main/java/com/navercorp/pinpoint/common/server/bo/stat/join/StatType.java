@@ -31,6 +31,21 @@ public enum StatType {
     APP_RESPONSE_TIME(6, "Application Response Time"),
     APP_DATA_SOURCE(7, "Application data Source"),
 
+    // application stat rolled up by StatRollup, type code = raw type code + StatRollup type code offset
+    APP_CPU_LOAD_5MIN(12, "Application Cpu Usage 5 minutes rollup"),
+    APP_MEMORY_USED_5MIN(13, "Application Memory Usage 5 minutes rollup"),
+    APP_TRANSACTION_COUNT_5MIN(14, "Application Transaction Count 5 minutes rollup"),
+    APP_ACTIVE_TRACE_COUNT_5MIN(15, "Application Active trace Count 5 minutes rollup"),
+    APP_RESPONSE_TIME_5MIN(16, "Application Response Time 5 minutes rollup"),
+    APP_DATA_SOURCE_5MIN(17, "Application data Source 5 minutes rollup"),
+
+    APP_CPU_LOAD_1HOUR(22, "Application Cpu Usage 1 hour rollup"),
+    APP_MEMORY_USED_1HOUR(23, "Application Memory Usage 1 hour rollup"),
+    APP_TRANSACTION_COUNT_1HOUR(24, "Application Transaction Count 1 hour rollup"),
+    APP_ACTIVE_TRACE_COUNT_1HOUR(25, "Application Active trace Count 1 hour rollup"),
+    APP_RESPONSE_TIME_1HOUR(26, "Application Response Time 1 hour rollup"),
+    APP_DATA_SOURCE_1HOUR(27, "Application data Source 1 hour rollup"),
+
     APP_STST_AGGRE(51, "Application stst aggregation"),
     APP_CPU_LOAD_AGGRE(52, "Application Cpu Usage aggregation"),
     APP_MEMORY_USED_AGGRE(53, "Application Memory Usage aggregation"),
@@ -36,4 +36,39 @@ public final class SpanEventUtils {
         }
         return false;
     }
+
+    public static int getDepth(TSpanEvent spanEvent) {
+        if (spanEvent.isSetDepth()) {
+            return spanEvent.getDepth();
+        }
+        return -1;
+    }
+
+    public static long getNextSpanId(TSpanEvent spanEvent) {
+        if (spanEvent.isSetNextSpanId()) {
+            return spanEvent.getNextSpanId();
+        }
+        return -1;
+    }
+
+    public static int getAsyncId(TSpanEvent spanEvent) {
+        if (spanEvent.isSetAsyncId()) {
+            return spanEvent.getAsyncId();
+        }
+        return -1;
+    }
+
+    public static int getNextAsyncId(TSpanEvent spanEvent) {
+        if (spanEvent.isSetNextAsyncId()) {
+            return spanEvent.getNextAsyncId();
+        }
+        return -1;
+    }
+
+    public static short getAsyncSequence(TSpanEvent spanEvent) {
+        if (spanEvent.isSetAsyncSequence()) {
+            return spanEvent.getAsyncSequence();
+        }
+        return -1;
+    }
 }
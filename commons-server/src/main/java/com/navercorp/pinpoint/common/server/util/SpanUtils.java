@@ -77,6 +77,29 @@ public final class SpanUtils {
         return buffer.getBuffer();
     }
 
+    public static TransactionId parseTransactionId(TSpan span) {
+        if (span == null) {
+            throw new NullPointerException("span must not be null");
+        }
+        final byte[] transactionIdBytes = span.getTransactionId();
+        final TransactionId transactionId = TransactionIdUtils.parseTransactionId(transactionIdBytes);
+        if (transactionId.getAgentId() != null) {
+            return transactionId;
+        }
+        return new TransactionId(span.getAgentId(), transactionId.getAgentStartTime(), transactionId.getTransactionSequence());
+    }
+
+    public static short getApplicationServiceType(TSpan span) {
+        if (span == null) {
+            throw new NullPointerException("span must not be null");
+        }
+        // FIXME (2015.03) Legacy - applicationServiceType added in v1.1.0
+        if (span.isSetApplicationServiceType()) {
+            return span.getApplicationServiceType();
+        }
+        return span.getServiceType();
+    }
+
     @Deprecated
     public static byte[] getTransactionId(TSpan span) {
         if (span == null) {
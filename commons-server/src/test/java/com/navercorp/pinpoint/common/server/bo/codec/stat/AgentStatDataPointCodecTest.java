@@ -62,6 +62,23 @@ public class AgentStatDataPointCodecTest {
         Assert.assertEquals(expectedTimestamp, decodedTimestamp);
     }
 
+    @Test
+    public void test_timestamp_array() {
+        // Given
+        final long initialTimestamp = System.currentTimeMillis();
+        final int numValues = (int) (Math.random() * 100) + 1;
+        final List<Long> expectedTimestamps = createTimestamps(initialTimestamp, 5000L, 10L, numValues);
+        final Buffer timestampBuffer = new AutomaticBuffer();
+        // When
+        codec.encodeTimestamps(timestampBuffer, expectedTimestamps);
+        // Then
+        long[] decodedTimestamps = codec.decodeTimestampArray(initialTimestamp, new FixedBuffer(timestampBuffer.getBuffer()), numValues);
+        Assert.assertEquals(expectedTimestamps.size(), decodedTimestamps.length);
+        for (int i = 0; i < decodedTimestamps.length; i++) {
+            Assert.assertEquals(expectedTimestamps.get(i).longValue(), decodedTimestamps[i]);
+        }
+    }
+
     private List<Long> createTimestamps(long initialTimestampMs, long intervalMs, long randomDelta, int numValues) {
         List<Long> timestamps = new ArrayList<Long>(numValues);
         timestamps.add(initialTimestampMs);
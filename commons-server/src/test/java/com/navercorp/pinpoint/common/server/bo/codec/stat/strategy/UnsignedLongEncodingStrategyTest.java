@@ -16,6 +16,9 @@
 
 package com.navercorp.pinpoint.common.server.bo.codec.stat.strategy;
 
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.FixedBuffer;
 import com.navercorp.pinpoint.common.server.bo.codec.stat.TestAgentStatDataPointFactory;
 import com.navercorp.pinpoint.common.server.bo.codec.strategy.EncodingStrategy;
 import org.junit.Assert;
@@ -80,6 +83,34 @@ public class UnsignedLongEncodingStrategyTest extends EncodingStrategyTestBase<L
         testValues(minValue, maxValue);
     }
 
+    @Test
+    public void test_decodeLongValues() {
+        long minValue = 1000;
+        long maxValue = 1000000;
+        for (int i = 0; i < NUM_TEST_RUNS; i++) {
+            testPrimitiveDecode(TestAgentStatDataPointFactory.LONG.createConstantValues(minValue, maxValue));
+            testPrimitiveDecode(TestAgentStatDataPointFactory.LONG.createRandomValues(minValue, maxValue));
+            testPrimitiveDecode(TestAgentStatDataPointFactory.LONG.createIncreasingValues(minValue, maxValue, 0L, minValue / 10));
+            testPrimitiveDecode(TestAgentStatDataPointFactory.LONG.createDecreasingValues(minValue, maxValue, 0L, minValue / 10));
+            testPrimitiveDecode(TestAgentStatDataPointFactory.LONG.createFluctuatingValues(minValue, maxValue, minValue / 10, maxValue / 10));
+        }
+    }
+
+    private void testPrimitiveDecode(List<Long> values) {
+        for (UnsignedLongEncodingStrategy encodingStrategy : UnsignedLongEncodingStrategy.values()) {
+            Buffer buffer = new AutomaticBuffer();
+            encodingStrategy.encodeValues(buffer, values);
+            byte[] encoded = buffer.getBuffer();
+
+            List<Long> expected = encodingStrategy.decodeValues(new FixedBuffer(encoded), values.size());
+            long[] actual = encodingStrategy.decodeLongValues(new FixedBuffer(encoded), values.size());
+            Assert.assertEquals(expected.size(), actual.length);
+            for (int i = 0; i < actual.length; i++) {
+                Assert.assertEquals(expected.get(i).longValue(), actual[i]);
+            }
+        }
+    }
+
     private void testValues(long minValue, long maxValue) {
         for (int i = 0; i < NUM_TEST_RUNS; i++) {
             List<Long> constantValues = TestAgentStatDataPointFactory.LONG.createConstantValues(minValue, maxValue);
@@ -16,10 +16,15 @@
 
 package com.navercorp.pinpoint.common.server.bo.codec.strategy.impl;
 
+import com.navercorp.pinpoint.common.buffer.AutomaticBuffer;
+import com.navercorp.pinpoint.common.buffer.Buffer;
+import com.navercorp.pinpoint.common.buffer.FixedBuffer;
 import com.navercorp.pinpoint.common.server.bo.codec.TypedBufferHandler;
 import com.navercorp.pinpoint.common.server.bo.codec.strategy.EncodingStrategyTestBase;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -72,4 +77,27 @@ public class RepeatCountEncodingStrategyTest extends EncodingStrategyTestBase {
         RepeatCountEncodingStrategy.Unsigned<Long> strategy = new RepeatCountEncodingStrategy.Unsigned<Long>(TypedBufferHandler.LONG_BUFFER_HANDLER);
         testStrategy(expectedValues, strategy);
     }
+
+    @Test
+    public void unsigned_longs_should_be_decoded_to_primitive_array() {
+        List<Long> expectedValues = createRandomLongs(NUM_TEST_VALUES, true);
+        RepeatCountEncodingStrategy.UnsignedLong strategy = new RepeatCountEncodingStrategy.UnsignedLong();
+        Buffer buffer = new AutomaticBuffer();
+        strategy.encodeValues(buffer, expectedValues);
+
+        long[] actualValues = strategy.decodeLongValues(new FixedBuffer(buffer.getBuffer()), expectedValues.size());
+        Assert.assertEquals(expectedValues.size(), actualValues.length);
+        for (int i = 0; i < actualValues.length; i++) {
+            Assert.assertEquals(expectedValues.get(i).longValue(), actualValues[i]);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void repeat_count_exceeding_numValues_should_fail() {
+        RepeatCountEncodingStrategy.UnsignedLong strategy = new RepeatCountEncodingStrategy.UnsignedLong();
+        Buffer buffer = new AutomaticBuffer();
+        strategy.encodeValues(buffer, Arrays.asList(1L, 1L, 1L, 2L));
+
+        strategy.decodeLongValues(new FixedBuffer(buffer.getBuffer()), 2);
+    }
 }
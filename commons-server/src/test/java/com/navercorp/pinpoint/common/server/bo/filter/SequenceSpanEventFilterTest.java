@@ -17,6 +17,7 @@
 package com.navercorp.pinpoint.common.server.bo.filter;
 
 import com.navercorp.pinpoint.common.server.bo.SpanEventBo;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -48,6 +49,18 @@ public class SequenceSpanEventFilterTest {
 
     }
 
+    @Test
+    public void testFilter_tSpanEvent() throws Exception {
+        SpanEventFilter filter = new SequenceSpanEventFilter(10);
+
+        final TSpanEvent tSpanEvent = new TSpanEvent();
+        tSpanEvent.setSequence((short)10);
+        Assert.assertEquals(filter.filter(tSpanEvent), SpanEventFilter.ACCEPT);
+
+        tSpanEvent.setSequence((short)11);
+        Assert.assertEquals(filter.filter(tSpanEvent), SpanEventFilter.REJECT);
+    }
+
     @Test
     public void testFilter_max() throws Exception {
         new SequenceSpanEventFilter(Short.MAX_VALUE);
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
+
+import com.navercorp.pinpoint.common.server.bo.RandomTSpan;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.bo.SpanFactory;
+import com.navercorp.pinpoint.common.server.util.EmptyAcceptedTimeService;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
+import org.apache.hadoop.hbase.client.Put;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.TRACE_V2_CF_SPAN;
+
+/**
+ * Cost per span of writing the V2 trace column, {@link SpanFactory} + {@link SpanEncoderV0} (SPAN_BO)
+ * against {@link ThriftSpanSerializerV2} (DIRECT).
+ * run with {@link #main(String[])} on the test classpath, the gc profiler reports gc.alloc.rate.norm.
+ * re-run it before changing the collector.span.encoding.direct default.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SpanSerializerBenchmark {
+
+    private static final byte[] ROW_KEY = new byte[] {1, 2, 3, 4};
+    private static final long ACCEPTED_TIME = System.currentTimeMillis();
+
+    @Param({"SPAN_BO", "DIRECT"})
+    public String mode;
+
+    @Param({"0", "16", "128"})
+    public int spanEventCount;
+
+    private final SpanFactory spanFactory = new SpanFactory();
+    private final SpanEncoder spanEncoder = new SpanEncoderV0();
+    private final ThriftSpanSerializerV2 thriftSpanSerializer = new ThriftSpanSerializerV2();
+
+    private TSpan tSpan;
+
+    @Setup
+    public void setup() {
+        spanFactory.setAcceptedTimeService(new EmptyAcceptedTimeService(ACCEPTED_TIME));
+
+        final RandomTSpan randomTSpan = new RandomTSpan();
+        this.tSpan = randomTSpan.randomTSpan();
+        final List<TSpanEvent> spanEventList = new ArrayList<TSpanEvent>(spanEventCount);
+        for (int i = 0; i < spanEventCount; i++) {
+            spanEventList.add(randomTSpan.randomTSpanEvent((short) i));
+        }
+        tSpan.setSpanEventList(spanEventList);
+    }
+
+    @Benchmark
+    public Put serialize() {
+        final Put put = new Put(ROW_KEY, ACCEPTED_TIME);
+        if ("DIRECT".equals(mode)) {
+            thriftSpanSerializer.serialize(tSpan, put, null);
+            return put;
+        }
+        final SpanBo spanBo = spanFactory.buildSpanBo(tSpan);
+        final SpanEncodingContext<SpanBo> encodingContext = new SpanEncodingContext<SpanBo>(spanBo);
+        final ByteBuffer qualifier = spanEncoder.encodeSpanQualifier(encodingContext);
+        final ByteBuffer columnValue = spanEncoder.encodeSpanColumnValue(encodingContext);
+        put.addColumn(TRACE_V2_CF_SPAN, qualifier, ACCEPTED_TIME, columnValue);
+        return put;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SpanSerializerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.serializer.trace.v2;
+
+import com.google.common.collect.Lists;
+import com.navercorp.pinpoint.common.server.bo.RandomTSpan;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.bo.SpanFactory;
+import com.navercorp.pinpoint.common.server.bo.filter.SequenceSpanEventFilter;
+import com.navercorp.pinpoint.common.server.bo.filter.SpanEventFilter;
+import com.navercorp.pinpoint.common.server.util.EmptyAcceptedTimeService;
+import com.navercorp.pinpoint.thrift.dto.TSpan;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Put;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static com.navercorp.pinpoint.common.hbase.HBaseTables.TRACE_V2_CF_SPAN;
+
+public class ThriftSpanSerializerV2Test {
+
+    private static final int REPEAT_COUNT = 10;
+
+    private final RandomTSpan randomTSpan = new RandomTSpan();
+
+    private final SpanEncoder spanEncoder = new SpanEncoderV0();
+
+    @Test
+    public void serialize_simpleSpan() {
+        ThriftSpanSerializerV2 serializer = new ThriftSpanSerializerV2();
+        for (int i = 0; i < REPEAT_COUNT; i++) {
+            TSpan tSpan = randomTSpan.randomTSpan();
+            assertSameEncoding(serializer, new SpanFactory(), tSpan);
+        }
+    }
+
+    @Test
+    public void serialize_complexSpan() {
+        ThriftSpanSerializerV2 serializer = new ThriftSpanSerializerV2();
+        for (int i = 0; i < REPEAT_COUNT; i++) {
+            TSpan tSpan = randomComplexSpan();
+            assertSameEncoding(serializer, new SpanFactory(), tSpan);
+        }
+    }
+
+    @Test
+    public void serialize_unsortedSpanEvent() {
+        TSpan tSpan = randomTSpan.randomTSpan();
+        TSpanEvent asyncEvent = randomTSpan.randomTSpanEvent((short) 2);
+        TSpanEvent syncEvent = randomTSpan.randomTSpanEvent((short) 2);
+        syncEvent.setAsyncId(-1);
+        syncEvent.setAsyncSequence((short) -1);
+        tSpan.setSpanEventList(Lists.newArrayList(
+                randomTSpan.randomTSpanEvent((short) 7), asyncEvent, randomTSpan.randomTSpanEvent((short) 0), syncEvent));
+        tSpan.setAnnotations(Lists.newArrayList(
+                randomTSpan.randomTAnnotation(30), randomTSpan.randomTAnnotation(-10), randomTSpan.randomTAnnotation(20)));
+
+        assertSameEncoding(new ThriftSpanSerializerV2(), new SpanFactory(), tSpan);
+    }
+
+    @Test
+    public void serialize_filteredSpanEvent() {
+        SpanEventFilter spanEventFilter = new SequenceSpanEventFilter(2);
+
+        ThriftSpanSerializerV2 serializer = new ThriftSpanSerializerV2();
+        serializer.setSpanEventFilter(spanEventFilter);
+        SpanFactory spanFactory = new SpanFactory();
+        spanFactory.setSpanEventFilter(spanEventFilter);
+
+        assertSameEncoding(serializer, spanFactory, randomComplexSpan());
+    }
+
+    @Test
+    public void serialize_reuseBuffer() {
+        ThriftSpanSerializerV2 serializer = new ThriftSpanSerializerV2();
+
+        TSpan largeSpan = randomComplexSpan();
+        List<TSpanEvent> spanEventList = largeSpan.getSpanEventList();
+        for (int i = 0; i < 200; i++) {
+            spanEventList.add(randomTSpan.randomTSpanEvent((short) (10 + i)));
+        }
+        assertSameEncoding(serializer, new SpanFactory(), largeSpan);
+        assertSameEncoding(serializer, new SpanFactory(), randomTSpan.randomTSpan());
+        assertSameEncoding(serializer, new SpanFactory(), randomComplexSpan());
+    }
+
+    private TSpan randomComplexSpan() {
+        TSpan tSpan = randomTSpan.randomTSpan();
+        TSpanEvent tSpanEvent1 = randomTSpan.randomTSpanEvent((short) 1);
+        TSpanEvent tSpanEvent2 = randomTSpan.randomTSpanEvent((short) 2);
+        TSpanEvent tSpanEvent3 = randomTSpan.randomTSpanEvent((short) 3);
+        TSpanEvent tSpanEvent4 = randomTSpan.randomTSpanEvent((short) 5);
+
+        tSpan.setSpanEventList(Lists.newArrayList(tSpanEvent1, tSpanEvent2, tSpanEvent3, tSpanEvent4));
+        return tSpan;
+    }
+
+    private void assertSameEncoding(ThriftSpanSerializerV2 serializer, SpanFactory spanFactory, TSpan tSpan) {
+        final long acceptedTime = System.currentTimeMillis();
+
+        spanFactory.setAcceptedTimeService(new EmptyAcceptedTimeService(acceptedTime));
+        SpanBo spanBo = spanFactory.buildSpanBo(tSpan);
+        SpanEncodingContext<SpanBo> encodingContext = new SpanEncodingContext<SpanBo>(spanBo);
+        ByteBuffer expectedQualifier = spanEncoder.encodeSpanQualifier(encodingContext);
+        ByteBuffer expectedColumnValue = spanEncoder.encodeSpanColumnValue(encodingContext);
+
+        Put put = new Put(new byte[] {1}, acceptedTime);
+        serializer.serialize(tSpan, put, null);
+
+        List<Cell> cells = put.getFamilyCellMap().get(TRACE_V2_CF_SPAN);
+        Assert.assertEquals(1, cells.size());
+        Cell cell = cells.get(0);
+        Assert.assertEquals(acceptedTime, cell.getTimestamp());
+
+        ByteBuffer qualifier = ByteBuffer.wrap(cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+        Assert.assertEquals(expectedQualifier, qualifier);
+        ByteBuffer columnValue = ByteBuffer.wrap(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+        Assert.assertEquals(expectedColumnValue, columnValue);
+    }
+}
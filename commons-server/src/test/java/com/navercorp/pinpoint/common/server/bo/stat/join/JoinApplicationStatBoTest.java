@@ -41,6 +41,33 @@ public class JoinApplicationStatBoTest {
         assertJoinCpuLoadBoList(joinCpuLoadBoList);
     }
 
+    @Test
+    public void joinApplicationStatBoByRollupTimeSliceTest() {
+        final long currentTime = 1487149800000L; // 18:10:00 15 2 2017
+        List<JoinApplicationStatBo> joinApplicationStatBoList = new ArrayList<JoinApplicationStatBo>();
+        joinApplicationStatBoList.add(createJoinApplicationStatBo("id1", currentTime, 1));
+        joinApplicationStatBoList.add(createJoinApplicationStatBo("id2", currentTime + 1000, -4));
+        joinApplicationStatBoList.add(createJoinApplicationStatBo("id3", currentTime + 2000, -3));
+        joinApplicationStatBoList.add(createJoinApplicationStatBo("id4", currentTime + 3000, 4));
+        joinApplicationStatBoList.add(createJoinApplicationStatBo("id5", currentTime + 4000, -5));
+        JoinApplicationStatBo resultJoinApplicationStatBo = JoinApplicationStatBo.joinApplicationStatBoByTimeSlice(joinApplicationStatBoList, StatRollup.FIVE_MINUTES.getInterval());
+
+        assertEquals(resultJoinApplicationStatBo.getTimestamp(), currentTime);
+        List<JoinCpuLoadBo> joinCpuLoadBoList = resultJoinApplicationStatBo.getJoinCpuLoadBoList();
+        assertEquals(joinCpuLoadBoList.size(), 1);
+        JoinCpuLoadBo joinCpuLoadBo = joinCpuLoadBoList.get(0);
+        assertEquals(joinCpuLoadBo.getTimestamp(), currentTime);
+        assertEquals(joinCpuLoadBo.getJvmCpuLoad(), 28.6, 0.0001);
+        assertEquals(joinCpuLoadBo.getMinJvmCpuLoad(), 2.0, 0);
+        assertEquals(joinCpuLoadBo.getMinJvmCpuAgentId(), "id5_2");
+        assertEquals(joinCpuLoadBo.getMaxJvmCpuLoad(), 93.0, 0);
+        assertEquals(joinCpuLoadBo.getMaxJvmCpuAgentId(), "id4_1");
+        assertEquals(joinCpuLoadBo.getMinSystemCpuLoad(), 3.0, 0);
+        assertEquals(joinCpuLoadBo.getMinSysCpuAgentId(), "id5_4");
+        assertEquals(joinCpuLoadBo.getMaxSystemCpuLoad(), 93.0, 0);
+        assertEquals(joinCpuLoadBo.getMaxSysCpuAgentId(), "id4_3");
+    }
+
     private class ComparatorImpl implements Comparator<JoinCpuLoadBo> {
         @Override
         public int compare(JoinCpuLoadBo bo1, JoinCpuLoadBo bo2) {
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.common.server.bo.stat.join;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class StatRollupTest {
+
+    @Test
+    public void getStatType() {
+        assertEquals(StatType.APP_CPU_LOAD_5MIN, StatRollup.FIVE_MINUTES.getStatType(StatType.APP_CPU_LOAD));
+        assertEquals(StatType.APP_DATA_SOURCE_5MIN, StatRollup.FIVE_MINUTES.getStatType(StatType.APP_DATA_SOURCE));
+        assertEquals(StatType.APP_MEMORY_USED_1HOUR, StatRollup.ONE_HOUR.getStatType(StatType.APP_MEMORY_USED));
+        assertEquals(StatType.APP_RESPONSE_TIME_1HOUR, StatRollup.ONE_HOUR.getStatType(StatType.APP_RESPONSE_TIME));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getStatTypeOfNonRawStatType() {
+        StatRollup.FIVE_MINUTES.getStatType(StatType.APP_CPU_LOAD_AGGRE);
+    }
+
+    @Test
+    public void findRollup() {
+        assertNull(StatRollup.findRollup(10000));
+        assertNull(StatRollup.findRollup(5 * 60 * 1000L - 1));
+        assertEquals(StatRollup.FIVE_MINUTES, StatRollup.findRollup(5 * 60 * 1000L));
+        assertEquals(StatRollup.FIVE_MINUTES, StatRollup.findRollup(30 * 60 * 1000L));
+        assertEquals(StatRollup.ONE_HOUR, StatRollup.findRollup(3 * 60 * 60 * 1000L));
+    }
+
+}
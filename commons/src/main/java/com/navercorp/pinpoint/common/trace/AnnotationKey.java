@@ -209,4 +209,7 @@ public interface AnnotationKey {
 
     AnnotationKey PROXY_HTTP_HEADER = AnnotationKeyFactory.of(300, "PROXY_HTTP_HEADER", VIEW_IN_RECORD_SET);
     AnnotationKey REDIS_IO = AnnotationKeyFactory.of(310, "redis.io");
+
+    // span events over the hold limit of a tail sampled transaction
+    AnnotationKey TAIL_SAMPLING_DROPPED_SPAN_EVENT = AnnotationKeyFactory.of(320, "tail.sampling.dropped.span.event", VIEW_IN_RECORD_SET);
 }
@@ -35,6 +35,12 @@ public class DefaultSqlParser implements SqlParser {
 
     private static final NormalizedSql NULL_OBJECT = new DefaultNormalizedSql("", "");
 
+    // FNV-1a 64
+    private static final long FINGERPRINT_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FINGERPRINT_PRIME = 0x100000001b3L;
+    // replaced tokens are hashed out of the char range, their index follows from the order
+    private static final int FINGERPRINT_REPLACE = 0x10000;
+
     public DefaultSqlParser() {
     }
 
@@ -48,6 +54,80 @@ public class DefaultSqlParser implements SqlParser {
         final int length = sql.length();
         final StringBuilder normalized = new StringBuilder(length + NORMALIZED_SQL_BUFFER);
         final StringBuilder parsedParameter = new StringBuilder(32);
+        final boolean change = normalize(sql, new StringBuilderSqlWriter(normalized), parsedParameter);
+        if (change) {
+            String parsedParameterString;
+            if (parsedParameter.length() > 0) {
+                parsedParameterString = parsedParameter.toString();
+            } else {
+                parsedParameterString = "";
+            }
+
+            return new DefaultNormalizedSql(normalized.toString(), parsedParameterString);
+        } else {
+            // Reuse if not modified.
+            // 1. new strings are not generated
+            // 2. reuse hashcodes
+            return new DefaultNormalizedSql(sql, "");
+        }
+    }
+
+    /**
+     * Computes a 64 bit hash of the sql {@link #normalizedSql(String)} would return, without building it.
+     * Statements differing only in their literals have the same fingerprint.
+     * The literals are written to {@code parsedParameter} in the format of {@link NormalizedSql#getParseParameter()}.
+     *
+     * @param sql sql to fingerprint
+     * @param parsedParameter output of the parsed parameters
+     * @return fingerprint of the normalized sql
+     */
+    public long fingerprint(final String sql, final StringBuilder parsedParameter) {
+        return fingerprint(sql, parsedParameter, null);
+    }
+
+    /**
+     * Same as {@link #fingerprint(String, StringBuilder)}, also writing the normalized sql to {@code normalized} in the same pass.
+     * {@code normalized} is left empty if {@link #normalizedSql(String)} would return the sql itself.
+     *
+     * @param sql sql to fingerprint
+     * @param parsedParameter output of the parsed parameters
+     * @param normalized output of the normalized sql, may be null
+     * @return fingerprint of the normalized sql
+     */
+    public long fingerprint(final String sql, final StringBuilder parsedParameter, final StringBuilder normalized) {
+        if (sql == null) {
+            throw new NullPointerException("sql must not be null");
+        }
+        if (parsedParameter == null) {
+            throw new NullPointerException("parsedParameter must not be null");
+        }
+
+        final FingerprintSqlWriter writer = new FingerprintSqlWriter(normalized);
+        final boolean change = normalize(sql, writer, parsedParameter);
+        if (change) {
+            return writer.getHash();
+        }
+        // normalizedSql() returns the sql itself if not modified
+        if (normalized != null) {
+            normalized.setLength(0);
+        }
+        long hash = FINGERPRINT_OFFSET_BASIS;
+        final int length = sql.length();
+        for (int i = 0; i < length; i++) {
+            hash = fingerprint(hash, sql.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long fingerprint(long hash, int value) {
+        return (hash ^ value) * FINGERPRINT_PRIME;
+    }
+
+    /**
+     * @return true if a literal was replaced
+     */
+    private boolean normalize(final String sql, final SqlWriter normalized, final StringBuilder parsedParameter) {
+        final int length = sql.length();
         boolean change = false;
         int replaceIndex = 0;
         boolean numberTokenStartEnable = true;
@@ -60,13 +140,15 @@ public class DefaultSqlParser implements SqlParser {
                     final int lookAhead1Char = lookAhead1(sql, i);
                     // multi line comment and oracle hint /*+ */
                     if (lookAhead1Char == '*') {
-                        normalized.append("/*");
+                        normalized.append('/');
+                        normalized.append('*');
                         i += 2;
                         for (; i < length; i++) {
                             char stateCh = sql.charAt(i);
                             if (stateCh == '*') {
                                 if (lookAhead1(sql, i) == '/') {
-                                    normalized.append("*/");
+                                    normalized.append('*');
+                                    normalized.append('/');
                                     i++;
                                     break;
                                 }
@@ -76,7 +158,8 @@ public class DefaultSqlParser implements SqlParser {
                         break;
                         // single line comment
                     } else if (lookAhead1Char == '/') {
-                        normalized.append("//");
+                        normalized.append('/');
+                        normalized.append('/');
                         i += 2;
                         i = readLine(sql, normalized, i);
                         break;
@@ -92,7 +175,8 @@ public class DefaultSqlParser implements SqlParser {
                 case '-':
                     // single line comment state
                     if (lookAhead1(sql, i) == '-') {
-                        normalized.append("--");
+                        normalized.append('-');
+                        normalized.append('-');
                         i += 2;
                         i = readLine(sql, normalized, i);
                         break;
@@ -107,7 +191,8 @@ public class DefaultSqlParser implements SqlParser {
                 case '\'':
                     // empty symbol
                     if (lookAhead1(sql, i) == '\'') {
-                        normalized.append("''");
+                        normalized.append('\'');
+                        normalized.append('\'');
                         // no need to add parameter to output as $ is not converted
                         i += 2;
                         break;
@@ -125,8 +210,7 @@ public class DefaultSqlParser implements SqlParser {
                                     appendOutputParam(parsedParameter, "''");
                                     continue;
                                 } else {
-                                    normalized.append(replaceIndex++);
-                                    normalized.append(SYMBOL_REPLACE);
+                                    normalized.appendReplace(replaceIndex++, SYMBOL_REPLACE);
                                     normalized.append('\'');
 //                                    outputParam.append(',');
                                     break;
@@ -151,8 +235,7 @@ public class DefaultSqlParser implements SqlParser {
                     // http://www.h2database.com/html/grammar.html look at the state machine more
                     if (numberTokenStartEnable) {
                         change = true;
-                        normalized.append(replaceIndex++);
-                        normalized.append(NUMBER_REPLACE);
+                        normalized.appendReplace(replaceIndex++, NUMBER_REPLACE);
                         // number token start
                         appendOutputSeparator(parsedParameter);
                         appendOutputParam(parsedParameter, ch);
@@ -240,21 +323,19 @@ public class DefaultSqlParser implements SqlParser {
                     break;
             }
         }
-        if (change) {
-            String parsedParameterString;
-            if (parsedParameter.length() > 0) {
-                parsedParameterString = parsedParameter.toString();
-            } else {
-                parsedParameterString = "";
-            }
+        return change;
+    }
 
-            return new DefaultNormalizedSql(normalized.toString(), parsedParameterString);
-        } else {
-            // Reuse if not modified.
-            // 1. new strings are not generated
-            // 2. reuse hashcodes
-            return new DefaultNormalizedSql(sql, "");
+    private int readLine(String sql, SqlWriter normalized, int index) {
+        final int length = sql.length();
+        for (; index < length; index++) {
+            char ch = sql.charAt(index);
+            normalized.append(ch);
+            if (ch == '\n') {
+                break;
+            }
         }
+        return index;
     }
 
     private int readLine(String sql, StringBuilder normalized, int index) {
@@ -552,4 +633,66 @@ public class DefaultSqlParser implements SqlParser {
 
         return result.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * output of {@link #normalize(String, SqlWriter, StringBuilder)}
+     */
+    private interface SqlWriter {
+
+        void append(char ch);
+
+        void appendReplace(int replaceIndex, char replace);
+    }
+
+    private static class StringBuilderSqlWriter implements SqlWriter {
+
+        private final StringBuilder normalized;
+
+        private StringBuilderSqlWriter(StringBuilder normalized) {
+            this.normalized = normalized;
+        }
+
+        @Override
+        public void append(char ch) {
+            normalized.append(ch);
+        }
+
+        @Override
+        public void appendReplace(int replaceIndex, char replace) {
+            normalized.append(replaceIndex);
+            normalized.append(replace);
+        }
+    }
+
+    private static class FingerprintSqlWriter implements SqlWriter {
+
+        // nullable
+        private final StringBuilder normalized;
+        private long hash = FINGERPRINT_OFFSET_BASIS;
+
+        private FingerprintSqlWriter(StringBuilder normalized) {
+            this.normalized = normalized;
+        }
+
+        @Override
+        public void append(char ch) {
+            hash = fingerprint(hash, ch);
+            if (normalized != null) {
+                normalized.append(ch);
+            }
+        }
+
+        @Override
+        public void appendReplace(int replaceIndex, char replace) {
+            hash = fingerprint(hash, FINGERPRINT_REPLACE | replace);
+            if (normalized != null) {
+                normalized.append(replaceIndex);
+                normalized.append(replace);
+            }
+        }
+
+        private long getHash() {
+            return hash;
+        }
+    }
+}
@@ -298,6 +298,57 @@ public class DefaultSqlParserTest {
         Assert.assertEquals(expected, result);
     }
 
+    @Test
+    public void fingerprint() {
+        assertFingerprint("select * from table a = 1 and b=50 and c=? and d='11'", "select * from table a = 2 and b=5.0 and c=? and d='abc'");
+        assertFingerprint("select * from table a = 'it''s'", "select * from table a = 'x,y'");
+        assertFingerprint("/* comment 1 */ select -1 from t1 -- line 2\n where a = 3", "/* comment 1 */ select -100 from t1 -- line 2\n where a = 1.5E3");
+        assertFingerprint("select ''", "select ''");
+        assertFingerprint("", "");
+
+        assertFingerprintNotEquals("select * from table1 where a = 1", "select * from table2 where a = 1");
+        assertFingerprintNotEquals("select * from table a = 1", "select * from table a = '1'");
+        assertFingerprintNotEquals("select * from table a = 1", "select * from table a = 1, 2");
+        assertFingerprintNotEquals("select 1#", "select 1");
+        assertFingerprintNotEquals("/* a = 1 */ select 1", "/* a = 2 */ select 1");
+        assertFingerprintNotEquals("select ''", "select ''a");
+    }
+
+    private void assertFingerprint(String sql1, String sql2) {
+        DefaultSqlParser parser = new DefaultSqlParser();
+        Assert.assertEquals(parser.normalizedSql(sql1).getNormalizedSql(), parser.normalizedSql(sql2).getNormalizedSql());
+
+        StringBuilder parsedParameter1 = new StringBuilder();
+        StringBuilder parsedParameter2 = new StringBuilder();
+        Assert.assertEquals(parser.fingerprint(sql1, parsedParameter1), parser.fingerprint(sql2, parsedParameter2));
+        Assert.assertEquals(parser.normalizedSql(sql1).getParseParameter(), parsedParameter1.toString());
+        Assert.assertEquals(parser.normalizedSql(sql2).getParseParameter(), parsedParameter2.toString());
+
+        assertFingerprintNormalized(parser, sql1);
+        assertFingerprintNormalized(parser, sql2);
+    }
+
+    private void assertFingerprintNormalized(DefaultSqlParser parser, String sql) {
+        StringBuilder parsedParameter = new StringBuilder();
+        StringBuilder normalized = new StringBuilder();
+        Assert.assertEquals(parser.fingerprint(sql, new StringBuilder()), parser.fingerprint(sql, parsedParameter, normalized));
+
+        NormalizedSql normalizedSql = parser.normalizedSql(sql);
+        if (normalizedSql.getNormalizedSql() == sql) {
+            Assert.assertEquals("", normalized.toString());
+        } else {
+            Assert.assertEquals(normalizedSql.getNormalizedSql(), normalized.toString());
+        }
+        Assert.assertEquals(normalizedSql.getParseParameter(), parsedParameter.toString());
+    }
+
+    private void assertFingerprintNotEquals(String sql1, String sql2) {
+        DefaultSqlParser parser = new DefaultSqlParser();
+        Assert.assertNotEquals(parser.normalizedSql(sql1).getNormalizedSql(), parser.normalizedSql(sql2).getNormalizedSql());
+
+        Assert.assertNotEquals(parser.fingerprint(sql1, new StringBuilder()), parser.fingerprint(sql2, new StringBuilder()));
+    }
+
     private void assertCombine(String result, String sql, String outputParams) {
         List<String> output = this.outputParameterParser.parseOutputParameter(outputParams);
 
@@ -352,6 +403,10 @@ public class DefaultSqlParserTest {
         }
 
         Assert.assertEquals("outputParam check", outputExpected, parsingResult.getParseParameter());
+
+        StringBuilder parsedParameter = new StringBuilder();
+        new DefaultSqlParser().fingerprint(expected, parsedParameter);
+        Assert.assertEquals("fingerprint outputParam check", outputExpected, parsedParameter.toString());
     }
 
     private void assertEqualObject(String expected) {
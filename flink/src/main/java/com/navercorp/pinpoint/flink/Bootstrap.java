@@ -56,7 +56,7 @@ public class Bootstrap {
     private final DataSourceDao dataSourceDao;
 
     private Bootstrap() {
-        String[] SPRING_CONFIG_XML = new String[]{"applicationContext-flink.xml", "applicationContext-cache.xml"};
+        String[] SPRING_CONFIG_XML = new String[]{"applicationContext-flink.xml"};
         applicationContext = new ClassPathXmlApplicationContext(SPRING_CONFIG_XML);
 
         tbaseFlatMapper = applicationContext.getBean("tbaseFlatMapper", TBaseFlatMapper.class);
@@ -20,8 +20,10 @@ package com.navercorp.pinpoint.flink;
  */
 
 import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.StatRollup;
 import com.navercorp.pinpoint.flink.dao.hbase.StatisticsDao;
 import com.navercorp.pinpoint.flink.function.ApplicationStatBoWindow;
+import com.navercorp.pinpoint.flink.function.ApplicationStatRollupWindow;
 import com.navercorp.pinpoint.flink.function.Timestamp;
 import com.navercorp.pinpoint.flink.function.ApplicationStatBoFliter;
 import com.navercorp.pinpoint.flink.receiver.TcpSourceFunction;
@@ -70,6 +72,22 @@ public class StatStreamingVer2Job implements Serializable {
             .apply(new ApplicationStatBoWindow());
         applicationStatAggregationData.writeUsingOutputFormat(statisticsDao);
 
+        //1-1-1 cascade application stat into coarser resolutions, each rollup is built from the previous one
+        if (bootstrap.getFlinkConfiguration().isFlinkApplicationStatRollupEnable()) {
+            DataStream<Tuple3<String, JoinStatBo, Long>> upstream = applicationStatAggregationData;
+            long upstreamWindowSize = ApplicationStatBoWindow.WINDOW_SIZE;
+            for (StatRollup statRollup : StatRollup.values()) {
+                DataStream<Tuple3<String, JoinStatBo, Long>> rollupData = upstream.keyBy(0)
+                    .window(TumblingEventTimeWindows.of(Time.milliseconds(statRollup.getInterval())))
+                    .allowedLateness(Time.milliseconds(ApplicationStatBoWindow.ALLOWED_LATENESS))
+                    .apply(new ApplicationStatRollupWindow(statRollup, upstreamWindowSize));
+                rollupData.writeUsingOutputFormat(new StatisticsDao(statRollup));
+
+                upstream = rollupData;
+                upstreamWindowSize = statRollup.getInterval();
+            }
+        }
+
         // 1-2. aggregate application stat data
 //        statOperator.filter(new FilterFunction<Tuple3<String, JoinStatBo, Long>>() {
 //            @Override
@@ -36,6 +36,14 @@ public class FlinkConfiguration extends CollectorConfiguration {
 
     private int flinkSourceFunctionParallel;
 
+    private boolean flinkApplicationStatRollupEnable;
+
+    private int applicationCacheMaxSize;
+    private long applicationCacheExpireTime;
+    private int applicationCacheBatchSize;
+    private long applicationCacheBatchInterval;
+    private String applicationCacheSnapshotPath;
+
     public boolean isFlinkClusterEnable() {
         return flinkClusterEnable;
     }
@@ -60,6 +68,30 @@ public class FlinkConfiguration extends CollectorConfiguration {
         return flinkSourceFunctionParallel;
     }
 
+    public boolean isFlinkApplicationStatRollupEnable() {
+        return flinkApplicationStatRollupEnable;
+    }
+
+    public int getApplicationCacheMaxSize() {
+        return applicationCacheMaxSize;
+    }
+
+    public long getApplicationCacheExpireTime() {
+        return applicationCacheExpireTime;
+    }
+
+    public int getApplicationCacheBatchSize() {
+        return applicationCacheBatchSize;
+    }
+
+    public long getApplicationCacheBatchInterval() {
+        return applicationCacheBatchInterval;
+    }
+
+    public String getApplicationCacheSnapshotPath() {
+        return applicationCacheSnapshotPath;
+    }
+
     public boolean isLocalforFlinkStreamExecutionEnvironment() {
         return "local".equals(flinkStreamExecutionEnvironment) ? true : false;
     }
@@ -77,5 +109,11 @@ public class FlinkConfiguration extends CollectorConfiguration {
         this.flinkClusterTcpPort = readInt(properties,"flink.cluster.tcp.port", 19994);
         this.flinkStreamExecutionEnvironment = readString(properties, "flink.StreamExecutionEnvironment", "server");
         this.flinkSourceFunctionParallel = readInt(properties, "flink.sourceFunction.Parallel", 1);
+        this.flinkApplicationStatRollupEnable = readBoolean(properties, "flink.applicationStat.rollup.enable");
+        this.applicationCacheMaxSize = readInt(properties, "flink.applicationCache.maxSize", 30000);
+        this.applicationCacheExpireTime = readLong(properties, "flink.applicationCache.expireTime", 600000L);
+        this.applicationCacheBatchSize = readInt(properties, "flink.applicationCache.batch.size", 100);
+        this.applicationCacheBatchInterval = readLong(properties, "flink.applicationCache.batch.interval", 50L);
+        this.applicationCacheSnapshotPath = readString(properties, "flink.applicationCache.snapshot.path", "");
     }
 }
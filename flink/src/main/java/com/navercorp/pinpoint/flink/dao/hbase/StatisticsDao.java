@@ -42,8 +42,17 @@ public class StatisticsDao implements OutputFormat<Tuple3<String, JoinStatBo, Lo
     private transient ResponseTimeDao responseTimeDao;
     private transient DataSourceDao dataSourceDao;
 
+    private final StatRollup statRollup;
 
     public StatisticsDao() {
+        this(null);
+    }
+
+    /**
+     * @param statRollup resolution of the application stat written by this dao, {@code null} for raw data
+     */
+    public StatisticsDao(StatRollup statRollup) {
+        this.statRollup = statRollup;
     }
 
     @Override
@@ -90,13 +99,20 @@ public class StatisticsDao implements OutputFormat<Tuple3<String, JoinStatBo, Lo
         } else {
             final String id = joinApplicationStatBo.getId();
             final long timestamp = joinApplicationStatBo.getTimestamp();
-            cpuLoadDao.insert(id, timestamp, joinCpuLoadBoList, StatType.APP_CPU_LOAD);
-            memoryDao.insert(id, timestamp, joinMemoryBoList, StatType.APP_MEMORY_USED);
-            transactionDao.insert(id, timestamp, joinTransactionBoList, StatType.APP_TRANSACTION_COUNT);
-            activeTraceDao.insert(id, timestamp, joinActiveTraceBoList, StatType.APP_ACTIVE_TRACE_COUNT);
-            responseTimeDao.insert(id, timestamp, joinResponseTimeBoList, StatType.APP_RESPONSE_TIME);
-            dataSourceDao.insert(id, timestamp, joinDataSourceBoList, StatType.APP_DATA_SOURCE);
+            cpuLoadDao.insert(id, timestamp, joinCpuLoadBoList, getStatType(StatType.APP_CPU_LOAD));
+            memoryDao.insert(id, timestamp, joinMemoryBoList, getStatType(StatType.APP_MEMORY_USED));
+            transactionDao.insert(id, timestamp, joinTransactionBoList, getStatType(StatType.APP_TRANSACTION_COUNT));
+            activeTraceDao.insert(id, timestamp, joinActiveTraceBoList, getStatType(StatType.APP_ACTIVE_TRACE_COUNT));
+            responseTimeDao.insert(id, timestamp, joinResponseTimeBoList, getStatType(StatType.APP_RESPONSE_TIME));
+            dataSourceDao.insert(id, timestamp, joinDataSourceBoList, getStatType(StatType.APP_DATA_SOURCE));
+        }
+    }
+
+    private StatType getStatType(StatType rawStatType) {
+        if (statRollup == null) {
+            return rawStatType;
         }
+        return statRollup.getStatType(rawStatType);
     }
 
     private List<JoinStatBo> castJoinStatBoList(List<? extends JoinStatBo> JoinStatBoList) {
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.flink.function;
+
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinApplicationStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.StatRollup;
+import org.apache.flink.api.java.tuple.Tuple;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.apache.flink.streaming.api.functions.windowing.WindowFunction;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
+import org.apache.flink.util.Collector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rolls application stats of a finer resolution up into {@link StatRollup} sized windows.
+ * Windows with allowed lateness fire again when late data arrives, so only the last result of each
+ * upstream window is kept.
+ */
+public class ApplicationStatRollupWindow implements WindowFunction<Tuple3<String, JoinStatBo, Long>, Tuple3<String, JoinStatBo, Long>, Tuple, TimeWindow> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final StatRollup statRollup;
+    private final long upstreamWindowSize;
+
+    public ApplicationStatRollupWindow(StatRollup statRollup, long upstreamWindowSize) {
+        this.statRollup = Objects.requireNonNull(statRollup, "statRollup must not be null");
+        if (upstreamWindowSize <= 0) {
+            throw new IllegalArgumentException("upstreamWindowSize must be greater than 0");
+        }
+        this.upstreamWindowSize = upstreamWindowSize;
+    }
+
+    @Override
+    public void apply(Tuple tuple, TimeWindow window, Iterable<Tuple3<String, JoinStatBo, Long>> values, Collector<Tuple3<String, JoinStatBo, Long>> out) throws Exception {
+        try {
+            JoinApplicationStatBo joinApplicationStatBo = rollup(values);
+            if (joinApplicationStatBo == JoinApplicationStatBo.EMPTY_JOIN_APPLICATION_STAT_BO) {
+                return;
+            }
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("[rollup][{}] {}", statRollup, joinApplicationStatBo);
+            }
+            out.collect(new Tuple3<>(joinApplicationStatBo.getId(), joinApplicationStatBo, joinApplicationStatBo.getTimestamp()));
+        } catch (Exception e) {
+            logger.error("rollup window function error", e);
+        }
+    }
+
+    JoinApplicationStatBo rollup(Iterable<Tuple3<String, JoinStatBo, Long>> values) {
+        // keyed by the upstream window, a later firing of the same window replaces the earlier one
+        Map<Long, JoinApplicationStatBo> latestMap = new LinkedHashMap<>();
+        for (Tuple3<String, JoinStatBo, Long> value : values) {
+            long upstreamWindow = value.f2 - (value.f2 % upstreamWindowSize);
+            latestMap.put(upstreamWindow, (JoinApplicationStatBo) value.f1);
+        }
+
+        return JoinApplicationStatBo.joinApplicationStatBoByTimeSlice(new ArrayList<>(latestMap.values()), statRollup.getInterval());
+    }
+}
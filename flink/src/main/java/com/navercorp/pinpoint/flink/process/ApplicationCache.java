@@ -17,65 +17,328 @@ package com.navercorp.pinpoint.flink.process;
 
 import com.navercorp.pinpoint.common.hbase.HBaseTables;
 import com.navercorp.pinpoint.common.hbase.HbaseTemplate2;
+import com.navercorp.pinpoint.common.hbase.RowMapper;
 import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.common.server.util.RowKeyUtils;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 import com.navercorp.pinpoint.common.util.TimeUtils;
 import com.navercorp.pinpoint.web.mapper.AgentInfoMapper;
 import com.navercorp.pinpoint.web.vo.AgentInfo;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Resolves the application id of an agent without blocking the caller.
+ * <p>
+ * A lookup that misses the cache is queued and {@link #findApplicationId(ApplicationKey)} returns {@code null}.
+ * Queued keys are loaded by a background thread, which coalesces the misses of each batch interval into a single multi-get.
+ * Loaded ids are kept in a bounded LRU cache with a ttl, and are optionally written to a local snapshot file
+ * so that a restarted task manager does not have to look up every agent again.
+ *
  * @author minwoo.jung
  */
 public class ApplicationCache {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private static final String SPEL_KEY = "#application.getAgentId() + '.' + #application.getAgentStartTime()";
     public static final String NOT_FOUND_APP_ID = "notFoundId";
 
-    private final transient AgentInfoMapper agentInfoMapper = new AgentInfoMapper();
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final long SNAPSHOT_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private final transient ApplicationIdMapper applicationIdMapper = new ApplicationIdMapper();
 
     private final transient HbaseTemplate2 hbaseTemplate2;
 
     private final transient TableNameProvider tableNameProvider;
 
-    public ApplicationCache(HbaseTemplate2 hbaseTemplate2, TableNameProvider tableNameProvider) {
+    private final int maxSize;
+    private final long expireTime;
+    private final int batchSize;
+    private final long batchInterval;
+    private final Path snapshotPath;
+
+    // access ordered, guarded by itself
+    private final transient Map<ApplicationKey, CacheEntry> cache;
+    private final transient Set<ApplicationKey> loadingKeys = ConcurrentHashMap.newKeySet();
+    private final transient BlockingQueue<ApplicationKey> loadQueue = new LinkedBlockingQueue<>();
+    private volatile long loadCount = 0;
+
+    private transient ScheduledExecutorService loader;
+
+    /**
+     * @param maxSize max number of cached application ids
+     * @param expireTime time to live of a cached application id in milliseconds
+     * @param batchSize max number of agents looked up by a single multi-get
+     * @param batchInterval interval in milliseconds at which queued lookups are loaded
+     * @param snapshotPath file to keep cached application ids across restarts, empty to disable
+     */
+    public ApplicationCache(HbaseTemplate2 hbaseTemplate2, TableNameProvider tableNameProvider, int maxSize, long expireTime, int batchSize, long batchInterval, String snapshotPath) {
         this.hbaseTemplate2 = Objects.requireNonNull(hbaseTemplate2, "hbaseTemplate must not be null");
         this.tableNameProvider = Objects.requireNonNull(tableNameProvider, "tableNameProvider must not be null");
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        if (expireTime <= 0) {
+            throw new IllegalArgumentException("expireTime must be greater than 0");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        if (batchInterval <= 0) {
+            throw new IllegalArgumentException("batchInterval must be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.expireTime = expireTime;
+        this.batchSize = batchSize;
+        this.batchInterval = batchInterval;
+        this.snapshotPath = StringUtils.isBlank(snapshotPath) ? null : Paths.get(snapshotPath.trim());
+        this.cache = new LinkedHashMap<ApplicationKey, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ApplicationKey, CacheEntry> eldest) {
+                return size() > ApplicationCache.this.maxSize;
+            }
+        };
     }
 
-    @Cacheable(value="applicationId", key=SPEL_KEY)
+    public void start() {
+        restoreSnapshot();
+
+        this.loader = Executors.newSingleThreadScheduledExecutor(new PinpointThreadFactory("Pinpoint-ApplicationCacheLoader", true));
+        loader.scheduleWithFixedDelay(this::loadQueuedKeys, batchInterval, batchInterval, TimeUnit.MILLISECONDS);
+        if (snapshotPath != null) {
+            loader.scheduleWithFixedDelay(this::writeSnapshot, SNAPSHOT_INTERVAL, SNAPSHOT_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+        logger.info("ApplicationCache started. maxSize:{}, expireTime:{}, batchSize:{}, batchInterval:{}, snapshotPath:{}", maxSize, expireTime, batchSize, batchInterval, snapshotPath);
+    }
+
+    public void stop() {
+        if (loader == null) {
+            return;
+        }
+        loader.shutdown();
+        try {
+            loader.awaitTermination(3000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeSnapshot();
+    }
+
+    /**
+     * Never blocks.
+     *
+     * @return the application id, {@link #NOT_FOUND_APP_ID} if the agent info does not exist,
+     * or {@code null} if the application id is not loaded yet. The caller may ask again once {@link #getLoadCount()} has changed.
+     */
     public String findApplicationId(ApplicationKey application) {
+        final String applicationId = getIfPresent(application);
+        if (applicationId != null) {
+            return applicationId;
+        }
+        if (loadingKeys.add(application)) {
+            loadQueue.offer(application);
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of completed loads, increases whenever new application ids become available
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    private String getIfPresent(ApplicationKey application) {
+        synchronized (cache) {
+            final CacheEntry entry = cache.get(application);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expireTime < System.currentTimeMillis()) {
+                cache.remove(application);
+                return null;
+            }
+            return entry.applicationId;
+        }
+    }
+
+    private void put(ApplicationKey application, String applicationId, long expireTime) {
+        synchronized (cache) {
+            cache.put(application, new CacheEntry(applicationId, expireTime));
+        }
+    }
+
+    void loadQueuedKeys() {
+        try {
+            final List<ApplicationKey> batch = new ArrayList<>(batchSize);
+            while (loadQueue.drainTo(batch, batchSize) > 0) {
+                load(batch);
+                batch.clear();
+            }
+        } catch (Throwable th) {
+            logger.error("failed to load application id", th);
+        }
+    }
+
+    private void load(List<ApplicationKey> batch) {
+        final List<Get> getList = new ArrayList<>(batch.size());
+        for (ApplicationKey application : batch) {
+            getList.add(createGet(application));
+        }
+
+        try {
+            final TableName tableName = tableNameProvider.getTableName(HBaseTables.AGENTINFO_STR);
+            final List<String> applicationIdList = hbaseTemplate2.get(tableName, getList, applicationIdMapper);
+
+            final long expireTime = System.currentTimeMillis() + this.expireTime;
+            for (int i = 0; i < batch.size(); i++) {
+                final ApplicationKey application = batch.get(i);
+                put(application, getApplicationId(applicationIdList.get(i), application.getAgentId()), expireTime);
+            }
+        } catch (Exception e) {
+            logger.error("can't found application id. size:{}", batch.size(), e);
+        } finally {
+            loadingKeys.removeAll(batch);
+            loadCount++;
+        }
+    }
+
+    private Get createGet(ApplicationKey application) {
         final String agentId = application.getAgentId();
         final long agentStartTimestamp = application.getAgentStartTime();
         final byte[] rowKey = RowKeyUtils.concatFixedByteAndLong(Bytes.toBytes(agentId), HBaseTables.AGENT_NAME_MAX_LEN, TimeUtils.reverseTimeMillis(agentStartTimestamp));
 
         Get get = new Get(rowKey);
         get.addColumn(HBaseTables.AGENTINFO_CF_INFO, HBaseTables.AGENTINFO_CF_INFO_IDENTIFIER);
-        AgentInfo agentInfo = null;
+        return get;
+    }
+
+    private String getApplicationId(String applicationId, String agentId) {
+        if (applicationId == null) {
+            logger.warn("can't found application id : {}", agentId);
+            return NOT_FOUND_APP_ID;
+        }
+        return applicationId;
+    }
+
+    private void restoreSnapshot() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return;
+        }
+
+        final long expireTime = System.currentTimeMillis() + this.expireTime;
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            final int version = in.readInt();
+            if (version != SNAPSHOT_VERSION) {
+                logger.warn("unsupported application cache snapshot version:{}", version);
+                return;
+            }
+            final int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                final String agentId = in.readUTF();
+                final long agentStartTime = in.readLong();
+                final String applicationId = in.readUTF();
+                put(new ApplicationKey(agentId, agentStartTime), applicationId, expireTime);
+                count++;
+            }
+        } catch (IOException e) {
+            logger.warn("failed to restore application cache snapshot:{}", snapshotPath, e);
+        }
+        logger.info("{} application ids restored from {}", count, snapshotPath);
+    }
+
+    void writeSnapshot() {
+        if (snapshotPath == null) {
+            return;
+        }
+
+        final List<Map.Entry<ApplicationKey, String>> snapshot = new ArrayList<>();
+        final long currentTime = System.currentTimeMillis();
+        synchronized (cache) {
+            for (Map.Entry<ApplicationKey, CacheEntry> entry : cache.entrySet()) {
+                final CacheEntry cacheEntry = entry.getValue();
+                // agents without agent info may be registered later
+                if (cacheEntry.expireTime >= currentTime && !NOT_FOUND_APP_ID.equals(cacheEntry.applicationId)) {
+                    snapshot.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), cacheEntry.applicationId));
+                }
+            }
+        }
+
         try {
-            TableName tableName = tableNameProvider.getTableName(HBaseTables.AGENTINFO_STR);
-            agentInfo = hbaseTemplate2.get(tableName, get, agentInfoMapper);
+            final Path tempPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<ApplicationKey, String> entry : snapshot) {
+                    out.writeUTF(entry.getKey().getAgentId());
+                    out.writeLong(entry.getKey().getAgentStartTime());
+                    out.writeUTF(entry.getValue());
+                }
+            }
+            try {
+                Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (Exception e) {
-            logger.error("can't found application id({})", agentId, e);
+            logger.warn("failed to write application cache snapshot:{}", snapshotPath, e);
         }
+    }
 
-        return getApplicationId(agentInfo, agentId);
+    private static class CacheEntry {
+        private final String applicationId;
+        private final long expireTime;
+
+        private CacheEntry(String applicationId, long expireTime) {
+            this.applicationId = applicationId;
+            this.expireTime = expireTime;
+        }
     }
 
-    private String getApplicationId(AgentInfo agentInfo, String agentId) {
-        if (agentInfo == null) {
-            logger.warn("can't found application id : {}", agentId);
-            return NOT_FOUND_APP_ID;
+    private static class ApplicationIdMapper implements RowMapper<String> {
+        private final AgentInfoMapper agentInfoMapper = new AgentInfoMapper();
+
+        @Override
+        public String mapRow(Result result, int rowNum) throws Exception {
+            if (result.isEmpty()) {
+                return null;
+            }
+            final AgentInfo agentInfo = agentInfoMapper.mapRow(result, rowNum);
+            if (agentInfo == null) {
+                return null;
+            }
+            return agentInfo.getApplicationName();
         }
-        return agentInfo.getApplicationName();
     }
 
     public static class ApplicationKey {
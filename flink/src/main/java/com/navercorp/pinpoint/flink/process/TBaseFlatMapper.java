@@ -29,6 +29,9 @@ import org.apache.thrift.TBase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -40,21 +43,31 @@ public class TBaseFlatMapper extends RichFlatMapFunction<TBase, Tuple3<String, J
     private transient JoinAgentStatBoMapper joinAgentStatBoMapper;
     private transient ApplicationCache applicationCache;
 
+    // agent stats waiting for their application id to be loaded
+    private static final int MAX_PENDING_SIZE = 10000;
+    private static final long PENDING_TIMEOUT = ApplicationStatBoWindow.ALLOWED_LATENESS;
+    private transient Deque<PendingAgentStat> pendingAgentStats;
+    private transient long lastLoadCount;
+
     public TBaseFlatMapper() {
     }
 
     public TBaseFlatMapper(JoinAgentStatBoMapper joinAgentStatBoMapper, ApplicationCache applicationCache) {
         this.joinAgentStatBoMapper = joinAgentStatBoMapper;
         this.applicationCache = applicationCache;
+        this.pendingAgentStats = new ArrayDeque<>();
     }
 
     public void open(Configuration parameters) throws Exception {
         this.joinAgentStatBoMapper = new JoinAgentStatBoMapper();
         applicationCache = Bootstrap.getInstance().getApplicationCache();
+        pendingAgentStats = new ArrayDeque<>();
     }
 
     @Override
     public void flatMap(TBase tBase, Collector<Tuple3<String, JoinStatBo, Long>> out) throws Exception {
+        collectPendingAgentStats(out);
+
         if (tBase instanceof TFAgentStatBatch) {
             if (logger.isDebugEnabled()) {
                 logger.debug("raw data : {}", tBase);
@@ -77,16 +90,71 @@ public class TBaseFlatMapper extends RichFlatMapFunction<TBase, Tuple3<String, J
             final ApplicationCache.ApplicationKey applicationKey = new ApplicationCache.ApplicationKey(joinAgentStatBo.getId(), joinAgentStatBo.getAgentStartTimestamp());
             final String applicationId = applicationCache.findApplicationId(applicationKey);
 
-            if (applicationId.equals(ApplicationCache.NOT_FOUND_APP_ID)) {
-                logger.warn("can't found application id");
+            if (applicationId == null) {
+                addPendingAgentStat(new PendingAgentStat(applicationKey, joinAgentStatBo, System.currentTimeMillis()));
                 return;
             }
 
-            List<JoinApplicationStatBo> joinApplicationStatBoList = JoinApplicationStatBo.createJoinApplicationStatBo(applicationId, joinAgentStatBo, ApplicationStatBoWindow.WINDOW_SIZE);
+            collectJoinApplicationStatBo(applicationId, joinAgentStatBo, out);
+        }
+    }
+
+    private void collectJoinApplicationStatBo(String applicationId, JoinAgentStatBo joinAgentStatBo, Collector<Tuple3<String, JoinStatBo, Long>> out) {
+        if (applicationId.equals(ApplicationCache.NOT_FOUND_APP_ID)) {
+            logger.warn("can't found application id");
+            return;
+        }
 
-            for (JoinApplicationStatBo joinApplicationStatBo : joinApplicationStatBoList) {
-                out.collect(new Tuple3<String, JoinStatBo, Long>(applicationId, joinApplicationStatBo, joinApplicationStatBo.getTimestamp()));
+        List<JoinApplicationStatBo> joinApplicationStatBoList = JoinApplicationStatBo.createJoinApplicationStatBo(applicationId, joinAgentStatBo, ApplicationStatBoWindow.WINDOW_SIZE);
+
+        for (JoinApplicationStatBo joinApplicationStatBo : joinApplicationStatBoList) {
+            out.collect(new Tuple3<String, JoinStatBo, Long>(applicationId, joinApplicationStatBo, joinApplicationStatBo.getTimestamp()));
+        }
+    }
+
+    private void addPendingAgentStat(PendingAgentStat pendingAgentStat) {
+        if (pendingAgentStats.size() >= MAX_PENDING_SIZE) {
+            final PendingAgentStat dropped = pendingAgentStats.pollFirst();
+            logger.warn("too many agent stats waiting for application id. drop {}", dropped.applicationKey);
+        }
+        pendingAgentStats.addLast(pendingAgentStat);
+    }
+
+    private void collectPendingAgentStats(Collector<Tuple3<String, JoinStatBo, Long>> out) {
+        if (pendingAgentStats.isEmpty()) {
+            return;
+        }
+
+        final long currentTime = System.currentTimeMillis();
+        final long loadCount = applicationCache.getLoadCount();
+        if (loadCount == lastLoadCount && pendingAgentStats.peekFirst().receivedTime + PENDING_TIMEOUT >= currentTime) {
+            return;
+        }
+        lastLoadCount = loadCount;
+
+        final Iterator<PendingAgentStat> iterator = pendingAgentStats.iterator();
+        while (iterator.hasNext()) {
+            final PendingAgentStat pendingAgentStat = iterator.next();
+            final String applicationId = applicationCache.findApplicationId(pendingAgentStat.applicationKey);
+            if (applicationId != null) {
+                iterator.remove();
+                collectJoinApplicationStatBo(applicationId, pendingAgentStat.joinAgentStatBo, out);
+            } else if (pendingAgentStat.receivedTime + PENDING_TIMEOUT < currentTime) {
+                iterator.remove();
+                logger.warn("application id is not loaded in time. drop {}", pendingAgentStat.applicationKey);
             }
         }
     }
+
+    private static class PendingAgentStat {
+        private final ApplicationCache.ApplicationKey applicationKey;
+        private final JoinAgentStatBo joinAgentStatBo;
+        private final long receivedTime;
+
+        private PendingAgentStat(ApplicationCache.ApplicationKey applicationKey, JoinAgentStatBo joinAgentStatBo, long receivedTime) {
+            this.applicationKey = applicationKey;
+            this.joinAgentStatBo = joinAgentStatBo;
+            this.receivedTime = receivedTime;
+        }
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.flink.function;
+
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinApplicationStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinStatBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.JoinTransactionBo;
+import com.navercorp.pinpoint.common.server.bo.stat.join.StatRollup;
+import org.apache.flink.api.java.tuple.Tuple3;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ApplicationStatRollupWindowTest {
+
+    private static final long BASE_TIME = 1487149800000L; // 18:10:00 15 2 2017
+
+    @Test
+    public void rollup() {
+        ApplicationStatRollupWindow rollupWindow = new ApplicationStatRollupWindow(StatRollup.FIVE_MINUTES, ApplicationStatBoWindow.WINDOW_SIZE);
+
+        List<Tuple3<String, JoinStatBo, Long>> values = new ArrayList<>();
+        values.add(createValue(BASE_TIME, 10, 5, 20));
+        values.add(createValue(BASE_TIME + 10000, 30, 20, 40));
+        values.add(createValue(BASE_TIME + 20000, 20, 1, 50));
+
+        JoinApplicationStatBo result = rollupWindow.rollup(values);
+
+        assertEquals(BASE_TIME, result.getTimestamp());
+        assertEquals(1, result.getJoinTransactionBoList().size());
+        JoinTransactionBo joinTransactionBo = result.getJoinTransactionBoList().get(0);
+        assertEquals(BASE_TIME, joinTransactionBo.getTimestamp());
+        assertEquals(20, joinTransactionBo.getTotalCount());
+        assertEquals(1, joinTransactionBo.getMinTotalCount());
+        assertEquals(50, joinTransactionBo.getMaxTotalCount());
+    }
+
+    @Test
+    public void rollupKeepsLastFiringOfUpstreamWindow() {
+        ApplicationStatRollupWindow rollupWindow = new ApplicationStatRollupWindow(StatRollup.FIVE_MINUTES, ApplicationStatBoWindow.WINDOW_SIZE);
+
+        List<Tuple3<String, JoinStatBo, Long>> values = new ArrayList<>();
+        values.add(createValue(BASE_TIME, 10, 10, 10));
+        // late firing of the same 10 second window
+        values.add(createValue(BASE_TIME, 30, 10, 50));
+
+        JoinApplicationStatBo result = rollupWindow.rollup(values);
+
+        JoinTransactionBo joinTransactionBo = result.getJoinTransactionBoList().get(0);
+        assertEquals(30, joinTransactionBo.getTotalCount());
+        assertEquals(50, joinTransactionBo.getMaxTotalCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidUpstreamWindowSize() {
+        new ApplicationStatRollupWindow(StatRollup.FIVE_MINUTES, 0);
+    }
+
+    private Tuple3<String, JoinStatBo, Long> createValue(long timestamp, long totalCount, long minTotalCount, long maxTotalCount) {
+        JoinTransactionBo joinTransactionBo = new JoinTransactionBo();
+        joinTransactionBo.setId("app");
+        joinTransactionBo.setTimestamp(timestamp);
+        joinTransactionBo.setCollectInterval(5000);
+        joinTransactionBo.setTotalCount(totalCount);
+        joinTransactionBo.setMinTotalCount(minTotalCount);
+        joinTransactionBo.setMinTotalCountAgentId("min");
+        joinTransactionBo.setMaxTotalCount(maxTotalCount);
+        joinTransactionBo.setMaxTotalCountAgentId("max");
+
+        JoinApplicationStatBo joinApplicationStatBo = new JoinApplicationStatBo();
+        joinApplicationStatBo.setId("app");
+        joinApplicationStatBo.setTimestamp(timestamp);
+        joinApplicationStatBo.setJoinTransactionBoList(Collections.singletonList(joinTransactionBo));
+        return new Tuple3<String, JoinStatBo, Long>("app", joinApplicationStatBo, timestamp);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.flink.process;
+
+import com.navercorp.pinpoint.common.hbase.HBaseTables;
+import com.navercorp.pinpoint.common.hbase.HbaseTemplate2;
+import com.navercorp.pinpoint.common.hbase.RowMapper;
+import com.navercorp.pinpoint.common.hbase.TableNameProvider;
+import com.navercorp.pinpoint.common.util.BytesUtils;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Get;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ApplicationCacheTest {
+
+    private static final long START_TIME = 1491274142454L;
+
+    private final TableNameProvider tableNameProvider = new TableNameProvider() {
+        @Override
+        public TableName getTableName(String tableName) {
+            return TableName.valueOf(tableName);
+        }
+    };
+
+    @Test
+    public void coalesceMissesIntoMultiGet() {
+        TestHbaseTemplate hbaseTemplate = new TestHbaseTemplate();
+        hbaseTemplate.applicationIds.put("agent1", "app1");
+        hbaseTemplate.applicationIds.put("agent2", "app2");
+        ApplicationCache applicationCache = newApplicationCache(hbaseTemplate, 10, "");
+
+        ApplicationCache.ApplicationKey agent1 = new ApplicationCache.ApplicationKey("agent1", START_TIME);
+        ApplicationCache.ApplicationKey agent2 = new ApplicationCache.ApplicationKey("agent2", START_TIME);
+        ApplicationCache.ApplicationKey agent3 = new ApplicationCache.ApplicationKey("agent3", START_TIME);
+        assertNull(applicationCache.findApplicationId(agent1));
+        assertNull(applicationCache.findApplicationId(agent2));
+        assertNull(applicationCache.findApplicationId(agent1));
+        assertNull(applicationCache.findApplicationId(agent3));
+        assertEquals(0, applicationCache.getLoadCount());
+
+        applicationCache.loadQueuedKeys();
+
+        assertEquals(1, hbaseTemplate.multiGetSizes.size());
+        assertEquals(3, hbaseTemplate.multiGetSizes.get(0).intValue());
+        assertEquals(1, applicationCache.getLoadCount());
+        assertEquals("app1", applicationCache.findApplicationId(agent1));
+        assertEquals("app2", applicationCache.findApplicationId(agent2));
+        assertEquals(ApplicationCache.NOT_FOUND_APP_ID, applicationCache.findApplicationId(agent3));
+
+        applicationCache.loadQueuedKeys();
+        assertEquals(1, hbaseTemplate.multiGetSizes.size());
+    }
+
+    @Test
+    public void splitLargeBatch() {
+        TestHbaseTemplate hbaseTemplate = new TestHbaseTemplate();
+        ApplicationCache applicationCache = newApplicationCache(hbaseTemplate, 2, "");
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(applicationCache.findApplicationId(new ApplicationCache.ApplicationKey("agent" + i, START_TIME)));
+        }
+        applicationCache.loadQueuedKeys();
+
+        assertEquals(3, hbaseTemplate.multiGetSizes.size());
+        assertEquals(2, hbaseTemplate.multiGetSizes.get(0).intValue());
+        assertEquals(2, hbaseTemplate.multiGetSizes.get(1).intValue());
+        assertEquals(1, hbaseTemplate.multiGetSizes.get(2).intValue());
+    }
+
+    @Test
+    public void retryAfterFailure() {
+        TestHbaseTemplate hbaseTemplate = new TestHbaseTemplate();
+        hbaseTemplate.applicationIds.put("agent1", "app1");
+        hbaseTemplate.fail = true;
+        ApplicationCache applicationCache = newApplicationCache(hbaseTemplate, 2, "");
+
+        ApplicationCache.ApplicationKey agent1 = new ApplicationCache.ApplicationKey("agent1", START_TIME);
+        assertNull(applicationCache.findApplicationId(agent1));
+        applicationCache.loadQueuedKeys();
+        assertEquals(1, applicationCache.getLoadCount());
+
+        hbaseTemplate.fail = false;
+        assertNull(applicationCache.findApplicationId(agent1));
+        applicationCache.loadQueuedKeys();
+        assertEquals("app1", applicationCache.findApplicationId(agent1));
+    }
+
+    @Test
+    public void restoreSnapshot() throws Exception {
+        File snapshot = File.createTempFile("applicationCache", ".snapshot");
+        snapshot.delete();
+        try {
+            TestHbaseTemplate hbaseTemplate = new TestHbaseTemplate();
+            hbaseTemplate.applicationIds.put("agent1", "app1");
+            ApplicationCache applicationCache = newApplicationCache(hbaseTemplate, 2, snapshot.getAbsolutePath());
+
+            ApplicationCache.ApplicationKey agent1 = new ApplicationCache.ApplicationKey("agent1", START_TIME);
+            ApplicationCache.ApplicationKey agent2 = new ApplicationCache.ApplicationKey("agent2", START_TIME);
+            applicationCache.findApplicationId(agent1);
+            applicationCache.findApplicationId(agent2);
+            applicationCache.loadQueuedKeys();
+            applicationCache.writeSnapshot();
+            assertTrue(snapshot.exists());
+
+            TestHbaseTemplate restartedHbaseTemplate = new TestHbaseTemplate();
+            ApplicationCache restartedApplicationCache = newApplicationCache(restartedHbaseTemplate, 2, snapshot.getAbsolutePath());
+            restartedApplicationCache.start();
+            try {
+                assertEquals("app1", restartedApplicationCache.findApplicationId(agent1));
+                // not found ids are not kept in the snapshot
+                assertNull(restartedApplicationCache.findApplicationId(agent2));
+            } finally {
+                restartedApplicationCache.stop();
+            }
+        } finally {
+            snapshot.delete();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBatchSize() {
+        new ApplicationCache(new TestHbaseTemplate(), tableNameProvider, 100, 60000, 0, 50, "");
+    }
+
+    private ApplicationCache newApplicationCache(HbaseTemplate2 hbaseTemplate, int batchSize, String snapshotPath) {
+        return new ApplicationCache(hbaseTemplate, tableNameProvider, 100, 60000, batchSize, 50, snapshotPath);
+    }
+
+    private static class TestHbaseTemplate extends HbaseTemplate2 {
+        private final Map<String, String> applicationIds = new HashMap<>();
+        private final List<Integer> multiGetSizes = new ArrayList<>();
+        private boolean fail = false;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> get(TableName tableName, List<Get> getList, RowMapper<T> mapper) {
+            multiGetSizes.add(getList.size());
+            if (fail) {
+                throw new RuntimeException("test");
+            }
+            List<T> result = new ArrayList<>(getList.size());
+            for (Get get : getList) {
+                String agentId = BytesUtils.safeTrim(BytesUtils.toString(get.getRow(), 0, HBaseTables.AGENT_NAME_MAX_LEN));
+                result.add((T) applicationIds.get(agentId));
+            }
+            return result;
+        }
+    }
+}
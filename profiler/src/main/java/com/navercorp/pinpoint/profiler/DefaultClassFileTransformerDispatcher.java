@@ -167,4 +167,8 @@ public class DefaultClassFileTransformerDispatcher implements ClassFileTransform
 
         return registry;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void close() {
+    }
+}
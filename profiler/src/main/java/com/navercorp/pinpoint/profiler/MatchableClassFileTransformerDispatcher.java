@@ -18,18 +18,22 @@ package com.navercorp.pinpoint.profiler;
 
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.bootstrap.instrument.DynamicTransformTrigger;
+import com.navercorp.pinpoint.common.Version;
 import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.common.util.StringUtils;
 import com.navercorp.pinpoint.profiler.instrument.InstrumentEngine;
 import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadata;
 import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadataReader;
 import com.navercorp.pinpoint.profiler.instrument.transformer.DebugTransformerRegistry;
 import com.navercorp.pinpoint.profiler.instrument.transformer.MatchableTransformerRegistry;
+import com.navercorp.pinpoint.profiler.instrument.transformer.TransformerMatchCache;
 import com.navercorp.pinpoint.profiler.instrument.transformer.TransformerRegistry;
 import com.navercorp.pinpoint.profiler.plugin.MatchableClassFileTransformer;
 import com.navercorp.pinpoint.profiler.plugin.PluginContextLoadResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
 import java.security.ProtectionDomain;
@@ -48,6 +52,8 @@ public class MatchableClassFileTransformerDispatcher implements ClassFileTransfo
     private final TransformerRegistry transformerRegistry;
     private final DynamicTransformerRegistry dynamicTransformerRegistry;
     private final TransformerRegistry debugTransformerRegistry;
+    // null if disabled.
+    private final TransformerMatchCache transformerMatchCache;
 
     private final ClassFileFilter classLoaderFilter;
     private final ClassFileFilter pinpointClassFilter;
@@ -64,7 +70,9 @@ public class MatchableClassFileTransformerDispatcher implements ClassFileTransfo
 
         this.baseClassFileTransformer = new BaseClassFileTransformer(agentClassLoader);
         this.debugTransformerRegistry = new DebugTransformerRegistry(profilerConfig, instrumentEngine, dynamicTransformTrigger);
-        this.transformerRegistry = createTransformerRegistry(pluginContextLoadResult, profilerConfig);
+        final StringBuilder matcherFingerprint = new StringBuilder(Version.VERSION);
+        this.transformerRegistry = createTransformerRegistry(pluginContextLoadResult, profilerConfig, matcherFingerprint);
+        this.transformerMatchCache = createTransformerMatchCache(profilerConfig, matcherFingerprint.toString());
         this.dynamicTransformerRegistry = dynamicTransformerRegistry;
 
         this.classLoaderFilter = new PinpointClassLoaderFilter(agentClassLoader);
@@ -118,7 +126,7 @@ public class MatchableClassFileTransformerDispatcher implements ClassFileTransfo
             return null;
         }
 
-        ClassFileTransformer transformer = this.transformerRegistry.findTransformer(classLoader, internalName, classFileBuffer, classMetadata);
+        ClassFileTransformer transformer = findTransformer(classLoader, internalName, protectionDomain, classFileBuffer, classMetadata);
         if (transformer == null) {
             // For debug
             // TODO What if a modifier is duplicated?
@@ -131,7 +139,43 @@ public class MatchableClassFileTransformerDispatcher implements ClassFileTransfo
         return baseClassFileTransformer.transform(classLoader, internalName, classBeingRedefined, protectionDomain, classFileBuffer, transformer);
     }
 
-    private TransformerRegistry createTransformerRegistry(PluginContextLoadResult pluginContexts, final ProfilerConfig profilerConfig) {
+    private ClassFileTransformer findTransformer(ClassLoader classLoader, String internalName, ProtectionDomain protectionDomain, byte[] classFileBuffer, InternalClassMetadata classMetadata) {
+        final TransformerMatchCache transformerMatchCache = this.transformerMatchCache;
+        if (transformerMatchCache == null) {
+            return this.transformerRegistry.findTransformer(classLoader, internalName, classFileBuffer, classMetadata);
+        }
+
+        if (transformerMatchCache.isUnmatched(protectionDomain, internalName)) {
+            return null;
+        }
+        final ClassFileTransformer transformer = this.transformerRegistry.findTransformer(classLoader, internalName, classFileBuffer, classMetadata);
+        if (transformer == null) {
+            transformerMatchCache.putUnmatched(protectionDomain, internalName);
+        }
+        return transformer;
+    }
+
+    private TransformerMatchCache createTransformerMatchCache(final ProfilerConfig profilerConfig, final String matcherFingerprint) {
+        final String persistentCachePath = profilerConfig.getInstrumentMatcherCacheConfig().getPersistentCachePath();
+        if (StringUtils.isEmpty(persistentCachePath)) {
+            return null;
+        }
+        final TransformerMatchCache transformerMatchCache = new TransformerMatchCache(new File(persistentCachePath), matcherFingerprint);
+        if (logger.isInfoEnabled()) {
+            logger.info("Using {}", transformerMatchCache);
+        }
+        return transformerMatchCache;
+    }
+
+    @Override
+    public void close() {
+        final TransformerMatchCache transformerMatchCache = this.transformerMatchCache;
+        if (transformerMatchCache != null) {
+            transformerMatchCache.save();
+        }
+    }
+
+    private TransformerRegistry createTransformerRegistry(PluginContextLoadResult pluginContexts, final ProfilerConfig profilerConfig, final StringBuilder matcherFingerprint) {
         final MatchableTransformerRegistry registry = new MatchableTransformerRegistry(profilerConfig);
         for (ClassFileTransformer transformer : pluginContexts.getClassFileTransformer()) {
             if (transformer instanceof MatchableClassFileTransformer) {
@@ -141,6 +185,7 @@ public class MatchableClassFileTransformerDispatcher implements ClassFileTransfo
                 }
                 try {
                     registry.addTransformer(t.getMatcher(), t);
+                    matcherFingerprint.append('\n').append(t.getMatcher());
                 } catch (Exception e) {
                     if (logger.isWarnEnabled()) {
                         logger.warn("Failed to add transformer {}", transformer, e);
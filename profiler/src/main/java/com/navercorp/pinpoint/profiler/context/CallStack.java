@@ -33,4 +33,6 @@ public interface CallStack {
     SpanEvent[] copyStackFrame();
 
     int getMaxDepth();
+
+    SpanEvent newSpanEvent();
 }
@@ -24,13 +24,19 @@ import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
 public class CallStackFactoryV1 implements CallStackFactory {
 
     private final int maxDepth;
+    private final SpanEventPool spanEventPool;
 
     public CallStackFactoryV1(int maxDepth) {
+        this(maxDepth, null);
+    }
+
+    public CallStackFactoryV1(int maxDepth, SpanEventPool spanEventPool) {
         this.maxDepth = maxDepth;
+        this.spanEventPool = spanEventPool;
     }
 
     @Override
     public CallStack newCallStack(TraceRoot traceRoot) {
-        return new DepthCompressCallStack(traceRoot, maxDepth);
+        return new DepthCompressCallStack(traceRoot, maxDepth, spanEventPool);
     }
 }
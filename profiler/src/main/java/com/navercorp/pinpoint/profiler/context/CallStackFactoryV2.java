@@ -24,13 +24,19 @@ import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
 public class CallStackFactoryV2 implements CallStackFactory {
 
     private final int maxDepth;
+    private final SpanEventPool spanEventPool;
 
     public CallStackFactoryV2(int maxDepth) {
+        this(maxDepth, null);
+    }
+
+    public CallStackFactoryV2(int maxDepth, SpanEventPool spanEventPool) {
         this.maxDepth = maxDepth;
+        this.spanEventPool = spanEventPool;
     }
 
     @Override
     public CallStack newCallStack(TraceRoot traceRoot) {
-        return new DefaultCallStack(traceRoot, maxDepth);
+        return new DefaultCallStack(traceRoot, maxDepth, spanEventPool);
     }
 }
@@ -33,6 +33,7 @@ import com.navercorp.pinpoint.profiler.context.recorder.RecorderFactory;
 import com.navercorp.pinpoint.profiler.context.recorder.WrappedSpanEventRecorder;
 import com.navercorp.pinpoint.profiler.context.storage.Storage;
 import com.navercorp.pinpoint.profiler.context.storage.StorageFactory;
+import com.navercorp.pinpoint.profiler.context.storage.TailSamplingStorageFactory;
 
 
 /**
@@ -44,6 +45,8 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
     private final CallStackFactory callStackFactory;
 
     private final StorageFactory storageFactory;
+    // nullable, creates the storage of unsampled transactions kept for tail sampling
+    private final StorageFactory tailSamplingStorageFactory;
     private final Sampler sampler;
 
     private final IdGenerator idGenerator;
@@ -60,6 +63,13 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
     public DefaultBaseTraceFactory(TraceRootFactory traceRootFactory, CallStackFactory callStackFactory, StorageFactory storageFactory,
                                    Sampler sampler, IdGenerator idGenerator, AsyncContextFactory asyncContextFactory,
                                    SpanFactory spanFactory, RecorderFactory recorderFactory, ActiveTraceRepository activeTraceRepository) {
+        this(traceRootFactory, callStackFactory, storageFactory, sampler, idGenerator, asyncContextFactory, spanFactory, recorderFactory, activeTraceRepository, null);
+    }
+
+    public DefaultBaseTraceFactory(TraceRootFactory traceRootFactory, CallStackFactory callStackFactory, StorageFactory storageFactory,
+                                   Sampler sampler, IdGenerator idGenerator, AsyncContextFactory asyncContextFactory,
+                                   SpanFactory spanFactory, RecorderFactory recorderFactory, ActiveTraceRepository activeTraceRepository,
+                                   StorageFactory tailSamplingStorageFactory) {
 
         this.traceRootFactory = Assert.requireNonNull(traceRootFactory, "traceRootFactory must not be null");
         this.callStackFactory = Assert.requireNonNull(callStackFactory, "callStackFactory must not be null");
@@ -71,6 +81,7 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
         this.spanFactory = Assert.requireNonNull(spanFactory, "spanFactory must not be null");
         this.recorderFactory = Assert.requireNonNull(recorderFactory, "recorderFactory must not be null");
         this.activeTraceRepository = Assert.requireNonNull(activeTraceRepository, "activeTraceRepository must not be null");
+        this.tailSamplingStorageFactory = tailSamplingStorageFactory;
     }
 
 
@@ -80,6 +91,16 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
         // TODO need to modify how to bind a datasender
         // always set true because the decision of sampling has been  made on previous nodes
         // TODO need to consider as a target to sample in case Trace object has a sampling flag (true) marked on previous node.
+        final StorageFactory storageFactory;
+        if (TailSamplingStorageFactory.isTailSampling(traceId)) {
+            // not sampled on previous nodes, only held until the end of the transaction
+            if (tailSamplingStorageFactory == null) {
+                return disableSampling();
+            }
+            storageFactory = tailSamplingStorageFactory;
+        } else {
+            storageFactory = this.storageFactory;
+        }
         final TraceRoot traceRoot = traceRootFactory.continueTraceRoot(traceId);
         final Span span = spanFactory.newSpan(traceRoot);
 
@@ -112,22 +133,32 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
         final boolean sampling = sampler.isSampling();
         if (sampling) {
             final TraceRoot traceRoot = traceRootFactory.newTraceRoot();
-            final Span span = spanFactory.newSpan(traceRoot);
+            return newSampledTrace(traceRoot, storageFactory);
+        } else if (tailSamplingStorageFactory != null) {
+            // traced like a sampled transaction, but only sent when it turns out to be slow or failed.
+            // the flag tells downstream agents that the sampler rejected the transaction
+            final TraceRoot traceRoot = traceRootFactory.newTraceRoot(TailSamplingStorageFactory.TAIL_SAMPLING_FLAG);
+            return newSampledTrace(traceRoot, tailSamplingStorageFactory);
+        } else {
+            return newDisableTrace();
+        }
+    }
 
-            final Storage storage = storageFactory.createStorage(traceRoot);
-            final CallStack callStack = callStackFactory.newCallStack(traceRoot);
+    private Trace newSampledTrace(TraceRoot traceRoot, StorageFactory storageFactory) {
+        final boolean sampling = true;
+        final Span span = spanFactory.newSpan(traceRoot);
 
-            final TraceId traceId = traceRoot.getTraceId();
-            final SpanRecorder spanRecorder = recorderFactory.newSpanRecorder(span, traceId.isRoot(), sampling);
-            final WrappedSpanEventRecorder wrappedSpanEventRecorder = recorderFactory.newWrappedSpanEventRecorder();
+        final Storage storage = storageFactory.createStorage(traceRoot);
+        final CallStack callStack = callStackFactory.newCallStack(traceRoot);
 
-            final ActiveTraceHandle handle = registerActiveTrace(traceRoot);
-            final DefaultTrace trace = new DefaultTrace(span, callStack, storage, asyncContextFactory, sampling, spanRecorder, wrappedSpanEventRecorder, handle);
+        final TraceId traceId = traceRoot.getTraceId();
+        final SpanRecorder spanRecorder = recorderFactory.newSpanRecorder(span, traceId.isRoot(), sampling);
+        final WrappedSpanEventRecorder wrappedSpanEventRecorder = recorderFactory.newWrappedSpanEventRecorder();
 
-            return trace;
-        } else {
-            return newDisableTrace();
-        }
+        final ActiveTraceHandle handle = registerActiveTrace(traceRoot);
+        final DefaultTrace trace = new DefaultTrace(span, callStack, storage, asyncContextFactory, sampling, spanRecorder, wrappedSpanEventRecorder, handle);
+
+        return trace;
     }
 
 
@@ -161,6 +192,10 @@ public class DefaultBaseTraceFactory implements BaseTraceFactory {
     @InterfaceAudience.LimitedPrivate("vert.x")
     @Override
     public Trace continueAsyncTraceObject(final TraceId traceId) {
+        if (TailSamplingStorageFactory.isTailSampling(traceId)) {
+            // async traces are not held for tail sampling
+            return disableSampling();
+        }
 
         final boolean sampling = true;
 
@@ -33,6 +33,7 @@ public class DefaultCallStack implements CallStack {
     protected SpanEvent[] stack = new SpanEvent[STACK_SIZE];
 
     protected final TraceRoot traceRoot;
+    protected final SpanEventPool spanEventPool;
     protected final int maxDepth;
     protected int index = DEFAULT_INDEX;
     protected int overflowIndex = 0;
@@ -43,8 +44,13 @@ public class DefaultCallStack implements CallStack {
     }
 
     public DefaultCallStack(TraceRoot traceRoot, int maxDepth) {
+        this(traceRoot, maxDepth, null);
+    }
+
+    public DefaultCallStack(TraceRoot traceRoot, int maxDepth, SpanEventPool spanEventPool) {
         this.traceRoot = traceRoot;
         this.maxDepth = maxDepth;
+        this.spanEventPool = spanEventPool;
     }
 
 
@@ -137,6 +143,14 @@ public class DefaultCallStack implements CallStack {
         return maxDepth;
     }
 
+    @Override
+    public SpanEvent newSpanEvent() {
+        if (spanEventPool == null) {
+            return new SpanEvent(traceRoot);
+        }
+        return spanEventPool.newSpanEvent(traceRoot);
+    }
+
     @VisibleForTesting
     boolean isOverflow() {
         return maxDepth != -1 && maxDepth < index;
@@ -107,7 +107,7 @@ public final class DefaultTrace implements Trace, TraceRootSupport {
     }
 
     private SpanEvent newSpanEvent(int stackId) {
-        final SpanEvent spanEvent = new SpanEvent(getTraceRoot());
+        final SpanEvent spanEvent = callStack.newSpanEvent();
         spanEvent.markStartTime();
         spanEvent.setStackId(stackId);
         return spanEvent;
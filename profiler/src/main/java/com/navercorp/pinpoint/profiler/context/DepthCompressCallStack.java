@@ -33,6 +33,10 @@ public class DepthCompressCallStack extends DefaultCallStack {
         super(traceRoot, maxDepth);
     }
 
+    public DepthCompressCallStack(TraceRoot traceRoot, int maxDepth, SpanEventPool spanEventPool) {
+        super(traceRoot, maxDepth, spanEventPool);
+    }
+
     @Override
     protected void markDepth(SpanEvent spanEvent, int depth) {
         // compact same depth
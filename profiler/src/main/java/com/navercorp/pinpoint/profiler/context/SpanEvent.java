@@ -31,7 +31,7 @@ import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
  */
 public class SpanEvent extends TSpanEvent implements FrameAttachment {
 
-    private final TraceRoot traceRoot;
+    private TraceRoot traceRoot;
     private int stackId;
     private boolean timeRecording = true;
     private Object frameObject;
@@ -51,6 +51,35 @@ public class SpanEvent extends TSpanEvent implements FrameAttachment {
         return traceRoot;
     }
 
+    /**
+     * Binds a recycled SpanEvent to a new trace. Only {@link SpanEventPool} may call this.
+     */
+    void reuse(TraceRoot traceRoot) {
+        if (traceRoot == null) {
+            throw new NullPointerException("traceRoot must not be null");
+        }
+        this.traceRoot = traceRoot;
+    }
+
+    /**
+     * Clears every recorded value so that this SpanEvent can be handed out again by {@link SpanEventPool}.
+     */
+    void reset() {
+        clear();
+        // clear() keeps the isSet flags of fields with default values
+        setEndElapsedIsSet(false);
+        setDepthIsSet(false);
+        setNextSpanIdIsSet(false);
+
+        this.traceRoot = null;
+        this.stackId = 0;
+        this.timeRecording = true;
+        this.frameObject = null;
+        this.startTime = 0;
+        this.afterTime = 0;
+        this.asyncIdObject = null;
+    }
+
     public void addAnnotation(Annotation annotation) {
         this.addToAnnotations(annotation);
     }
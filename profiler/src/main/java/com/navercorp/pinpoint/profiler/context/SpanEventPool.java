@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context;
+
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import com.navercorp.pinpoint.profiler.sender.MessageReleaseHandler;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Recycles {@link SpanEvent}s so that traced method calls do not allocate a new SpanEvent each time.
+ * <p>
+ * SpanEvents are released on the sender thread once their {@link Span} or {@link SpanChunk} has been serialized,
+ * and are handed back to request threads in batches through a per-thread cache,
+ * so acquiring a SpanEvent touches the shared queue only once every {@link #LOCAL_BATCH_SIZE} calls.
+ * A pool with a capacity of 0 is disabled and simply allocates.
+ */
+public class SpanEventPool implements MessageReleaseHandler {
+
+    static final int LOCAL_BATCH_SIZE = 32;
+
+    private final int capacity;
+    private final BlockingQueue<SpanEvent> releasedQueue;
+
+    private final ThreadLocal<ArrayDeque<SpanEvent>> localCache = new ThreadLocal<ArrayDeque<SpanEvent>>() {
+        @Override
+        protected ArrayDeque<SpanEvent> initialValue() {
+            return new ArrayDeque<SpanEvent>(LOCAL_BATCH_SIZE);
+        }
+    };
+
+    public SpanEventPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("negative capacity:" + capacity);
+        }
+        this.capacity = capacity;
+        if (capacity > 0) {
+            this.releasedQueue = new ArrayBlockingQueue<SpanEvent>(capacity);
+        } else {
+            this.releasedQueue = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return releasedQueue != null;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public SpanEvent newSpanEvent(TraceRoot traceRoot) {
+        if (releasedQueue == null) {
+            return new SpanEvent(traceRoot);
+        }
+        final ArrayDeque<SpanEvent> cache = localCache.get();
+        SpanEvent spanEvent = cache.pollFirst();
+        if (spanEvent == null) {
+            releasedQueue.drainTo(cache, LOCAL_BATCH_SIZE);
+            spanEvent = cache.pollFirst();
+            if (spanEvent == null) {
+                return new SpanEvent(traceRoot);
+            }
+        }
+        spanEvent.reuse(traceRoot);
+        return spanEvent;
+    }
+
+    public void release(SpanEvent spanEvent) {
+        if (releasedQueue == null || spanEvent == null) {
+            return;
+        }
+        spanEvent.reset();
+        // drop it when the pool is full
+        releasedQueue.offer(spanEvent);
+    }
+
+    @Override
+    public void release(Object message) {
+        if (message instanceof Span) {
+            releaseAll(((Span) message).getSpanEventList());
+        } else if (message instanceof SpanChunk) {
+            releaseAll(((SpanChunk) message).getSpanEventList());
+        }
+    }
+
+    private void releaseAll(List<TSpanEvent> spanEventList) {
+        if (releasedQueue == null || spanEventList == null) {
+            return;
+        }
+        for (TSpanEvent tSpanEvent : spanEventList) {
+            if (tSpanEvent instanceof SpanEvent) {
+                release((SpanEvent) tSpanEvent);
+            }
+        }
+    }
+
+    int getReleasedSize() {
+        if (releasedQueue == null) {
+            return 0;
+        }
+        return releasedQueue.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SpanEventPool{capacity=" + capacity + '}';
+    }
+}
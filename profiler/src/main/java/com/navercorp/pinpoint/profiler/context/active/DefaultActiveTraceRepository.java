@@ -16,8 +16,6 @@
 
 package com.navercorp.pinpoint.profiler.context.active;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.navercorp.pinpoint.common.trace.BaseHistogramSchema;
 import com.navercorp.pinpoint.common.trace.HistogramSchema;
 import com.navercorp.pinpoint.common.trace.HistogramSlot;
@@ -28,12 +26,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Active traces are kept in a striped slot table.
+ * A trace is linked into the stripe of the thread that registered it, so register and purge only take a lock
+ * that is practically never contended, and the returned handle unlinks itself without any hash lookup.
+ * The memory leak defense limit is enforced against a counter shared by all stripes,
+ * when it is exceeded the oldest trace of the whole repository is evicted.
+ *
  * @author Taejin Koo
  */
 public class DefaultActiveTraceRepository implements ActiveTraceRepository {
@@ -41,11 +44,15 @@ public class DefaultActiveTraceRepository implements ActiveTraceRepository {
     // memory leak defense threshold
     private static final int DEFAULT_MAX_ACTIVE_TRACE_SIZE = 1024 * 10;
 
+    private static final int STRIPE_SIZE = 64;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final boolean isDebug = logger.isDebugEnabled();
 
-    // oom safe cache
-    private final ConcurrentMap<ActiveTraceHandle, ActiveTrace> activeTraceInfoMap;
+    private final Stripe[] stripes;
+    private final int maxActiveTraceSize;
+    private final AtomicInteger activeTraceCount = new AtomicInteger();
 
     private final ResponseTimeCollector responseTimeCollector;
 
@@ -58,27 +65,34 @@ public class DefaultActiveTraceRepository implements ActiveTraceRepository {
 
     public DefaultActiveTraceRepository(ResponseTimeCollector responseTimeCollector, int maxActiveTraceSize) {
         this.responseTimeCollector = Assert.requireNonNull(responseTimeCollector, "responseTimeCollector must not be null");
-        this.activeTraceInfoMap = createCache(maxActiveTraceSize);
+        if (maxActiveTraceSize <= 0) {
+            throw new IllegalArgumentException("maxActiveTraceSize must be greater than 0");
+        }
+        this.maxActiveTraceSize = maxActiveTraceSize;
+        this.stripes = createStripes();
     }
 
-    private ConcurrentMap<ActiveTraceHandle, ActiveTrace> createCache(int maxActiveTraceSize) {
-        final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
-        cacheBuilder.concurrencyLevel(64);
-        cacheBuilder.initialCapacity(maxActiveTraceSize);
-        cacheBuilder.maximumSize(maxActiveTraceSize);
-
-        final Cache<ActiveTraceHandle, ActiveTrace> localCache = cacheBuilder.build();
-        return localCache.asMap();
+    private Stripe[] createStripes() {
+        final Stripe[] stripes = new Stripe[STRIPE_SIZE];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        return stripes;
     }
 
+    private Stripe getStripe(long threadId) {
+        final int hash = (int) (threadId ^ (threadId >>> 32));
+        return stripes[hash & STRIPE_MASK];
+    }
 
-    private void remove(ActiveTraceHandle key, long purgeTime) {
+    private void remove(Slot slot, long purgeTime) {
         if (isDebug) {
-            logger.debug("remove ActiveTrace key:{}", key);
+            logger.debug("remove ActiveTrace key:{}", slot);
         }
-        final ActiveTrace activeTrace = this.activeTraceInfoMap.remove(key);
-        if (activeTrace != null) {
-            final long responseTime = purgeTime - activeTrace.getStartTime();
+        final boolean removed = slot.stripe.remove(slot);
+        if (removed) {
+            activeTraceCount.decrementAndGet();
+            final long responseTime = purgeTime - slot.activeTrace.getStartTime();
             responseTimeCollector.add(responseTime);
         }
     }
@@ -86,7 +100,7 @@ public class DefaultActiveTraceRepository implements ActiveTraceRepository {
     @Override
     public ActiveTraceHandle register(TraceRoot traceRoot) {
         final ActiveTrace activeTrace = newSampledActiveTrace(traceRoot);
-        return register0(activeTrace);
+        return register0(activeTrace, Thread.currentThread().getId());
     }
 
     private ActiveTrace newSampledActiveTrace(TraceRoot traceRoot) {
@@ -96,47 +110,107 @@ public class DefaultActiveTraceRepository implements ActiveTraceRepository {
     @Override
     public ActiveTraceHandle register(long localTransactionId, long startTime, long threadId) {
         final ActiveTrace activeTrace = newUnsampledActiveTrace(localTransactionId, startTime, threadId);
-        return register0(activeTrace);
+        return register0(activeTrace, threadId);
     }
 
     private ActiveTrace newUnsampledActiveTrace(long localTransactionId, long startTime, long threadId) {
         return new UnsampledActiveTrace(localTransactionId, startTime, threadId);
     }
 
-    private ActiveTraceHandle register0(ActiveTrace activeTrace) {
+    private ActiveTraceHandle register0(ActiveTrace activeTrace, long threadId) {
         if (isDebug) {
             logger.debug("register ActiveTrace key:{}", activeTrace);
         }
 
-        final long id = activeTrace.getId();
-        final ActiveTraceHandle handle = new DefaultActiveTraceHandle(id);
-        final ActiveTrace old = this.activeTraceInfoMap.put(handle, activeTrace);
-        if (old != null) {
-            if (logger.isWarnEnabled()) {
-                logger.warn("old activeTrace exist:{}", old);
+        final Stripe stripe = getStripe(threadId);
+        final Slot slot = new Slot(stripe, activeTrace);
+        stripe.add(slot);
+        if (activeTraceCount.incrementAndGet() > maxActiveTraceSize) {
+            final Slot evicted = evictOldest();
+            if (evicted != null) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("activeTrace evicted:{}", evicted.activeTrace);
+                }
             }
         }
-        return handle;
+        return slot;
     }
 
+    /**
+     * Drops the oldest trace of all stripes.
+     * The stripe heads are compared without holding more than one stripe lock at a time,
+     * so a concurrent purge may win the race, in which case nothing needs to be evicted anymore.
+     */
+    private Slot evictOldest() {
+        while (activeTraceCount.get() > maxActiveTraceSize) {
+            final Stripe oldestStripe = findOldestStripe();
+            if (oldestStripe == null) {
+                return null;
+            }
+            final Slot evicted = oldestStripe.removeHead();
+            if (evicted != null) {
+                activeTraceCount.decrementAndGet();
+                return evicted;
+            }
+        }
+        return null;
+    }
+
+    private Stripe findOldestStripe() {
+        Stripe oldestStripe = null;
+        long oldestStartTime = Long.MAX_VALUE;
+        for (Stripe stripe : stripes) {
+            if (stripe.size == 0) {
+                continue;
+            }
+            synchronized (stripe) {
+                final Slot head = stripe.head;
+                if (head == null) {
+                    continue;
+                }
+                final long startTime = head.activeTrace.getStartTime();
+                if (oldestStripe == null || startTime < oldestStartTime) {
+                    oldestStripe = stripe;
+                    oldestStartTime = startTime;
+                }
+            }
+        }
+        return oldestStripe;
+    }
+
+    private int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
 
     // @ThreadSafe
     @Override
     public List<ActiveTraceSnapshot> snapshot() {
-        if (this.activeTraceInfoMap.isEmpty()) {
+        final int size = size();
+        if (size == 0) {
             return Collections.emptyList();
         }
-        final Collection<ActiveTrace> activeTraceCollection = this.activeTraceInfoMap.values();
-        final List<ActiveTraceSnapshot> collectData = new ArrayList<ActiveTraceSnapshot>(activeTraceCollection.size());
+        final List<ActiveTraceSnapshot> collectData = new ArrayList<ActiveTraceSnapshot>(size);
 
-        for (ActiveTrace trace : activeTraceCollection) {
-            final long startTime = trace.getStartTime();
-            // not started
-            if (!isStarted(startTime)) {
+        for (Stripe stripe : stripes) {
+            if (stripe.size == 0) {
                 continue;
             }
-            final ActiveTraceSnapshot snapshot = trace.snapshot();
-            collectData.add(snapshot);
+            synchronized (stripe) {
+                for (Slot slot = stripe.head; slot != null; slot = slot.next) {
+                    final ActiveTrace trace = slot.activeTrace;
+                    final long startTime = trace.getStartTime();
+                    // not started
+                    if (!isStarted(startTime)) {
+                        continue;
+                    }
+                    final ActiveTraceSnapshot snapshot = trace.snapshot();
+                    collectData.add(snapshot);
+                }
+            }
         }
         if (isDebug) {
             logger.debug("activeTraceSnapshot size:{}", collectData.size());
@@ -148,20 +222,28 @@ public class DefaultActiveTraceRepository implements ActiveTraceRepository {
     // @ThreadSafe
     @Override
     public List<Long> getThreadIdList() {
-        if (this.activeTraceInfoMap.isEmpty()) {
+        final int size = size();
+        if (size == 0) {
             return Collections.emptyList();
         }
-        final Collection<ActiveTrace> activeTraceCollection = this.activeTraceInfoMap.values();
-        final List<Long> collectData = new ArrayList<Long>(activeTraceCollection.size());
+        final List<Long> collectData = new ArrayList<Long>(size);
 
-        for (ActiveTrace trace : activeTraceCollection) {
-            final long startTime = trace.getStartTime();
-            // not started
-            if (!isStarted(startTime)) {
+        for (Stripe stripe : stripes) {
+            if (stripe.size == 0) {
                 continue;
             }
-            final ActiveTraceSnapshot snapshot = trace.snapshot();
-            collectData.add(snapshot.getThreadId());
+            synchronized (stripe) {
+                for (Slot slot = stripe.head; slot != null; slot = slot.next) {
+                    final ActiveTrace trace = slot.activeTrace;
+                    final long startTime = trace.getStartTime();
+                    // not started
+                    if (!isStarted(startTime)) {
+                        continue;
+                    }
+                    final ActiveTraceSnapshot snapshot = trace.snapshot();
+                    collectData.add(snapshot.getThreadId());
+                }
+            }
         }
         if (isDebug) {
             logger.debug("activeTraceSnapshot size:{}", collectData.size());
@@ -172,21 +254,27 @@ public class DefaultActiveTraceRepository implements ActiveTraceRepository {
     // @ThreadSafe
     @Override
     public ActiveTraceHistogram getActiveTraceHistogram(long currentTime) {
-        if (this.activeTraceInfoMap.isEmpty()) {
+        if (size() == 0) {
             return emptyActiveTraceHistogram;
         }
-        final Collection<ActiveTrace> activeTraceCollection = this.activeTraceInfoMap.values();
-
 
+        // walks the slot links only, no iterator or snapshot is created per active trace
         final DefaultActiveTraceHistogram histogram = new DefaultActiveTraceHistogram(histogramSchema);
-        for (ActiveTrace activeTraceInfo : activeTraceCollection) {
-            final long startTime = activeTraceInfo.getStartTime();
-            if (!isStarted(startTime)) {
+        for (Stripe stripe : stripes) {
+            if (stripe.size == 0) {
                 continue;
             }
-            final int elapsedTime = (int) (currentTime - startTime);
-            final HistogramSlot slot = histogramSchema.findHistogramSlot(elapsedTime, false);
-            histogram.increment(slot);
+            synchronized (stripe) {
+                for (Slot slot = stripe.head; slot != null; slot = slot.next) {
+                    final long startTime = slot.activeTrace.getStartTime();
+                    if (!isStarted(startTime)) {
+                        continue;
+                    }
+                    final int elapsedTime = (int) (currentTime - startTime);
+                    final HistogramSlot histogramSlot = histogramSchema.findHistogramSlot(elapsedTime, false);
+                    histogram.increment(histogramSlot);
+                }
+            }
         }
 
         return histogram;
@@ -197,37 +285,90 @@ public class DefaultActiveTraceRepository implements ActiveTraceRepository {
     }
 
 
-    private class DefaultActiveTraceHandle implements ActiveTraceHandle {
-        private final long id;
+    /**
+     * Doubly linked list of the slots registered by the threads mapped to this stripe, oldest first.
+     * All links are guarded by the stripe monitor, {@link #size} is volatile so that empty stripes can be skipped without locking.
+     */
+    private static final class Stripe {
+        private Slot head;
+        private Slot tail;
+        private volatile int size;
+
+        synchronized void add(Slot slot) {
+            slot.prev = tail;
+            if (tail == null) {
+                head = slot;
+            } else {
+                tail.next = slot;
+            }
+            tail = slot;
+            slot.linked = true;
+            size++;
+        }
 
-        DefaultActiveTraceHandle(long id) {
-            this.id = id;
+        /**
+         * @return the oldest slot of this stripe, {@code null} if the stripe is empty
+         */
+        synchronized Slot removeHead() {
+            final Slot slot = head;
+            if (slot == null) {
+                return null;
+            }
+            unlink(slot);
+            return slot;
         }
 
-        @Override
-        public void purge(long purgeTime) {
-            remove(this, purgeTime);
+        synchronized boolean remove(Slot slot) {
+            if (!slot.linked) {
+                return false;
+            }
+            unlink(slot);
+            return true;
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
+        private void unlink(Slot slot) {
+            final Slot prev = slot.prev;
+            final Slot next = slot.next;
+            if (prev == null) {
+                head = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                tail = prev;
+            } else {
+                next.prev = prev;
+            }
+            slot.prev = null;
+            slot.next = null;
+            slot.linked = false;
+            size--;
+        }
+    }
+
+    private final class Slot implements ActiveTraceHandle {
+        private final Stripe stripe;
+        private final ActiveTrace activeTrace;
 
-            DefaultActiveTraceHandle that = (DefaultActiveTraceHandle) o;
+        // guarded by stripe
+        private Slot prev;
+        private Slot next;
+        private boolean linked;
 
-            return id == that.id;
+        private Slot(Stripe stripe, ActiveTrace activeTrace) {
+            this.stripe = stripe;
+            this.activeTrace = activeTrace;
         }
 
         @Override
-        public int hashCode() {
-            return (int) (id ^ (id >>> 32));
+        public void purge(long purgeTime) {
+            remove(this, purgeTime);
         }
 
         @Override
         public String toString() {
             return "DefaultActiveTraceHandle{" +
-                    "id=" + id +
+                    "id=" + activeTrace.getId() +
                     '}';
         }
     }
@@ -34,7 +34,11 @@ public class DefaultTraceId implements TraceId {
     private final short flags;
 
     public DefaultTraceId(String agentId, long agentStartTime, long transactionId) {
-        this(agentId, agentStartTime, transactionId, SpanId.NULL, SpanId.newSpanId(), (short) 0);
+        this(agentId, agentStartTime, transactionId, (short) 0);
+    }
+
+    public DefaultTraceId(String agentId, long agentStartTime, long transactionId, short flags) {
+        this(agentId, agentStartTime, transactionId, SpanId.NULL, SpanId.newSpanId(), flags);
     }
 
     public TraceId getNextTraceId() {
@@ -48,6 +48,12 @@ public class DefaultTraceIdFactory implements TraceIdFactory {
         return traceId;
     }
 
+    @Override
+    public TraceId newTraceId(long localTransactionId, short flags) {
+        final TraceId traceId = new DefaultTraceId(agentId, agentStartTime, localTransactionId, flags);
+        return traceId;
+    }
+
     public TraceId continueTraceId(String transactionId, long parentSpanId, long spanId, short flags) {
         if (transactionId == null) {
             throw new NullPointerException("transactionId must not be null");
@@ -47,8 +47,13 @@ public class DefaultTraceRootFactory implements TraceRootFactory {
 
     @Override
     public TraceRoot newTraceRoot() {
+        return newTraceRoot((short) 0);
+    }
+
+    @Override
+    public TraceRoot newTraceRoot(short flags) {
         final long localTransactionId = idGenerator.nextTransactionId();
-        final TraceId traceId = traceIdFactory.newTraceId(localTransactionId);
+        final TraceId traceId = traceIdFactory.newTraceId(localTransactionId, flags);
         final long startTime = traceStartTime();
         return new DefaultTraceRoot(traceId, this.agentId, startTime, localTransactionId);
     }
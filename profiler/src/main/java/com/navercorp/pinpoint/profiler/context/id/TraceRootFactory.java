@@ -25,5 +25,7 @@ public interface TraceRootFactory {
 
     TraceRoot newTraceRoot();
 
+    TraceRoot newTraceRoot(short flags);
+
     TraceRoot continueTraceRoot(TraceId traceId);
 }
@@ -221,6 +221,8 @@ public class DefaultApplicationContext implements ApplicationContext {
         }
 
         closeTcpDataSender();
+
+        this.classFileDispatcher.close();
     }
 
     private void closeTcpDataSender() {
@@ -18,6 +18,7 @@ package com.navercorp.pinpoint.profiler.context.provider;
 
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.bootstrap.sampler.Sampler;
 import com.navercorp.pinpoint.common.util.Assert;
 import com.navercorp.pinpoint.profiler.context.AsyncContextFactory;
@@ -31,6 +32,7 @@ import com.navercorp.pinpoint.profiler.context.id.IdGenerator;
 import com.navercorp.pinpoint.profiler.context.id.TraceRootFactory;
 import com.navercorp.pinpoint.profiler.context.recorder.RecorderFactory;
 import com.navercorp.pinpoint.profiler.context.storage.StorageFactory;
+import com.navercorp.pinpoint.profiler.context.storage.TailSamplingStorageFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +41,7 @@ import org.slf4j.LoggerFactory;
  */
 public class BaseTraceFactoryProvider implements Provider<BaseTraceFactory> {
 
+    private final ProfilerConfig profilerConfig;
     private final TraceRootFactory traceRootFactory;
     private final StorageFactory storageFactory;
     private final Sampler sampler;
@@ -54,9 +57,10 @@ public class BaseTraceFactoryProvider implements Provider<BaseTraceFactory> {
     private final ActiveTraceRepository activeTraceRepository;
 
     @Inject
-    public BaseTraceFactoryProvider(TraceRootFactory traceRootFactory, StorageFactory storageFactory, Sampler sampler,
+    public BaseTraceFactoryProvider(ProfilerConfig profilerConfig, TraceRootFactory traceRootFactory, StorageFactory storageFactory, Sampler sampler,
                                     IdGenerator idGenerator, Provider<AsyncContextFactory> asyncContextFactoryProvider,
                                     CallStackFactory callStackFactory, SpanFactory spanFactory, RecorderFactory recorderFactory, ActiveTraceRepository activeTraceRepository) {
+        this.profilerConfig = Assert.requireNonNull(profilerConfig, "profilerConfig must not be null");
         this.traceRootFactory = Assert.requireNonNull(traceRootFactory, "traceRootFactory must not be null");
 
         this.callStackFactory = Assert.requireNonNull(callStackFactory, "callStackFactory must not be null");
@@ -75,8 +79,9 @@ public class BaseTraceFactoryProvider implements Provider<BaseTraceFactory> {
     @Override
     public BaseTraceFactory get() {
         final AsyncContextFactory asyncContextFactory = asyncContextFactoryProvider.get();
+        final StorageFactory tailSamplingStorageFactory = newTailSamplingStorageFactory();
         BaseTraceFactory baseTraceFactory = new DefaultBaseTraceFactory(traceRootFactory, callStackFactory, storageFactory, sampler, idGenerator,
-                asyncContextFactory, spanFactory, recorderFactory, activeTraceRepository);
+                asyncContextFactory, spanFactory, recorderFactory, activeTraceRepository, tailSamplingStorageFactory);
         if (isDebugEnabled()) {
             baseTraceFactory = LoggingBaseTraceFactory.wrap(baseTraceFactory);
         }
@@ -84,6 +89,15 @@ public class BaseTraceFactoryProvider implements Provider<BaseTraceFactory> {
     }
 
 
+    private StorageFactory newTailSamplingStorageFactory() {
+        if (!profilerConfig.isSamplingTailEnable()) {
+            return null;
+        }
+        final int latencyThreshold = profilerConfig.getSamplingTailLatencyThreshold();
+        final int maxSpanEventSize = profilerConfig.getSamplingTailMaxSpanEventSize();
+        return new TailSamplingStorageFactory(storageFactory, latencyThreshold, maxSpanEventSize);
+    }
+
     private boolean isDebugEnabled() {
         final Logger logger = LoggerFactory.getLogger(DefaultBaseTraceFactory.class);
         return logger.isDebugEnabled();
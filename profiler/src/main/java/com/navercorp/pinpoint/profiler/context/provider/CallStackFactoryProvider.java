@@ -22,6 +22,7 @@ import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.profiler.context.CallStackFactory;
 import com.navercorp.pinpoint.profiler.context.CallStackFactoryV1;
 import com.navercorp.pinpoint.profiler.context.CallStackFactoryV2;
+import com.navercorp.pinpoint.profiler.context.SpanEventPool;
 import com.navercorp.pinpoint.profiler.context.TraceDataFormatVersion;
 
 /**
@@ -31,24 +32,29 @@ public class CallStackFactoryProvider implements Provider<CallStackFactory> {
 
     private final TraceDataFormatVersion version;
     private final int callStackMaxDepth;
+    private final SpanEventPool spanEventPool;
 
 
     @Inject
-    public CallStackFactoryProvider(ProfilerConfig profilerConfig) {
+    public CallStackFactoryProvider(ProfilerConfig profilerConfig, SpanEventPool spanEventPool) {
         if (profilerConfig == null) {
             throw new NullPointerException("profilerConfig must not be null");
         }
+        if (spanEventPool == null) {
+            throw new NullPointerException("spanEventPool must not be null");
+        }
         this.version = TraceDataFormatVersion.getTraceDataFormatVersion(profilerConfig);
         this.callStackMaxDepth = profilerConfig.getCallStackMaxDepth();
+        this.spanEventPool = spanEventPool;
     }
 
     @Override
     public CallStackFactory get() {
         if (version == TraceDataFormatVersion.V2) {
-            return new CallStackFactoryV2(callStackMaxDepth);
+            return new CallStackFactoryV2(callStackMaxDepth, spanEventPool);
         }
         if(version == TraceDataFormatVersion.V1) {
-            return new CallStackFactoryV1(callStackMaxDepth);
+            return new CallStackFactoryV1(callStackMaxDepth, spanEventPool);
         }
         throw new UnsupportedOperationException("unknown version :" + version);
     }
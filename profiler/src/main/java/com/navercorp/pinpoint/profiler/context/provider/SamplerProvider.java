@@ -37,9 +37,13 @@ public class SamplerProvider implements Provider<Sampler> {
     @Override
     public Sampler get() {
         boolean samplingEnable = profilerConfig.isSamplingEnable();
-        int samplingRate = profilerConfig.getSamplingRate();
 
         SamplerFactory samplerFactory = new SamplerFactory();
+        if (profilerConfig.isSamplingAdaptiveEnable()) {
+            int targetTps = profilerConfig.getSamplingAdaptiveTargetTps();
+            return samplerFactory.createAdaptiveSampler(samplingEnable, targetTps);
+        }
+        int samplingRate = profilerConfig.getSamplingRate();
         return samplerFactory.createSampler(samplingEnable, samplingRate);
     }
 }
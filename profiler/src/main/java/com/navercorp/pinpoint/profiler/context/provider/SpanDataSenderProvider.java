@@ -19,7 +19,11 @@ package com.navercorp.pinpoint.profiler.context.provider;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
+import com.navercorp.pinpoint.profiler.context.SpanEventPool;
 import com.navercorp.pinpoint.profiler.context.module.SpanStatClientFactory;
+import com.navercorp.pinpoint.profiler.sender.AbstractDataSender;
+import com.navercorp.pinpoint.profiler.sender.AsyncQueueFactory;
+import com.navercorp.pinpoint.profiler.sender.AsyncQueueType;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
 import com.navercorp.pinpoint.profiler.sender.TcpDataSender;
 import com.navercorp.pinpoint.profiler.sender.UdpDataSenderFactory;
@@ -41,29 +45,36 @@ public class SpanDataSenderProvider  implements Provider<DataSender> {
     private final String ip;
     private final int port;
     private final int writeQueueSize;
+    private final AsyncQueueType writeQueueType;
     private final int timeout;
     private final int sendBufferSize;
     private final String ioType;
     private final String transportType;
+    private final SpanEventPool spanEventPool;
 
     @Inject
-    public SpanDataSenderProvider(ProfilerConfig profilerConfig, @SpanStatClientFactory Provider<PinpointClientFactory> clientFactoryProvider) {
+    public SpanDataSenderProvider(ProfilerConfig profilerConfig, @SpanStatClientFactory Provider<PinpointClientFactory> clientFactoryProvider, SpanEventPool spanEventPool) {
         if (profilerConfig == null) {
             throw new NullPointerException("profilerConfig must not be null");
         }
         if (clientFactoryProvider == null) {
             throw new NullPointerException("clientFactoryProvider must not be null");
         }
+        if (spanEventPool == null) {
+            throw new NullPointerException("spanEventPool must not be null");
+        }
 
         this.clientFactoryProvider = clientFactoryProvider;
 
         this.ip = profilerConfig.getCollectorSpanServerIp();
         this.port = profilerConfig.getCollectorSpanServerPort();
         this.writeQueueSize = profilerConfig.getSpanDataSenderWriteQueueSize();
+        this.writeQueueType = AsyncQueueFactory.getType(profilerConfig.getSpanDataSenderWriteQueueType());
         this.timeout = profilerConfig.getSpanDataSenderSocketTimeout();
         this.sendBufferSize = profilerConfig.getSpanDataSenderSocketSendBufferSize();
         this.ioType = profilerConfig.getSpanDataSenderSocketType();
         this.transportType = profilerConfig.getSpanDataSenderTransportType();
+        this.spanEventPool = spanEventPool;
     }
 
     @Override
@@ -76,8 +87,13 @@ public class SpanDataSenderProvider  implements Provider<DataSender> {
             PinpointClientFactory pinpointClientFactory = clientFactoryProvider.get();
             return new TcpDataSender("SpanDataSender", ip, port, pinpointClientFactory);
         } else {
-            UdpDataSenderFactory factory = new UdpDataSenderFactory(ip, port, UDP_EXECUTOR_NAME, writeQueueSize, timeout, sendBufferSize);
-            return factory.create(ioType);
+            UdpDataSenderFactory factory = new UdpDataSenderFactory(ip, port, UDP_EXECUTOR_NAME, writeQueueSize, timeout, sendBufferSize, writeQueueType);
+            final DataSender dataSender = factory.create(ioType);
+            // udp senders serialize a span completely on the sender thread, so its SpanEvents can be recycled afterwards
+            if (spanEventPool.isEnabled() && dataSender instanceof AbstractDataSender) {
+                ((AbstractDataSender) dataSender).setMessageReleaseHandler(spanEventPool);
+            }
+            return dataSender;
         }
     }
 
@@ -87,10 +103,12 @@ public class SpanDataSenderProvider  implements Provider<DataSender> {
         sb.append("ip='").append(ip).append('\'');
         sb.append(", port=").append(port);
         sb.append(", writeQueueSize=").append(writeQueueSize);
+        sb.append(", writeQueueType=").append(writeQueueType);
         sb.append(", timeout=").append(timeout);
         sb.append(", sendBufferSize=").append(sendBufferSize);
         sb.append(", ioType='").append(ioType).append('\'');
         sb.append(", transportType='").append(transportType).append('\'');
+        sb.append(", spanEventPool=").append(spanEventPool);
         sb.append('}');
         return sb.toString();
     }
@@ -20,6 +20,8 @@ import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.navercorp.pinpoint.bootstrap.config.ProfilerConfig;
 import com.navercorp.pinpoint.profiler.context.module.SpanStatClientFactory;
+import com.navercorp.pinpoint.profiler.sender.AsyncQueueFactory;
+import com.navercorp.pinpoint.profiler.sender.AsyncQueueType;
 import com.navercorp.pinpoint.profiler.sender.DataSender;
 import com.navercorp.pinpoint.profiler.sender.TcpDataSender;
 import com.navercorp.pinpoint.profiler.sender.UdpDataSenderFactory;
@@ -41,6 +43,7 @@ public class StatDataSenderProvider implements Provider<DataSender> {
     private final String ip;
     private final int port;
     private final int writeQueueSize;
+    private final AsyncQueueType writeQueueType;
     private final int timeout;
     private final int sendBufferSize;
     private final String ioType;
@@ -60,6 +63,7 @@ public class StatDataSenderProvider implements Provider<DataSender> {
         this.ip = profilerConfig.getCollectorStatServerIp();
         this.port = profilerConfig.getCollectorStatServerPort();
         this.writeQueueSize = profilerConfig.getStatDataSenderWriteQueueSize();
+        this.writeQueueType = AsyncQueueFactory.getType(profilerConfig.getStatDataSenderWriteQueueType());
         this.timeout = profilerConfig.getStatDataSenderSocketTimeout();
         this.sendBufferSize = profilerConfig.getStatDataSenderSocketSendBufferSize();
         this.ioType = profilerConfig.getStatDataSenderSocketType();
@@ -76,7 +80,7 @@ public class StatDataSenderProvider implements Provider<DataSender> {
             PinpointClientFactory pinpointClientFactory = clientFactoryProvider.get();
             return new TcpDataSender("StatDataSender", ip, port, pinpointClientFactory);
         } else {
-            UdpDataSenderFactory factory = new UdpDataSenderFactory(ip, port, UDP_EXECUTOR_NAME, writeQueueSize, timeout, sendBufferSize);
+            UdpDataSenderFactory factory = new UdpDataSenderFactory(ip, port, UDP_EXECUTOR_NAME, writeQueueSize, timeout, sendBufferSize, writeQueueType);
             return factory.create(ioType);
         }
     }
@@ -87,6 +91,7 @@ public class StatDataSenderProvider implements Provider<DataSender> {
         sb.append("ip='").append(ip).append('\'');
         sb.append(", port=").append(port);
         sb.append(", writeQueueSize=").append(writeQueueSize);
+        sb.append(", writeQueueType=").append(writeQueueType);
         sb.append(", timeout=").append(timeout);
         sb.append(", sendBufferSize=").append(sendBufferSize);
         sb.append(", ioType='").append(ioType).append('\'');
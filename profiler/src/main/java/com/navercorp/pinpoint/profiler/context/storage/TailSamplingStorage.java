@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.common.trace.AnnotationKey;
+import com.navercorp.pinpoint.profiler.context.Annotation;
+import com.navercorp.pinpoint.profiler.context.Span;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the data of a transaction that was not sampled until its span is stored.
+ * The held data is handed over to the delegate storage only if the transaction failed or
+ * took longer than the latency threshold, and is discarded otherwise.
+ * Span events over the hold limit are dropped, and their number is recorded on the span of a promoted transaction
+ * as {@link AnnotationKey#TAIL_SAMPLING_DROPPED_SPAN_EVENT}.
+ */
+public class TailSamplingStorage implements Storage {
+
+    private final TraceRoot traceRoot;
+    private final Storage delegate;
+    private final TailSamplingStorageFactory.Policy policy;
+
+    private List<SpanEvent> heldSpanEvents;
+    private boolean exceptionHeld = false;
+    private int droppedSpanEventCount = 0;
+
+    public TailSamplingStorage(TraceRoot traceRoot, Storage delegate, TailSamplingStorageFactory.Policy policy) {
+        if (traceRoot == null) {
+            throw new NullPointerException("traceRoot must not be null");
+        }
+        if (delegate == null) {
+            throw new NullPointerException("delegate must not be null");
+        }
+        if (policy == null) {
+            throw new NullPointerException("policy must not be null");
+        }
+        this.traceRoot = traceRoot;
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    @Override
+    public void store(SpanEvent spanEvent) {
+        if (spanEvent.isSetExceptionInfo()) {
+            this.exceptionHeld = true;
+        }
+        if (heldSpanEvents == null) {
+            heldSpanEvents = new ArrayList<SpanEvent>();
+        }
+        if (heldSpanEvents.size() < policy.getMaxSpanEventSize()) {
+            heldSpanEvents.add(spanEvent);
+        } else {
+            droppedSpanEventCount++;
+        }
+    }
+
+    @Override
+    public void store(Span span) {
+        if (isPromotable(span)) {
+            policy.promoted();
+            if (droppedSpanEventCount > 0) {
+                policy.droppedSpanEvents(droppedSpanEventCount);
+                span.addAnnotation(new Annotation(AnnotationKey.TAIL_SAMPLING_DROPPED_SPAN_EVENT.getCode(), droppedSpanEventCount));
+            }
+            final List<SpanEvent> spanEvents = this.heldSpanEvents;
+            if (spanEvents != null) {
+                for (SpanEvent spanEvent : spanEvents) {
+                    delegate.store(spanEvent);
+                }
+            }
+            delegate.store(span);
+        } else {
+            policy.discarded();
+        }
+        this.heldSpanEvents = null;
+        this.droppedSpanEventCount = 0;
+    }
+
+    private boolean isPromotable(Span span) {
+        if (exceptionHeld || span.isSetExceptionInfo()) {
+            return true;
+        }
+        if (traceRoot.getShared().getErrorCode() != 0) {
+            return true;
+        }
+        return span.getElapsed() >= policy.getLatencyThreshold();
+    }
+
+    @Override
+    public void flush() {
+        // nothing is sent until the span decides whether the transaction is kept
+    }
+
+    @Override
+    public void close() {
+        this.heldSpanEvents = null;
+        delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return "TailSamplingStorage{" +
+                "delegate=" + delegate +
+                ", policy=" + policy +
+                '}';
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.bootstrap.context.TraceId;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates {@link TailSamplingStorage}s on top of the storage of sampled transactions.
+ */
+public class TailSamplingStorageFactory implements StorageFactory {
+
+    /**
+     * {@link com.navercorp.pinpoint.bootstrap.context.TraceId} flag of transactions held for tail sampling.
+     * The flag travels with the trace id to downstream agents, which then do not treat the transaction as sampled.
+     */
+    public static final short TAIL_SAMPLING_FLAG = 0x01;
+
+    private final StorageFactory storageFactory;
+    private final Policy policy;
+
+    public TailSamplingStorageFactory(StorageFactory storageFactory, int latencyThreshold, int maxSpanEventSize) {
+        if (storageFactory == null) {
+            throw new NullPointerException("storageFactory must not be null");
+        }
+        if (latencyThreshold < 0) {
+            throw new IllegalArgumentException("negative latencyThreshold:" + latencyThreshold);
+        }
+        if (maxSpanEventSize < 0) {
+            throw new IllegalArgumentException("negative maxSpanEventSize:" + maxSpanEventSize);
+        }
+        this.storageFactory = storageFactory;
+        this.policy = new Policy(latencyThreshold, maxSpanEventSize);
+    }
+
+    public static boolean isTailSampling(TraceId traceId) {
+        return (traceId.getFlags() & TAIL_SAMPLING_FLAG) != 0;
+    }
+
+    @Override
+    public Storage createStorage(TraceRoot traceRoot) {
+        final Storage storage = storageFactory.createStorage(traceRoot);
+        return new TailSamplingStorage(traceRoot, storage, policy);
+    }
+
+    public long getPromotedCount() {
+        return policy.promotedCount.get();
+    }
+
+    public long getDiscardedCount() {
+        return policy.discardedCount.get();
+    }
+
+    public long getDroppedSpanEventCount() {
+        return policy.droppedSpanEventCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "TailSamplingStorageFactory{" +
+                "storageFactory=" + storageFactory +
+                ", policy=" + policy +
+                '}';
+    }
+
+    static class Policy {
+        private final int latencyThreshold;
+        private final int maxSpanEventSize;
+
+        private final AtomicLong promotedCount = new AtomicLong();
+        private final AtomicLong discardedCount = new AtomicLong();
+        private final AtomicLong droppedSpanEventCount = new AtomicLong();
+
+        Policy(int latencyThreshold, int maxSpanEventSize) {
+            this.latencyThreshold = latencyThreshold;
+            this.maxSpanEventSize = maxSpanEventSize;
+        }
+
+        int getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        int getMaxSpanEventSize() {
+            return maxSpanEventSize;
+        }
+
+        void promoted() {
+            promotedCount.incrementAndGet();
+        }
+
+        void discarded() {
+            discardedCount.incrementAndGet();
+        }
+
+        void droppedSpanEvents(int count) {
+            droppedSpanEventCount.addAndGet(count);
+        }
+
+        @Override
+        public String toString() {
+            return "Policy{" +
+                    "latencyThreshold=" + latencyThreshold +
+                    ", maxSpanEventSize=" + maxSpanEventSize +
+                    ", promotedCount=" + promotedCount +
+                    ", discardedCount=" + discardedCount +
+                    ", droppedSpanEventCount=" + droppedSpanEventCount +
+                    '}';
+        }
+    }
+}
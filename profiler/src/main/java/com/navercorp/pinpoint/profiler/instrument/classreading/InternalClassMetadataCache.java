@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.instrument.classreading;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metadata of the super classes, interfaces and annotations looked up by the hierarchy matchers, cached per class loader.
+ * <p>
+ * Without the cache every class that extends a common base class reads and parses the class file of the base class again.
+ * Classes that can not be found are remembered only for a short time, they may be defined or become readable later.
+ */
+public class InternalClassMetadataCache {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final long NOT_FOUND_EXPIRE_MILLIS = 5000;
+
+    private static final InternalClassMetadata NOT_FOUND = new DefaultInternalClassMetadata("", null, null, null, false, false, false, false);
+
+    private final int size;
+    private final Ticker ticker;
+    // class loader -> (class internal name -> metadata). class loaders are weakly referenced.
+    private final LoadingCache<ClassLoader, ClassLoaderCache> classLoaderCaches;
+    private final ClassLoaderCache bootstrapClassLoaderCache;
+
+    /**
+     * @param size max number of cached classes per class loader, 0 or less to disable
+     */
+    public InternalClassMetadataCache(final int size) {
+        this(size, Ticker.systemTicker());
+    }
+
+    InternalClassMetadataCache(final int size, final Ticker ticker) {
+        if (ticker == null) {
+            throw new NullPointerException("ticker must not be null");
+        }
+        this.size = size;
+        this.ticker = ticker;
+        if (size <= 0) {
+            this.classLoaderCaches = null;
+            this.bootstrapClassLoaderCache = null;
+            return;
+        }
+
+        this.classLoaderCaches = CacheBuilder.newBuilder()
+                .weakKeys()
+                .concurrencyLevel(4)
+                .build(new CacheLoader<ClassLoader, ClassLoaderCache>() {
+                    @Override
+                    public ClassLoaderCache load(ClassLoader classLoader) throws Exception {
+                        return newCache();
+                    }
+                });
+        this.bootstrapClassLoaderCache = newCache();
+    }
+
+    private ClassLoaderCache newCache() {
+        final Cache<String, InternalClassMetadata> found = CacheBuilder.newBuilder().maximumSize(this.size).concurrencyLevel(4).build();
+        final Cache<String, InternalClassMetadata> notFound = CacheBuilder.newBuilder()
+                .maximumSize(this.size)
+                .concurrencyLevel(4)
+                .expireAfterWrite(NOT_FOUND_EXPIRE_MILLIS, TimeUnit.MILLISECONDS)
+                .ticker(this.ticker)
+                .build();
+        return new ClassLoaderCache(found, notFound);
+    }
+
+    public boolean isActive() {
+        return this.classLoaderCaches != null;
+    }
+
+    /**
+     * @return metadata of the class, or {@code null} if the class can not be read through the class loader
+     */
+    public InternalClassMetadata getClassMetadata(final ClassLoader classLoader, final String classInternalName) {
+        if (classInternalName == null) {
+            return null;
+        }
+        if (!isActive()) {
+            return readClassMetadata(classLoader, classInternalName);
+        }
+
+        final ClassLoaderCache cache = getCache(classLoader);
+        final InternalClassMetadata cached = cache.found.getIfPresent(classInternalName);
+        if (cached != null) {
+            return cached;
+        }
+        if (cache.notFound.getIfPresent(classInternalName) != null) {
+            return null;
+        }
+
+        final InternalClassMetadata classMetadata = readClassMetadata(classLoader, classInternalName);
+        if (classMetadata == null) {
+            cache.notFound.put(classInternalName, NOT_FOUND);
+        } else {
+            cache.found.put(classInternalName, classMetadata);
+        }
+        return classMetadata;
+    }
+
+    /**
+     * Keeps the metadata of a class that was read anyway, e.g. while it was being loaded.
+     */
+    public void put(final ClassLoader classLoader, final InternalClassMetadata classMetadata) {
+        if (!isActive() || classMetadata == null || classMetadata.getClassInternalName() == null) {
+            return;
+        }
+        final ClassLoaderCache cache = getCache(classLoader);
+        cache.found.put(classMetadata.getClassInternalName(), classMetadata);
+        cache.notFound.invalidate(classMetadata.getClassInternalName());
+    }
+
+    private ClassLoaderCache getCache(final ClassLoader classLoader) {
+        if (classLoader == null) {
+            return this.bootstrapClassLoaderCache;
+        }
+        return this.classLoaderCaches.getUnchecked(classLoader);
+    }
+
+    private InternalClassMetadata readClassMetadata(final ClassLoader classLoader, final String classInternalName) {
+        try {
+            return InternalClassMetadataReader.readInternalClassMetadata(classLoader, classInternalName);
+        } catch (Exception e) {
+            if (logger.isInfoEnabled()) {
+                logger.info("Failed to read metadata of class. classLoader={}, internalName={}", classLoader, classInternalName, e);
+            }
+        }
+        // not found.
+        return null;
+    }
+
+    private static class ClassLoaderCache {
+        private final Cache<String, InternalClassMetadata> found;
+        // expires shortly after write
+        private final Cache<String, InternalClassMetadata> notFound;
+
+        private ClassLoaderCache(Cache<String, InternalClassMetadata> found, Cache<String, InternalClassMetadata> notFound) {
+            this.found = found;
+            this.notFound = notFound;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("{");
+        sb.append("size=").append(size);
+        if (isActive()) {
+            sb.append(", classLoaders=").append(classLoaderCaches.size());
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+}
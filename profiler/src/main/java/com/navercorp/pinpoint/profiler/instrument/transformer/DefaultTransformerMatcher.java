@@ -27,9 +27,7 @@ import com.navercorp.pinpoint.bootstrap.instrument.matcher.operator.MatcherOpera
 import com.navercorp.pinpoint.bootstrap.instrument.matcher.operator.NotMatcherOperator;
 import com.navercorp.pinpoint.bootstrap.instrument.matcher.operator.OrMatcherOperator;
 import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadata;
-import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadataReader;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadataCache;
 
 /**
  * @author jaehong.kim
@@ -38,13 +36,20 @@ public class DefaultTransformerMatcher implements TransformerMatcher {
     private static final String OBJECT_CLASS_INTERNAL_NAME = "java/lang/Object";
     private static final String ANNOTATION_PACKAGE_INTERNAL_NAME = "java/lang/annotation";
 
-    private final Logger logger = LoggerFactory.getLogger(this.getClass());
-
     private HierarchyCaches interfaceCaches;
     private HierarchyCaches annotationCaches;
     private HierarchyCaches superCaches;
+    private final InternalClassMetadataCache classMetadataCache;
 
     public DefaultTransformerMatcher(final InstrumentMatcherCacheConfig cacheConfig) {
+        this(cacheConfig, new InternalClassMetadataCache(cacheConfig.getClassMetadataCacheSize()));
+    }
+
+    public DefaultTransformerMatcher(final InstrumentMatcherCacheConfig cacheConfig, final InternalClassMetadataCache classMetadataCache) {
+        if (classMetadataCache == null) {
+            throw new NullPointerException("classMetadataCache must not be null");
+        }
+        this.classMetadataCache = classMetadataCache;
         this.interfaceCaches = new HierarchyCaches(cacheConfig.getInterfaceCacheSize(), cacheConfig.getInterfaceCacheEntrySize());
         this.annotationCaches = new HierarchyCaches(cacheConfig.getAnnotationCacheSize(), cacheConfig.getAnnotationCacheEntrySize());
         this.superCaches = new HierarchyCaches(cacheConfig.getSuperCacheSize(), cacheConfig.getSuperCacheEntrySize());
@@ -227,16 +232,7 @@ public class DefaultTransformerMatcher implements TransformerMatcher {
             return null;
         }
 
-        try {
-            return InternalClassMetadataReader.readInternalClassMetadata(classLoader, classInternalName);
-        } catch (Exception e) {
-            if (logger.isInfoEnabled()) {
-                logger.info("Failed to read metadata of class. classLoader={}, internalName={}", classLoader, classInternalName, e);
-            }
-        }
-
-        // not found.
-        return null;
+        return this.classMetadataCache.getClassMetadata(classLoader, classInternalName);
     }
 
     boolean traversal(ClassLoader classLoader, MatcherOperand operand, InternalClassMetadata classMetadata) {
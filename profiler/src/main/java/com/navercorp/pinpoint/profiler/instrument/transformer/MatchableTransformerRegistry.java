@@ -23,18 +23,18 @@ import com.navercorp.pinpoint.bootstrap.instrument.matcher.operand.ClassInternal
 import com.navercorp.pinpoint.bootstrap.instrument.matcher.operand.MatcherOperand;
 import com.navercorp.pinpoint.bootstrap.instrument.matcher.operand.PackageInternalNameMatcherOperand;
 import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadata;
+import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadataCache;
 import com.navercorp.pinpoint.profiler.instrument.classreading.InternalClassMetadataReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.instrument.ClassFileTransformer;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -50,21 +50,17 @@ public class MatchableTransformerRegistry implements TransformerRegistry {
     // class matcher operand.
     private final Map<String, IndexValue> classNameBasedIndex = new HashMap<String, IndexValue>(64);
     // package matcher operand.
-    private final Map<String, Set<IndexValue>> packageNameBasedIndex;
+    private final Map<String, Set<IndexValue>> packageNameBasedIndex = new HashMap<String, Set<IndexValue>>(64);
+    // distinct lengths of the indexed package names in ascending order.
+    private int[] packageNameLengths = new int[0];
 
     private final TransformerMatcherExecutionPlanner executionPlanner = new TransformerMatcherExecutionPlanner();
     private final TransformerMatcher transformerMatcher;
+    private final InternalClassMetadataCache classMetadataCache;
 
     public MatchableTransformerRegistry(final ProfilerConfig profilerConfig) {
-        // sorted by package name length.
-        this.packageNameBasedIndex = new TreeMap<String, Set<IndexValue>>(new Comparator<String>() {
-            @Override
-            public int compare(String key1, String key2) {
-                return key1.length() - key2.length();
-            }
-        });
-
-        this.transformerMatcher = new DefaultTransformerMatcher(profilerConfig.getInstrumentMatcherCacheConfig());
+        this.classMetadataCache = new InternalClassMetadataCache(profilerConfig.getInstrumentMatcherCacheConfig().getClassMetadataCacheSize());
+        this.transformerMatcher = new DefaultTransformerMatcher(profilerConfig.getInstrumentMatcherCacheConfig(), this.classMetadataCache);
     }
 
     @Override
@@ -80,7 +76,7 @@ public class MatchableTransformerRegistry implements TransformerRegistry {
             return transformer;
         }
 
-        ClassMetadataWrapper classMetadataWrapper = new ClassMetadataWrapper(classFileBuffer, classMetadata);
+        ClassMetadataWrapper classMetadataWrapper = new ClassMetadataWrapper(classLoader, classFileBuffer, classMetadata);
         // find class name based.
         if (!this.classNameBasedIndex.isEmpty()) {
             transformer = findClassBasedTransformer(classLoader, classInternalName, classMetadataWrapper);
@@ -119,14 +115,19 @@ public class MatchableTransformerRegistry implements TransformerRegistry {
     }
 
     private ClassFileTransformer findPackageBasedTransformer(final ClassLoader classLoader, final String classInternalName, final ClassMetadataWrapper classMetadataWrapper) {
-        for (Map.Entry<String, Set<IndexValue>> entry : this.packageNameBasedIndex.entrySet()) {
-            final String packageInternalName = entry.getKey();
-            if (classInternalName.startsWith(packageInternalName)) {
-                for (IndexValue value : entry.getValue()) {
-                    ClassFileTransformer transformer = match(classLoader, value, classMetadataWrapper);
-                    if (transformer != null) {
-                        return transformer;
-                    }
+        // look up each prefix of the class name that has the length of an indexed package name, shortest first.
+        for (int packageNameLength : this.packageNameLengths) {
+            if (classInternalName.length() < packageNameLength) {
+                break;
+            }
+            final Set<IndexValue> indexValues = this.packageNameBasedIndex.get(classInternalName.substring(0, packageNameLength));
+            if (indexValues == null) {
+                continue;
+            }
+            for (IndexValue value : indexValues) {
+                ClassFileTransformer transformer = match(classLoader, value, classMetadataWrapper);
+                if (transformer != null) {
+                    return transformer;
                 }
             }
         }
@@ -180,6 +181,7 @@ public class MatchableTransformerRegistry implements TransformerRegistry {
             } else if (operand instanceof PackageInternalNameMatcherOperand) {
                 PackageInternalNameMatcherOperand packageInternalNameMatcherOperand = (PackageInternalNameMatcherOperand) operand;
                 addIndexData(packageInternalNameMatcherOperand.getPackageInternalName(), indexValue, this.packageNameBasedIndex);
+                addPackageNameLength(packageInternalNameMatcherOperand.getPackageInternalName().length());
                 indexed = true;
             } else {
                 throw new IllegalArgumentException("invalid matcher or execution planner - unknown operand. condition=" + condition + ", unknown operand=" + operand);
@@ -200,6 +202,16 @@ public class MatchableTransformerRegistry implements TransformerRegistry {
         indexValueSet.add(indexValue);
     }
 
+    private void addPackageNameLength(final int packageNameLength) {
+        if (Arrays.binarySearch(this.packageNameLengths, packageNameLength) >= 0) {
+            return;
+        }
+        final int[] packageNameLengths = Arrays.copyOf(this.packageNameLengths, this.packageNameLengths.length + 1);
+        packageNameLengths[packageNameLengths.length - 1] = packageNameLength;
+        Arrays.sort(packageNameLengths);
+        this.packageNameLengths = packageNameLengths;
+    }
+
     static class IndexValue {
         private final MatcherOperand operand;
         private final ClassFileTransformer transformer;
@@ -218,10 +230,12 @@ public class MatchableTransformerRegistry implements TransformerRegistry {
     }
 
     class ClassMetadataWrapper {
+        private final ClassLoader classLoader;
         private final byte[] classFileBuffer;
         private InternalClassMetadata classMetadata;
 
-        ClassMetadataWrapper(final byte[] classFileBuffer, final InternalClassMetadata classMetadata) {
+        ClassMetadataWrapper(final ClassLoader classLoader, final byte[] classFileBuffer, final InternalClassMetadata classMetadata) {
+            this.classLoader = classLoader;
             this.classFileBuffer = classFileBuffer;
             this.classMetadata = classMetadata;
         }
@@ -230,6 +244,8 @@ public class MatchableTransformerRegistry implements TransformerRegistry {
             if (this.classMetadata == null) {
                 try {
                     this.classMetadata = InternalClassMetadataReader.readInternalClassMetadata(this.classFileBuffer);
+                    // sub classes loaded later look up this class without reading it again.
+                    classMetadataCache.put(this.classLoader, this.classMetadata);
                 } catch (Exception e) {
                     if (logger.isInfoEnabled()) {
                         logger.info("Failed to read metadata of class bytes.", e);
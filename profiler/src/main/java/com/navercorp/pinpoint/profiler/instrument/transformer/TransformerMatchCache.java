@@ -0,0 +1,310 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.instrument.transformer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProtectionDomain;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers the classes of each jar that did not match any transformer, and keeps them in a file across restarts.
+ * <p>
+ * Jars are identified by their path, size and last modified time, so that nothing is read on the class loading thread.
+ * The whole cache is discarded when the fingerprint of the registered matchers changes.
+ * Only classes loaded from a local jar file are cached.
+ * Matchers that look at the class hierarchy are evaluated against the super types seen when the class was recorded.
+ */
+public class TransformerMatchCache {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final int FORMAT_VERSION = 2;
+    private static final int BUFFER_SIZE = 8192;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final JarMatchResult NOT_CACHEABLE = new JarMatchResult(null, Collections.<String>emptySet());
+
+    private final File file;
+    private final String fingerprint;
+
+    // jar key -> unmatched classes read from the file
+    private final Map<String, Set<String>> savedUnmatchedClasses;
+    // code source location -> match result
+    private final ConcurrentMap<String, JarMatchResult> jarMatchResults = new ConcurrentHashMap<String, JarMatchResult>();
+
+    /**
+     * @param fingerprint description of the registered matchers, the cache file is ignored when it changes
+     */
+    public TransformerMatchCache(final File file, final String fingerprint) {
+        if (file == null) {
+            throw new NullPointerException("file must not be null");
+        }
+        if (fingerprint == null) {
+            throw new NullPointerException("fingerprint must not be null");
+        }
+        this.file = file;
+        this.fingerprint = digest(fingerprint);
+        this.savedUnmatchedClasses = read();
+    }
+
+    public boolean isUnmatched(final ProtectionDomain protectionDomain, final String classInternalName) {
+        final JarMatchResult jarMatchResult = getJarMatchResult(protectionDomain);
+        return jarMatchResult.savedUnmatchedClasses.contains(classInternalName);
+    }
+
+    public void putUnmatched(final ProtectionDomain protectionDomain, final String classInternalName) {
+        final JarMatchResult jarMatchResult = getJarMatchResult(protectionDomain);
+        if (jarMatchResult == NOT_CACHEABLE) {
+            return;
+        }
+        jarMatchResult.unmatchedClasses.add(classInternalName);
+    }
+
+    private JarMatchResult getJarMatchResult(final ProtectionDomain protectionDomain) {
+        final URL location = getLocation(protectionDomain);
+        if (location == null) {
+            return NOT_CACHEABLE;
+        }
+        final String locationKey = location.toString();
+        final JarMatchResult jarMatchResult = jarMatchResults.get(locationKey);
+        if (jarMatchResult != null) {
+            return jarMatchResult;
+        }
+
+        final JarMatchResult newJarMatchResult = createJarMatchResult(location);
+        final JarMatchResult prev = jarMatchResults.putIfAbsent(locationKey, newJarMatchResult);
+        if (prev != null) {
+            return prev;
+        }
+        return newJarMatchResult;
+    }
+
+    private URL getLocation(final ProtectionDomain protectionDomain) {
+        if (protectionDomain == null) {
+            return null;
+        }
+        final CodeSource codeSource = protectionDomain.getCodeSource();
+        if (codeSource == null) {
+            return null;
+        }
+        final URL location = codeSource.getLocation();
+        if (location == null) {
+            return null;
+        }
+        if (!"file".equals(location.getProtocol()) || !location.getPath().endsWith(".jar")) {
+            return null;
+        }
+        return location;
+    }
+
+    private JarMatchResult createJarMatchResult(final URL location) {
+        final File jarFile;
+        try {
+            jarFile = new File(location.toURI());
+        } catch (Exception e) {
+            return NOT_CACHEABLE;
+        }
+        if (!jarFile.isFile()) {
+            return NOT_CACHEABLE;
+        }
+
+        final String jarKey = jarKey(jarFile);
+        Set<String> savedUnmatchedClasses = this.savedUnmatchedClasses.get(jarKey);
+        if (savedUnmatchedClasses == null) {
+            savedUnmatchedClasses = Collections.emptySet();
+        }
+        return new JarMatchResult(jarKey, savedUnmatchedClasses);
+    }
+
+    private static String digest(final String fingerprint) {
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not supported", e);
+        }
+        final byte[] digest = messageDigest.digest(fingerprint.getBytes(UTF_8));
+        final StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    static String jarKey(final File jarFile) {
+        return jarFile.getAbsolutePath() + "|" + jarFile.length() + "|" + jarFile.lastModified();
+    }
+
+    private Map<String, Set<String>> read() {
+        if (!file.isFile()) {
+            return Collections.emptyMap();
+        }
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            final int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                logger.info("Ignore transformer match cache of unsupported version. file={}, version={}", file, version);
+                return Collections.emptyMap();
+            }
+            final String savedFingerprint = in.readUTF();
+            if (!fingerprint.equals(savedFingerprint)) {
+                logger.info("Ignore transformer match cache of different transformers. file={}", file);
+                return Collections.emptyMap();
+            }
+
+            final Map<String, Set<String>> savedUnmatchedClasses = new HashMap<String, Set<String>>();
+            final int jarSize = in.readInt();
+            for (int i = 0; i < jarSize; i++) {
+                final String jarKey = in.readUTF();
+                final int classSize = in.readInt();
+                final Set<String> classes = new HashSet<String>(classSize * 2);
+                for (int j = 0; j < classSize; j++) {
+                    classes.add(in.readUTF());
+                }
+                savedUnmatchedClasses.put(jarKey, classes);
+            }
+            logger.info("Transformer match cache loaded. file={}, jars={}", file, savedUnmatchedClasses.size());
+            return savedUnmatchedClasses;
+        } catch (IOException e) {
+            logger.info("Failed to read transformer match cache. file={}", file, e);
+            return Collections.emptyMap();
+        } finally {
+            close(in);
+        }
+    }
+
+    /**
+     * Writes the unmatched classes of the jars loaded by this process.
+     */
+    public void save() {
+        final Map<String, Set<String>> unmatchedClasses = new HashMap<String, Set<String>>();
+        for (JarMatchResult jarMatchResult : jarMatchResults.values()) {
+            if (jarMatchResult == NOT_CACHEABLE) {
+                continue;
+            }
+            Set<String> classes = unmatchedClasses.get(jarMatchResult.jarKey);
+            if (classes == null) {
+                classes = new HashSet<String>();
+                unmatchedClasses.put(jarMatchResult.jarKey, classes);
+            }
+            classes.addAll(jarMatchResult.savedUnmatchedClasses);
+            classes.addAll(jarMatchResult.unmatchedClasses);
+        }
+
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            logger.info("Failed to create directory of transformer match cache. dir={}", parent);
+            return;
+        }
+        final File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE));
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(fingerprint);
+            out.writeInt(unmatchedClasses.size());
+            for (Map.Entry<String, Set<String>> entry : unmatchedClasses.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (String classInternalName : entry.getValue()) {
+                    out.writeUTF(classInternalName);
+                }
+            }
+            out.close();
+            out = null;
+
+            if (!tempFile.renameTo(file)) {
+                // renameTo does not replace an existing file on some platforms.
+                if (!file.delete() || !tempFile.renameTo(file)) {
+                    logger.info("Failed to write transformer match cache. file={}", file);
+                    return;
+                }
+            }
+            logger.info("Transformer match cache saved. file={}, jars={}", file, unmatchedClasses.size());
+        } catch (IOException e) {
+            logger.info("Failed to write transformer match cache. file={}", file, e);
+        } finally {
+            close(out);
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private static void close(InputStream in) {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void close(OutputStream out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static class JarMatchResult {
+        private final String jarKey;
+        private final Set<String> savedUnmatchedClasses;
+        private final Set<String> unmatchedClasses = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        private JarMatchResult(final String jarKey, final Set<String> savedUnmatchedClasses) {
+            this.jarKey = jarKey;
+            this.savedUnmatchedClasses = savedUnmatchedClasses;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TransformerMatchCache{");
+        sb.append("file=").append(file);
+        sb.append(", jars=").append(jarMatchResults.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -25,4 +25,6 @@ public interface CachingSqlNormalizer {
     ParsingResult wrapSql(String sql);
 
     boolean normalizedSql(ParsingResult sql);
+
+    SqlCacheMetric getSqlCacheMetric();
 }
@@ -16,11 +16,15 @@
 
 package com.navercorp.pinpoint.profiler.metadata;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.navercorp.pinpoint.bootstrap.context.ParsingResult;
 import com.navercorp.pinpoint.common.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * @author emeroad
  */
@@ -31,13 +35,26 @@ public class DefaultCachingSqlNormalizer implements CachingSqlNormalizer {
     private static final DefaultParsingResult EMPTY_OBJECT = new DefaultParsingResult("");
 
     private final SimpleCache<String> sqlCache;
-    private final SqlParser sqlParser;
+    // fingerprint of the normalized sql -> normalizedSql, sqlId
+    private final ConcurrentMap<Long, CachedSql> fingerprintCache;
+    private final DefaultSqlParser sqlParser;
+    private final SqlCacheMetric sqlCacheMetric = new SqlCacheMetric();
 
     public DefaultCachingSqlNormalizer(int cacheSize) {
         this.sqlCache = new SimpleCache<String>(cacheSize);
+        this.fingerprintCache = createFingerprintCache(cacheSize);
         this.sqlParser = new DefaultSqlParser();
     }
 
+    private ConcurrentMap<Long, CachedSql> createFingerprintCache(int maxCacheSize) {
+        final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        cacheBuilder.concurrencyLevel(64);
+        cacheBuilder.initialCapacity(maxCacheSize);
+        cacheBuilder.maximumSize(maxCacheSize);
+        Cache<Long, CachedSql> localCache = cacheBuilder.build();
+        return localCache.asMap();
+    }
+
     @Override
     public ParsingResult wrapSql(String sql) {
         if (sql == null) {
@@ -69,24 +86,65 @@ public class DefaultCachingSqlNormalizer implements CachingSqlNormalizer {
         final ParsingResultInternal parsingResultInternal = (ParsingResultInternal) parsingResult;
 
         final String originalSql = parsingResultInternal.getOriginalSql();
+
+        // statements of the same shape share a fingerprint, reuse their normalized sql and sqlId
+        // the fingerprint only hashes the sql, the normalized sql is built on a miss only
+        final StringBuilder parsedParameter = new StringBuilder(32);
+        final long parseStartTime = System.nanoTime();
+        final long fingerprint = this.sqlParser.fingerprint(originalSql, parsedParameter);
+        final CachedSql cachedSql = this.fingerprintCache.get(fingerprint);
+        if (cachedSql != null) {
+            this.sqlCacheMetric.hit(System.nanoTime() - parseStartTime);
+            setParsingResult(parsingResultInternal, cachedSql.getId(), cachedSql.getSql(), parsedParameter.toString());
+            return false;
+        }
+
         final NormalizedSql normalizedSql = this.sqlParser.normalizedSql(originalSql);
+        this.sqlCacheMetric.miss(System.nanoTime() - parseStartTime);
 
         final Result cachingResult = this.sqlCache.put(normalizedSql.getNormalizedSql());
+        this.fingerprintCache.put(fingerprint, new CachedSql(cachingResult.getId(), normalizedSql.getNormalizedSql()));
+
+        setParsingResult(parsingResultInternal, cachingResult.getId(), normalizedSql.getNormalizedSql(), normalizedSql.getParseParameter());
+
+        return cachingResult.isNewValue();
+    }
 
+    private void setParsingResult(ParsingResultInternal parsingResultInternal, int sqlId, String sql, String output) {
         // set normalizedSql
         // set sqlId
-        final boolean success = parsingResultInternal.setId(cachingResult.getId());
+        final boolean success = parsingResultInternal.setId(sqlId);
         if (!success) {
             if (logger.isWarnEnabled()) {
-                logger.warn("invalid state. setSqlId fail setId:{}, ParsingResultInternal:{}", cachingResult.getId(), parsingResultInternal);
+                logger.warn("invalid state. setSqlId fail setId:{}, ParsingResultInternal:{}", sqlId, parsingResultInternal);
             }
         }
 
-        parsingResultInternal.setSql(normalizedSql.getNormalizedSql());
-        parsingResultInternal.setOutput(normalizedSql.getParseParameter());
+        parsingResultInternal.setSql(sql);
+        parsingResultInternal.setOutput(output);
+    }
 
-        return cachingResult.isNewValue();
+    @Override
+    public SqlCacheMetric getSqlCacheMetric() {
+        return sqlCacheMetric;
     }
 
+    private static class CachedSql {
+        private final int id;
+        private final String sql;
+
+        private CachedSql(int id, String sql) {
+            this.id = id;
+            this.sql = sql;
+        }
+
+        private int getId() {
+            return id;
+        }
+
+        private String getSql() {
+            return sql;
+        }
+    }
 
 }
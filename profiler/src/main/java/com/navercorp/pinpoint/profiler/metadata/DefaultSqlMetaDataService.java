@@ -74,10 +74,15 @@ public class DefaultSqlMetaDataService implements SqlMetaDataService {
         }
         // lazy sql parsing
         boolean isNewValue = this.cachingSqlNormalizer.normalizedSql(parsingResult);
+        // TODO follow-up of the sql fingerprint cache : send the hit ratio and parse time with TAgentStat
+        //  (new thrift struct, AgentStatType and storage in the collector, chart in the web) instead of logging them
+        final SqlCacheMetric sqlCacheMetric = this.cachingSqlNormalizer.getSqlCacheMetric();
+        if (sqlCacheMetric.isReportTime(System.currentTimeMillis())) {
+            logger.info("{}", sqlCacheMetric);
+        }
         if (isNewValue) {
             if (isDebug) {
-                // TODO logging hit ratio could help debugging
-                logger.debug("NewSQLParsingResult:{}", parsingResult);
+                logger.debug("NewSQLParsingResult:{} {}", parsingResult, cachingSqlNormalizer.getSqlCacheMetric());
             }
 
             // isNewValue means that the value is newly cached.
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.metadata;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit and parse statistics of {@link CachingSqlNormalizer}
+ */
+public class SqlCacheMetric {
+
+    static final long REPORT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong parseTimeNanos = new AtomicLong();
+    private final AtomicLong lastReportTime = new AtomicLong(System.currentTimeMillis());
+
+    void hit(long parseTimeNanos) {
+        hitCount.incrementAndGet();
+        this.parseTimeNanos.addAndGet(parseTimeNanos);
+    }
+
+    void miss(long parseTimeNanos) {
+        missCount.incrementAndGet();
+        this.parseTimeNanos.addAndGet(parseTimeNanos);
+    }
+
+    /**
+     * @return true for a single caller once every {@link #REPORT_INTERVAL_MILLIS}
+     */
+    boolean isReportTime(long currentTimeMillis) {
+        final long lastReportTime = this.lastReportTime.get();
+        if (currentTimeMillis - lastReportTime < REPORT_INTERVAL_MILLIS) {
+            return false;
+        }
+        return this.lastReportTime.compareAndSet(lastReportTime, currentTimeMillis);
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return number of sql parsed
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return total time spent fingerprinting and parsing sql in nanoseconds, hits included
+     */
+    public long getParseTimeNanos() {
+        return parseTimeNanos.get();
+    }
+
+    /**
+     * @return hit ratio in percent
+     */
+    public int getHitRatio() {
+        final long hitCount = getHitCount();
+        final long totalCount = hitCount + getMissCount();
+        if (totalCount == 0) {
+            return 0;
+        }
+        return (int) (hitCount * 100 / totalCount);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SqlCacheMetric{");
+        sb.append("hitCount=").append(getHitCount());
+        sb.append(", missCount=").append(getMissCount());
+        sb.append(", hitRatio=").append(getHitRatio());
+        sb.append(", parseTimeNanos=").append(getParseTimeNanos());
+        sb.append('}');
+        return sb.toString();
+    }
+}
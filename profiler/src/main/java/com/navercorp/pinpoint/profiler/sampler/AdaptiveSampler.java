@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sampler;
+
+import com.navercorp.pinpoint.bootstrap.sampler.Sampler;
+import com.navercorp.pinpoint.common.util.Clock;
+import com.navercorp.pinpoint.common.util.MathUtils;
+import com.navercorp.pinpoint.common.util.SystemClock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sampler that aims at a fixed number of sampled traces per second.
+ * <p>
+ * Incoming requests are counted over one second windows. When a window rolls over, the measured throughput is folded
+ * into an exponentially weighted moving average and the 1-in-N sampling rate for the next window is derived from it.
+ * Sampled traces are additionally capped at {@code targetTps} per window so that a sudden burst cannot exceed the
+ * budget before the rate catches up.
+ */
+public class AdaptiveSampler implements Sampler {
+
+    static final long WINDOW_MILLIS = 1000;
+    private static final double EWMA_WEIGHT = 0.5;
+
+    private final int targetTps;
+    private final Clock clock;
+
+    private final AtomicInteger counter = new AtomicInteger(0);
+    private final AtomicLong windowStartTime;
+    private final AtomicInteger windowRequestCount = new AtomicInteger(0);
+    private final AtomicInteger windowSampledCount = new AtomicInteger(0);
+
+    private volatile double estimatedTps = -1;
+    private volatile int samplingRate = 1;
+
+    public AdaptiveSampler(int targetTps) {
+        this(targetTps, SystemClock.INSTANCE);
+    }
+
+    public AdaptiveSampler(int targetTps, Clock clock) {
+        if (targetTps <= 0) {
+            throw new IllegalArgumentException("Invalid targetTps " + targetTps);
+        }
+        if (clock == null) {
+            throw new NullPointerException("clock must not be null");
+        }
+        this.targetTps = targetTps;
+        this.clock = clock;
+        this.windowStartTime = new AtomicLong(clock.getTime());
+    }
+
+    @Override
+    public boolean isSampling() {
+        rollWindow(clock.getTime());
+        windowRequestCount.incrementAndGet();
+
+        final int samplingCount = MathUtils.fastAbs(counter.getAndIncrement());
+        if (samplingCount % samplingRate != 0) {
+            return false;
+        }
+        return windowSampledCount.incrementAndGet() <= targetTps;
+    }
+
+    private void rollWindow(long currentTime) {
+        final long windowStart = windowStartTime.get();
+        final long elapsed = currentTime - windowStart;
+        if (elapsed < WINDOW_MILLIS) {
+            return;
+        }
+        if (!windowStartTime.compareAndSet(windowStart, currentTime)) {
+            // another thread is rolling the window
+            return;
+        }
+        final int requestCount = windowRequestCount.getAndSet(0);
+        windowSampledCount.set(0);
+
+        final double measuredTps = requestCount * 1000.0 / elapsed;
+        final double previousTps = this.estimatedTps;
+        final double newTps;
+        if (previousTps < 0) {
+            newTps = measuredTps;
+        } else {
+            newTps = EWMA_WEIGHT * measuredTps + (1 - EWMA_WEIGHT) * previousTps;
+        }
+        this.estimatedTps = newTps;
+        this.samplingRate = computeSamplingRate(newTps, targetTps);
+    }
+
+    static int computeSamplingRate(double estimatedTps, int targetTps) {
+        if (estimatedTps <= targetTps) {
+            return 1;
+        }
+        final double rate = Math.ceil(estimatedTps / targetTps);
+        if (rate >= Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) rate;
+    }
+
+    int getSamplingRate() {
+        return samplingRate;
+    }
+
+    double getEstimatedTps() {
+        return estimatedTps;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveSampler{" +
+                "targetTps=" + targetTps +
+                ", estimatedTps=" + estimatedTps +
+                ", samplingRate=" + samplingRate +
+                '}';
+    }
+}
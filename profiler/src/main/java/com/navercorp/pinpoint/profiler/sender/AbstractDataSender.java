@@ -36,8 +36,18 @@ public abstract class AbstractDataSender implements DataSender {
 
     private Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    private volatile MessageReleaseHandler messageReleaseHandler;
+
     abstract protected void sendPacket(Object dto);
 
+    /**
+     * Sets the handler notified after each message taken from the write queue has been sent.
+     * Only senders that serialize a message completely within {@link #sendPacket(Object)} may use this.
+     */
+    public void setMessageReleaseHandler(MessageReleaseHandler messageReleaseHandler) {
+        this.messageReleaseHandler = messageReleaseHandler;
+    }
+
     protected void sendPacketN(Collection<Object> messageList) {
         // Cannot use toArray(T[] array) because passed messageList doesn't implement it properly. 
         Object[] dataList = messageList.toArray();
@@ -56,21 +66,56 @@ public abstract class AbstractDataSender implements DataSender {
     }
 
     protected AsyncQueueingExecutor<Object> createAsyncQueueingExecutor(int queueSize, String executorName) {
-        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(queueSize, executorName);
+        return createAsyncQueueingExecutor(queueSize, executorName, AsyncQueueType.LINKED);
+    }
+
+    protected AsyncQueueingExecutor<Object> createAsyncQueueingExecutor(int queueSize, String executorName, AsyncQueueType queueType) {
+        final AsyncQueueingExecutor<Object> executor = new AsyncQueueingExecutor<Object>(queueSize, executorName, queueType);
         executor.setListener(new AsyncQueueingExecutorListener<Object>() {
             @Override
             public void execute(Collection<Object> messageList) {
                 sendPacketN(messageList);
+                releaseMessage(messageList);
             }
 
             @Override
             public void execute(Object message) {
                 sendPacket(message);
+                releaseMessage(message);
             }
         });
         return executor;
     }
 
+    private void releaseMessage(Collection<Object> messageList) {
+        final MessageReleaseHandler releaseHandler = this.messageReleaseHandler;
+        if (releaseHandler == null) {
+            return;
+        }
+        // same as sendPacketN(), messageList only supports toArray()
+        final Object[] dataList = messageList.toArray();
+        final int size = messageList.size();
+        for (int i = 0; i < size; i++) {
+            releaseMessage(releaseHandler, dataList[i]);
+        }
+    }
+
+    private void releaseMessage(Object message) {
+        final MessageReleaseHandler releaseHandler = this.messageReleaseHandler;
+        if (releaseHandler == null) {
+            return;
+        }
+        releaseMessage(releaseHandler, message);
+    }
+
+    private void releaseMessage(MessageReleaseHandler releaseHandler, Object message) {
+        try {
+            releaseHandler.release(message);
+        } catch (Throwable th) {
+            logger.warn("release message fail. Cause:{}", th.getMessage(), th);
+        }
+    }
+
     protected byte[] serialize(HeaderTBaseSerializer serializer, TBase tBase) {
         return SerializationUtils.serialize(tBase, serializer, null);
     }
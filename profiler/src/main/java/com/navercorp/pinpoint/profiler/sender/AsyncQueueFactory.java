@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+/**
+ * Creates the queue backend of {@link AsyncQueueingExecutor}.
+ */
+public final class AsyncQueueFactory {
+
+    // LinkedBlockingQueue mode keeps the previous fixed drain size.
+    static final int LINKED_MAX_DRAIN_SIZE = 10;
+    static final int RING_BUFFER_MAX_DRAIN_SIZE = 128;
+
+    private AsyncQueueFactory() {
+    }
+
+    public static AsyncQueueType getType(String typeName) {
+        if (typeName == null) {
+            return AsyncQueueType.LINKED;
+        }
+        return AsyncQueueType.valueOf(typeName.trim().toUpperCase());
+    }
+
+    public static <T> AsyncQueue<T> createQueue(AsyncQueueType type, int queueSize) {
+        if (type == null) {
+            throw new NullPointerException("type must not be null");
+        }
+        if (type == AsyncQueueType.LINKED) {
+            return new LinkedAsyncQueue<T>(queueSize);
+        } else if (type == AsyncQueueType.RING_BUFFER) {
+            return new MpscRingBufferQueue<T>(queueSize);
+        } else {
+            throw new IllegalArgumentException("Unknown type.");
+        }
+    }
+
+    public static int getMaxDrainSize(AsyncQueueType type) {
+        if (type == AsyncQueueType.RING_BUFFER) {
+            return RING_BUFFER_MAX_DRAIN_SIZE;
+        }
+        return LINKED_MAX_DRAIN_SIZE;
+    }
+
+}
@@ -17,10 +17,10 @@
 package com.navercorp.pinpoint.profiler.sender;
 
 import java.util.Collection;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,19 +33,25 @@ import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 public class AsyncQueueingExecutor<T> implements Runnable {
 
     private static final AsyncQueueingExecutorListener EMPTY_LISTENER = new EmptyAsyncQueueingExecutorListener();
+    private static final int MIN_DRAIN_SIZE = 10;
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final boolean isWarn = logger.isWarnEnabled();
 
-    private final LinkedBlockingQueue<T> queue;
+    private final AsyncQueue<T> queue;
     private final AtomicBoolean isRun = new AtomicBoolean(true);
     private final Thread executeThread;
     private final String executorName;
 
     private final int maxDrainSize;
+    private final int minDrainSize;
+    // Caution. single thread only. adjusted between minDrainSize and maxDrainSize by the recent drain result.
+    private int currentDrainSize;
     // Caution. single thread only. this Collection is simpler than ArrayList.
     private final Collection<T> drain;
 
+    private final AtomicLong dropCount = new AtomicLong();
+
     private AsyncQueueingExecutorListener<T> listener = EMPTY_LISTENER;
 
 
@@ -54,13 +60,29 @@ public class AsyncQueueingExecutor<T> implements Runnable {
     }
 
     public AsyncQueueingExecutor(int queueSize, String executorName) {
+        this(queueSize, executorName, AsyncQueueType.LINKED);
+    }
+
+    public AsyncQueueingExecutor(int queueSize, String executorName, AsyncQueueType queueType) {
+        this(AsyncQueueFactory.<T>createQueue(queueType, queueSize), AsyncQueueFactory.getMaxDrainSize(queueType), executorName);
+    }
+
+    public AsyncQueueingExecutor(AsyncQueue<T> queue, int maxDrainSize, String executorName) {
+        if (queue == null) {
+            throw new NullPointerException("queue must not be null");
+        }
+        if (maxDrainSize <= 0) {
+            throw new IllegalArgumentException("maxDrainSize must be positive. maxDrainSize:" + maxDrainSize);
+        }
         if (executorName == null) {
             throw new NullPointerException("executorName must not be null");
         }
         // BEFORE executeThread start
-        this.maxDrainSize = 10;
+        this.maxDrainSize = maxDrainSize;
+        this.minDrainSize = Math.min(MIN_DRAIN_SIZE, maxDrainSize);
+        this.currentDrainSize = minDrainSize;
         this.drain = new UnsafeArrayCollection<T>(maxDrainSize);
-        this.queue = new LinkedBlockingQueue<T>(queueSize);
+        this.queue = queue;
 
         this.executeThread = this.createExecuteThread(executorName);
         this.executorName = executeThread.getName();
@@ -84,7 +106,8 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         while (isRun()) {
             try {
                 Collection<T> dtoList = getDrainQueue();
-                int drainSize = takeN(dtoList, this.maxDrainSize);
+                int drainSize = takeN(dtoList, this.currentDrainSize);
+                adjustDrainSize(drainSize);
                 if (drainSize > 0) {
                     doExecute(dtoList);
                     continue;
@@ -104,6 +127,15 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         flushQueue();
     }
 
+    // Grow the batch while the queue keeps filling it, shrink it back when the load goes down.
+    private void adjustDrainSize(int lastDrainSize) {
+        if (lastDrainSize >= this.currentDrainSize) {
+            this.currentDrainSize = Math.min(this.currentDrainSize << 1, this.maxDrainSize);
+        } else if (lastDrainSize < (this.currentDrainSize >> 1)) {
+            this.currentDrainSize = Math.max(this.currentDrainSize >> 1, this.minDrainSize);
+        }
+    }
+
     private void flushQueue() {
         boolean debugEnabled = logger.isDebugEnabled();
         if (debugEnabled) {
@@ -143,6 +175,7 @@ public class AsyncQueueingExecutor<T> implements Runnable {
             return false;
         }
         if (!isRun.get()) {
+            dropCount.incrementAndGet();
             if (isWarn) {
                 logger.warn("{} is shutdown. discard data:{}", executorName, data);
             }
@@ -150,6 +183,7 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         }
         boolean offer = queue.offer(data);
         if (!offer) {
+            dropCount.incrementAndGet();
             if (isWarn) {
                 logger.warn("{} Drop data. queue is full. size:{}", executorName, queue.size());
             }
@@ -176,6 +210,20 @@ public class AsyncQueueingExecutor<T> implements Runnable {
         return queue.isEmpty();
     }
 
+    /**
+     * @return number of offers rejected because the queue was full
+     */
+    public long getOverflowCount() {
+        return queue.getOverflowCount();
+    }
+
+    /**
+     * @return number of discarded data. queue overflow and data received after shutdown
+     */
+    public long getDropCount() {
+        return dropCount.get();
+    }
+
     public boolean isRun() {
         return isRun.get();
     }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.util.Collection;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link LinkedBlockingQueue} based queue. default backend of {@link AsyncQueueingExecutor}
+ */
+public class LinkedAsyncQueue<T> implements AsyncQueue<T> {
+
+    private final LinkedBlockingQueue<T> queue;
+    private final int capacity;
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    public LinkedAsyncQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive. capacity:" + capacity);
+        }
+        this.queue = new LinkedBlockingQueue<T>(capacity);
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean offer(T data) {
+        final boolean offer = queue.offer(data);
+        if (!offer) {
+            overflowCount.incrementAndGet();
+        }
+        return offer;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    @Override
+    public int drainTo(Collection<T> drain, int maxDrainSize) {
+        return queue.drainTo(drain, maxDrainSize);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "LinkedAsyncQueue{" +
+                "capacity=" + capacity +
+                ", size=" + queue.size() +
+                ", overflowCount=" + overflowCount.get() +
+                '}';
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer/single-consumer ring buffer.
+ * The slot array is preallocated, so producers neither take a lock nor allocate a node per offer.
+ * Producers claim a slot with a CAS on the producer index and publish the element with an ordered store.
+ * The consumer spins briefly and then parks when the buffer is empty. producers only unpark it while it is parked.
+ *
+ * Caution. {@link #poll(long, TimeUnit)} and {@link #drainTo(Collection, int)} must be called by a single thread.
+ */
+public class MpscRingBufferQueue<T> implements AsyncQueue<T> {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int SPIN_TRIES = 64;
+
+    private final AtomicReferenceArray<T> buffer;
+    private final int mask;
+    private final int capacity;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    // written by the consumer thread only
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    private volatile Thread waitingConsumer;
+
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    public MpscRingBufferQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive. capacity:" + capacity);
+        }
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity too large. capacity:" + capacity);
+        }
+        this.capacity = roundToPowerOfTwo(capacity);
+        this.mask = this.capacity - 1;
+        this.buffer = new AtomicReferenceArray<T>(this.capacity);
+    }
+
+    static int roundToPowerOfTwo(int value) {
+        if (value <= 1) {
+            return 1;
+        }
+        return 1 << (32 - Integer.numberOfLeadingZeros(value - 1));
+    }
+
+    @Override
+    public boolean offer(T data) {
+        if (data == null) {
+            throw new NullPointerException("data must not be null");
+        }
+        long currentProducerIndex;
+        do {
+            currentProducerIndex = producerIndex.get();
+            final long wrapPoint = currentProducerIndex - capacity;
+            if (consumerIndex.get() <= wrapPoint) {
+                overflowCount.incrementAndGet();
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(currentProducerIndex, currentProducerIndex + 1));
+
+        buffer.lazySet(offset(currentProducerIndex), data);
+
+        final Thread waitingConsumer = this.waitingConsumer;
+        if (waitingConsumer != null) {
+            LockSupport.unpark(waitingConsumer);
+        }
+        return true;
+    }
+
+    private int offset(long index) {
+        return (int) (index & mask);
+    }
+
+    T poll() {
+        final long currentConsumerIndex = consumerIndex.get();
+        final int offset = offset(currentConsumerIndex);
+        T data = buffer.get(offset);
+        if (data == null) {
+            if (currentConsumerIndex == producerIndex.get()) {
+                return null;
+            }
+            // slot is claimed but the producer has not published it yet.
+            do {
+                data = buffer.get(offset);
+            } while (data == null);
+        }
+        buffer.lazySet(offset, null);
+        consumerIndex.lazySet(currentConsumerIndex + 1);
+        return data;
+    }
+
+    @Override
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        T data = poll();
+        if (data != null) {
+            return data;
+        }
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int spin = 0;
+        while (true) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            data = poll();
+            if (data != null) {
+                return data;
+            }
+            if (spin < SPIN_TRIES) {
+                spin++;
+                Thread.yield();
+                continue;
+            }
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            this.waitingConsumer = Thread.currentThread();
+            try {
+                // re-check after publishing waitingConsumer. producer reads it after claiming a slot.
+                if (isEmpty()) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+            } finally {
+                this.waitingConsumer = null;
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<T> drain, int maxDrainSize) {
+        int drainSize = 0;
+        while (drainSize < maxDrainSize) {
+            final T data = poll();
+            if (data == null) {
+                break;
+            }
+            drain.add(data);
+            drainSize++;
+        }
+        return drainSize;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return consumerIndex.get() == producerIndex.get();
+    }
+
+    @Override
+    public int size() {
+        final long size = producerIndex.get() - consumerIndex.get();
+        if (size < 0) {
+            return 0;
+        }
+        return (int) Math.min(size, capacity);
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "MpscRingBufferQueue{" +
+                "capacity=" + capacity +
+                ", size=" + size() +
+                ", overflowCount=" + overflowCount.get() +
+                '}';
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import com.navercorp.pinpoint.rpc.PinpointSocketException;
+import com.navercorp.pinpoint.rpc.buffer.ByteBufferFactory;
+import com.navercorp.pinpoint.rpc.buffer.ByteBufferFactoryLocator;
+import com.navercorp.pinpoint.rpc.buffer.ByteBufferType;
+import com.navercorp.pinpoint.thrift.io.ByteBufferOutputStream;
+import com.navercorp.pinpoint.thrift.io.Header;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializer2;
+import com.navercorp.pinpoint.thrift.io.HeaderTBaseSerializerFactory2;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Collection;
+
+/**
+ * Packs several small messages into one datagram up to {@code packetSize}.
+ * Messages drained together by the {@link AsyncQueueingExecutor} are written behind a chunk header,
+ * so packing adds no delay. A message that does not fit into {@code packetSize} is sent alone without the chunk header.
+ * Both the message buffer and the datagram buffer are direct buffers reused for every send.
+ *
+ * only use pair collector that understands chunked datagrams (BaseUDPHandlerFactory)
+ */
+public class PackedUdpDataSender extends AbstractDataSender implements DataSender {
+
+    protected final Logger logger = LoggerFactory.getLogger(this.getClass());
+    protected final boolean isDebug = logger.isDebugEnabled();
+
+    public static final int SOCKET_TIMEOUT = 1000 * 5;
+    public static final int SEND_BUFFER_SIZE = 1024 * 64 * 16;
+    public static final int UDP_MAX_PACKET_LENGTH = 65507;
+    // ethernet MTU(1500) - IP header(20) - UDP header(8)
+    public static final int DEFAULT_PACKET_SIZE = 1472;
+
+    private final DatagramChannel datagramChannel;
+    private final HeaderTBaseSerializer2 serializer;
+    private final Header chunkHeader;
+
+    // Caution. single thread only.
+    private final ByteBufferOutputStream messageOutputStream;
+    private final ByteBuffer packetBuffer;
+    private final int packetSize;
+    private int packedMessageCount = 0;
+
+    private final AsyncQueueingExecutor<Object> executor;
+
+    private volatile boolean closed = false;
+
+    public PackedUdpDataSender(String host, int port, String threadName, int queueSize) {
+        this(host, port, threadName, queueSize, SOCKET_TIMEOUT, SEND_BUFFER_SIZE, AsyncQueueType.LINKED, DEFAULT_PACKET_SIZE);
+    }
+
+    public PackedUdpDataSender(String host, int port, String threadName, int queueSize, int timeout, int sendBufferSize, AsyncQueueType queueType) {
+        this(host, port, threadName, queueSize, timeout, sendBufferSize, queueType, DEFAULT_PACKET_SIZE);
+    }
+
+    public PackedUdpDataSender(String host, int port, String threadName, int queueSize, int timeout, int sendBufferSize, AsyncQueueType queueType, int packetSize) {
+        if (host == null) {
+            throw new NullPointerException("host must not be null");
+        }
+        if (threadName == null) {
+            throw new NullPointerException("threadName must not be null");
+        }
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("queueSize");
+        }
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout");
+        }
+        if (sendBufferSize <= 0) {
+            throw new IllegalArgumentException("sendBufferSize");
+        }
+        if (packetSize <= Header.HEADER_SIZE || packetSize > UDP_MAX_PACKET_LENGTH) {
+            throw new IllegalArgumentException("packetSize out of range:" + packetSize);
+        }
+
+        logger.info("PackedUdpDataSender initialized. host={}, port={}, packetSize={}", host, port, packetSize);
+        this.datagramChannel = createChannel(host, port, timeout, sendBufferSize);
+
+        HeaderTBaseSerializerFactory2 serializerFactory = new HeaderTBaseSerializerFactory2();
+        this.serializer = serializerFactory.createSerializer();
+        this.chunkHeader = serializer.getChunkHeader();
+
+        ByteBufferFactory bufferFactory = ByteBufferFactoryLocator.getFactory(ByteBufferType.DIRECT);
+        this.messageOutputStream = new ByteBufferOutputStream(bufferFactory.getBuffer(UDP_MAX_PACKET_LENGTH));
+        this.packetBuffer = bufferFactory.getBuffer(packetSize);
+        this.packetSize = packetSize;
+
+        this.executor = createAsyncQueueingExecutor(queueSize, threadName, queueType);
+    }
+
+    private DatagramChannel createChannel(String host, int port, int timeout, int sendBufferSize) {
+        DatagramChannel datagramChannel = null;
+        DatagramSocket socket = null;
+        try {
+            datagramChannel = DatagramChannel.open();
+            socket = datagramChannel.socket();
+            socket.setSoTimeout(timeout);
+            socket.setSendBufferSize(sendBufferSize);
+
+            if (logger.isWarnEnabled()) {
+                final int checkSendBufferSize = socket.getSendBufferSize();
+                if (sendBufferSize != checkSendBufferSize) {
+                    logger.warn("DatagramChannel.setSendBufferSize() error. {}!={}", sendBufferSize, checkSendBufferSize);
+                }
+            }
+
+            InetSocketAddress serverAddress = new InetSocketAddress(host, port);
+            datagramChannel.connect(serverAddress);
+
+            return datagramChannel;
+        } catch (IOException e) {
+            if (socket != null) {
+                socket.close();
+            }
+
+            if (datagramChannel != null) {
+                try {
+                    datagramChannel.close();
+                } catch (IOException ignored) {
+                }
+            }
+
+            throw new IllegalStateException("DatagramChannel create fail. Cause" + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean send(TBase<?, ?> data) {
+        return executor.execute(data);
+    }
+
+    @Override
+    public void stop() {
+        try {
+            closed = true;
+            executor.stop();
+        } finally {
+            try {
+                messageOutputStream.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    @Override
+    protected void sendPacketN(Collection<Object> messageList) {
+        // Cannot use toArray(T[] array) because passed messageList doesn't implement it properly.
+        final Object[] dataList = messageList.toArray();
+        final int size = messageList.size();
+        try {
+            for (int i = 0; i < size; i++) {
+                try {
+                    addPacket(dataList[i]);
+                } catch (Throwable th) {
+                    logger.warn("Unexpected Error. Cause:{}", th.getMessage(), th);
+                }
+            }
+        } finally {
+            flushPacket();
+        }
+    }
+
+    @Override
+    protected void sendPacket(Object message) {
+        try {
+            addPacket(message);
+        } finally {
+            flushPacket();
+        }
+    }
+
+    private void addPacket(Object message) {
+        if (closed) {
+            throw new PinpointSocketException("PackedUdpDataSender already closed.");
+        }
+        if (!(message instanceof TBase)) {
+            logger.warn("sendPacket fail. invalid type:{}", message != null ? message.getClass() : null);
+            return;
+        }
+
+        final TBase dto = (TBase) message;
+        messageOutputStream.clear();
+        try {
+            serializer.serialize(dto, messageOutputStream);
+        } catch (TException e) {
+            throw new PinpointSocketException("Serialize " + dto + " failed. Error:" + e.getMessage(), e);
+        }
+        final ByteBuffer messageBuffer = messageOutputStream.getByteBuffer();
+        final int messageSize = messageBuffer.remaining();
+
+        if (messageSize + Header.HEADER_SIZE > packetSize) {
+            // too large to pack. keep the order of messages
+            flushPacket();
+            write(messageBuffer);
+            return;
+        }
+
+        if (packetBuffer.position() + messageSize > packetSize) {
+            flushPacket();
+        }
+        if (packedMessageCount == 0) {
+            writeChunkHeader(packetBuffer);
+        }
+        packetBuffer.put(messageBuffer);
+        packedMessageCount++;
+    }
+
+    private void writeChunkHeader(ByteBuffer buffer) {
+        buffer.put(chunkHeader.getSignature());
+        buffer.put(chunkHeader.getVersion());
+        // same byte order as BytesUtils.writeShort1(), writeShort2()
+        buffer.putShort(chunkHeader.getType());
+    }
+
+    private void flushPacket() {
+        if (packedMessageCount == 0) {
+            return;
+        }
+        packetBuffer.flip();
+        if (packedMessageCount == 1) {
+            // a single message does not need the chunk header
+            packetBuffer.position(Header.HEADER_SIZE);
+        }
+        if (isDebug) {
+            logger.debug("send packed datagram. messageCount:{}, size:{}", packedMessageCount, packetBuffer.remaining());
+        }
+        try {
+            write(packetBuffer);
+        } finally {
+            packetBuffer.clear();
+            packedMessageCount = 0;
+        }
+    }
+
+    private void write(ByteBuffer byteBuffer) {
+        final int bufferSize = byteBuffer.remaining();
+        try {
+            datagramChannel.write(byteBuffer);
+        } catch (IOException e) {
+            final Thread currentThread = Thread.currentThread();
+            if (currentThread.isInterrupted()) {
+                logger.warn("{} thread interrupted.", currentThread.getName());
+                throw new PinpointSocketException(currentThread.getName() + " thread interrupted.", e);
+            } else {
+                throw new PinpointSocketException("packet send error. size:" + bufferSize, e);
+            }
+        }
+    }
+
+}
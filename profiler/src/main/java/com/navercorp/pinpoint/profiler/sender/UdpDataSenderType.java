@@ -23,6 +23,8 @@ package com.navercorp.pinpoint.profiler.sender;
 public enum UdpDataSenderType {
 
     OIO,
-    NIO
+    NIO,
+    // NIO sender that packs several messages into one datagram. see PackedUdpDataSender
+    PACKED
 
 }
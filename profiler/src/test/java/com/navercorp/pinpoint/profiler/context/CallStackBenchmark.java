@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context;
+
+import com.navercorp.pinpoint.profiler.context.id.DefaultTraceId;
+import com.navercorp.pinpoint.profiler.context.id.DefaultTraceRoot;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation per traced call of {@link CallStackFactoryV1}, {@link CallStackFactoryV2}
+ * and the same call stacks backed by a {@link SpanEventPool}.
+ * Each invocation traces one request of {@link #callCount} nested calls and hands the SpanEvents over
+ * the way BufferedStorage does; the recycling modes release them as the sender would after serialization.
+ * run with {@link #main(String[])} on the test classpath, the gc profiler reports gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CallStackBenchmark {
+
+    private static final int MAX_DEPTH = 64;
+    private static final int POOL_SIZE = 1024;
+
+    @Param({"V1", "V2", "V1_RECYCLE", "V2_RECYCLE"})
+    public String mode;
+
+    @Param({"8", "32"})
+    public int callCount;
+
+    private CallStackFactory callStackFactory;
+    private SpanEventPool spanEventPool;
+    private TraceRoot traceRoot;
+    private List<SpanEvent> storage;
+
+    @Setup
+    public void setup() {
+        this.spanEventPool = new SpanEventPool(mode.endsWith("_RECYCLE") ? POOL_SIZE : 0);
+        if (mode.startsWith("V1")) {
+            this.callStackFactory = new CallStackFactoryV1(MAX_DEPTH, spanEventPool);
+        } else {
+            this.callStackFactory = new CallStackFactoryV2(MAX_DEPTH, spanEventPool);
+        }
+        this.traceRoot = new DefaultTraceRoot(new DefaultTraceId("agentId", 0, 1), "agentId", 0, 1);
+        this.storage = new ArrayList<SpanEvent>(POOL_SIZE);
+    }
+
+    @Benchmark
+    public int traceCalls() {
+        final CallStack callStack = callStackFactory.newCallStack(traceRoot);
+        for (int i = 0; i < callCount; i++) {
+            final SpanEvent spanEvent = callStack.newSpanEvent();
+            spanEvent.markStartTime();
+            callStack.push(spanEvent);
+        }
+        for (int i = 0; i < callCount; i++) {
+            final SpanEvent spanEvent = callStack.pop();
+            spanEvent.markAfterTime();
+            storage.add(spanEvent);
+        }
+        final int size = storage.size();
+        for (int i = 0; i < size; i++) {
+            spanEventPool.release(storage.get(i));
+        }
+        storage.clear();
+        return size;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CallStackBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
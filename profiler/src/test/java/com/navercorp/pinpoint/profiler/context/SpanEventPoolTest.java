@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.profiler.context;
+
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import com.navercorp.pinpoint.thrift.dto.TAnnotation;
+import com.navercorp.pinpoint.thrift.dto.TSpanEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.mock;
+
+public class SpanEventPoolTest {
+
+    private final TraceRoot traceRoot = mock(TraceRoot.class);
+
+    @Test
+    public void disabledPoolAllocates() {
+        SpanEventPool pool = new SpanEventPool(0);
+        Assert.assertFalse(pool.isEnabled());
+
+        SpanEvent spanEvent = pool.newSpanEvent(traceRoot);
+        pool.release(spanEvent);
+
+        Assert.assertNotSame(spanEvent, pool.newSpanEvent(traceRoot));
+        Assert.assertEquals(0, pool.getReleasedSize());
+    }
+
+    @Test
+    public void recycleSpanEvent() {
+        SpanEventPool pool = new SpanEventPool(16);
+        SpanEvent spanEvent = pool.newSpanEvent(traceRoot);
+        spanEvent.markStartTime();
+        spanEvent.setStackId(7);
+        spanEvent.setDepth(3);
+        spanEvent.setEndElapsed(10);
+        spanEvent.setApiId(100);
+        spanEvent.addAnnotation(new Annotation(1, "value"));
+        spanEvent.attachFrameObject("frame");
+
+        pool.release(spanEvent);
+        Assert.assertEquals(1, pool.getReleasedSize());
+
+        TraceRoot newTraceRoot = mock(TraceRoot.class);
+        SpanEvent recycled = pool.newSpanEvent(newTraceRoot);
+        Assert.assertSame(spanEvent, recycled);
+        Assert.assertSame(newTraceRoot, recycled.getTraceRoot());
+        Assert.assertEquals(0, recycled.getStartTime());
+        Assert.assertEquals(0, recycled.getStackId());
+        Assert.assertNull(recycled.getFrameObject());
+        Assert.assertNull(recycled.getAnnotations());
+        Assert.assertFalse(recycled.isSetDepth());
+        Assert.assertFalse(recycled.isSetEndElapsed());
+        Assert.assertFalse(recycled.isSetApiId());
+        Assert.assertEquals(new TSpanEvent(), recycled);
+    }
+
+    @Test
+    public void releaseSentMessage() {
+        SpanEventPool pool = new SpanEventPool(16);
+        SpanEvent spanEvent1 = pool.newSpanEvent(traceRoot);
+        SpanEvent spanEvent2 = pool.newSpanEvent(traceRoot);
+        SpanChunk spanChunk = new SpanChunk(Arrays.asList(spanEvent1, spanEvent2));
+
+        pool.release(spanChunk);
+        Assert.assertEquals(2, pool.getReleasedSize());
+
+        pool.release(Collections.emptyList());
+        Assert.assertEquals(2, pool.getReleasedSize());
+    }
+
+    @Test
+    public void dropWhenFull() {
+        SpanEventPool pool = new SpanEventPool(1);
+        pool.release(new SpanEvent(traceRoot));
+        pool.release(new SpanEvent(traceRoot));
+
+        Assert.assertEquals(1, pool.getReleasedSize());
+    }
+
+    @Test
+    public void localCacheBatch() {
+        SpanEventPool pool = new SpanEventPool(SpanEventPool.LOCAL_BATCH_SIZE * 2);
+        for (int i = 0; i < SpanEventPool.LOCAL_BATCH_SIZE * 2; i++) {
+            pool.release(new SpanEvent(traceRoot));
+        }
+
+        pool.newSpanEvent(traceRoot);
+        Assert.assertEquals(SpanEventPool.LOCAL_BATCH_SIZE, pool.getReleasedSize());
+    }
+}
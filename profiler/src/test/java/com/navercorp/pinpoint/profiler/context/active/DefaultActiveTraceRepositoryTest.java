@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.active;
+
+import com.navercorp.pinpoint.profiler.monitor.metric.response.ResponseTimeCollector;
+import com.navercorp.pinpoint.profiler.monitor.metric.response.ResponseTimeValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DefaultActiveTraceRepositoryTest {
+
+    @Test
+    public void registerAndPurge() {
+        RecordingResponseTimeCollector responseTimeCollector = new RecordingResponseTimeCollector();
+        ActiveTraceRepository repository = new DefaultActiveTraceRepository(responseTimeCollector);
+
+        ActiveTraceHandle handle1 = repository.register(1, 1000, 1);
+        ActiveTraceHandle handle2 = repository.register(2, 2000, 1);
+        repository.register(3, 3000, 2);
+        Assert.assertEquals(3, repository.snapshot().size());
+        Assert.assertEquals(3, repository.getThreadIdList().size());
+
+        handle1.purge(1500);
+        Assert.assertEquals(2, repository.snapshot().size());
+        // already purged
+        handle1.purge(1600);
+
+        handle2.purge(2100);
+        List<ActiveTraceSnapshot> snapshots = repository.snapshot();
+        Assert.assertEquals(1, snapshots.size());
+        Assert.assertEquals(3, snapshots.get(0).getLocalTransactionId());
+        Assert.assertEquals(2, snapshots.get(0).getThreadId());
+
+        Assert.assertEquals(2, responseTimeCollector.values.size());
+        Assert.assertEquals(500L, responseTimeCollector.values.get(0).longValue());
+        Assert.assertEquals(100L, responseTimeCollector.values.get(1).longValue());
+    }
+
+    @Test
+    public void activeTraceHistogram() {
+        ActiveTraceRepository repository = new DefaultActiveTraceRepository(new RecordingResponseTimeCollector());
+        final long currentTime = 100000;
+
+        repository.register(1, currentTime - 100, 1);
+        repository.register(2, currentTime - 200, 2);
+        repository.register(3, currentTime - 2000, 3);
+        repository.register(4, currentTime - 4000, 4);
+        repository.register(5, currentTime - 10000, 5);
+        repository.register(6, currentTime - 20000, 5);
+        // not started
+        repository.register(7, 0, 6);
+
+        ActiveTraceHistogram histogram = repository.getActiveTraceHistogram(currentTime);
+        Assert.assertEquals(2, histogram.getFastCount());
+        Assert.assertEquals(1, histogram.getNormalCount());
+        Assert.assertEquals(1, histogram.getSlowCount());
+        Assert.assertEquals(2, histogram.getVerySlowCount());
+    }
+
+    @Test
+    public void emptyActiveTraceHistogram() {
+        ActiveTraceRepository repository = new DefaultActiveTraceRepository(new RecordingResponseTimeCollector());
+        ActiveTraceHandle handle = repository.register(1, 1000, 1);
+        handle.purge(2000);
+
+        ActiveTraceHistogram histogram = repository.getActiveTraceHistogram(3000);
+        Assert.assertEquals(0, histogram.getFastCount());
+        Assert.assertEquals(0, histogram.getVerySlowCount());
+        Assert.assertTrue(repository.snapshot().isEmpty());
+    }
+
+    @Test
+    public void evictOldestWhenFull() {
+        RecordingResponseTimeCollector responseTimeCollector = new RecordingResponseTimeCollector();
+        ActiveTraceRepository repository = new DefaultActiveTraceRepository(responseTimeCollector, 1);
+
+        ActiveTraceHandle evicted = repository.register(1, 1000, 1);
+        repository.register(2, 2000, 1);
+
+        List<ActiveTraceSnapshot> snapshots = repository.snapshot();
+        Assert.assertEquals(1, snapshots.size());
+        Assert.assertEquals(2, snapshots.get(0).getLocalTransactionId());
+
+        evicted.purge(3000);
+        Assert.assertEquals(1, repository.snapshot().size());
+        Assert.assertTrue(responseTimeCollector.values.isEmpty());
+    }
+
+    @Test
+    public void limitIsSharedByAllStripes() {
+        ActiveTraceRepository repository = new DefaultActiveTraceRepository(new RecordingResponseTimeCollector(), 128);
+
+        // a single thread maps every trace to the same stripe
+        final List<ActiveTraceHandle> handles = new ArrayList<ActiveTraceHandle>();
+        for (int i = 0; i < 128; i++) {
+            handles.add(repository.register(i, 1000 + i, 1));
+        }
+        Assert.assertEquals(128, repository.snapshot().size());
+
+        // the oldest trace is evicted across stripes
+        repository.register(1000, 500, 2);
+        repository.register(1001, 5000, 3);
+        List<ActiveTraceSnapshot> snapshots = repository.snapshot();
+        Assert.assertEquals(128, snapshots.size());
+        for (ActiveTraceSnapshot snapshot : snapshots) {
+            Assert.assertNotEquals(1000, snapshot.getLocalTransactionId());
+            Assert.assertNotEquals(0, snapshot.getLocalTransactionId());
+        }
+
+        // purging frees room for new traces
+        handles.get(10).purge(2000);
+        repository.register(1002, 6000, 4);
+        Assert.assertEquals(128, repository.snapshot().size());
+    }
+
+    private static class RecordingResponseTimeCollector implements ResponseTimeCollector {
+        private final List<Long> values = new ArrayList<Long>();
+
+        @Override
+        public void add(long value) {
+            values.add(value);
+        }
+
+        @Override
+        public ResponseTimeValue resetAndGetValue() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
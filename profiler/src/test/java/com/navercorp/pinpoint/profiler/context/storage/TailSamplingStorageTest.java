@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.context.storage;
+
+import com.navercorp.pinpoint.bootstrap.context.TraceId;
+import com.navercorp.pinpoint.common.trace.AnnotationKey;
+import com.navercorp.pinpoint.profiler.context.Annotation;
+import com.navercorp.pinpoint.profiler.context.Span;
+import com.navercorp.pinpoint.profiler.context.SpanEvent;
+import com.navercorp.pinpoint.profiler.context.id.DefaultTraceId;
+import com.navercorp.pinpoint.profiler.context.id.DefaultTraceRoot;
+import com.navercorp.pinpoint.profiler.context.id.TraceRoot;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TailSamplingStorageTest {
+
+    private final String agentId = "agentId";
+    private final long agentStartTime = System.currentTimeMillis();
+
+    private Storage delegate;
+    private TraceRoot traceRoot;
+    private TailSamplingStorageFactory storageFactory;
+
+    @Before
+    public void setUp() {
+        TraceId traceId = new DefaultTraceId(agentId, agentStartTime, 100);
+        traceRoot = new DefaultTraceRoot(traceId, agentId, agentStartTime, 100);
+
+        delegate = mock(Storage.class);
+        StorageFactory delegateFactory = mock(StorageFactory.class);
+        when(delegateFactory.createStorage(any(TraceRoot.class))).thenReturn(delegate);
+        storageFactory = new TailSamplingStorageFactory(delegateFactory, 1000, 2);
+    }
+
+    @Test
+    public void tailSamplingFlagPropagatesToNextTraceId() {
+        TraceId traceId = new DefaultTraceId(agentId, agentStartTime, 100, TailSamplingStorageFactory.TAIL_SAMPLING_FLAG);
+        Assert.assertTrue(TailSamplingStorageFactory.isTailSampling(traceId));
+        Assert.assertTrue(TailSamplingStorageFactory.isTailSampling(traceId.getNextTraceId()));
+
+        Assert.assertFalse(TailSamplingStorageFactory.isTailSampling(traceRoot.getTraceId()));
+        Assert.assertFalse(TailSamplingStorageFactory.isTailSampling(traceRoot.getTraceId().getNextTraceId()));
+    }
+
+    @Test
+    public void discardFastTransaction() {
+        Storage storage = storageFactory.createStorage(traceRoot);
+        storage.store(new SpanEvent(traceRoot));
+        storage.flush();
+        storage.store(newSpan(10));
+        storage.close();
+
+        verify(delegate, never()).store(any(SpanEvent.class));
+        verify(delegate, never()).store(any(Span.class));
+        verify(delegate, never()).flush();
+        verify(delegate).close();
+        Assert.assertEquals(1, storageFactory.getDiscardedCount());
+        Assert.assertEquals(0, storageFactory.getPromotedCount());
+    }
+
+    @Test
+    public void promoteSlowTransaction() {
+        Storage storage = storageFactory.createStorage(traceRoot);
+        storage.store(new SpanEvent(traceRoot));
+        Span span = newSpan(1000);
+        storage.store(span);
+
+        verify(delegate, times(1)).store(any(SpanEvent.class));
+        verify(delegate).store(span);
+        Assert.assertEquals(1, storageFactory.getPromotedCount());
+    }
+
+    @Test
+    public void promoteSpanEventException() {
+        Storage storage = storageFactory.createStorage(traceRoot);
+        SpanEvent spanEvent = new SpanEvent(traceRoot);
+        spanEvent.setExceptionInfo(1, "error");
+        storage.store(spanEvent);
+        storage.store(newSpan(10));
+
+        verify(delegate).store(spanEvent);
+        verify(delegate).store(any(Span.class));
+    }
+
+    @Test
+    public void promoteErrorCode() {
+        Storage storage = storageFactory.createStorage(traceRoot);
+        traceRoot.getShared().maskErrorCode(1);
+        storage.store(newSpan(10));
+
+        verify(delegate).store(any(Span.class));
+    }
+
+    @Test
+    public void maxSpanEventSize() {
+        Storage storage = storageFactory.createStorage(traceRoot);
+        storage.store(new SpanEvent(traceRoot));
+        storage.store(new SpanEvent(traceRoot));
+        storage.store(new SpanEvent(traceRoot));
+        Span span = newSpan(2000);
+        storage.store(span);
+
+        verify(delegate, times(2)).store(any(SpanEvent.class));
+        verify(delegate).store(span);
+        Assert.assertEquals(1, span.getAnnotationsSize());
+        Annotation annotation = (Annotation) span.getAnnotations().get(0);
+        Assert.assertEquals(AnnotationKey.TAIL_SAMPLING_DROPPED_SPAN_EVENT.getCode(), annotation.getKey());
+        Assert.assertEquals(1, annotation.getValue().getIntValue());
+        Assert.assertEquals(1, storageFactory.getDroppedSpanEventCount());
+    }
+
+    @Test
+    public void maxSpanEventSize_notPromoted() {
+        Storage storage = storageFactory.createStorage(traceRoot);
+        storage.store(new SpanEvent(traceRoot));
+        storage.store(new SpanEvent(traceRoot));
+        storage.store(new SpanEvent(traceRoot));
+        Span span = newSpan(10);
+        storage.store(span);
+
+        verify(delegate, never()).store(any(Span.class));
+        Assert.assertEquals(0, span.getAnnotationsSize());
+        Assert.assertEquals(0, storageFactory.getDroppedSpanEventCount());
+    }
+
+    private Span newSpan(int elapsed) {
+        Span span = new Span(traceRoot);
+        span.setElapsed(elapsed);
+        return span;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.instrument.classreading;
+
+import com.google.common.base.Ticker;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class InternalClassMetadataCacheTest {
+
+    @Test
+    public void readOnce() {
+        CountingClassLoader classLoader = new CountingClassLoader();
+        InternalClassMetadataCache cache = new InternalClassMetadataCache(16);
+
+        InternalClassMetadata classMetadata = cache.getClassMetadata(classLoader, "java/lang/Thread");
+        assertEquals("java/lang/Thread", classMetadata.getClassInternalName());
+        assertEquals("java/lang/Object", classMetadata.getSuperClassInternalName());
+        assertSame(classMetadata, cache.getClassMetadata(classLoader, "java/lang/Thread"));
+        assertEquals(1, classLoader.readCount.get());
+
+        // per class loader.
+        CountingClassLoader otherClassLoader = new CountingClassLoader();
+        cache.getClassMetadata(otherClassLoader, "java/lang/Thread");
+        assertEquals(1, otherClassLoader.readCount.get());
+    }
+
+    @Test
+    public void notFound() {
+        CountingClassLoader classLoader = new CountingClassLoader();
+        InternalClassMetadataCache cache = new InternalClassMetadataCache(16);
+
+        assertNull(cache.getClassMetadata(classLoader, "com/navercorp/pinpoint/NotExist"));
+        assertNull(cache.getClassMetadata(classLoader, "com/navercorp/pinpoint/NotExist"));
+        assertEquals(1, classLoader.readCount.get());
+    }
+
+    @Test
+    public void notFoundExpires() {
+        CountingClassLoader classLoader = new CountingClassLoader();
+        ManualTicker ticker = new ManualTicker();
+        InternalClassMetadataCache cache = new InternalClassMetadataCache(16, ticker);
+
+        assertNull(cache.getClassMetadata(classLoader, "com/navercorp/pinpoint/NotExist"));
+        ticker.nanos += TimeUnit.SECONDS.toNanos(1);
+        assertNull(cache.getClassMetadata(classLoader, "com/navercorp/pinpoint/NotExist"));
+        assertEquals(1, classLoader.readCount.get());
+
+        ticker.nanos += TimeUnit.MINUTES.toNanos(1);
+        assertNull(cache.getClassMetadata(classLoader, "com/navercorp/pinpoint/NotExist"));
+        assertEquals(2, classLoader.readCount.get());
+    }
+
+    @Test
+    public void putAfterNotFound() {
+        CountingClassLoader classLoader = new CountingClassLoader();
+        InternalClassMetadataCache cache = new InternalClassMetadataCache(16);
+        InternalClassMetadata classMetadata = new DefaultInternalClassMetadata("com/navercorp/pinpoint/Defined", "java/lang/Object", null, null, false, false, false, false);
+
+        assertNull(cache.getClassMetadata(classLoader, "com/navercorp/pinpoint/Defined"));
+        cache.put(classLoader, classMetadata);
+        assertSame(classMetadata, cache.getClassMetadata(classLoader, "com/navercorp/pinpoint/Defined"));
+    }
+
+    @Test
+    public void put() {
+        CountingClassLoader classLoader = new CountingClassLoader();
+        InternalClassMetadataCache cache = new InternalClassMetadataCache(16);
+        InternalClassMetadata classMetadata = new DefaultInternalClassMetadata("com/navercorp/pinpoint/Loading", "java/lang/Object", null, null, false, false, false, false);
+
+        cache.put(classLoader, classMetadata);
+        assertSame(classMetadata, cache.getClassMetadata(classLoader, "com/navercorp/pinpoint/Loading"));
+        assertEquals(0, classLoader.readCount.get());
+    }
+
+    @Test
+    public void disabled() {
+        CountingClassLoader classLoader = new CountingClassLoader();
+        InternalClassMetadataCache cache = new InternalClassMetadataCache(0);
+
+        cache.getClassMetadata(classLoader, "java/lang/Thread");
+        cache.getClassMetadata(classLoader, "java/lang/Thread");
+        assertEquals(2, classLoader.readCount.get());
+    }
+
+    private static class ManualTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+    }
+
+    private static class CountingClassLoader extends ClassLoader {
+        private final AtomicInteger readCount = new AtomicInteger();
+
+        private CountingClassLoader() {
+            super(CountingClassLoader.class.getClassLoader());
+        }
+
+        @Override
+        public InputStream getResourceAsStream(String name) {
+            readCount.incrementAndGet();
+            return super.getResourceAsStream(name);
+        }
+    }
+}
@@ -16,12 +16,20 @@
 
 package com.navercorp.pinpoint.profiler.instrument.transformer;
 
+import com.navercorp.pinpoint.bootstrap.config.DefaultProfilerConfig;
+import com.navercorp.pinpoint.bootstrap.instrument.matcher.Matchers;
 import com.navercorp.pinpoint.bootstrap.instrument.matcher.operand.MatcherOperand;
 import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
 
 import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
 
 /**
  * @author jaehong.kim
@@ -36,6 +44,39 @@ public class MatchableTransformerRegistryTest {
         value.accumulatorTime(startTime);
     }
 
+    @Test
+    public void findPackageBasedTransformer() {
+        MatchableTransformerRegistry registry = new MatchableTransformerRegistry(new DefaultProfilerConfig());
+        ClassFileTransformer fooTransformer = new TestTransformer();
+        ClassFileTransformer barTransformer = new TestTransformer();
+        ClassFileTransformer bazTransformer = new TestTransformer();
+        // same length packages.
+        registry.addTransformer(Matchers.newPackageBasedMatcher("com.foo"), fooTransformer);
+        registry.addTransformer(Matchers.newPackageBasedMatcher("com.bar"), barTransformer);
+        registry.addTransformer(Matchers.newPackageBasedMatcher("org.baz.service"), bazTransformer);
+
+        assertSame(fooTransformer, findTransformer(registry, "com/foo/Service"));
+        assertSame(barTransformer, findTransformer(registry, "com/bar/Service"));
+        assertSame(barTransformer, findTransformer(registry, "com/bar/sub/Service"));
+        assertSame(bazTransformer, findTransformer(registry, "org/baz/service/Service"));
+        assertNull(findTransformer(registry, "org/baz/Service"));
+        assertNull(findTransformer(registry, "com/Service"));
+    }
+
+    private ClassFileTransformer findTransformer(MatchableTransformerRegistry registry, String classInternalName) {
+        ClassWriter classWriter = new ClassWriter(0);
+        classWriter.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, classInternalName, null, "java/lang/Object", null);
+        classWriter.visitEnd();
+        return registry.findTransformer(null, classInternalName, classWriter.toByteArray());
+    }
+
+    private static class TestTransformer implements ClassFileTransformer {
+        @Override
+        public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined, ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+            return null;
+        }
+    }
+
 
     class IndexValue {
         final MatcherOperand operand;
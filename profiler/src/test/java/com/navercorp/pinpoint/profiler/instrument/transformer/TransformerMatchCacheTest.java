@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.instrument.transformer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransformerMatchCacheTest {
+
+    private File dir;
+    private File cacheFile;
+    private File jarFile;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("transformer-match-cache", "");
+        dir.delete();
+        dir.mkdirs();
+        cacheFile = new File(dir, "match.cache");
+        jarFile = new File(dir, "test.jar");
+        write(jarFile, "jar content");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void restoreUnmatchedClasses() throws Exception {
+        ProtectionDomain protectionDomain = newProtectionDomain(jarFile.toURI().toURL());
+
+        TransformerMatchCache cache = new TransformerMatchCache(cacheFile, "matchers");
+        assertFalse(cache.isUnmatched(protectionDomain, "com/test/Foo"));
+        cache.putUnmatched(protectionDomain, "com/test/Foo");
+        // not used until restart.
+        assertFalse(cache.isUnmatched(protectionDomain, "com/test/Foo"));
+        cache.save();
+        assertTrue(cacheFile.exists());
+
+        TransformerMatchCache restartedCache = new TransformerMatchCache(cacheFile, "matchers");
+        assertTrue(restartedCache.isUnmatched(protectionDomain, "com/test/Foo"));
+        assertFalse(restartedCache.isUnmatched(protectionDomain, "com/test/Bar"));
+    }
+
+    @Test
+    public void changedMatchers() throws Exception {
+        ProtectionDomain protectionDomain = newProtectionDomain(jarFile.toURI().toURL());
+
+        TransformerMatchCache cache = new TransformerMatchCache(cacheFile, "matchers");
+        cache.putUnmatched(protectionDomain, "com/test/Foo");
+        cache.save();
+
+        TransformerMatchCache restartedCache = new TransformerMatchCache(cacheFile, "changed matchers");
+        assertFalse(restartedCache.isUnmatched(protectionDomain, "com/test/Foo"));
+    }
+
+    @Test
+    public void changedJar() throws Exception {
+        ProtectionDomain protectionDomain = newProtectionDomain(jarFile.toURI().toURL());
+
+        TransformerMatchCache cache = new TransformerMatchCache(cacheFile, "matchers");
+        cache.putUnmatched(protectionDomain, "com/test/Foo");
+        cache.save();
+
+        write(jarFile, "new jar content");
+        TransformerMatchCache restartedCache = new TransformerMatchCache(cacheFile, "matchers");
+        assertFalse(restartedCache.isUnmatched(protectionDomain, "com/test/Foo"));
+    }
+
+    @Test
+    public void touchedJar() throws Exception {
+        ProtectionDomain protectionDomain = newProtectionDomain(jarFile.toURI().toURL());
+        jarFile.setLastModified(1000000L);
+
+        TransformerMatchCache cache = new TransformerMatchCache(cacheFile, "matchers");
+        cache.putUnmatched(protectionDomain, "com/test/Foo");
+        cache.save();
+
+        // same size, only the modification time tells the jars apart
+        write(jarFile, "jar CONTENT");
+        jarFile.setLastModified(2000000L);
+        TransformerMatchCache restartedCache = new TransformerMatchCache(cacheFile, "matchers");
+        assertFalse(restartedCache.isUnmatched(protectionDomain, "com/test/Foo"));
+    }
+
+    @Test
+    public void notCacheableLocation() throws Exception {
+        ProtectionDomain directory = newProtectionDomain(dir.toURI().toURL());
+        ProtectionDomain nestedJar = newProtectionDomain(new URL("jar:" + jarFile.toURI().toURL() + "!/lib/nested.jar"));
+
+        TransformerMatchCache cache = new TransformerMatchCache(cacheFile, "matchers");
+        cache.putUnmatched(directory, "com/test/Foo");
+        cache.putUnmatched(nestedJar, "com/test/Foo");
+        cache.putUnmatched(null, "com/test/Foo");
+        cache.save();
+
+        TransformerMatchCache restartedCache = new TransformerMatchCache(cacheFile, "matchers");
+        assertFalse(restartedCache.isUnmatched(directory, "com/test/Foo"));
+        assertFalse(restartedCache.isUnmatched(nestedJar, "com/test/Foo"));
+        assertFalse(restartedCache.isUnmatched(null, "com/test/Foo"));
+    }
+
+    private ProtectionDomain newProtectionDomain(URL location) {
+        return new ProtectionDomain(new CodeSource(location, (Certificate[]) null), null);
+    }
+
+    private void write(File file, String content) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
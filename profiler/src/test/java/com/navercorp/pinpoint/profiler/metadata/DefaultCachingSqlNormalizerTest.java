@@ -60,4 +60,55 @@ public class DefaultCachingSqlNormalizerTest {
         boolean newCache_parsingResult1_recached = normalizer.normalizedSql(parsingResult1_recached);
         Assert.assertTrue(newCache_parsingResult1_recached);
     }
+
+    @Test
+    public void testNormalizedSql_sameFingerprint() throws Exception {
+        CachingSqlNormalizer normalizer = new DefaultCachingSqlNormalizer(10);
+        ParsingResult parsingResult1 = normalizer.wrapSql("select * from table where a = 1 and b = 'foo'");
+        Assert.assertTrue(normalizer.normalizedSql(parsingResult1));
+
+        ParsingResult parsingResult2 = normalizer.wrapSql("select * from table where a = 20 and b = 'bar'");
+        Assert.assertFalse(normalizer.normalizedSql(parsingResult2));
+
+        Assert.assertEquals(parsingResult1.getId(), parsingResult2.getId());
+        Assert.assertSame(parsingResult1.getSql(), parsingResult2.getSql());
+        Assert.assertEquals("select * from table where a = 0# and b = '1$'", parsingResult2.getSql());
+        Assert.assertEquals("1,foo", parsingResult1.getOutput());
+        Assert.assertEquals("20,bar", parsingResult2.getOutput());
+
+        SqlCacheMetric sqlCacheMetric = normalizer.getSqlCacheMetric();
+        Assert.assertEquals(1, sqlCacheMetric.getHitCount());
+        Assert.assertEquals(1, sqlCacheMetric.getMissCount());
+        Assert.assertEquals(50, sqlCacheMetric.getHitRatio());
+    }
+
+    @Test
+    public void testNormalizedSql_notModified() throws Exception {
+        CachingSqlNormalizer normalizer = new DefaultCachingSqlNormalizer(10);
+        String sql = "select * from table where a = ?";
+        ParsingResult parsingResult = normalizer.wrapSql(sql);
+        Assert.assertTrue(normalizer.normalizedSql(parsingResult));
+
+        Assert.assertSame(sql, parsingResult.getSql());
+        Assert.assertEquals("", parsingResult.getOutput());
+    }
+
+    @Test
+    public void testSqlCacheMetric_parseTime() throws Exception {
+        SqlCacheMetric sqlCacheMetric = new SqlCacheMetric();
+        sqlCacheMetric.miss(200);
+        sqlCacheMetric.hit(100);
+        Assert.assertEquals(300, sqlCacheMetric.getParseTimeNanos());
+    }
+
+    @Test
+    public void testSqlCacheMetric_reportTime() throws Exception {
+        SqlCacheMetric sqlCacheMetric = new SqlCacheMetric();
+        long currentTime = System.currentTimeMillis();
+        Assert.assertFalse(sqlCacheMetric.isReportTime(currentTime));
+
+        long reportTime = currentTime + SqlCacheMetric.REPORT_INTERVAL_MILLIS;
+        Assert.assertTrue(sqlCacheMetric.isReportTime(reportTime));
+        Assert.assertFalse(sqlCacheMetric.isReportTime(reportTime));
+    }
 }
\ No newline at end of file
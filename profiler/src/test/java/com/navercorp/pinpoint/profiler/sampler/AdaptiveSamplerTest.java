@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sampler;
+
+import com.navercorp.pinpoint.common.util.MockClock;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveSamplerTest {
+
+    @Test
+    public void sampleUpToTargetInFirstWindow() {
+        MockClock clock = new MockClock();
+        clock.setTime(1000);
+        AdaptiveSampler sampler = new AdaptiveSampler(10, clock);
+
+        Assert.assertEquals(10, countSampled(sampler, 100));
+    }
+
+    @Test
+    public void adjustSamplingRate() {
+        MockClock clock = new MockClock();
+        clock.setTime(1000);
+        AdaptiveSampler sampler = new AdaptiveSampler(10, clock);
+
+        countSampled(sampler, 100);
+        clock.setTime(2000);
+        sampler.isSampling();
+        Assert.assertEquals(10, sampler.getSamplingRate());
+
+        // 100 tps keeps the rate, the first request of the window was consumed above
+        Assert.assertEquals(10, countSampled(sampler, 99) + 1);
+
+        // throughput drops
+        clock.setTime(3000);
+        countSampled(sampler, 5);
+        clock.setTime(4000);
+        sampler.isSampling();
+        clock.setTime(5000);
+        sampler.isSampling();
+        Assert.assertTrue(sampler.getSamplingRate() < 10);
+    }
+
+    @Test
+    public void idleWindow() {
+        MockClock clock = new MockClock();
+        clock.setTime(1000);
+        AdaptiveSampler sampler = new AdaptiveSampler(10, clock);
+        countSampled(sampler, 1000);
+
+        clock.setTime(101000);
+        sampler.isSampling();
+        Assert.assertEquals(1, sampler.getSamplingRate());
+    }
+
+    @Test
+    public void computeSamplingRate() {
+        Assert.assertEquals(1, AdaptiveSampler.computeSamplingRate(0, 10));
+        Assert.assertEquals(1, AdaptiveSampler.computeSamplingRate(10, 10));
+        Assert.assertEquals(2, AdaptiveSampler.computeSamplingRate(11, 10));
+        Assert.assertEquals(Integer.MAX_VALUE, AdaptiveSampler.computeSamplingRate(Double.MAX_VALUE, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTargetTps() {
+        new AdaptiveSampler(0);
+    }
+
+    private int countSampled(AdaptiveSampler sampler, int requestCount) {
+        int sampled = 0;
+        for (int i = 0; i < requestCount; i++) {
+            if (sampler.isSampling()) {
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+}
@@ -42,4 +42,12 @@ public class SamplerFactoryTest {
         boolean sampling = sampler.isSampling();
         Assert.assertFalse(sampling);
     }
+
+    @Test
+    public void createAdaptiveSampler() {
+        SamplerFactory samplerFactory = new SamplerFactory();
+        Assert.assertTrue(samplerFactory.createAdaptiveSampler(true, 10) instanceof AdaptiveSampler);
+        Assert.assertTrue(samplerFactory.createAdaptiveSampler(true, 0) instanceof FalseSampler);
+        Assert.assertTrue(samplerFactory.createAdaptiveSampler(false, 10) instanceof FalseSampler);
+    }
 }
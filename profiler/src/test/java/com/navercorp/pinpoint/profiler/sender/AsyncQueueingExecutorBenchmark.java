@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer side cost of the {@link AsyncQueue} backends of {@link AsyncQueueingExecutor}.
+ * Request threads are the producers, so the benchmark measures offers from several threads
+ * while a single consumer thread drains the queue the same way the executor does.
+ * run with {@link #main(String[])} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AsyncQueueingExecutorBenchmark {
+
+    @Param({"LINKED", "RING_BUFFER"})
+    public String queueType;
+
+    private AsyncQueue<Object> queue;
+    private Thread consumer;
+    private volatile boolean running;
+    private final Object data = new Object();
+
+    @Setup
+    public void setup() {
+        final AsyncQueueType type = AsyncQueueType.valueOf(queueType);
+        final int maxDrainSize = AsyncQueueFactory.getMaxDrainSize(type);
+        this.queue = AsyncQueueFactory.createQueue(type, 1024 * 5);
+        this.running = true;
+        this.consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final Collection<Object> drain = new UnsafeArrayCollection<Object>(maxDrainSize);
+                while (running) {
+                    drain.clear();
+                    if (queue.drainTo(drain, maxDrainSize) > 0) {
+                        continue;
+                    }
+                    try {
+                        queue.poll(100, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }, "AsyncQueueingExecutorBenchmark-consumer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        this.running = false;
+        this.consumer.interrupt();
+        this.consumer.join(1000);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean offer_1thread() {
+        return queue.offer(data);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean offer_4threads() {
+        return queue.offer(data);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean offer_16threads() {
+        return queue.offer(data);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AsyncQueueingExecutorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
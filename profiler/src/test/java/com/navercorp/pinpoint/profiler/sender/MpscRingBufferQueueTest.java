@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class MpscRingBufferQueueTest {
+
+    @Test
+    public void roundToPowerOfTwo() {
+        Assert.assertEquals(1, MpscRingBufferQueue.roundToPowerOfTwo(1));
+        Assert.assertEquals(2, MpscRingBufferQueue.roundToPowerOfTwo(2));
+        Assert.assertEquals(8, MpscRingBufferQueue.roundToPowerOfTwo(5));
+        Assert.assertEquals(8192, MpscRingBufferQueue.roundToPowerOfTwo(1024 * 5));
+    }
+
+    @Test
+    public void offerAndPoll() throws Exception {
+        MpscRingBufferQueue<Integer> queue = new MpscRingBufferQueue<Integer>(4);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+
+        Assert.assertTrue(queue.offer(1));
+        Assert.assertTrue(queue.offer(2));
+        Assert.assertEquals(2, queue.size());
+
+        Assert.assertEquals(Integer.valueOf(1), queue.poll(1, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(Integer.valueOf(2), queue.poll(1, TimeUnit.MILLISECONDS));
+        Assert.assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void overflow() {
+        MpscRingBufferQueue<Integer> queue = new MpscRingBufferQueue<Integer>(4);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(queue.offer(i));
+        }
+        Assert.assertFalse(queue.offer(4));
+        Assert.assertFalse(queue.offer(5));
+        Assert.assertEquals(2, queue.getOverflowCount());
+        Assert.assertEquals(4, queue.size());
+
+        Assert.assertEquals(Integer.valueOf(0), queue.poll());
+        Assert.assertTrue(queue.offer(6));
+    }
+
+    @Test
+    public void drainTo() {
+        MpscRingBufferQueue<Integer> queue = new MpscRingBufferQueue<Integer>(16);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(i);
+        }
+        List<Integer> drain = new ArrayList<Integer>();
+        Assert.assertEquals(4, queue.drainTo(drain, 4));
+        Assert.assertEquals(6, queue.drainTo(drain, 100));
+        Assert.assertEquals(0, queue.drainTo(drain, 100));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(Integer.valueOf(i), drain.get(i));
+        }
+    }
+
+    @Test
+    public void multiProducer() throws Exception {
+        final int producerCount = 4;
+        final int perProducer = 10000;
+        final MpscRingBufferQueue<Integer> queue = new MpscRingBufferQueue<Integer>(1024);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(producerCount);
+        try {
+            for (int i = 0; i < producerCount; i++) {
+                executorService.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        for (int j = 0; j < perProducer; j++) {
+                            while (!queue.offer(j)) {
+                                Thread.yield();
+                            }
+                        }
+                    }
+                });
+            }
+            start.countDown();
+
+            long sum = 0;
+            int received = 0;
+            while (received < producerCount * perProducer) {
+                Integer data = queue.poll(3000, TimeUnit.MILLISECONDS);
+                Assert.assertNotNull("poll timeout", data);
+                sum += data;
+                received++;
+            }
+            long expected = (long) producerCount * ((long) perProducer * (perProducer - 1) / 2);
+            Assert.assertEquals(expected, sum);
+            Assert.assertTrue(queue.isEmpty());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void asyncQueueingExecutor() throws Exception {
+        final int count = 1000;
+        final CountDownLatch latch = new CountDownLatch(count);
+        AsyncQueueingExecutor<Integer> executor = new AsyncQueueingExecutor<Integer>(1024, "MpscRingBufferQueueTest", AsyncQueueType.RING_BUFFER);
+        executor.setListener(new AsyncQueueingExecutorListener<Integer>() {
+            @Override
+            public void execute(Collection<Integer> messageList) {
+                for (int i = 0; i < messageList.size(); i++) {
+                    latch.countDown();
+                }
+            }
+
+            @Override
+            public void execute(Integer message) {
+                latch.countDown();
+            }
+        });
+        try {
+            for (int i = 0; i < count; i++) {
+                Assert.assertTrue(executor.execute(i));
+            }
+            Assert.assertTrue(latch.await(5000, TimeUnit.MILLISECONDS));
+        } finally {
+            executor.stop();
+        }
+        Assert.assertFalse(executor.execute(1));
+        Assert.assertEquals(1, executor.getDropCount());
+        Assert.assertEquals(0, executor.getOverflowCount());
+    }
+}
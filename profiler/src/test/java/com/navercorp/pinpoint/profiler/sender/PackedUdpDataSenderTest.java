@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.profiler.sender;
+
+import com.navercorp.pinpoint.thrift.dto.TAgentInfo;
+import com.navercorp.pinpoint.thrift.io.ChunkHeaderTBaseDeserializer;
+import com.navercorp.pinpoint.thrift.io.ChunkHeaderTBaseDeserializerFactory;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.thrift.TBase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.SocketUtils;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketException;
+import java.util.List;
+
+public class PackedUdpDataSenderTest {
+
+    private int port = SocketUtils.findAvailableUdpPort(61112);
+    private DatagramSocket receiver;
+
+    private final ChunkHeaderTBaseDeserializer deserializer = ChunkHeaderTBaseDeserializerFactory.DEFAULT_FACTORY.createDeserializer();
+
+    @Before
+    public void setUp() throws SocketException {
+        receiver = new DatagramSocket(port);
+        receiver.setSoTimeout(1000);
+    }
+
+    @After
+    public void tearDown() {
+        if (receiver != null) {
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void packMessages() throws Exception {
+        PackedUdpDataSender sender = new PackedUdpDataSender("localhost", port, "test", 128);
+        final int sendMessageCount = 100;
+        try {
+            for (int i = 0; i < sendMessageCount; i++) {
+                TAgentInfo agentInfo = new TAgentInfo();
+                agentInfo.setAgentId("agent-" + i);
+                sender.send(agentInfo);
+            }
+
+            int receivedMessageCount = 0;
+            int receivedPacketCount = 0;
+            while (receivedMessageCount < sendMessageCount) {
+                List<TBase<?, ?>> tBaseList = receive();
+                for (TBase<?, ?> tBase : tBaseList) {
+                    Assert.assertEquals("agent-" + receivedMessageCount, ((TAgentInfo) tBase).getAgentId());
+                    receivedMessageCount++;
+                }
+                receivedPacketCount++;
+            }
+            Assert.assertEquals(sendMessageCount, receivedMessageCount);
+            Assert.assertTrue("packetCount:" + receivedPacketCount, receivedPacketCount < sendMessageCount);
+        } finally {
+            sender.stop();
+        }
+    }
+
+    @Test
+    public void sendLargeMessageWithoutPacking() throws Exception {
+        PackedUdpDataSender sender = new PackedUdpDataSender("localhost", port, "test", 128);
+        try {
+            TAgentInfo agentInfo = new TAgentInfo();
+            agentInfo.setAgentId(RandomStringUtils.randomAlphabetic(PackedUdpDataSender.DEFAULT_PACKET_SIZE * 2));
+            sender.send(agentInfo);
+
+            List<TBase<?, ?>> tBaseList = receive();
+            Assert.assertEquals(1, tBaseList.size());
+            Assert.assertEquals(agentInfo, tBaseList.get(0));
+        } finally {
+            sender.stop();
+        }
+    }
+
+    private List<TBase<?, ?>> receive() throws Exception {
+        byte[] receiveData = new byte[PackedUdpDataSender.UDP_MAX_PACKET_LENGTH];
+        DatagramPacket datagramPacket = new DatagramPacket(receiveData, 0, receiveData.length);
+        receiver.receive(datagramPacket);
+        return deserializer.deserialize(datagramPacket.getData(), datagramPacket.getOffset(), datagramPacket.getLength());
+    }
+}
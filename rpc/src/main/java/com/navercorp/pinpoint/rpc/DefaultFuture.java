@@ -110,7 +110,7 @@ public class DefaultFuture<T> implements TimerTask, Future<T> {
         return true;
     }
 
-    private boolean fireTimeout() {
+    public boolean fireTimeout() {
         synchronized (this) {
             if (ready) {
                 return false;
@@ -323,7 +323,7 @@ public class DefaultPinpointClientHandler extends SimpleChannelHandler implement
         }
         final int requestId = this.requestManager.nextRequestId();
         final RequestPacket request = new RequestPacket(requestId, bytes);
-        final ChannelWriteFailListenableFuture<ResponseMessage> messageFuture = this.requestManager.register(request.getRequestId(), clientOption.getTimeoutMillis());
+        final ChannelWriteFailListenableFuture<ResponseMessage> messageFuture = this.requestManager.register(request, clientOption.getTimeoutMillis());
 
         write0(request, messageFuture);
         return messageFuture;
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+import com.navercorp.pinpoint.rpc.ChannelWriteFailListenableFuture;
+import com.navercorp.pinpoint.rpc.FailureEventHandler;
+import com.navercorp.pinpoint.rpc.ResponseMessage;
+
+/**
+ * In-flight request tracked by {@link RequestManager}.
+ * It is the entry of the {@link RequestMap} and the node of the {@link RequestTimeoutWheel} at the same time,
+ * so registering a request allocates nothing besides this object and its future.
+ */
+final class PendingRequest implements FailureEventHandler {
+
+    private final RequestMap requestMap;
+    private final int requestId;
+    private final RequestLatencyHistogram histogram;
+    private final long startTime;
+    private final long deadline;
+    private final ChannelWriteFailListenableFuture<ResponseMessage> future;
+
+    // guarded by RequestTimeoutWheel
+    PendingRequest next;
+
+    PendingRequest(RequestMap requestMap, int requestId, RequestLatencyHistogram histogram, long startTime, long timeoutMillis,
+                   ChannelWriteFailListenableFuture<ResponseMessage> future) {
+        this.requestMap = requestMap;
+        this.requestId = requestId;
+        this.histogram = histogram;
+        this.startTime = startTime;
+        this.deadline = startTime + timeoutMillis;
+        this.future = future;
+    }
+
+    int getRequestId() {
+        return requestId;
+    }
+
+    RequestLatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    ChannelWriteFailListenableFuture<ResponseMessage> getFuture() {
+        return future;
+    }
+
+    boolean isDone() {
+        return future.isReady();
+    }
+
+    /**
+     * Called when the future fails, e.g. on a write failure. Timeouts and close remove the request beforehand.
+     */
+    @Override
+    public boolean fireFailure() {
+        if (requestMap.remove(requestId, this)) {
+            // removed perfectly.
+            histogram.recordFail();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "PendingRequest{" +
+                "requestId=" + requestId +
+                ", requestType=" + histogram.getRequestType() +
+                ", startTime=" + startTime +
+                ", deadline=" + deadline +
+                '}';
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Response time distribution of one request type.
+ */
+public class RequestLatencyHistogram {
+
+    private static final long[] UPPER_BOUNDS = {10, 50, 100, 300, 500, 1000, 3000, 5000};
+
+    private final short requestType;
+    // the last slot counts latencies over the largest bound
+    private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS.length + 1);
+    private final AtomicLong totalElapsed = new AtomicLong();
+    private final AtomicLong maxElapsed = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong failCount = new AtomicLong();
+
+    public RequestLatencyHistogram(short requestType) {
+        this.requestType = requestType;
+    }
+
+    public void record(long elapsed) {
+        counts.incrementAndGet(slot(elapsed));
+        totalElapsed.addAndGet(elapsed);
+        while (true) {
+            final long max = maxElapsed.get();
+            if (elapsed <= max || maxElapsed.compareAndSet(max, elapsed)) {
+                return;
+            }
+        }
+    }
+
+    private static int slot(long elapsed) {
+        for (int i = 0; i < UPPER_BOUNDS.length; i++) {
+            if (elapsed <= UPPER_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return UPPER_BOUNDS.length;
+    }
+
+    public void recordTimeout() {
+        timeoutCount.incrementAndGet();
+    }
+
+    public void recordFail() {
+        failCount.incrementAndGet();
+    }
+
+    public short getRequestType() {
+        return requestType;
+    }
+
+    public static long[] getUpperBounds() {
+        return UPPER_BOUNDS.clone();
+    }
+
+    /**
+     * @return response count per {@link #getUpperBounds()} slot, followed by the count over the largest bound
+     */
+    public long[] getCounts() {
+        final long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    public long getCount(int slot) {
+        return counts.get(slot);
+    }
+
+    public long getResponseCount() {
+        long responseCount = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            responseCount += counts.get(i);
+        }
+        return responseCount;
+    }
+
+    public long getAvgElapsed() {
+        final long responseCount = getResponseCount();
+        if (responseCount == 0) {
+            return 0;
+        }
+        return totalElapsed.get() / responseCount;
+    }
+
+    public long getMaxElapsed() {
+        return maxElapsed.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getFailCount() {
+        return failCount.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(128);
+        sb.append("RequestLatencyHistogram{requestType=").append(requestType);
+        for (int i = 0; i < UPPER_BOUNDS.length; i++) {
+            sb.append(", <=").append(UPPER_BOUNDS[i]).append("ms=").append(counts.get(i));
+        }
+        sb.append(", >").append(UPPER_BOUNDS[UPPER_BOUNDS.length - 1]).append("ms=").append(counts.get(UPPER_BOUNDS.length));
+        sb.append(", avg=").append(getAvgElapsed());
+        sb.append(", max=").append(getMaxElapsed());
+        sb.append(", timeout=").append(getTimeoutCount());
+        sb.append(", fail=").append(getFailCount());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps a {@link RequestLatencyHistogram} per request type. May be shared by the {@link RequestManager}s of
+ * many connections to get a process wide view.
+ * <p>
+ * The request type is read from the header of the request payload, see {@link #readRequestType(byte[])}.
+ */
+public class RequestLatencyRecorder {
+
+    public static final short UNKNOWN_REQUEST_TYPE = -1;
+
+    // same value as com.navercorp.pinpoint.thrift.io.Header.SIGNATURE
+    private static final byte HEADER_SIGNATURE = (byte) 0xef;
+
+    private final ConcurrentMap<Short, RequestLatencyHistogram> histogramMap = new ConcurrentHashMap<Short, RequestLatencyHistogram>();
+
+    private final List<HistogramListener> listeners = new CopyOnWriteArrayList<HistogramListener>();
+
+    /**
+     * Reads the type of a serialized thrift header (signature, version, type) without depending on the thrift module.
+     */
+    public static short readRequestType(byte[] payload) {
+        if (payload == null || payload.length < 4 || payload[0] != HEADER_SIGNATURE) {
+            return UNKNOWN_REQUEST_TYPE;
+        }
+        return (short) (((payload[2] & 0xff) << 8) | (payload[3] & 0xff));
+    }
+
+    public RequestLatencyHistogram getHistogram(short requestType) {
+        final RequestLatencyHistogram histogram = histogramMap.get(requestType);
+        if (histogram != null) {
+            return histogram;
+        }
+        final RequestLatencyHistogram newHistogram = new RequestLatencyHistogram(requestType);
+        final RequestLatencyHistogram old = histogramMap.putIfAbsent(requestType, newHistogram);
+        if (old != null) {
+            return old;
+        }
+        for (HistogramListener listener : listeners) {
+            listener.histogramAdded(newHistogram);
+        }
+        return newHistogram;
+    }
+
+    /**
+     * Adds a listener notified of every histogram, the existing ones first and then each new request type.
+     */
+    public void addHistogramListener(HistogramListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener must not be null");
+        }
+        listeners.add(listener);
+        for (RequestLatencyHistogram histogram : histogramMap.values()) {
+            listener.histogramAdded(histogram);
+        }
+    }
+
+    public List<RequestLatencyHistogram> getHistograms() {
+        return new ArrayList<RequestLatencyHistogram>(histogramMap.values());
+    }
+
+    public interface HistogramListener {
+        void histogramAdded(RequestLatencyHistogram histogram);
+    }
+
+    @Override
+    public String toString() {
+        return "RequestLatencyRecorder{" +
+                "histograms=" + histogramMap.values() +
+                '}';
+    }
+}
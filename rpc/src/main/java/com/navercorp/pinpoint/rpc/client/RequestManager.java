@@ -16,21 +16,20 @@
 
 package com.navercorp.pinpoint.rpc.client;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.util.Timeout;
 import org.jboss.netty.util.Timer;
+import org.jboss.netty.util.TimerTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.navercorp.pinpoint.rpc.ChannelWriteFailListenableFuture;
 import com.navercorp.pinpoint.rpc.DefaultFuture;
-import com.navercorp.pinpoint.rpc.FailureEventHandler;
 import com.navercorp.pinpoint.rpc.PinpointSocketException;
 import com.navercorp.pinpoint.rpc.ResponseMessage;
 import com.navercorp.pinpoint.rpc.packet.RequestPacket;
@@ -38,20 +37,55 @@ import com.navercorp.pinpoint.rpc.packet.ResponsePacket;
 import com.navercorp.pinpoint.rpc.server.PinpointServer;
 
 /**
+ * Tracks in-flight requests until their response arrives or they time out.
+ * <p>
+ * Requests are kept in a {@link RequestMap} and their deadlines in a {@link RequestTimeoutWheel}.
+ * Instead of one timer task per request, a single tick task is scheduled on the timer while requests are pending,
+ * and each tick expires the timed out requests in one sweep.
+ *
  * @author emeroad
  */
 public class RequestManager {
 
+    static final long DEFAULT_TICK_MILLIS = 50;
+    static final int DEFAULT_WHEEL_SIZE = 512;
+    static final int DEFAULT_REQUEST_MAP_CAPACITY = 64;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     private final AtomicInteger requestId = new AtomicInteger(1);
 
-    private final ConcurrentMap<Integer, DefaultFuture<ResponseMessage>> requestMap = new ConcurrentHashMap<Integer, DefaultFuture<ResponseMessage>>();
+    private final RequestMap requestMap = new RequestMap(DEFAULT_REQUEST_MAP_CAPACITY);
+    private final RequestTimeoutWheel timeoutWheel;
+    private final RequestLatencyRecorder latencyRecorder;
     // Have to move Timer into factory?
     private final Timer timer;
     private final long defaultTimeoutMillis;
 
+    private final AtomicBoolean tickScheduled = new AtomicBoolean(false);
+    private final TimerTask tickTask = new TimerTask() {
+        @Override
+        public void run(Timeout timeout) throws Exception {
+            tick();
+        }
+    };
+    private final RequestTimeoutWheel.ExpireHandler expireHandler = new RequestTimeoutWheel.ExpireHandler() {
+        @Override
+        public void expire(PendingRequest request) {
+            if (requestMap.remove(request.getRequestId(), request)) {
+                if (request.getFuture().fireTimeout()) {
+                    request.getHistogram().recordTimeout();
+                }
+            }
+        }
+    };
+    private volatile boolean closed = false;
+
     public RequestManager(Timer timer, long defaultTimeoutMillis) {
+        this(timer, defaultTimeoutMillis, new RequestLatencyRecorder());
+    }
+
+    public RequestManager(Timer timer, long defaultTimeoutMillis, RequestLatencyRecorder latencyRecorder) {
         if (timer == null) {
             throw new NullPointerException("timer must not be null");
         }
@@ -59,36 +93,46 @@ public class RequestManager {
         if (defaultTimeoutMillis <= 0) {
             throw new IllegalArgumentException("defaultTimeoutMillis must greater than zero.");
         }
+        if (latencyRecorder == null) {
+            throw new NullPointerException("latencyRecorder must not be null");
+        }
         
         this.timer = timer;
         this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.latencyRecorder = latencyRecorder;
+        this.timeoutWheel = new RequestTimeoutWheel(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, System.currentTimeMillis());
     }
 
-    private FailureEventHandler createFailureEventHandler(final int requestId) {
-        FailureEventHandler failureEventHandler = new FailureEventHandler() {
-            @Override
-            public boolean fireFailure() {
-                DefaultFuture<ResponseMessage> future = removeMessageFuture(requestId);
-                if (future != null) {
-                    // removed perfectly.
-                    return true;
-                }
-                return false;
-            }
-        };
-        return failureEventHandler;
+    private void addTimeoutTask(PendingRequest request) {
+        timeoutWheel.add(request);
+        if (!scheduleTick()) {
+            // this case is that timer has been shutdown. That maybe just means that socket has been closed.
+            request.getFuture().setFailure(new PinpointSocketException("socket closed"));
+        }
     }
 
-    private void addTimeoutTask(DefaultFuture future, long timeoutMillis) {
-        if (future == null) {
-            throw new NullPointerException("future");
+    private boolean scheduleTick() {
+        if (!tickScheduled.compareAndSet(false, true)) {
+            return true;
         }
         try {
-            Timeout timeout = timer.newTimeout(future, timeoutMillis, TimeUnit.MILLISECONDS);
-            future.setTimeout(timeout);
+            timer.newTimeout(tickTask, timeoutWheel.getTickMillis(), TimeUnit.MILLISECONDS);
+            return true;
         } catch (IllegalStateException e) {
-            // this case is that timer has been shutdown. That maybe just means that socket has been closed.
-            future.setFailure(new PinpointSocketException("socket closed")) ;
+            tickScheduled.set(false);
+            return false;
+        }
+    }
+
+    private void tick() {
+        final int expiredCount = timeoutWheel.expire(System.currentTimeMillis(), expireHandler);
+        if (expiredCount > 0) {
+            logger.debug("{} requests timed out", expiredCount);
+        }
+        tickScheduled.set(false);
+        // keep ticking until every request left the wheel, adds racing with the flag reset schedule by themselves
+        if (!closed && timeoutWheel.size() > 0) {
+            scheduleTick();
         }
     }
 
@@ -98,36 +142,45 @@ public class RequestManager {
 
     public void messageReceived(ResponsePacket responsePacket, String objectUniqName) {
         final int requestId = responsePacket.getRequestId();
-        final DefaultFuture<ResponseMessage> future = removeMessageFuture(requestId);
-        if (future == null) {
+        final PendingRequest request = requestMap.remove(requestId);
+        if (request == null) {
             logger.warn("future not found:{}, objectUniqName:{}", responsePacket, objectUniqName);
             return;
         } else {
             logger.debug("responsePacket arrived packet:{}, objectUniqName:{}", responsePacket, objectUniqName);
         }
 
-        ResponseMessage response = new ResponseMessage();
-        response.setMessage(responsePacket.getPayload());
-        future.setResult(response);
+        setResult(request, responsePacket);
     }
 
     public void messageReceived(ResponsePacket responsePacket, PinpointServer pinpointServer) {
         final int requestId = responsePacket.getRequestId();
-        final DefaultFuture<ResponseMessage> future = removeMessageFuture(requestId);
-        if (future == null) {
+        final PendingRequest request = requestMap.remove(requestId);
+        if (request == null) {
             logger.warn("future not found:{}, pinpointServer:{}", responsePacket, pinpointServer);
             return;
         } else {
             logger.debug("responsePacket arrived packet:{}, pinpointServer:{}", responsePacket, pinpointServer);
         }
 
+        setResult(request, responsePacket);
+    }
+
+    private void setResult(PendingRequest request, ResponsePacket responsePacket) {
+        final long elapsed = System.currentTimeMillis() - request.getStartTime();
+        request.getHistogram().record(elapsed);
+
         ResponseMessage response = new ResponseMessage();
         response.setMessage(responsePacket.getPayload());
-        future.setResult(response);
+        request.getFuture().setResult(response);
     }
 
     public DefaultFuture<ResponseMessage> removeMessageFuture(int requestId) {
-        return this.requestMap.remove(requestId);
+        final PendingRequest request = this.requestMap.remove(requestId);
+        if (request == null) {
+            return null;
+        }
+        return request.getFuture();
     }
 
     public void messageReceived(RequestPacket requestPacket, Channel channel) {
@@ -139,22 +192,43 @@ public class RequestManager {
     }
 
     public ChannelWriteFailListenableFuture<ResponseMessage> register(int requestId, long timeoutMillis) {
+        return register(requestId, timeoutMillis, RequestLatencyRecorder.UNKNOWN_REQUEST_TYPE);
+    }
+
+    public ChannelWriteFailListenableFuture<ResponseMessage> register(RequestPacket requestPacket) {
+        return register(requestPacket, defaultTimeoutMillis);
+    }
+
+    /**
+     * Registers the request under the type found in its payload header, see {@link RequestLatencyRecorder#readRequestType(byte[])}.
+     */
+    public ChannelWriteFailListenableFuture<ResponseMessage> register(RequestPacket requestPacket, long timeoutMillis) {
+        final short requestType = RequestLatencyRecorder.readRequestType(requestPacket.getPayload());
+        return register(requestPacket.getRequestId(), timeoutMillis, requestType);
+    }
+
+    public ChannelWriteFailListenableFuture<ResponseMessage> register(int requestId, long timeoutMillis, short requestType) {
         // shutdown check
         final ChannelWriteFailListenableFuture<ResponseMessage> responseFuture = new ChannelWriteFailListenableFuture<ResponseMessage>(timeoutMillis);
 
-        final DefaultFuture old = this.requestMap.put(requestId, responseFuture);
+        final RequestLatencyHistogram histogram = latencyRecorder.getHistogram(requestType);
+        final PendingRequest request = new PendingRequest(requestMap, requestId, histogram, System.currentTimeMillis(), timeoutMillis, responseFuture);
+        final PendingRequest old = this.requestMap.putIfAbsent(request);
         if (old != null) {
-            throw new PinpointSocketException("unexpected error. old future exist:" + old + " id:" + requestId);
+            throw new PinpointSocketException("unexpected error. old future exist:" + old.getFuture() + " id:" + requestId);
         }
 
         // when future fails, put a handle in order to remove a failed future in the requestMap.
-        FailureEventHandler removeTable = createFailureEventHandler(requestId);
-        responseFuture.setFailureEventHandler(removeTable);
+        responseFuture.setFailureEventHandler(request);
 
-        addTimeoutTask(responseFuture, timeoutMillis);
+        addTimeoutTask(request);
         return responseFuture;
     }
 
+    public RequestLatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
 //    public ChannelWriteFailListenableFuture<ResponseMessage> register(final int requestId, final long timeoutMillis) {
 //        // shutdown check
 //        final ChannelWriteFailListenableFuture<ResponseMessage> responseFuture = new ChannelWriteFailListenableFuture<ResponseMessage>(timeoutMillis) {
@@ -196,13 +270,14 @@ public class RequestManager {
 //                future.setFailure(closed);
 //            }
 //        }
+        this.closed = true;
         int requestFailCount = 0;
-        for (Map.Entry<Integer, DefaultFuture<ResponseMessage>> entry : requestMap.entrySet()) {
-            if (entry.getValue().setFailure(closed)) {
+        final List<PendingRequest> pendingRequests = requestMap.drain();
+        for (PendingRequest request : pendingRequests) {
+            if (request.getFuture().setFailure(closed)) {
                 requestFailCount++;
             }
         }
-        this.requestMap.clear();
         if (requestFailCount > 0) {
             logger.info("requestManager failCount:{}", requestFailCount);
         }
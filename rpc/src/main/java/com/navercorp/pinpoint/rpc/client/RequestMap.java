@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free map of in-flight requests keyed by their int request id.
+ * <p>
+ * Request ids are handed out sequentially, so a small open addressing table indexed by the low bits of the id
+ * rarely collides. A request is placed in the first free slot among {@link #MAX_PROBE} slots from its home slot,
+ * and lookups always check all of them, so removal needs no tombstones. When every probed slot is taken,
+ * which only happens with more in-flight requests than the table holds, the request goes to an overflow map.
+ */
+class RequestMap {
+
+    static final int MAX_PROBE = 4;
+
+    private final AtomicReferenceArray<PendingRequest> table;
+    private final int mask;
+    private final ConcurrentMap<Integer, PendingRequest> overflow = new ConcurrentHashMap<Integer, PendingRequest>();
+
+    RequestMap(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must greater than zero.");
+        }
+        final int tableSize = powerOfTwo(Math.max(capacity, MAX_PROBE));
+        this.table = new AtomicReferenceArray<PendingRequest>(tableSize);
+        this.mask = tableSize - 1;
+    }
+
+    private static int powerOfTwo(int value) {
+        final int highestOneBit = Integer.highestOneBit(value);
+        if (highestOneBit == value) {
+            return value;
+        }
+        return highestOneBit << 1;
+    }
+
+    /**
+     * @return the request already registered with the same id, or null if the request has been added
+     */
+    PendingRequest putIfAbsent(PendingRequest request) {
+        final int requestId = request.getRequestId();
+        final PendingRequest old = get(requestId);
+        if (old != null) {
+            return old;
+        }
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            final int index = (requestId + probe) & mask;
+            if (table.get(index) == null && table.compareAndSet(index, null, request)) {
+                return null;
+            }
+        }
+        return overflow.putIfAbsent(requestId, request);
+    }
+
+    PendingRequest get(int requestId) {
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            final PendingRequest request = table.get((requestId + probe) & mask);
+            if (request != null && request.getRequestId() == requestId) {
+                return request;
+            }
+        }
+        if (overflow.isEmpty()) {
+            return null;
+        }
+        return overflow.get(requestId);
+    }
+
+    PendingRequest remove(int requestId) {
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            final int index = (requestId + probe) & mask;
+            final PendingRequest request = table.get(index);
+            if (request != null && request.getRequestId() == requestId) {
+                if (table.compareAndSet(index, request, null)) {
+                    return request;
+                }
+                // removed concurrently
+                return null;
+            }
+        }
+        if (overflow.isEmpty()) {
+            return null;
+        }
+        return overflow.remove(requestId);
+    }
+
+    boolean remove(int requestId, PendingRequest expected) {
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            final int index = (requestId + probe) & mask;
+            if (table.get(index) == expected) {
+                return table.compareAndSet(index, expected, null);
+            }
+        }
+        return overflow.remove(requestId, expected);
+    }
+
+    /**
+     * Removes every request and returns them.
+     */
+    List<PendingRequest> drain() {
+        final List<PendingRequest> drained = new ArrayList<PendingRequest>();
+        for (int index = 0; index < table.length(); index++) {
+            final PendingRequest request = table.getAndSet(index, null);
+            if (request != null) {
+                drained.add(request);
+            }
+        }
+        for (Integer requestId : overflow.keySet()) {
+            final PendingRequest request = overflow.remove(requestId);
+            if (request != null) {
+                drained.add(request);
+            }
+        }
+        return drained;
+    }
+
+    int size() {
+        int size = 0;
+        for (int index = 0; index < table.length(); index++) {
+            if (table.get(index) != null) {
+                size++;
+            }
+        }
+        return size + overflow.size();
+    }
+}
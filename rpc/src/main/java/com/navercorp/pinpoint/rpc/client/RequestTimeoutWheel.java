@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Timing wheel of request deadlines.
+ * <p>
+ * Each bucket is a lock-free stack of {@link PendingRequest}s linked through {@link PendingRequest#next}.
+ * {@link #expire(long, ExpireHandler)} is called by a single ticking thread and empties every bucket whose tick has
+ * passed in one sweep. Requests that are already done are dropped, requests whose deadline is further than one
+ * rotation away are put back.
+ */
+class RequestTimeoutWheel {
+
+    interface ExpireHandler {
+        void expire(PendingRequest request);
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final AtomicReferenceArray<PendingRequest> buckets;
+    private final AtomicInteger size = new AtomicInteger();
+
+    // written by the ticking thread only
+    private volatile long lastTick;
+
+    RequestTimeoutWheel(long tickMillis, int wheelSize, long currentTime) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must greater than zero.");
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two. wheelSize:" + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new AtomicReferenceArray<PendingRequest>(wheelSize);
+        this.lastTick = currentTime / tickMillis;
+    }
+
+    void add(PendingRequest request) {
+        size.incrementAndGet();
+        push(request);
+    }
+
+    private void push(PendingRequest request) {
+        // round up so that a request never expires before its deadline
+        long tick = (request.getDeadline() + tickMillis - 1) / tickMillis;
+        final long nextTick = lastTick + 1;
+        if (tick < nextTick) {
+            tick = nextTick;
+        }
+        final int index = (int) (tick & mask);
+        while (true) {
+            final PendingRequest head = buckets.get(index);
+            request.next = head;
+            if (buckets.compareAndSet(index, head, request)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the number of expired requests
+     */
+    int expire(long currentTime, ExpireHandler handler) {
+        final long currentTick = currentTime / tickMillis;
+        long tick = lastTick + 1;
+        if (tick > currentTick) {
+            return 0;
+        }
+        if (currentTick - tick > mask) {
+            // the ticker fell behind by more than a rotation, every bucket is swept once
+            tick = currentTick - mask;
+        }
+        // published before the sweep so that concurrent adds go to buckets after currentTick
+        lastTick = currentTick;
+
+        int expiredCount = 0;
+        for (; tick <= currentTick; tick++) {
+            PendingRequest request = buckets.getAndSet((int) (tick & mask), null);
+            while (request != null) {
+                final PendingRequest next = request.next;
+                request.next = null;
+                if (request.isDone()) {
+                    size.decrementAndGet();
+                } else if (request.getDeadline() <= currentTime) {
+                    size.decrementAndGet();
+                    handler.expire(request);
+                    expiredCount++;
+                } else {
+                    push(request);
+                }
+                request = next;
+            }
+        }
+        return expiredCount;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    long getTickMillis() {
+        return tickMillis;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.netty4;
+
+import io.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelConfig;
+import org.jboss.netty.channel.ChannelFactory;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.DefaultChannelFuture;
+import org.jboss.netty.channel.SucceededChannelFuture;
+
+import java.net.SocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Presents an accepted Netty 4 channel as the Netty 3 {@link Channel} the pinpoint server stack is written against,
+ * so {@link com.navercorp.pinpoint.rpc.server.DefaultPinpointServer}, its request, stream and health check managers
+ * run unchanged on top of the Netty 4 transport.
+ * <p>
+ * Only the operations of a connected channel are supported. Binding, connecting and interest ops belong to the
+ * Netty 4 channel and throw {@link UnsupportedOperationException}.
+ */
+public class Netty4ChannelAdapter implements Channel {
+
+    private static final AtomicInteger ID_GENERATOR = new AtomicInteger();
+
+    private final Integer id = ID_GENERATOR.incrementAndGet();
+
+    private final io.netty.channel.Channel channel;
+    private final ChannelFuture closeFuture;
+
+    private volatile Object attachment;
+
+    public Netty4ChannelAdapter(io.netty.channel.Channel channel) {
+        if (channel == null) {
+            throw new NullPointerException("channel must not be null");
+        }
+        this.channel = channel;
+        this.closeFuture = new DefaultChannelFuture(this, false);
+        this.channel.closeFuture().addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(io.netty.channel.ChannelFuture future) throws Exception {
+                closeFuture.setSuccess();
+            }
+        });
+    }
+
+    public io.netty.channel.Channel getNettyChannel() {
+        return channel;
+    }
+
+    @Override
+    public Integer getId() {
+        return id;
+    }
+
+    @Override
+    public ChannelFactory getFactory() {
+        throw new UnsupportedOperationException("netty4 channel has no netty3 factory");
+    }
+
+    @Override
+    public Channel getParent() {
+        return null;
+    }
+
+    @Override
+    public ChannelConfig getConfig() {
+        throw new UnsupportedOperationException("netty4 channel has no netty3 config");
+    }
+
+    @Override
+    public ChannelPipeline getPipeline() {
+        throw new UnsupportedOperationException("netty4 channel has no netty3 pipeline");
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public boolean isBound() {
+        return channel.isOpen() && channel.localAddress() != null;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return channel.isActive();
+    }
+
+    @Override
+    public SocketAddress getLocalAddress() {
+        return channel.localAddress();
+    }
+
+    @Override
+    public SocketAddress getRemoteAddress() {
+        return channel.remoteAddress();
+    }
+
+    @Override
+    public ChannelFuture write(Object message) {
+        return bridge(channel.writeAndFlush(message));
+    }
+
+    @Override
+    public ChannelFuture write(Object message, SocketAddress remoteAddress) {
+        if (remoteAddress == null || remoteAddress.equals(getRemoteAddress())) {
+            return write(message);
+        }
+        throw new UnsupportedOperationException("write to another address:" + remoteAddress);
+    }
+
+    @Override
+    public ChannelFuture bind(SocketAddress localAddress) {
+        throw new UnsupportedOperationException("bind");
+    }
+
+    @Override
+    public ChannelFuture connect(SocketAddress remoteAddress) {
+        throw new UnsupportedOperationException("connect");
+    }
+
+    @Override
+    public ChannelFuture disconnect() {
+        return close();
+    }
+
+    @Override
+    public ChannelFuture unbind() {
+        throw new UnsupportedOperationException("unbind");
+    }
+
+    @Override
+    public ChannelFuture close() {
+        return bridge(channel.close());
+    }
+
+    @Override
+    public ChannelFuture getCloseFuture() {
+        return closeFuture;
+    }
+
+    @Override
+    public int getInterestOps() {
+        return isReadable() ? OP_READ : OP_NONE;
+    }
+
+    @Override
+    public boolean isReadable() {
+        return channel.config().isAutoRead();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return channel.isWritable();
+    }
+
+    @Override
+    public ChannelFuture setInterestOps(int interestOps) {
+        throw new UnsupportedOperationException("setInterestOps");
+    }
+
+    @Override
+    public ChannelFuture setReadable(boolean readable) {
+        channel.config().setAutoRead(readable);
+        return new SucceededChannelFuture(this);
+    }
+
+    @Override
+    public boolean getUserDefinedWritability(int index) {
+        return true;
+    }
+
+    @Override
+    public void setUserDefinedWritability(int index, boolean isWritable) {
+        throw new UnsupportedOperationException("setUserDefinedWritability");
+    }
+
+    @Override
+    public Object getAttachment() {
+        return attachment;
+    }
+
+    @Override
+    public void setAttachment(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    private ChannelFuture bridge(io.netty.channel.ChannelFuture nettyFuture) {
+        final DefaultChannelFuture future = new DefaultChannelFuture(this, false);
+        nettyFuture.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(io.netty.channel.ChannelFuture nettyFuture) throws Exception {
+                if (nettyFuture.isSuccess()) {
+                    future.setSuccess();
+                } else {
+                    future.setFailure(nettyFuture.cause());
+                }
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public int compareTo(Channel o) {
+        return getId().compareTo(o.getId());
+    }
+
+    @Override
+    public String toString() {
+        return "Netty4ChannelAdapter{" +
+                "id=" + id +
+                ", channel=" + channel +
+                '}';
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.netty4;
+
+import com.navercorp.pinpoint.common.util.Assert;
+import com.navercorp.pinpoint.common.util.CpuUtils;
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.rpc.PinpointSocket;
+import com.navercorp.pinpoint.rpc.PinpointSocketException;
+import com.navercorp.pinpoint.rpc.client.RequestLatencyRecorder;
+import com.navercorp.pinpoint.rpc.cluster.ClusterOption;
+import com.navercorp.pinpoint.rpc.packet.ServerClosePacket;
+import com.navercorp.pinpoint.rpc.server.ChannelFilter;
+import com.navercorp.pinpoint.rpc.server.DefaultPinpointServer;
+import com.navercorp.pinpoint.rpc.server.HealthCheckManager;
+import com.navercorp.pinpoint.rpc.server.PinpointServerConfig;
+import com.navercorp.pinpoint.rpc.server.ServerAcceptor;
+import com.navercorp.pinpoint.rpc.server.ServerMessageListener;
+import com.navercorp.pinpoint.rpc.server.SimpleServerMessageListener;
+import com.navercorp.pinpoint.rpc.server.handler.ServerStateChangeEventHandler;
+import com.navercorp.pinpoint.rpc.stream.DisabledServerStreamChannelMessageListener;
+import com.navercorp.pinpoint.rpc.stream.ServerStreamChannelMessageListener;
+import com.navercorp.pinpoint.rpc.util.LoggerFactorySetup;
+import com.navercorp.pinpoint.rpc.util.TimerFactory;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import org.jboss.netty.channel.group.ChannelGroup;
+import org.jboss.netty.channel.group.DefaultChannelGroup;
+import org.jboss.netty.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netty 4 counterpart of {@link com.navercorp.pinpoint.rpc.server.PinpointServerAcceptor}, speaking the same wire protocol.
+ * <p>
+ * Connections are served by one event loop group on the native epoll transport when available, reading into
+ * {@link io.netty.buffer.PooledByteBufAllocator pooled} buffers. Application payloads are decoded as slices of the
+ * receive buffer and copied once, into the byte[] handed to the {@link ServerMessageListener}.
+ * Handshake, health check, request and stream handling is the one of {@link DefaultPinpointServer},
+ * which sees each connection through a {@link Netty4ChannelAdapter}.
+ */
+public class Netty4PinpointServerAcceptor implements ServerAcceptor, PinpointServerConfig {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = 3 * 1000;
+    private static final long CHANNEL_CLOSE_MAXIMUM_WAITING_TIME_MILLIS = 3 * 1000;
+    private static final long SHUTDOWN_QUIET_PERIOD_MILLIS = 100;
+    private static final int HEALTH_CHECK_INTERVAL_TIME_MILLIS = 5 * 60 * 1000;
+    private static final int EVENT_LOOP_COUNT = CpuUtils.workerCount();
+
+    private static final AttributeKey<Netty4ChannelAdapter> CHANNEL_ADAPTER = AttributeKey.valueOf("pinpointChannelAdapter");
+
+    private volatile boolean released;
+
+    private final EventLoopGroup eventLoopGroup;
+    private final ServerBootstrap bootstrap;
+
+    private final ChannelFilter channelConnectedFilter;
+
+    private Channel serverChannel;
+    private final ChannelGroup channelGroup = new DefaultChannelGroup("Netty4PinpointServerAcceptor");
+
+    private ServerMessageListener messageListener = SimpleServerMessageListener.SIMPLEX_INSTANCE;
+    private ServerStreamChannelMessageListener serverStreamChannelMessageListener = DisabledServerStreamChannelMessageListener.INSTANCE;
+    private List<ServerStateChangeEventHandler> stateChangeEventHandler = new ArrayList<ServerStateChangeEventHandler>();
+
+    private final Timer healthCheckTimer;
+    private final HealthCheckManager healthCheckManager;
+
+    private final Timer requestManagerTimer;
+    private final RequestLatencyRecorder requestLatencyRecorder = new RequestLatencyRecorder();
+
+    private final ClusterOption clusterOption;
+
+    private long defaultRequestTimeout = DEFAULT_TIMEOUT_MILLIS;
+
+    static {
+        LoggerFactorySetup.setupSlf4jLoggerFactory();
+    }
+
+    public Netty4PinpointServerAcceptor() {
+        this(ClusterOption.DISABLE_CLUSTER_OPTION, ChannelFilter.BYPASS);
+    }
+
+    public Netty4PinpointServerAcceptor(ChannelFilter channelConnectedFilter) {
+        this(ClusterOption.DISABLE_CLUSTER_OPTION, channelConnectedFilter);
+    }
+
+    public Netty4PinpointServerAcceptor(ClusterOption clusterOption, ChannelFilter channelConnectedFilter) {
+        this.clusterOption = Assert.requireNonNull(clusterOption, "clusterOption must not be null");
+        this.channelConnectedFilter = Assert.requireNonNull(channelConnectedFilter, "channelConnectedFilter must not be null");
+
+        this.eventLoopGroup = Netty4Transport.newEventLoopGroup(EVENT_LOOP_COUNT, new PinpointThreadFactory("Pinpoint-Server-EventLoop", true));
+        this.bootstrap = Netty4Transport.newServerBootstrap(eventLoopGroup, new PinpointServerChannelHandler());
+
+        this.healthCheckTimer = TimerFactory.createHashedWheelTimer("PinpointServerSocket-HealthCheckTimer", 50, TimeUnit.MILLISECONDS, 512);
+        this.healthCheckManager = new HealthCheckManager(healthCheckTimer, channelGroup);
+
+        this.requestManagerTimer = TimerFactory.createHashedWheelTimer("PinpointServerSocket-RequestManager", 50, TimeUnit.MILLISECONDS, 512);
+    }
+
+    @Override
+    public void bind(String host, int port) throws PinpointSocketException {
+        InetSocketAddress bindAddress = new InetSocketAddress(host, port);
+        bind(bindAddress);
+    }
+
+    @Override
+    public void bind(InetSocketAddress bindAddress) throws PinpointSocketException {
+        if (released) {
+            return;
+        }
+
+        logger.info("bind() {} epoll:{}", bindAddress, Netty4Transport.isEpollAvailable());
+        final ChannelFuture bindFuture = bootstrap.bind(bindAddress).awaitUninterruptibly();
+        if (!bindFuture.isSuccess()) {
+            throw new PinpointSocketException("bind fail. address:" + bindAddress, bindFuture.cause());
+        }
+        this.serverChannel = bindFuture.channel();
+        healthCheckManager.start(HEALTH_CHECK_INTERVAL_TIME_MILLIS);
+    }
+
+    @Override
+    public long getDefaultRequestTimeout() {
+        return defaultRequestTimeout;
+    }
+
+    @Override
+    public void setDefaultRequestTimeout(long defaultRequestTimeout) {
+        this.defaultRequestTimeout = defaultRequestTimeout;
+    }
+
+    @Override
+    public ServerMessageListener getMessageListener() {
+        return messageListener;
+    }
+
+    @Override
+    public void setMessageListener(ServerMessageListener messageListener) {
+        Assert.requireNonNull(messageListener, "messageListener must not be null");
+
+        this.messageListener = messageListener;
+    }
+
+    @Override
+    public List<ServerStateChangeEventHandler> getStateChangeEventHandlers() {
+        return stateChangeEventHandler;
+    }
+
+    @Override
+    public void addStateChangeEventHandler(ServerStateChangeEventHandler stateChangeEventHandler) {
+        Assert.requireNonNull(stateChangeEventHandler, "stateChangeEventHandler must not be null");
+
+        this.stateChangeEventHandler.add(stateChangeEventHandler);
+    }
+
+    @Override
+    public ServerStreamChannelMessageListener getStreamMessageListener() {
+        return serverStreamChannelMessageListener;
+    }
+
+    @Override
+    public void setServerStreamChannelMessageListener(ServerStreamChannelMessageListener serverStreamChannelMessageListener) {
+        Assert.requireNonNull(serverStreamChannelMessageListener, "serverStreamChannelMessageListener must not be null");
+
+        this.serverStreamChannelMessageListener = serverStreamChannelMessageListener;
+    }
+
+    @Override
+    public Timer getRequestManagerTimer() {
+        return requestManagerTimer;
+    }
+
+    @Override
+    public RequestLatencyRecorder getRequestLatencyRecorder() {
+        return requestLatencyRecorder;
+    }
+
+    @Override
+    public ClusterOption getClusterOption() {
+        return clusterOption;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (released) {
+                return;
+            }
+            released = true;
+        }
+        healthCheckManager.stop();
+        healthCheckTimer.stop();
+
+        closePinpointServer();
+
+        if (serverChannel != null) {
+            serverChannel.close().awaitUninterruptibly(CHANNEL_CLOSE_MAXIMUM_WAITING_TIME_MILLIS, TimeUnit.MILLISECONDS);
+            serverChannel = null;
+        }
+        // pending close packets are flushed during the quiet period
+        eventLoopGroup.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_MILLIS, CHANNEL_CLOSE_MAXIMUM_WAITING_TIME_MILLIS, TimeUnit.MILLISECONDS)
+                .awaitUninterruptibly(CHANNEL_CLOSE_MAXIMUM_WAITING_TIME_MILLIS, TimeUnit.MILLISECONDS);
+
+        // clear the request first and remove timer
+        requestManagerTimer.stop();
+    }
+
+    private void closePinpointServer() {
+        for (org.jboss.netty.channel.Channel channel : channelGroup) {
+            DefaultPinpointServer pinpointServer = (DefaultPinpointServer) channel.getAttachment();
+
+            if (pinpointServer != null) {
+                pinpointServer.sendClosePacket();
+            }
+        }
+    }
+
+    @Override
+    public List<PinpointSocket> getWritableSocketList() {
+        List<PinpointSocket> pinpointServerList = new ArrayList<PinpointSocket>();
+
+        for (org.jboss.netty.channel.Channel channel : channelGroup) {
+            DefaultPinpointServer pinpointServer = (DefaultPinpointServer) channel.getAttachment();
+            if (pinpointServer != null && pinpointServer.isEnableDuplexCommunication()) {
+                pinpointServerList.add(pinpointServer);
+            }
+        }
+
+        return pinpointServerList;
+    }
+
+    private DefaultPinpointServer getPinpointServer(Channel channel) {
+        final Netty4ChannelAdapter channelAdapter = channel.attr(CHANNEL_ADAPTER).get();
+        if (channelAdapter == null) {
+            return null;
+        }
+        return (DefaultPinpointServer) channelAdapter.getAttachment();
+    }
+
+    @ChannelHandler.Sharable
+    class PinpointServerChannelHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            final Channel channel = ctx.channel();
+            logger.info("channelActive started. channel:{}", channel);
+
+            if (released) {
+                logger.warn("already released. channel:{}", channel);
+                channel.writeAndFlush(new ServerClosePacket()).addListener(ChannelFutureListener.CLOSE);
+                return;
+            }
+
+            final Netty4ChannelAdapter channelAdapter = new Netty4ChannelAdapter(channel);
+            final boolean accept = channelConnectedFilter.accept(channelAdapter);
+            if (!accept) {
+                logger.debug("channelActive() channel discard. {}", channel);
+                return;
+            }
+
+            DefaultPinpointServer pinpointServer = new DefaultPinpointServer(channelAdapter, Netty4PinpointServerAcceptor.this);
+            channelAdapter.setAttachment(pinpointServer);
+            channel.attr(CHANNEL_ADAPTER).set(channelAdapter);
+            // removed from the group by the close future
+            channelGroup.add(channelAdapter);
+
+            pinpointServer.start();
+
+            super.channelActive(ctx);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            final DefaultPinpointServer pinpointServer = getPinpointServer(ctx.channel());
+            if (pinpointServer != null) {
+                pinpointServer.stop(released);
+            }
+
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object message) throws Exception {
+            try {
+                final DefaultPinpointServer pinpointServer = getPinpointServer(ctx.channel());
+                if (pinpointServer == null) {
+                    return;
+                }
+                if (message instanceof PayloadFrame) {
+                    pinpointServer.messageReceived(((PayloadFrame) message).toPacket());
+                } else {
+                    pinpointServer.messageReceived(message);
+                }
+            } finally {
+                ReferenceCountUtil.release(message);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+            logger.warn("exceptionCaught() channel:{} caused:{}", ctx.channel(), cause.getMessage(), cause);
+        }
+    }
+}
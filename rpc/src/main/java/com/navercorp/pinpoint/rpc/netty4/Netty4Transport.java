@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.netty4;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates Netty 4 bootstraps for the pinpoint packet protocol.
+ * <p>
+ * Channels use the {@link PooledByteBufAllocator} and the native epoll transport when it can be loaded,
+ * falling back to NIO otherwise. A single event loop group serves both accepting and reading, so there is no
+ * separate boss/worker thread pool as in the Netty 3 acceptor.
+ */
+public final class Netty4Transport {
+
+    private static final Logger logger = LoggerFactory.getLogger(Netty4Transport.class);
+
+    private static final boolean EPOLL_AVAILABLE = checkEpoll();
+
+    private Netty4Transport() {
+    }
+
+    private static boolean checkEpoll() {
+        final String osName = System.getProperty("os.name", "");
+        if (!osName.toLowerCase().startsWith("linux")) {
+            return false;
+        }
+        try {
+            // loads the native library, fails with an Error when it is missing
+            final EventLoopGroup group = new EpollEventLoopGroup(1);
+            group.shutdownGracefully();
+            return true;
+        } catch (Throwable th) {
+            logger.info("epoll transport not available, using nio. cause:{}", th.getMessage());
+            return false;
+        }
+    }
+
+    public static boolean isEpollAvailable() {
+        return EPOLL_AVAILABLE;
+    }
+
+    public static EventLoopGroup newEventLoopGroup(int threadCount, ThreadFactory threadFactory) {
+        if (threadFactory == null) {
+            throw new NullPointerException("threadFactory must not be null");
+        }
+        if (EPOLL_AVAILABLE) {
+            return new EpollEventLoopGroup(threadCount, threadFactory);
+        }
+        return new NioEventLoopGroup(threadCount, threadFactory);
+    }
+
+    public static Class<? extends ServerChannel> serverChannelClass() {
+        if (EPOLL_AVAILABLE) {
+            return EpollServerSocketChannel.class;
+        }
+        return NioServerSocketChannel.class;
+    }
+
+    public static Class<? extends Channel> channelClass() {
+        if (EPOLL_AVAILABLE) {
+            return EpollSocketChannel.class;
+        }
+        return NioSocketChannel.class;
+    }
+
+    /**
+     * @param handlerInitializer sharable handler added after the codec of every channel, consuming {@link PayloadFrame}s and control packets
+     */
+    public static ServerBootstrap newServerBootstrap(EventLoopGroup eventLoopGroup, ChannelHandler handlerInitializer) {
+        if (eventLoopGroup == null) {
+            throw new NullPointerException("eventLoopGroup must not be null");
+        }
+        if (handlerInitializer == null) {
+            throw new NullPointerException("handlerInitializer must not be null");
+        }
+        final ServerBootstrap bootstrap = new ServerBootstrap();
+        bootstrap.group(eventLoopGroup);
+        bootstrap.channel(serverChannelClass());
+        bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        bootstrap.option(ChannelOption.SO_REUSEADDR, true);
+        bootstrap.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        bootstrap.childOption(ChannelOption.TCP_NODELAY, true);
+        bootstrap.childOption(ChannelOption.SO_KEEPALIVE, true);
+        bootstrap.childHandler(new PacketChannelInitializer(handlerInitializer));
+        return bootstrap;
+    }
+
+    public static Bootstrap newBootstrap(EventLoopGroup eventLoopGroup, ChannelHandler handlerInitializer) {
+        if (eventLoopGroup == null) {
+            throw new NullPointerException("eventLoopGroup must not be null");
+        }
+        if (handlerInitializer == null) {
+            throw new NullPointerException("handlerInitializer must not be null");
+        }
+        final Bootstrap bootstrap = new Bootstrap();
+        bootstrap.group(eventLoopGroup);
+        bootstrap.channel(channelClass());
+        bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        bootstrap.option(ChannelOption.TCP_NODELAY, true);
+        bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
+        bootstrap.handler(new PacketChannelInitializer(handlerInitializer));
+        return bootstrap;
+    }
+
+    static class PacketChannelInitializer extends ChannelInitializer<Channel> {
+
+        private static final PacketFrameEncoder ENCODER = new PacketFrameEncoder();
+
+        private final ChannelHandler handler;
+
+        PacketChannelInitializer(ChannelHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        protected void initChannel(Channel channel) throws Exception {
+            final ChannelPipeline pipeline = channel.pipeline();
+            pipeline.addLast("decoder", new PacketFrameDecoder());
+            pipeline.addLast("encoder", ENCODER);
+            pipeline.addLast("handler", handler);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.netty4;
+
+import com.navercorp.pinpoint.rpc.packet.ClientClosePacket;
+import com.navercorp.pinpoint.rpc.packet.ControlHandshakePacket;
+import com.navercorp.pinpoint.rpc.packet.ControlHandshakeResponsePacket;
+import com.navercorp.pinpoint.rpc.packet.PacketType;
+import com.navercorp.pinpoint.rpc.packet.PingPacket;
+import com.navercorp.pinpoint.rpc.packet.PingPayloadPacket;
+import com.navercorp.pinpoint.rpc.packet.PingSimplePacket;
+import com.navercorp.pinpoint.rpc.packet.PongPacket;
+import com.navercorp.pinpoint.rpc.packet.ServerClosePacket;
+import com.navercorp.pinpoint.rpc.packet.stream.StreamClosePacket;
+import com.navercorp.pinpoint.rpc.packet.stream.StreamCreateFailPacket;
+import com.navercorp.pinpoint.rpc.packet.stream.StreamCreatePacket;
+import com.navercorp.pinpoint.rpc.packet.stream.StreamCreateSuccessPacket;
+import com.navercorp.pinpoint.rpc.packet.stream.StreamPingPacket;
+import com.navercorp.pinpoint.rpc.packet.stream.StreamPongPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import org.jboss.netty.buffer.ByteBufferBackedChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferFactory;
+import org.jboss.netty.buffer.HeapChannelBufferFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Netty 4 counterpart of {@link com.navercorp.pinpoint.rpc.codec.ServerPacketDecoder}, reading the same wire format.
+ * <p>
+ * Application payload packets are emitted as {@link PayloadFrame}s holding a retained slice of the receive buffer,
+ * so the payload is never copied by the decoder. The remaining control and stream packets are rare and small,
+ * they are parsed by the existing packet classes and emitted as regular {@link com.navercorp.pinpoint.rpc.packet.Packet}s.
+ * As in ServerPacketDecoder, ping packets are passed to the next handler and pong packets are dropped.
+ */
+public class PacketFrameDecoder extends ByteToMessageDecoder {
+
+    private static final int PAYLOAD_LENGTH_SIZE = 4;
+    private static final int ID_SIZE = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (in.readableBytes() < PacketType.PACKET_TYPE_SIZE) {
+            return;
+        }
+        final short packetType = in.getShort(in.readerIndex());
+        if (PayloadFrame.isPayloadFrameType(packetType)) {
+            final PayloadFrame frame = readPayloadFrame(packetType, in);
+            if (frame != null) {
+                out.add(frame);
+            }
+            return;
+        }
+        readLegacyPacket(ctx, packetType, in, out);
+    }
+
+    private PayloadFrame readPayloadFrame(short packetType, ByteBuf in) {
+        final boolean hasId = PayloadFrame.hasId(packetType);
+        final int headerSize = PacketType.PACKET_TYPE_SIZE + (hasId ? ID_SIZE : 0) + PAYLOAD_LENGTH_SIZE;
+        if (in.readableBytes() < headerSize) {
+            return null;
+        }
+        final int readerIndex = in.readerIndex();
+        final int id = hasId ? in.getInt(readerIndex + PacketType.PACKET_TYPE_SIZE) : PayloadFrame.NO_ID;
+        final int payloadLength = in.getInt(readerIndex + headerSize - PAYLOAD_LENGTH_SIZE);
+        if (payloadLength <= 0) {
+            // -1 is written for a null payload, decoded as an empty payload like the legacy decoder
+            in.skipBytes(headerSize);
+            return new PayloadFrame(packetType, id, Unpooled.EMPTY_BUFFER);
+        }
+        if (in.readableBytes() < headerSize + payloadLength) {
+            return null;
+        }
+        in.skipBytes(headerSize);
+        final ByteBuf payload = in.readSlice(payloadLength).retain();
+        return new PayloadFrame(packetType, id, payload);
+    }
+
+    private void readLegacyPacket(ChannelHandlerContext ctx, short packetType, ByteBuf in, List<Object> out) {
+        // view of the readable bytes, the legacy parsers reset to the mark when the packet is incomplete
+        final ChannelBuffer buffer = new LegacyPacketBuffer(in.nioBuffer());
+        buffer.markReaderIndex();
+        buffer.readShort();
+
+        final Object packet;
+        switch (packetType) {
+            case PacketType.APPLICATION_STREAM_CREATE:
+                packet = StreamCreatePacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.APPLICATION_STREAM_CLOSE:
+                packet = StreamClosePacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.APPLICATION_STREAM_CREATE_SUCCESS:
+                packet = StreamCreateSuccessPacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.APPLICATION_STREAM_CREATE_FAIL:
+                packet = StreamCreateFailPacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.APPLICATION_STREAM_PING:
+                packet = StreamPingPacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.APPLICATION_STREAM_PONG:
+                packet = StreamPongPacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.CONTROL_CLIENT_CLOSE:
+                packet = ClientClosePacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.CONTROL_SERVER_CLOSE:
+                packet = ServerClosePacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.CONTROL_PING_SIMPLE:
+                packet = PingSimplePacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.CONTROL_PING_PAYLOAD:
+                packet = PingPayloadPacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.CONTROL_PING:
+                packet = PingPacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.CONTROL_PONG:
+                packet = PongPacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.CONTROL_HANDSHAKE:
+                packet = ControlHandshakePacket.readBuffer(packetType, buffer);
+                break;
+            case PacketType.CONTROL_HANDSHAKE_RESPONSE:
+                packet = ControlHandshakeResponsePacket.readBuffer(packetType, buffer);
+                break;
+            default:
+                logger.error("invalid packetType received. packetType:{}, channel:{}", packetType, ctx.channel());
+                in.skipBytes(in.readableBytes());
+                ctx.close();
+                return;
+        }
+        if (packet == null) {
+            // wait for more bytes
+            return;
+        }
+        in.skipBytes(buffer.readerIndex());
+
+        if (packetType == PacketType.CONTROL_PONG) {
+            logger.debug("receive pong. {}", ctx.channel());
+            // just also drop pong.
+            return;
+        }
+        out.add(packet);
+    }
+
+    /**
+     * The legacy parsers call array() on the payload they read, so payloads are read into heap buffers
+     * even when the receive buffer is direct.
+     */
+    private static class LegacyPacketBuffer extends ByteBufferBackedChannelBuffer {
+
+        private LegacyPacketBuffer(ByteBuffer buffer) {
+            super(buffer);
+        }
+
+        @Override
+        public ChannelBufferFactory factory() {
+            return HeapChannelBufferFactory.getInstance(order());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.netty4;
+
+import com.navercorp.pinpoint.rpc.packet.Packet;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Netty 4 counterpart of {@link com.navercorp.pinpoint.rpc.codec.PacketEncoder}.
+ * <p>
+ * A {@link PayloadFrame} is written as a pooled header buffer followed by its payload, which is passed on without
+ * copying. Any other {@link Packet} is encoded by {@link Packet#toBuffer()} and its buffers are wrapped as they are.
+ */
+@ChannelHandler.Sharable
+public class PacketFrameEncoder extends MessageToMessageEncoder<Object> {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, List<Object> out) throws Exception {
+        if (msg instanceof PayloadFrame) {
+            encodePayloadFrame(ctx, (PayloadFrame) msg, out);
+            return;
+        }
+        if (msg instanceof Packet) {
+            final ChannelBuffer buffer = ((Packet) msg).toBuffer();
+            out.add(Unpooled.wrappedBuffer(buffer.toByteBuffers()));
+            return;
+        }
+        logger.error("invalid packet:{} channel:{}", msg, ctx.channel());
+    }
+
+    private void encodePayloadFrame(ChannelHandlerContext ctx, PayloadFrame frame, List<Object> out) {
+        final short packetType = frame.getPacketType();
+        final boolean hasId = PayloadFrame.hasId(packetType);
+        final ByteBuf payload = frame.payload();
+
+        final ByteBuf header = ctx.alloc().buffer(hasId ? 10 : 6);
+        header.writeShort(packetType);
+        if (hasId) {
+            header.writeInt(frame.getId());
+        }
+        header.writeInt(payload.readableBytes());
+        out.add(header);
+        if (payload.isReadable()) {
+            // the encoder releases the frame once encoded
+            out.add(payload.retain());
+        }
+    }
+}
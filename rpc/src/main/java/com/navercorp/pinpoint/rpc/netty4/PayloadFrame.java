@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.netty4;
+
+import com.navercorp.pinpoint.rpc.packet.Packet;
+import com.navercorp.pinpoint.rpc.packet.PacketType;
+import com.navercorp.pinpoint.rpc.packet.RequestPacket;
+import com.navercorp.pinpoint.rpc.packet.ResponsePacket;
+import com.navercorp.pinpoint.rpc.packet.SendPacket;
+import com.navercorp.pinpoint.rpc.packet.stream.StreamResponsePacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCounted;
+
+/**
+ * Application packet whose payload is a slice of the receive buffer instead of a copied byte[].
+ * <p>
+ * Covers {@link PacketType#APPLICATION_SEND}, {@link PacketType#APPLICATION_REQUEST},
+ * {@link PacketType#APPLICATION_RESPONSE} and {@link PacketType#APPLICATION_STREAM_RESPONSE}.
+ * The frame owns one reference to its payload, so whoever consumes it must {@link #release()} it.
+ *
+ * @see PacketFrameDecoder
+ */
+public class PayloadFrame implements ReferenceCounted {
+
+    public static final int NO_ID = -1;
+
+    private final short packetType;
+    private final int id;
+    private final ByteBuf payload;
+
+    public PayloadFrame(short packetType, int id, ByteBuf payload) {
+        if (payload == null) {
+            throw new NullPointerException("payload must not be null");
+        }
+        if (!isPayloadFrameType(packetType)) {
+            throw new IllegalArgumentException("unsupported packetType:" + packetType);
+        }
+        this.packetType = packetType;
+        this.id = id;
+        this.payload = payload;
+    }
+
+    static boolean isPayloadFrameType(short packetType) {
+        switch (packetType) {
+            case PacketType.APPLICATION_SEND:
+            case PacketType.APPLICATION_REQUEST:
+            case PacketType.APPLICATION_RESPONSE:
+            case PacketType.APPLICATION_STREAM_RESPONSE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean hasId(short packetType) {
+        return packetType != PacketType.APPLICATION_SEND;
+    }
+
+    public short getPacketType() {
+        return packetType;
+    }
+
+    /**
+     * @return requestId of request/response packets, streamChannelId of stream packets, {@link #NO_ID} otherwise
+     */
+    public int getId() {
+        return id;
+    }
+
+    public ByteBuf payload() {
+        return payload;
+    }
+
+    /**
+     * Copies the payload into the equivalent {@link Packet} for handlers that work on byte arrays.
+     * Does not release this frame.
+     */
+    public Packet toPacket() {
+        final byte[] bytes = new byte[payload.readableBytes()];
+        payload.getBytes(payload.readerIndex(), bytes);
+        switch (packetType) {
+            case PacketType.APPLICATION_SEND:
+                return new SendPacket(bytes);
+            case PacketType.APPLICATION_REQUEST:
+                return new RequestPacket(id, bytes);
+            case PacketType.APPLICATION_RESPONSE:
+                return new ResponsePacket(id, bytes);
+            case PacketType.APPLICATION_STREAM_RESPONSE:
+                return new StreamResponsePacket(id, bytes);
+            default:
+                throw new IllegalStateException("unsupported packetType:" + packetType);
+        }
+    }
+
+    @Override
+    public int refCnt() {
+        return payload.refCnt();
+    }
+
+    @Override
+    public PayloadFrame retain() {
+        payload.retain();
+        return this;
+    }
+
+    @Override
+    public PayloadFrame retain(int increment) {
+        payload.retain(increment);
+        return this;
+    }
+
+    @Override
+    public boolean release() {
+        return payload.release();
+    }
+
+    @Override
+    public boolean release(int decrement) {
+        return payload.release(decrement);
+    }
+
+    @Override
+    public String toString() {
+        return "PayloadFrame{" +
+                "packetType=" + packetType +
+                ", id=" + id +
+                ", payloadLength=" + payload.readableBytes() +
+                '}';
+    }
+}
@@ -129,7 +129,7 @@ public class DefaultPinpointServer implements PinpointServer {
             this.stateChangeEventListeners.add(DoNothingChannelStateEventHandler.INSTANCE);
         }
 
-        RequestManager requestManager = new RequestManager(serverConfig.getRequestManagerTimer(), serverConfig.getDefaultRequestTimeout());
+        RequestManager requestManager = new RequestManager(serverConfig.getRequestManagerTimer(), serverConfig.getDefaultRequestTimeout(), serverConfig.getRequestLatencyRecorder());
         this.requestManager = requestManager;
 
         
@@ -207,7 +207,7 @@ public class DefaultPinpointServer implements PinpointServer {
 
         final int requestId = this.requestManager.nextRequestId();
         RequestPacket requestPacket = new RequestPacket(requestId, payload);
-        ChannelWriteFailListenableFuture<ResponseMessage> responseFuture = this.requestManager.register(requestPacket.getRequestId());
+        ChannelWriteFailListenableFuture<ResponseMessage> responseFuture = this.requestManager.register(requestPacket);
         write0(requestPacket, responseFuture);
         return responseFuture;
     }
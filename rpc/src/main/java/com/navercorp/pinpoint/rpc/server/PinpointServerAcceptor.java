@@ -23,6 +23,7 @@ import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
 import com.navercorp.pinpoint.rpc.PinpointSocket;
 import com.navercorp.pinpoint.rpc.PinpointSocketException;
 import com.navercorp.pinpoint.rpc.PipelineFactory;
+import com.navercorp.pinpoint.rpc.client.RequestLatencyRecorder;
 import com.navercorp.pinpoint.rpc.cluster.ClusterOption;
 import com.navercorp.pinpoint.rpc.packet.ServerClosePacket;
 import com.navercorp.pinpoint.rpc.server.handler.ServerStateChangeEventHandler;
@@ -61,7 +62,7 @@ import java.util.concurrent.TimeUnit;
 /**
  * @author Taejin Koo
  */
-public class PinpointServerAcceptor implements PinpointServerConfig {
+public class PinpointServerAcceptor implements ServerAcceptor, PinpointServerConfig {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
@@ -89,6 +90,7 @@ public class PinpointServerAcceptor implements PinpointServerConfig {
     private final HealthCheckManager healthCheckManager;
 
     private final Timer requestManagerTimer;
+    private final RequestLatencyRecorder requestLatencyRecorder = new RequestLatencyRecorder();
 
     private final ClusterOption clusterOption;
 
@@ -262,6 +264,11 @@ public class PinpointServerAcceptor implements PinpointServerConfig {
         return requestManagerTimer;
     }
 
+    @Override
+    public RequestLatencyRecorder getRequestLatencyRecorder() {
+        return requestLatencyRecorder;
+    }
+
     @Override
     public ClusterOption getClusterOption() {
         return clusterOption;
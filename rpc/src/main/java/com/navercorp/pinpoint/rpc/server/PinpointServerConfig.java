@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.rpc.server;
 
+import com.navercorp.pinpoint.rpc.client.RequestLatencyRecorder;
 import com.navercorp.pinpoint.rpc.cluster.ClusterOption;
 import com.navercorp.pinpoint.rpc.server.handler.ServerStateChangeEventHandler;
 import com.navercorp.pinpoint.rpc.stream.ServerStreamChannelMessageListener;
@@ -32,6 +33,8 @@ public interface PinpointServerConfig {
 
     Timer getRequestManagerTimer();
 
+    RequestLatencyRecorder getRequestLatencyRecorder();
+
     ServerMessageListener getMessageListener();
     List<ServerStateChangeEventHandler> getStateChangeEventHandlers();
 
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.server;
+
+import com.navercorp.pinpoint.rpc.PinpointSocket;
+import com.navercorp.pinpoint.rpc.PinpointSocketException;
+import com.navercorp.pinpoint.rpc.client.RequestLatencyRecorder;
+import com.navercorp.pinpoint.rpc.server.handler.ServerStateChangeEventHandler;
+import com.navercorp.pinpoint.rpc.stream.ServerStreamChannelMessageListener;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Accepts pinpoint client connections, one {@link PinpointServer} per connection.
+ *
+ * @see PinpointServerAcceptor
+ * @see com.navercorp.pinpoint.rpc.netty4.Netty4PinpointServerAcceptor
+ */
+public interface ServerAcceptor {
+
+    void bind(String host, int port) throws PinpointSocketException;
+
+    void bind(InetSocketAddress bindAddress) throws PinpointSocketException;
+
+    void setMessageListener(ServerMessageListener messageListener);
+
+    void addStateChangeEventHandler(ServerStateChangeEventHandler stateChangeEventHandler);
+
+    void setServerStreamChannelMessageListener(ServerStreamChannelMessageListener serverStreamChannelMessageListener);
+
+    void setDefaultRequestTimeout(long defaultRequestTimeout);
+
+    RequestLatencyRecorder getRequestLatencyRecorder();
+
+    List<PinpointSocket> getWritableSocketList();
+
+    void close();
+}
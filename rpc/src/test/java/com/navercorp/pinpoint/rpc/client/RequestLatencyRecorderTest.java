@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RequestLatencyRecorderTest {
+
+    @Test
+    public void readRequestType() {
+        byte[] payload = {(byte) 0xef, 0x10, 0x02, (byte) 0xda, 0x01};
+        Assert.assertEquals(730, RequestLatencyRecorder.readRequestType(payload));
+
+        Assert.assertEquals(RequestLatencyRecorder.UNKNOWN_REQUEST_TYPE, RequestLatencyRecorder.readRequestType(null));
+        Assert.assertEquals(RequestLatencyRecorder.UNKNOWN_REQUEST_TYPE, RequestLatencyRecorder.readRequestType(new byte[]{(byte) 0xef, 0x10}));
+        Assert.assertEquals(RequestLatencyRecorder.UNKNOWN_REQUEST_TYPE, RequestLatencyRecorder.readRequestType(new byte[]{1, 2, 3, 4}));
+    }
+
+    @Test
+    public void histogram() {
+        RequestLatencyRecorder recorder = new RequestLatencyRecorder();
+        RequestLatencyHistogram histogram = recorder.getHistogram((short) 730);
+        Assert.assertSame(histogram, recorder.getHistogram((short) 730));
+
+        histogram.record(5);
+        histogram.record(10);
+        histogram.record(200);
+        histogram.record(10000);
+        histogram.recordTimeout();
+        histogram.recordFail();
+
+        long[] counts = histogram.getCounts();
+        Assert.assertEquals(RequestLatencyHistogram.getUpperBounds().length + 1, counts.length);
+        Assert.assertEquals(2, counts[0]);
+        Assert.assertEquals(1, counts[3]);
+        Assert.assertEquals(1, counts[counts.length - 1]);
+        Assert.assertEquals(4, histogram.getResponseCount());
+        Assert.assertEquals(10000, histogram.getMaxElapsed());
+        Assert.assertEquals(2553, histogram.getAvgElapsed());
+        Assert.assertEquals(1, histogram.getTimeoutCount());
+        Assert.assertEquals(1, histogram.getFailCount());
+        Assert.assertEquals(1, recorder.getHistograms().size());
+    }
+
+    @Test
+    public void histogramListener() {
+        RequestLatencyRecorder recorder = new RequestLatencyRecorder();
+        RequestLatencyHistogram existing = recorder.getHistogram((short) 730);
+
+        final List<RequestLatencyHistogram> added = new ArrayList<RequestLatencyHistogram>();
+        recorder.addHistogramListener(new RequestLatencyRecorder.HistogramListener() {
+            @Override
+            public void histogramAdded(RequestLatencyHistogram histogram) {
+                added.add(histogram);
+            }
+        });
+        RequestLatencyHistogram newHistogram = recorder.getHistogram((short) 731);
+        recorder.getHistogram((short) 731);
+
+        Assert.assertEquals(Arrays.asList(existing, newHistogram), added);
+    }
+}
@@ -20,6 +20,8 @@ import com.navercorp.pinpoint.rpc.DefaultFuture;
 import com.navercorp.pinpoint.rpc.Future;
 import com.navercorp.pinpoint.rpc.TestAwaitTaskUtils;
 import com.navercorp.pinpoint.rpc.TestAwaitUtils;
+import com.navercorp.pinpoint.rpc.packet.RequestPacket;
+import com.navercorp.pinpoint.rpc.packet.ResponsePacket;
 import org.jboss.netty.util.HashedWheelTimer;
 import org.jboss.netty.util.Timer;
 import org.junit.After;
@@ -94,6 +96,34 @@ public class RequestManagerTest {
 
     }
 
+    @Test
+    public void testLatencyHistogram() throws Exception {
+        RequestManager requestManager = new RequestManager(timer, 3000);
+        try {
+            byte[] payload = {(byte) 0xef, 0x10, 0x02, (byte) 0xda};
+            RequestPacket requestPacket = new RequestPacket(requestManager.nextRequestId(), payload);
+            Future future = requestManager.register(requestPacket);
+            requestManager.messageReceived(new ResponsePacket(requestPacket.getRequestId(), new byte[0]), "test");
+
+            Assert.assertTrue(future.isSuccess());
+            RequestLatencyHistogram histogram = requestManager.getLatencyRecorder().getHistogram((short) 730);
+            Assert.assertEquals(1, histogram.getResponseCount());
+            Assert.assertNull(requestManager.removeMessageFuture(requestPacket.getRequestId()));
+        } finally {
+            requestManager.close();
+        }
+    }
+
+    @Test
+    public void testCloseFailsPendingRequest() throws Exception {
+        RequestManager requestManager = new RequestManager(timer, 3000);
+        Future future = requestManager.register(requestManager.nextRequestId(), 3000);
+        requestManager.close();
+
+        Assert.assertTrue(future.isReady());
+        Assert.assertFalse(future.isSuccess());
+    }
+
     private HashedWheelTimer getTimer() {
         return new HashedWheelTimer(10, TimeUnit.MICROSECONDS);
     }
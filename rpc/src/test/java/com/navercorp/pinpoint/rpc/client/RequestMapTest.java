@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+import com.navercorp.pinpoint.rpc.ChannelWriteFailListenableFuture;
+import com.navercorp.pinpoint.rpc.ResponseMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class RequestMapTest {
+
+    private final RequestLatencyHistogram histogram = new RequestLatencyHistogram(RequestLatencyRecorder.UNKNOWN_REQUEST_TYPE);
+
+    @Test
+    public void putAndRemove() {
+        RequestMap requestMap = new RequestMap(8);
+        PendingRequest request = newRequest(requestMap, 1);
+
+        Assert.assertNull(requestMap.putIfAbsent(request));
+        Assert.assertSame(request, requestMap.putIfAbsent(newRequest(requestMap, 1)));
+        Assert.assertSame(request, requestMap.get(1));
+        Assert.assertEquals(1, requestMap.size());
+
+        Assert.assertSame(request, requestMap.remove(1));
+        Assert.assertNull(requestMap.remove(1));
+        Assert.assertNull(requestMap.get(1));
+        Assert.assertEquals(0, requestMap.size());
+    }
+
+    @Test
+    public void collision() {
+        RequestMap requestMap = new RequestMap(4);
+        // every id lands on the same home slot
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNull(requestMap.putIfAbsent(newRequest(requestMap, i * 4)));
+        }
+        Assert.assertEquals(10, requestMap.size());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(i * 4, requestMap.get(i * 4).getRequestId());
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(i * 4, requestMap.remove(i * 4).getRequestId());
+        }
+        Assert.assertEquals(0, requestMap.size());
+    }
+
+    @Test
+    public void removeExpected() {
+        RequestMap requestMap = new RequestMap(8);
+        PendingRequest request = newRequest(requestMap, 3);
+        requestMap.putIfAbsent(request);
+
+        Assert.assertFalse(requestMap.remove(3, newRequest(requestMap, 3)));
+        Assert.assertTrue(requestMap.remove(3, request));
+        Assert.assertFalse(requestMap.remove(3, request));
+    }
+
+    @Test
+    public void drain() {
+        RequestMap requestMap = new RequestMap(4);
+        for (int i = 0; i < 20; i++) {
+            requestMap.putIfAbsent(newRequest(requestMap, i));
+        }
+        List<PendingRequest> drained = requestMap.drain();
+        Assert.assertEquals(20, drained.size());
+        Assert.assertEquals(0, requestMap.size());
+    }
+
+    @Test
+    public void negativeRequestId() {
+        RequestMap requestMap = new RequestMap(8);
+        PendingRequest request = newRequest(requestMap, Integer.MIN_VALUE);
+        Assert.assertNull(requestMap.putIfAbsent(request));
+        Assert.assertSame(request, requestMap.remove(Integer.MIN_VALUE));
+    }
+
+    private PendingRequest newRequest(RequestMap requestMap, int requestId) {
+        ChannelWriteFailListenableFuture<ResponseMessage> future = new ChannelWriteFailListenableFuture<ResponseMessage>(1000);
+        return new PendingRequest(requestMap, requestId, histogram, 0, 1000, future);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.client;
+
+import com.navercorp.pinpoint.rpc.ChannelWriteFailListenableFuture;
+import com.navercorp.pinpoint.rpc.ResponseMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RequestTimeoutWheelTest {
+
+    private final RequestMap requestMap = new RequestMap(16);
+    private final RequestLatencyHistogram histogram = new RequestLatencyHistogram(RequestLatencyRecorder.UNKNOWN_REQUEST_TYPE);
+    private final List<PendingRequest> expired = new ArrayList<PendingRequest>();
+    private final RequestTimeoutWheel.ExpireHandler handler = new RequestTimeoutWheel.ExpireHandler() {
+        @Override
+        public void expire(PendingRequest request) {
+            expired.add(request);
+        }
+    };
+
+    @Test
+    public void expire() {
+        RequestTimeoutWheel wheel = new RequestTimeoutWheel(10, 8, 1000);
+        PendingRequest request1 = newRequest(1, 1000, 25);
+        PendingRequest request2 = newRequest(2, 1000, 55);
+        wheel.add(request1);
+        wheel.add(request2);
+
+        Assert.assertEquals(0, wheel.expire(1020, handler));
+        Assert.assertEquals(1, wheel.expire(1030, handler));
+        Assert.assertSame(request1, expired.get(0));
+        Assert.assertEquals(1, wheel.size());
+
+        Assert.assertEquals(1, wheel.expire(1060, handler));
+        Assert.assertSame(request2, expired.get(1));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void deadlineBeyondRotation() {
+        RequestTimeoutWheel wheel = new RequestTimeoutWheel(10, 4, 1000);
+        PendingRequest request = newRequest(1, 1000, 100);
+        wheel.add(request);
+
+        for (long time = 1010; time < 1100; time += 10) {
+            Assert.assertEquals(0, wheel.expire(time, handler));
+        }
+        Assert.assertEquals(1, wheel.expire(1100, handler));
+    }
+
+    @Test
+    public void skipDoneRequest() {
+        RequestTimeoutWheel wheel = new RequestTimeoutWheel(10, 8, 1000);
+        PendingRequest request = newRequest(1, 1000, 20);
+        wheel.add(request);
+        request.getFuture().setResult(new ResponseMessage());
+
+        Assert.assertEquals(0, wheel.expire(1050, handler));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void tickerFellBehind() {
+        RequestTimeoutWheel wheel = new RequestTimeoutWheel(10, 4, 1000);
+        wheel.add(newRequest(1, 1000, 10));
+        wheel.add(newRequest(2, 1000, 30));
+
+        Assert.assertEquals(2, wheel.expire(5000, handler));
+    }
+
+    @Test
+    public void pastDeadline() {
+        RequestTimeoutWheel wheel = new RequestTimeoutWheel(10, 8, 1000);
+        wheel.expire(1050, handler);
+        // deadline already passed, expires on the next tick
+        wheel.add(newRequest(1, 1000, 10));
+        Assert.assertEquals(1, wheel.expire(1060, handler));
+    }
+
+    private PendingRequest newRequest(int requestId, long startTime, long timeoutMillis) {
+        ChannelWriteFailListenableFuture<ResponseMessage> future = new ChannelWriteFailListenableFuture<ResponseMessage>(timeoutMillis);
+        return new PendingRequest(requestMap, requestId, histogram, startTime, timeoutMillis, future);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.netty4;
+
+import com.navercorp.pinpoint.rpc.PinpointSocket;
+import com.navercorp.pinpoint.rpc.client.PinpointClient;
+import com.navercorp.pinpoint.rpc.client.PinpointClientFactory;
+import com.navercorp.pinpoint.rpc.packet.SendPacket;
+import com.navercorp.pinpoint.rpc.util.PinpointRPCTestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.util.SocketUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class Netty4PinpointServerAcceptorTest {
+
+    @Test
+    public void sendAndRequest() throws Exception {
+        final int bindPort = SocketUtils.findAvailableTcpPort();
+        final CountDownLatch sendLatch = new CountDownLatch(1);
+        Netty4PinpointServerAcceptor serverAcceptor = new Netty4PinpointServerAcceptor();
+        serverAcceptor.setMessageListener(new PinpointRPCTestUtils.EchoServerListener() {
+            @Override
+            public void handleSend(SendPacket sendPacket, PinpointSocket pinpointSocket) {
+                if (sendPacket.getPayload().length == 3) {
+                    sendLatch.countDown();
+                }
+            }
+        });
+        serverAcceptor.bind("127.0.0.1", bindPort);
+
+        PinpointClientFactory clientFactory = PinpointRPCTestUtils.createClientFactory(PinpointRPCTestUtils.getParams());
+        try {
+            PinpointClient client = clientFactory.connect("127.0.0.1", bindPort);
+
+            client.send(new byte[]{1, 2, 3});
+            Assert.assertTrue(sendLatch.await(3000, TimeUnit.MILLISECONDS));
+
+            byte[] payload = new byte[1024 * 64];
+            payload[payload.length - 1] = 1;
+            Assert.assertArrayEquals(payload, PinpointRPCTestUtils.request(client, payload));
+
+            PinpointRPCTestUtils.close(client);
+        } finally {
+            clientFactory.release();
+            serverAcceptor.close();
+        }
+    }
+
+    @Test
+    public void requestToClient() throws Exception {
+        final int bindPort = SocketUtils.findAvailableTcpPort();
+        Netty4PinpointServerAcceptor serverAcceptor = new Netty4PinpointServerAcceptor();
+        serverAcceptor.setMessageListener(PinpointRPCTestUtils.createEchoServerListener());
+        serverAcceptor.bind("127.0.0.1", bindPort);
+
+        PinpointClientFactory clientFactory = PinpointRPCTestUtils.createClientFactory(PinpointRPCTestUtils.getParams(), PinpointRPCTestUtils.createEchoClientListener());
+        try {
+            PinpointClient client = clientFactory.connect("127.0.0.1", bindPort);
+
+            List<PinpointSocket> writableSocketList = awaitWritableSocket(serverAcceptor);
+            Assert.assertEquals(1, writableSocketList.size());
+
+            byte[] payload = new byte[]{4, 5, 6};
+            Assert.assertArrayEquals(payload, PinpointRPCTestUtils.request(writableSocketList.get(0), payload));
+
+            PinpointRPCTestUtils.close(client);
+        } finally {
+            clientFactory.release();
+            serverAcceptor.close();
+        }
+    }
+
+    private List<PinpointSocket> awaitWritableSocket(Netty4PinpointServerAcceptor serverAcceptor) throws InterruptedException {
+        // the handshake completes asynchronously
+        for (int i = 0; i < 30; i++) {
+            List<PinpointSocket> writableSocketList = serverAcceptor.getWritableSocketList();
+            if (!writableSocketList.isEmpty()) {
+                return writableSocketList;
+            }
+            Thread.sleep(100);
+        }
+        return serverAcceptor.getWritableSocketList();
+    }
+}
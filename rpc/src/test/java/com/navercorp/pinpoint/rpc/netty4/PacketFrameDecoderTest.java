@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.rpc.netty4;
+
+import com.navercorp.pinpoint.rpc.codec.TestCodec;
+import com.navercorp.pinpoint.rpc.packet.ControlHandshakePacket;
+import com.navercorp.pinpoint.rpc.packet.PacketType;
+import com.navercorp.pinpoint.rpc.packet.PongPacket;
+import com.navercorp.pinpoint.rpc.packet.RequestPacket;
+import com.navercorp.pinpoint.rpc.packet.SendPacket;
+import com.navercorp.pinpoint.rpc.packet.stream.StreamResponsePacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class PacketFrameDecoderTest {
+
+    @Test
+    public void decodeSendPacket() {
+        EmbeddedChannel channel = new EmbeddedChannel(new PacketFrameDecoder());
+        byte[] bytes = TestCodec.encodePacket(new SendPacket(new byte[]{1, 2, 3}));
+        channel.writeInbound(Unpooled.wrappedBuffer(bytes));
+
+        PayloadFrame frame = (PayloadFrame) channel.readInbound();
+        Assert.assertEquals(PacketType.APPLICATION_SEND, frame.getPacketType());
+        Assert.assertEquals(PayloadFrame.NO_ID, frame.getId());
+        SendPacket packet = (SendPacket) frame.toPacket();
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, packet.getPayload());
+        Assert.assertTrue(frame.release());
+    }
+
+    @Test
+    public void decodeSplitPackets() {
+        EmbeddedChannel channel = new EmbeddedChannel(new PacketFrameDecoder());
+        byte[] request = TestCodec.encodePacket(new RequestPacket(10, new byte[]{4, 5}));
+        byte[] stream = TestCodec.encodePacket(new StreamResponsePacket(20, new byte[]{6}));
+        byte[] handshake = TestCodec.encodePacket(new ControlHandshakePacket(30, new byte[]{7}));
+        byte[] bytes = concat(request, stream, handshake);
+
+        // one byte at a time
+        for (int i = 0; i < bytes.length; i++) {
+            channel.writeInbound(Unpooled.wrappedBuffer(bytes, i, 1));
+        }
+
+        PayloadFrame requestFrame = (PayloadFrame) channel.readInbound();
+        Assert.assertEquals(PacketType.APPLICATION_REQUEST, requestFrame.getPacketType());
+        Assert.assertEquals(10, requestFrame.getId());
+        Assert.assertArrayEquals(new byte[]{4, 5}, requestFrame.toPacket().getPayload());
+        requestFrame.release();
+
+        PayloadFrame streamFrame = (PayloadFrame) channel.readInbound();
+        Assert.assertEquals(PacketType.APPLICATION_STREAM_RESPONSE, streamFrame.getPacketType());
+        Assert.assertEquals(20, streamFrame.getId());
+        streamFrame.release();
+
+        ControlHandshakePacket handshakePacket = (ControlHandshakePacket) channel.readInbound();
+        Assert.assertEquals(30, handshakePacket.getRequestId());
+        Assert.assertArrayEquals(new byte[]{7}, handshakePacket.getPayload());
+
+        Assert.assertNull(channel.readInbound());
+    }
+
+    @Test
+    public void dropPong() {
+        EmbeddedChannel channel = new EmbeddedChannel(new PacketFrameDecoder());
+        channel.writeInbound(Unpooled.wrappedBuffer(TestCodec.encodePacket(PongPacket.PONG_PACKET)));
+        Assert.assertNull(channel.readInbound());
+    }
+
+    @Test
+    public void nullPayload() {
+        EmbeddedChannel channel = new EmbeddedChannel(new PacketFrameDecoder());
+        channel.writeInbound(Unpooled.wrappedBuffer(TestCodec.encodePacket(new SendPacket())));
+
+        PayloadFrame frame = (PayloadFrame) channel.readInbound();
+        Assert.assertEquals(0, frame.payload().readableBytes());
+        Assert.assertArrayEquals(new byte[0], frame.toPacket().getPayload());
+    }
+
+    @Test
+    public void encodeWireCompatible() {
+        EmbeddedChannel channel = new EmbeddedChannel(new PacketFrameEncoder());
+        RequestPacket requestPacket = new RequestPacket(10, new byte[]{1, 2, 3});
+        channel.writeOutbound(new PayloadFrame(PacketType.APPLICATION_REQUEST, 10, Unpooled.wrappedBuffer(new byte[]{1, 2, 3})));
+        channel.writeOutbound(requestPacket);
+
+        byte[] expected = TestCodec.encodePacket(requestPacket);
+        Assert.assertArrayEquals(expected, readOutbound(channel, expected.length));
+        Assert.assertArrayEquals(expected, readOutbound(channel, expected.length));
+    }
+
+    @Test
+    public void roundTrip() {
+        EmbeddedChannel encoder = new EmbeddedChannel(new PacketFrameEncoder());
+        EmbeddedChannel decoder = new EmbeddedChannel(new PacketFrameDecoder());
+        encoder.writeOutbound(new PayloadFrame(PacketType.APPLICATION_STREAM_RESPONSE, 3, Unpooled.wrappedBuffer(new byte[]{9, 8})));
+        ByteBuf encoded;
+        while ((encoded = (ByteBuf) encoder.readOutbound()) != null) {
+            decoder.writeInbound(encoded);
+        }
+        PayloadFrame frame = (PayloadFrame) decoder.readInbound();
+        StreamResponsePacket packet = (StreamResponsePacket) frame.toPacket();
+        Assert.assertEquals(3, packet.getStreamChannelId());
+        Assert.assertArrayEquals(new byte[]{9, 8}, packet.getPayload());
+        frame.release();
+    }
+
+    private byte[] readOutbound(EmbeddedChannel channel, int length) {
+        byte[] result = new byte[length];
+        int index = 0;
+        while (index < length) {
+            ByteBuf buffer = (ByteBuf) channel.readOutbound();
+            int readable = buffer.readableBytes();
+            buffer.readBytes(result, index, readable);
+            buffer.release();
+            index += readable;
+        }
+        return result;
+    }
+
+    private byte[] concat(byte[]... arrays) {
+        byte[] result = new byte[0];
+        for (byte[] array : arrays) {
+            int offset = result.length;
+            result = Arrays.copyOf(result, offset + array.length);
+            System.arraycopy(array, 0, result, offset, array.length);
+        }
+        return result;
+    }
+}
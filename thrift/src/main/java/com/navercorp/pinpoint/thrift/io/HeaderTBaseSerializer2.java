@@ -55,6 +55,14 @@ public class HeaderTBaseSerializer2 {
         }
     }
 
+    /**
+     * header of a datagram that carries several serialized messages.
+     * @see ChunkHeaderTBaseDeserializer
+     */
+    public Header getChunkHeader() {
+        return tBaseLocator.getChunkHeader();
+    }
+
     private void writeHeader(Header header) throws TException {
         protocol.writeByte(header.getSignature());
         protocol.writeByte(header.getVersion());
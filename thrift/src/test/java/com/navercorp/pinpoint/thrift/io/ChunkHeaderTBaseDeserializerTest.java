@@ -50,4 +50,18 @@ public class ChunkHeaderTBaseDeserializerTest {
         TSpanChunk result = (TSpanChunk) list.get(0);
         assertEquals(3, result.getSpanEventList().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void deserializeNotChunked() throws Exception {
+        final ChunkHeaderTBaseDeserializer deserializer = new ChunkHeaderTBaseDeserializer(DEFAULT_PROTOCOL_FACTORY, DEFAULT_TBASE_LOCATOR);
+
+        HeaderTBaseSerializer serializer = new HeaderTBaseSerializerFactory().createSerializer();
+        TSpanChunk chunk = new TSpanMockBuilder().buildChunk(3, 10);
+        byte[] bytes = serializer.serialize(chunk);
+
+        List<TBase<?, ?>> list = deserializer.deserialize(bytes, 0, bytes.length);
+        assertEquals(1, list.size());
+        TSpanChunk result = (TSpanChunk) list.get(0);
+        assertEquals(3, result.getSpanEventList().size());
+    }
+}
@@ -23,12 +23,15 @@ import com.navercorp.pinpoint.web.alarm.vo.Rule;
 import com.navercorp.pinpoint.web.dao.ApplicationIndexDao;
 import com.navercorp.pinpoint.web.service.AlarmService;
 import com.navercorp.pinpoint.web.vo.Application;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +42,8 @@ import java.util.concurrent.ConcurrentLinkedDeque;
  * @author minwoo.jung
  */
 public class AlarmReader implements ItemReader<AlarmChecker>, StepExecutionListener {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
     
     @Autowired
     private DataCollectorFactory dataCollectorFactory;
@@ -48,6 +53,9 @@ public class AlarmReader implements ItemReader<AlarmChecker>, StepExecutionListe
     
     @Autowired
     private AlarmService alarmService;
+
+    @Autowired(required = false)
+    private DataCollectorExecutor dataCollectorExecutor;
     
     private final Queue<AlarmChecker> checkers = new ConcurrentLinkedDeque<>();
 
@@ -59,6 +67,11 @@ public class AlarmReader implements ItemReader<AlarmChecker>, StepExecutionListe
         this.applicationIndexDao = applicationIndexDao;
         this.alarmService = alarmService;
     }
+
+    protected AlarmReader(DataCollectorFactory dataCollectorFactory, ApplicationIndexDao applicationIndexDao, AlarmService alarmService, DataCollectorExecutor dataCollectorExecutor) {
+        this(dataCollectorFactory, applicationIndexDao, alarmService);
+        this.dataCollectorExecutor = dataCollectorExecutor;
+    }
     
     public AlarmChecker read() {
         return checkers.poll();
@@ -71,15 +84,23 @@ public class AlarmReader implements ItemReader<AlarmChecker>, StepExecutionListe
     @Override
     public void beforeStep(StepExecution stepExecution) {
         List<Application> applicationList = applicationIndexDao.selectAllApplicationNames();
+        // every collector of this step shares the same time range
+        long timeSlotEndTime = System.currentTimeMillis();
+        List<DataCollector> dataCollectors = new ArrayList<>();
 
         for (Application application : applicationList) {
-            addChecker(application);
+            addChecker(application, timeSlotEndTime, dataCollectors);
+        }
+
+        if (dataCollectorExecutor != null) {
+            long startTime = System.currentTimeMillis();
+            int failCount = dataCollectorExecutor.collect(dataCollectors);
+            logger.info("alarm data collected. collectors:{}, failed:{}, checkers:{}, elapsed:{}ms", dataCollectors.size(), failCount, checkers.size(), System.currentTimeMillis() - startTime);
         }
     }
 
-    private void addChecker(Application application) {
+    private void addChecker(Application application, long timeSlotEndTime, List<DataCollector> dataCollectors) {
         List<Rule> rules = alarmService.selectRuleByApplicationId(application.getName());
-        long timeSlotEndTime = System.currentTimeMillis();
         // 存放所有类型数据检查器
         Map<DataCollectorCategory, DataCollector> collectorMap = new HashMap<>();
         
@@ -90,6 +111,7 @@ public class AlarmReader implements ItemReader<AlarmChecker>, StepExecutionListe
             if (collector == null) {
                 collector = dataCollectorFactory.createDataCollector(checkerCategory, application, timeSlotEndTime);
                 collectorMap.put(collector.getDataCollectorCategory(), collector);
+                dataCollectors.add(collector);
             }
             
             AlarmChecker checker = checkerCategory.createChecker(collector, rule);
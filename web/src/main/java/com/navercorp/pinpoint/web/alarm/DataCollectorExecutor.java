@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.alarm;
+
+import com.navercorp.pinpoint.common.util.PinpointThreadFactory;
+import com.navercorp.pinpoint.web.alarm.collector.DataCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the {@link DataCollector}s of an alarm cycle concurrently on a fixed size pool so that
+ * checkers are evaluated against data that has already been fetched.
+ * A collector that fails here is left uncollected and is retried lazily by its checkers.
+ */
+public class DataCollectorExecutor {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+    private final ExecutorService executor;
+
+    public DataCollectorExecutor(int threadSize) {
+        if (threadSize <= 0) {
+            throw new IllegalArgumentException("threadSize must be greater than 0");
+        }
+        this.executor = Executors.newFixedThreadPool(threadSize, new PinpointThreadFactory("Pinpoint-AlarmDataCollector", true));
+    }
+
+    /**
+     * @return number of collectors that failed
+     */
+    public int collect(Collection<DataCollector> dataCollectors) {
+        if (dataCollectors == null) {
+            throw new NullPointerException("dataCollectors must not be null");
+        }
+
+        final List<Future<Boolean>> futures = new ArrayList<>(dataCollectors.size());
+        for (DataCollector dataCollector : dataCollectors) {
+            futures.add(executor.submit(() -> collect(dataCollector)));
+        }
+
+        int failCount = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            final Future<Boolean> future = futures.get(i);
+            try {
+                if (!future.get()) {
+                    failCount++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (int j = i; j < futures.size(); j++) {
+                    futures.get(j).cancel(true);
+                }
+                return failCount + (futures.size() - i);
+            } catch (ExecutionException e) {
+                failCount++;
+            }
+        }
+        return failCount;
+    }
+
+    private boolean collect(DataCollector dataCollector) {
+        try {
+            dataCollector.collect();
+            return true;
+        } catch (Exception e) {
+            logger.warn("failed to collect alarm data. category:{}, error:{}", dataCollector.getDataCollectorCategory(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
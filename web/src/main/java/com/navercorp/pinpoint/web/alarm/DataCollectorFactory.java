@@ -19,12 +19,14 @@ package com.navercorp.pinpoint.web.alarm;
 import com.navercorp.pinpoint.common.server.bo.stat.CpuLoadBo;
 import com.navercorp.pinpoint.common.server.bo.stat.DataSourceListBo;
 import com.navercorp.pinpoint.common.server.bo.stat.JvmGcBo;
+import com.navercorp.pinpoint.common.util.TimeSlot;
 import com.navercorp.pinpoint.web.alarm.collector.AgentEventDataCollector;
 import com.navercorp.pinpoint.web.alarm.collector.AgentStatDataCollector;
 import com.navercorp.pinpoint.web.alarm.collector.DataCollector;
 import com.navercorp.pinpoint.web.alarm.collector.DataSourceDataCollector;
 import com.navercorp.pinpoint.web.alarm.collector.MapStatisticsCallerDataCollector;
 import com.navercorp.pinpoint.web.alarm.collector.ResponseTimeDataCollector;
+import com.navercorp.pinpoint.web.alarm.collector.ResponseTimeWindow;
 import com.navercorp.pinpoint.web.dao.AgentEventDao;
 import com.navercorp.pinpoint.web.dao.hbase.HbaseApplicationIndexDao;
 import com.navercorp.pinpoint.web.dao.hbase.HbaseMapResponseTimeDao;
@@ -33,8 +35,12 @@ import com.navercorp.pinpoint.web.dao.stat.AgentStatDao;
 import com.navercorp.pinpoint.web.vo.Application;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * @author minwoo.jung
  */
@@ -69,10 +75,19 @@ public class DataCollectorFactory {
     @Autowired
     private HbaseMapStatisticsCallerDao mapStatisticsCallerDao;
 
+    @Autowired
+    private TimeSlot timeSlot;
+
+    @Value("#{batchProps['batch.alarm.responsetime.incremental.enable'] ?: true}")
+    private boolean responseTimeIncrementalEnable = true;
+
+    // response time counters survive between alarm cycles so that only new time slots are read
+    private final ConcurrentMap<Application, ResponseTimeWindow> responseTimeWindowMap = new ConcurrentHashMap<>();
+
     public DataCollector createDataCollector(CheckerCategory checker, Application application, long timeSlotEndTime) {
         switch (checker.getDataCollectorCategory()) {
             case RESPONSE_TIME:
-                return new ResponseTimeDataCollector(DataCollectorCategory.RESPONSE_TIME, application, hbaseMapResponseTimeDao, timeSlotEndTime, SLOT_INTERVAL_FIVE_MIN);
+                return new ResponseTimeDataCollector(DataCollectorCategory.RESPONSE_TIME, application, hbaseMapResponseTimeDao, timeSlotEndTime, SLOT_INTERVAL_FIVE_MIN, getResponseTimeWindow(application));
             case AGENT_STAT:
                 return new AgentStatDataCollector(DataCollectorCategory.AGENT_STAT, application, jvmGcDao, cpuLoadDao, hbaseApplicationIndexDao, timeSlotEndTime, SLOT_INTERVAL_FIVE_MIN);
             case AGENT_EVENT:
@@ -86,6 +101,13 @@ public class DataCollectorFactory {
         throw new IllegalArgumentException("unable to create DataCollector : " + checker.getName());
     }
 
+    private ResponseTimeWindow getResponseTimeWindow(Application application) {
+        if (!responseTimeIncrementalEnable) {
+            return null;
+        }
+        return responseTimeWindowMap.computeIfAbsent(application, key -> new ResponseTimeWindow(timeSlot));
+    }
+
     public enum DataCollectorCategory {
         RESPONSE_TIME,
         AGENT_STAT,
@@ -36,6 +36,7 @@ public class ResponseTimeDataCollector extends DataCollector {
     private final MapResponseDao responseDao;
     private final long timeSlotEndTime;
     private final long slotInterval;
+    private final ResponseTimeWindow responseTimeWindow;
     private final AtomicBoolean init =new AtomicBoolean(false); // need to consider a race condition when checkers start simultaneously.
 
     private long slowCount = 0;
@@ -45,11 +46,19 @@ public class ResponseTimeDataCollector extends DataCollector {
     private long errorRate = 0;
 
     public ResponseTimeDataCollector(DataCollectorCategory category, Application application, MapResponseDao responseDAO, long timeSlotEndTime, long slotInterval) {
+        this(category, application, responseDAO, timeSlotEndTime, slotInterval, null);
+    }
+
+    /**
+     * @param responseTimeWindow counters kept from previous alarm cycles, {@code null} reads the whole window every time
+     */
+    public ResponseTimeDataCollector(DataCollectorCategory category, Application application, MapResponseDao responseDAO, long timeSlotEndTime, long slotInterval, ResponseTimeWindow responseTimeWindow) {
         super(category);
         this.application = application;
         this.responseDao = responseDAO;
         this.timeSlotEndTime = timeSlotEndTime;
         this.slotInterval = slotInterval;
+        this.responseTimeWindow = responseTimeWindow;
     }
 
     @Override
@@ -58,11 +67,15 @@ public class ResponseTimeDataCollector extends DataCollector {
             return;
         }
 
-        Range range = Range.createUncheckedRange(timeSlotEndTime - slotInterval, timeSlotEndTime);
-        List<ResponseTime> responseTimes = responseDao.selectResponseTime(application, range);
+        if (responseTimeWindow == null) {
+            Range range = Range.createUncheckedRange(timeSlotEndTime - slotInterval, timeSlotEndTime);
+            List<ResponseTime> responseTimes = responseDao.selectResponseTime(application, range);
 
-        for (ResponseTime responseTime : responseTimes) {
-            sum(responseTime.getAgentResponseHistogramList());
+            for (ResponseTime responseTime : responseTimes) {
+                sum(responseTime.getAgentResponseHistogramList());
+            }
+        } else {
+            collectIncrementally();
         }
 
         setSlowRate();
@@ -71,6 +84,23 @@ public class ResponseTimeDataCollector extends DataCollector {
         init.set(true);
     }
 
+    private void collectIncrementally() {
+        final long windowStartTime = timeSlotEndTime - slotInterval;
+        final ResponseTimeWindow.Counter counter;
+        synchronized (responseTimeWindow) {
+            long collectStartTime = responseTimeWindow.getCollectStartTime(windowStartTime);
+            Range range = Range.createUncheckedRange(collectStartTime, timeSlotEndTime);
+            List<ResponseTime> responseTimes = responseDao.selectResponseTime(application, range);
+
+            responseTimeWindow.update(collectStartTime, timeSlotEndTime, responseTimes, windowStartTime);
+            counter = responseTimeWindow.sum();
+        }
+
+        slowCount = counter.getSlowCount();
+        errorCount = counter.getErrorCount();
+        totalCount = counter.getTotalCount();
+    }
+
     private void setSlowRate() {
         slowRate = calculatePercent(slowCount);
     }
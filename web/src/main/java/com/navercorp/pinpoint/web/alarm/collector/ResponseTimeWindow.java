@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.alarm.collector;
+
+import com.navercorp.pinpoint.common.util.TimeSlot;
+import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
+import com.navercorp.pinpoint.web.vo.ResponseTime;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Response time counters of one application kept per time slot across alarm cycles.
+ * Only the time slots newer than the previous cycle have to be read again, the newest slot
+ * of the previous read is included since it may still have been filling up.
+ */
+public class ResponseTimeWindow {
+
+    private final TimeSlot timeSlot;
+    private final NavigableMap<Long, Counter> slotMap = new TreeMap<>();
+
+    private long lastCollectedTime = -1;
+
+    public ResponseTimeWindow(TimeSlot timeSlot) {
+        if (timeSlot == null) {
+            throw new NullPointerException("timeSlot must not be null");
+        }
+        this.timeSlot = timeSlot;
+    }
+
+    /**
+     * @return start time of the range that has to be read to bring the window up to date
+     */
+    public synchronized long getCollectStartTime(long windowStartTime) {
+        if (lastCollectedTime < windowStartTime) {
+            // cold start or the previous cycle is too old, read the whole window
+            return windowStartTime;
+        }
+        return timeSlot.getTimeSlot(lastCollectedTime);
+    }
+
+    /**
+     * Replaces every time slot from {@code collectStartTime} with {@code responseTimes} and drops the slots
+     * that fell out of the window.
+     */
+    public synchronized void update(long collectStartTime, long collectEndTime, List<ResponseTime> responseTimes, long windowStartTime) {
+        if (responseTimes == null) {
+            throw new NullPointerException("responseTimes must not be null");
+        }
+
+        slotMap.tailMap(timeSlot.getTimeSlot(collectStartTime), true).clear();
+        for (ResponseTime responseTime : responseTimes) {
+            Counter counter = slotMap.get(responseTime.getTimeStamp());
+            if (counter == null) {
+                counter = new Counter();
+                slotMap.put(responseTime.getTimeStamp(), counter);
+            }
+            counter.add(responseTime.getAgentResponseHistogramList());
+        }
+        slotMap.headMap(timeSlot.getTimeSlot(windowStartTime), false).clear();
+
+        this.lastCollectedTime = collectEndTime;
+    }
+
+    public synchronized Counter sum() {
+        final Counter sum = new Counter();
+        for (Map.Entry<Long, Counter> entry : slotMap.entrySet()) {
+            sum.add(entry.getValue());
+        }
+        return sum;
+    }
+
+    synchronized int getSlotSize() {
+        return slotMap.size();
+    }
+
+    public static class Counter {
+
+        private long slowCount;
+        private long errorCount;
+        private long totalCount;
+
+        void add(Iterable<TimeHistogram> timeHistograms) {
+            for (TimeHistogram timeHistogram : timeHistograms) {
+                slowCount += timeHistogram.getSlowCount();
+                slowCount += timeHistogram.getVerySlowCount();
+                errorCount += timeHistogram.getTotalErrorCount();
+                totalCount += timeHistogram.getTotalCount();
+            }
+        }
+
+        void add(Counter counter) {
+            slowCount += counter.slowCount;
+            errorCount += counter.errorCount;
+            totalCount += counter.totalCount;
+        }
+
+        public long getSlowCount() {
+            return slowCount;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+    }
+
+}
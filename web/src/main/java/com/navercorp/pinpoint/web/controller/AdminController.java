@@ -16,6 +16,7 @@
 
 package com.navercorp.pinpoint.web.controller;
 
+import com.navercorp.pinpoint.web.dao.hbase.HbaseTraceDaoV2;
 import com.navercorp.pinpoint.web.service.AdminService;
 import com.navercorp.pinpoint.web.service.AgentInfoService;
 import com.navercorp.pinpoint.web.vo.Application;
@@ -30,6 +31,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -48,6 +50,8 @@ public class AdminController {
     private AdminService adminService;
     @Autowired
     private AgentInfoService agentInfoService;
+    @Autowired(required = false)
+    private HbaseTraceDaoV2 traceDao;
 
 
     /** zhengxgs */
@@ -125,4 +129,19 @@ public class AdminController {
         return this.adminService.getInactiveAgents(applicationName, durationDays);
     }
 
+    @RequestMapping(value = "/traceCacheStatistics")
+    @ResponseBody
+    public Map<String, Object> traceCacheStatistics() {
+        final Map<String, Object> statistics = new LinkedHashMap<>();
+        if (traceDao == null) {
+            statistics.put("enable", false);
+            return statistics;
+        }
+        statistics.put("enable", traceDao.isTraceCacheEnabled());
+        statistics.put("hit", traceDao.getTraceCacheHitCount());
+        statistics.put("miss", traceDao.getTraceCacheMissCount());
+        statistics.put("skip", traceDao.getTraceCacheSkipCount());
+        return statistics;
+    }
+
 }
\ No newline at end of file
@@ -53,7 +53,7 @@ public class HbaseApplicationActiveTraceDao implements ApplicationActiveTraceDao
         Range range = new Range(scanFrom, scanTo);
         ApplicationStatMapper mapper = operations.createRowMapper(activeTraceDecoder, range);
         SampledApplicationStatResultExtractor resultExtractor = new SampledApplicationStatResultExtractor(timeWindow, mapper, activeTraceSampler);
-        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(StatType.APP_ACTIVE_TRACE_COUNT, resultExtractor, applicationId, range);
+        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(operations.getStatType(StatType.APP_ACTIVE_TRACE_COUNT, timeWindow), resultExtractor, applicationId, range);
         return cast(aggregationStatDataList);
     }
 
@@ -53,7 +53,7 @@ public class HbaseApplicationCpuLoadDao implements ApplicationCpuLoadDao {
         Range range = new Range(scanFrom, scanTo);
         ApplicationStatMapper mapper = operations.createRowMapper(cpuLoadDecoder, range);
         SampledApplicationStatResultExtractor resultExtractor = new SampledApplicationStatResultExtractor(timeWindow, mapper, cpuLoadSampler);
-        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(StatType.APP_CPU_LOAD, resultExtractor, applicationId, range);
+        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(operations.getStatType(StatType.APP_CPU_LOAD, timeWindow), resultExtractor, applicationId, range);
         return cast(aggregationStatDataList);
     }
 
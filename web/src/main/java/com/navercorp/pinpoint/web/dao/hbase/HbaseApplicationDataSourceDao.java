@@ -53,7 +53,7 @@ public class HbaseApplicationDataSourceDao implements ApplicationDataSourceDao {
         Range range = new Range(scanFrom, scanTo);
         ApplicationStatMapper mapper = operations.createRowMapper(dataSourceDecoder, range);
         SampledApplicationStatResultExtractor resultExtractor = new SampledApplicationStatResultExtractor(timeWindow, mapper, dataSourceSampler);
-        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(StatType.APP_DATA_SOURCE, resultExtractor, applicationId, range);
+        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(operations.getStatType(StatType.APP_DATA_SOURCE, timeWindow), resultExtractor, applicationId, range);
         return cast(aggregationStatDataList);
     }
 
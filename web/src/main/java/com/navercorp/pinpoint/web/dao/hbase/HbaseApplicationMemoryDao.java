@@ -53,7 +53,7 @@ public class HbaseApplicationMemoryDao implements ApplicationMemoryDao {
         Range range = new Range(scanFrom, scanTo);
         ApplicationStatMapper mapper = operations.createRowMapper(memoryDecoder, range);
         SampledApplicationStatResultExtractor resultExtractor = new SampledApplicationStatResultExtractor(timeWindow, mapper, memorySampler);
-        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(StatType.APP_MEMORY_USED, resultExtractor, applicationId, range);
+        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(operations.getStatType(StatType.APP_MEMORY_USED, timeWindow), resultExtractor, applicationId, range);
         return cast(aggregationStatDataList);
     }
 
@@ -53,7 +53,7 @@ public class HbaseApplicationResponseTimeDao implements ApplicationResponseTimeD
         Range range = new Range(scanFrom, scanTo);
         ApplicationStatMapper mapper = operations.createRowMapper(responseTimeDecoder, range);
         SampledApplicationStatResultExtractor resultExtractor = new SampledApplicationStatResultExtractor(timeWindow, mapper, joinResponseTimeSampler);
-        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(StatType.APP_RESPONSE_TIME, resultExtractor, applicationId, range);
+        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(operations.getStatType(StatType.APP_RESPONSE_TIME, timeWindow), resultExtractor, applicationId, range);
         return cast(aggregationStatDataList);
     }
 
@@ -22,11 +22,13 @@ import com.navercorp.pinpoint.common.hbase.TableNameProvider;
 import com.navercorp.pinpoint.common.server.bo.codec.stat.ApplicationStatDecoder;
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.AgentStatUtils;
 import com.navercorp.pinpoint.common.server.bo.serializer.stat.ApplicationStatHbaseOperationFactory;
+import com.navercorp.pinpoint.common.server.bo.stat.join.StatRollup;
 import com.navercorp.pinpoint.common.server.bo.stat.join.StatType;
 import com.navercorp.pinpoint.web.mapper.RangeTimestampFilter;
 import com.navercorp.pinpoint.web.mapper.TimestampFilter;
 import com.navercorp.pinpoint.web.mapper.stat.ApplicationStatMapper;
 import com.navercorp.pinpoint.web.mapper.stat.SampledApplicationStatResultExtractor;
+import com.navercorp.pinpoint.web.util.TimeWindow;
 import com.navercorp.pinpoint.web.vo.Range;
 import com.navercorp.pinpoint.web.vo.stat.AggregationStatData;
 import org.apache.hadoop.hbase.TableName;
@@ -34,6 +36,7 @@ import org.apache.hadoop.hbase.client.Scan;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -58,6 +61,26 @@ public class HbaseApplicationStatDaoOperations {
     @Autowired
     private ApplicationStatHbaseOperationFactory operationFactory;
 
+    @Value("#{pinpointWebProps['web.stat.application.rollup.enable'] ?: false}")
+    private boolean rollupEnable = false;
+
+    /**
+     * @return StatType of the coarsest rollup that fits in the window slot of {@code timeWindow}, {@code rawStatType} if none fits
+     */
+    StatType getStatType(StatType rawStatType, TimeWindow timeWindow) {
+        if (!rollupEnable) {
+            return rawStatType;
+        }
+        final StatRollup statRollup = StatRollup.findRollup(timeWindow.getWindowSlotSize());
+        if (statRollup == null) {
+            return rawStatType;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("use {} rollup of {}. windowSlotSize:{}", statRollup, rawStatType, timeWindow.getWindowSlotSize());
+        }
+        return statRollup.getStatType(rawStatType);
+    }
+
     List<AggregationStatData> getSampledStatList(StatType statType, SampledApplicationStatResultExtractor resultExtractor, String applicationId, Range range) {
         if (applicationId == null) {
             throw new NullPointerException("applicationId must not be null");
@@ -53,7 +53,7 @@ public class HbaseApplicationTransactionDao implements ApplicationTransactionDao
         Range range = new Range(scanFrom, scanTo);
         ApplicationStatMapper mapper = operations.createRowMapper(transactionDecoder, range);
         SampledApplicationStatResultExtractor resultExtractor = new SampledApplicationStatResultExtractor(timeWindow, mapper, transactionSampler);
-        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(StatType.APP_TRANSACTION_COUNT, resultExtractor, applicationId, range);
+        List<AggregationStatData> aggregationStatDataList = operations.getSampledStatList(operations.getStatType(StatType.APP_TRANSACTION_COUNT, timeWindow), resultExtractor, applicationId, range);
         return cast(aggregationStatDataList);
     }
 
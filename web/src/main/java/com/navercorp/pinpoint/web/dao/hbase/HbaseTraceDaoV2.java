@@ -12,8 +12,10 @@ import com.navercorp.pinpoint.common.util.TransactionId;
 import com.navercorp.pinpoint.web.dao.TraceDao;
 import com.navercorp.pinpoint.web.mapper.CellTraceMapper;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.filter.BinaryPrefixComparator;
 import org.apache.hadoop.hbase.filter.CompareFilter;
 import org.apache.hadoop.hbase.filter.Filter;
@@ -23,11 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * @author Woonduk Kang(emeroad)
@@ -59,6 +66,41 @@ public class HbaseTraceDaoV2 implements TraceDao {
 
     private final Filter spanFilter = createSpanQualifierFilter();
 
+    private static final String TRACE_CACHE_NAME = "traceResult";
+
+    private static final RowMapper<Result> RESULT_MAPPER = new RowMapper<Result>() {
+        @Override
+        public Result mapRow(Result result, int rowNum) {
+            return result;
+        }
+    };
+
+    @Value("#{pinpointWebProps['web.hbase.trace.cache.enable'] ?: false}")
+    private boolean traceCacheEnable;
+
+    // rows written to within this period may still receive spans and are not cached
+    @Value("#{pinpointWebProps['web.hbase.trace.cache.minRowAgeMillis'] ?: 300000}")
+    private long traceCacheMinRowAgeMillis;
+
+    @Autowired(required = false)
+    @Qualifier("ehcacheManager")
+    private CacheManager cacheManager;
+
+    // raw rows are cached instead of SpanBo, spans are mutated by the services after select
+    private Cache traceCache;
+
+    private final LongAdder traceCacheHitCount = new LongAdder();
+    private final LongAdder traceCacheMissCount = new LongAdder();
+    private final LongAdder traceCacheSkipCount = new LongAdder();
+
+    @PostConstruct
+    public void setup() {
+        if (traceCacheEnable && cacheManager != null) {
+            this.traceCache = cacheManager.getCache(TRACE_CACHE_NAME);
+        }
+        logger.info("traceCache:{}, minRowAgeMillis:{}", traceCache != null, traceCacheMinRowAgeMillis);
+    }
+
 
     @Autowired
     @Qualifier("spanMapperV2")
@@ -76,6 +118,11 @@ public class HbaseTraceDaoV2 implements TraceDao {
             throw new NullPointerException("transactionId must not be null");
         }
 
+        if (traceCache != null) {
+            List<List<SpanBo>> spanBoList = select0(Collections.singletonList(transactionId), HBaseTables.TRACE_V2_CF_SPAN, null);
+            return spanBoList.get(0);
+        }
+
         byte[] transactionIdRowKey = rowKeyEncoder.encodeRowKey(transactionId);
         TableName traceTableName = tableNameProvider.getTableName(HBaseTables.TRACE_V2_STR);
         return template2.get(traceTableName, transactionIdRowKey, HBaseTables.TRACE_V2_CF_SPAN, spanMapperV2);
@@ -138,6 +185,10 @@ public class HbaseTraceDaoV2 implements TraceDao {
             return Collections.emptyList();
         }
 
+        if (traceCache != null) {
+            return cachedSelect(transactionIdList, columnFamily, filter);
+        }
+
         final List<Get> multiGet = new ArrayList<>(transactionIdList.size());
         for (TransactionId transactionId : transactionIdList) {
             final Get get = createGet(transactionId, columnFamily, filter);
@@ -148,6 +199,88 @@ public class HbaseTraceDaoV2 implements TraceDao {
         return template2.get(traceTableName, multiGet, spanMapperV2);
     }
 
+    private List<List<SpanBo>> cachedSelect(List<TransactionId> transactionIdList, byte[] columnFamily, Filter filter) {
+        final Result[] results = new Result[transactionIdList.size()];
+        final List<Get> missGet = new ArrayList<>();
+        final List<Integer> missIndex = new ArrayList<>();
+        for (int i = 0; i < transactionIdList.size(); i++) {
+            final TransactionId transactionId = transactionIdList.get(i);
+            final Result cached = traceCache.get(cacheKey(transactionId, filter), Result.class);
+            if (cached != null) {
+                results[i] = cached;
+            } else {
+                missGet.add(createGet(transactionId, columnFamily, filter));
+                missIndex.add(i);
+            }
+        }
+        traceCacheHitCount.add(results.length - missGet.size());
+        traceCacheMissCount.add(missGet.size());
+        if (logger.isDebugEnabled()) {
+            logger.debug("traceCache hit:{}, miss:{}, totalHit:{}, totalMiss:{}", results.length - missGet.size(), missGet.size(),
+                    traceCacheHitCount.sum(), traceCacheMissCount.sum());
+        }
+
+        if (!missGet.isEmpty()) {
+            final TableName traceTableName = tableNameProvider.getTableName(HBaseTables.TRACE_V2_STR);
+            final List<Result> fetched = template2.get(traceTableName, missGet, RESULT_MAPPER);
+            final long cacheableTimestamp = System.currentTimeMillis() - traceCacheMinRowAgeMillis;
+            for (int i = 0; i < fetched.size(); i++) {
+                final Result result = fetched.get(i);
+                final int index = missIndex.get(i);
+                results[index] = result;
+                // the trace may not be written yet, or late spans may still arrive
+                if (result.isEmpty() || getLatestTimestamp(result) > cacheableTimestamp) {
+                    traceCacheSkipCount.increment();
+                    continue;
+                }
+                traceCache.put(cacheKey(transactionIdList.get(index), filter), result);
+            }
+        }
+
+        final List<List<SpanBo>> spanBoList = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            spanBoList.add(mapSpan(results[i], i));
+        }
+        return spanBoList;
+    }
+
+    private long getLatestTimestamp(Result result) {
+        long latestTimestamp = Long.MIN_VALUE;
+        for (Cell cell : result.rawCells()) {
+            latestTimestamp = Math.max(latestTimestamp, cell.getTimestamp());
+        }
+        return latestTimestamp;
+    }
+
+    private Object cacheKey(TransactionId transactionId, Filter filter) {
+        // filtered rows are cached separately from whole rows
+        return new SimpleKey(transactionId, filter != null);
+    }
+
+    private List<SpanBo> mapSpan(Result result, int rowNum) {
+        try {
+            return spanMapperV2.mapRow(result, rowNum);
+        } catch (Exception e) {
+            throw new IllegalStateException("span mapping failed. Caused:" + e.getMessage(), e);
+        }
+    }
+
+    public long getTraceCacheHitCount() {
+        return traceCacheHitCount.sum();
+    }
+
+    public long getTraceCacheMissCount() {
+        return traceCacheMissCount.sum();
+    }
+
+    public long getTraceCacheSkipCount() {
+        return traceCacheSkipCount.sum();
+    }
+
+    public boolean isTraceCacheEnabled() {
+        return traceCache != null;
+    }
+
     private Get createGet(TransactionId transactionId, byte[] columnFamily, Filter filter) {
 
         byte[] transactionIdRowKey = rowKeyEncoder.encodeRowKey(transactionId);
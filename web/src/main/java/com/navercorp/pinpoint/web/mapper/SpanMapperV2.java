@@ -45,8 +45,11 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author emeroad
@@ -145,20 +148,26 @@ public class SpanMapperV2 implements RowMapper<List<SpanBo>> {
 
 
     private List<SpanBo> buildSpanBoList(ListMultimap<AgentKey, SpanBo> spanMap, List<SpanChunkBo> spanChunkList) {
-        List<SpanBo> spanBoList = bindSpanChunk(spanMap, spanChunkList);
-        sortSpanEvent(spanBoList);
-        return spanBoList;
+        Set<SpanBo> chunkBoundSpanBoSet = bindSpanChunk(spanMap, spanChunkList);
+        // span events of a single span column are stored in order, only spans merged with chunks need sorting.
+        // this also keeps span events of the other spans encoded until they are accessed.
+        sortSpanEvent(chunkBoundSpanBoSet);
+        return Lists.newArrayList(spanMap.values());
     }
 
 
-    private void sortSpanEvent(List<SpanBo> spanBoList) {
+    private void sortSpanEvent(Collection<SpanBo> spanBoList) {
         for (SpanBo spanBo : spanBoList) {
             List<SpanEventBo> spanEventBoList = spanBo.getSpanEventBoList();
             spanEventBoList.sort(SpanEventComparator.INSTANCE);
         }
     }
 
-    private List<SpanBo> bindSpanChunk(ListMultimap<AgentKey, SpanBo> spanMap, List<SpanChunkBo> spanChunkList) {
+    private Set<SpanBo> bindSpanChunk(ListMultimap<AgentKey, SpanBo> spanMap, List<SpanChunkBo> spanChunkList) {
+        if (spanChunkList.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final Set<SpanBo> chunkBoundSpanBoSet = Collections.newSetFromMap(new IdentityHashMap<>());
         for (SpanChunkBo spanChunkBo : spanChunkList) {
             AgentKey agentKey = newAgentKey(spanChunkBo);
             List<SpanBo> matchedSpanBoList = spanMap.get(agentKey);
@@ -173,6 +182,7 @@ public class SpanMapperV2 implements RowMapper<List<SpanBo>> {
                 for (SpanBo spanBo : matchedSpanBoList) {
                     if (StringUtils.equals(spanBo.getAgentId(), spanChunkBo.getAgentId())) {
                         spanBo.addSpanEventBoList(spanChunkBo.getSpanEventBoList());
+                        chunkBoundSpanBoSet.add(spanBo);
                         agentLevelCollisionCount++;
                     }
                 }
@@ -186,7 +196,7 @@ public class SpanMapperV2 implements RowMapper<List<SpanBo>> {
                 }
             }
         }
-        return Lists.newArrayList(spanMap.values());
+        return chunkBoundSpanBoSet;
     }
 
     private AgentKey newAgentKey(BasicSpan basicSpan) {
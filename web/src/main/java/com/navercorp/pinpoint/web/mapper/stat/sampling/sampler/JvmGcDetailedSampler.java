@@ -19,6 +19,7 @@ package com.navercorp.pinpoint.web.mapper.stat.sampling.sampler;
 import com.navercorp.pinpoint.common.server.bo.stat.JvmGcDetailedBo;
 import com.navercorp.pinpoint.web.vo.stat.chart.DownSampler;
 import com.navercorp.pinpoint.web.vo.stat.chart.DownSamplers;
+import com.navercorp.pinpoint.web.vo.stat.chart.LongSampleBuffer;
 import com.navercorp.pinpoint.web.vo.stat.SampledJvmGcDetailed;
 import com.navercorp.pinpoint.web.vo.stat.chart.agent.AgentStatPoint;
 import org.springframework.stereotype.Component;
@@ -35,7 +36,6 @@ import java.util.function.ToLongFunction;
 public class JvmGcDetailedSampler implements AgentStatSampler<JvmGcDetailedBo, SampledJvmGcDetailed> {
 
     private static final int NUM_DECIMAL_PLACES = 1;
-    private static final DownSampler<Long> LONG_DOWN_SAMPLER = DownSamplers.getLongDownSampler(SampledJvmGcDetailed.UNCOLLECTED_VALUE);
     private static final DownSampler<Double> DOUBLE_DOWN_SAMPLER = DownSamplers.getDoubleDownSampler(SampledJvmGcDetailed.UNCOLLECTED_PERCENTAGE, NUM_DECIMAL_PLACES);
 
     @Override
@@ -55,12 +55,12 @@ public class JvmGcDetailedSampler implements AgentStatSampler<JvmGcDetailedBo, S
     }
 
     private AgentStatPoint<Long> newLongPoint(long timestamp, List<JvmGcDetailedBo> dataPoints, ToLongFunction<JvmGcDetailedBo> filter) {
-        List<Long> filteredList = longFilter(dataPoints, filter);
-        return createLongPoint(timestamp, filteredList);
+        LongSampleBuffer filteredValues = longFilter(dataPoints, filter);
+        return createLongPoint(timestamp, filteredValues);
     }
 
-    private List<Long> longFilter(List<JvmGcDetailedBo> dataPoints, ToLongFunction<JvmGcDetailedBo> filter) {
-        final List<Long> result = new ArrayList<>(dataPoints.size());
+    private LongSampleBuffer longFilter(List<JvmGcDetailedBo> dataPoints, ToLongFunction<JvmGcDetailedBo> filter) {
+        final LongSampleBuffer result = new LongSampleBuffer(SampledJvmGcDetailed.UNCOLLECTED_VALUE, dataPoints.size());
         for (JvmGcDetailedBo jvmGcDetailedBo : dataPoints) {
             final long apply = filter.applyAsLong(jvmGcDetailedBo);
             if (apply != JvmGcDetailedBo.UNCOLLECTED_VALUE) {
@@ -88,17 +88,17 @@ public class JvmGcDetailedSampler implements AgentStatSampler<JvmGcDetailedBo, S
     }
 
 
-    private AgentStatPoint<Long> createLongPoint(long timestamp, List<Long> values) {
+    private AgentStatPoint<Long> createLongPoint(long timestamp, LongSampleBuffer values) {
         if (values.isEmpty()) {
             return SampledJvmGcDetailed.UNCOLLECTED_VALUE_POINT_CREATOR.createUnCollectedPoint(timestamp);
         }
 
         return new AgentStatPoint<>(
                 timestamp,
-                LONG_DOWN_SAMPLER.sampleMin(values),
-                LONG_DOWN_SAMPLER.sampleMax(values),
-                LONG_DOWN_SAMPLER.sampleAvg(values, 0),
-                LONG_DOWN_SAMPLER.sampleSum(values));
+                values.min(),
+                values.max(),
+                values.avg(0),
+                values.sum());
 
     }
 
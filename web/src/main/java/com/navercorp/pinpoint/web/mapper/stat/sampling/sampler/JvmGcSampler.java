@@ -18,13 +18,11 @@ package com.navercorp.pinpoint.web.mapper.stat.sampling.sampler;
 
 import com.navercorp.pinpoint.common.server.bo.JvmGcType;
 import com.navercorp.pinpoint.common.server.bo.stat.JvmGcBo;
-import com.navercorp.pinpoint.web.vo.stat.chart.DownSampler;
-import com.navercorp.pinpoint.web.vo.stat.chart.DownSamplers;
 import com.navercorp.pinpoint.web.vo.stat.SampledJvmGc;
+import com.navercorp.pinpoint.web.vo.stat.chart.LongSampleBuffer;
 import com.navercorp.pinpoint.web.vo.stat.chart.agent.AgentStatPoint;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -33,17 +31,15 @@ import java.util.List;
 @Component
 public class JvmGcSampler implements AgentStatSampler<JvmGcBo, SampledJvmGc> {
 
-    private static final DownSampler<Long> LONG_DOWN_SAMPLER = DownSamplers.getLongDownSampler(SampledJvmGc.UNCOLLECTED_VALUE);
-
     @Override
     public SampledJvmGc sampleDataPoints(int timeWindowIndex, long timestamp, List<JvmGcBo> dataPoints, JvmGcBo previousDataPoint) {
         JvmGcType jvmGcType = JvmGcType.UNKNOWN;
-        List<Long> heapUseds = new ArrayList<>(dataPoints.size());
-        List<Long> heapMaxes = new ArrayList<>(dataPoints.size());
-        List<Long> nonHeapUseds = new ArrayList<>(dataPoints.size());
-        List<Long> nonHeapMaxes = new ArrayList<>(dataPoints.size());
-        List<Long> gcOldCounts = new ArrayList<>(dataPoints.size());
-        List<Long> gcOldTimes = new ArrayList<>(dataPoints.size());
+        LongSampleBuffer heapUseds = newBuffer(dataPoints.size());
+        LongSampleBuffer heapMaxes = newBuffer(dataPoints.size());
+        LongSampleBuffer nonHeapUseds = newBuffer(dataPoints.size());
+        LongSampleBuffer nonHeapMaxes = newBuffer(dataPoints.size());
+        LongSampleBuffer gcOldCounts = newBuffer(dataPoints.size());
+        LongSampleBuffer gcOldTimes = newBuffer(dataPoints.size());
         // dataPoints are in descending order
         JvmGcBo previousBo = previousDataPoint;
         for (int i = dataPoints.size() - 1; i >= 0; --i) {
@@ -128,16 +124,20 @@ public class JvmGcSampler implements AgentStatSampler<JvmGcBo, SampledJvmGc> {
         }
     }
 
-    private AgentStatPoint<Long> createSampledPoint(long timestamp, List<Long> values) {
+    private LongSampleBuffer newBuffer(int capacity) {
+        return new LongSampleBuffer(SampledJvmGc.UNCOLLECTED_VALUE, capacity);
+    }
+
+    private AgentStatPoint<Long> createSampledPoint(long timestamp, LongSampleBuffer values) {
         if (values.isEmpty()) {
             return SampledJvmGc.UNCOLLECTED_POINT_CREATOR.createUnCollectedPoint(timestamp);
         } else {
             return new AgentStatPoint<>(
                     timestamp,
-                    LONG_DOWN_SAMPLER.sampleMin(values),
-                    LONG_DOWN_SAMPLER.sampleMax(values),
-                    LONG_DOWN_SAMPLER.sampleAvg(values, 0),
-                    LONG_DOWN_SAMPLER.sampleSum(values));
+                    values.min(),
+                    values.max(),
+                    values.avg(0),
+                    values.sum());
         }
     }
 }
@@ -50,6 +50,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StopWatch;
 
@@ -59,6 +60,12 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * @author netspider
@@ -92,6 +99,16 @@ public class FilteredMapServiceImpl implements FilteredMapService {
     @Autowired
     private ApplicationMapBuilderFactory applicationMapBuilderFactory;
 
+    @Autowired(required = false)
+    @Qualifier("filteredMapSpanSelectExecutor")
+    private Executor spanSelectExecutor;
+
+    @Value("#{pinpointWebProps['web.filteredmap.spanselect.batchSize'] ?: 200}")
+    private int spanSelectBatchSize = 200;
+
+    @Value("#{pinpointWebProps['web.filteredmap.spanselect.parallelism'] ?: 4}")
+    private int spanSelectParallelism = 4;
+
     private static final Object V = new Object();
 
     @Override
@@ -145,34 +162,18 @@ public class FilteredMapServiceImpl implements FilteredMapService {
         StopWatch watch = new StopWatch();
         watch.start();
 
-        List<List<SpanBo>> originalList = this.traceDao.selectAllSpans(traceIdSet);
-        List<SpanBo> filteredTransactionList = filterList(originalList, filter);
-
-        LoadFactor statistics = new LoadFactor(range);
+        final LoadFactor statistics = new LoadFactor(range);
 
         // TODO need to handle these separately by node type (like fromToFilter)
 
         // scan transaction list
-        for (SpanBo span : filteredTransactionList) {
-            if (sourceApplication.equals(span.getApplicationId(), registry.findServiceType(span.getApplicationServiceType()))) {
-                List<SpanEventBo> spanEventBoList = span.getSpanEventBoList();
-                if (spanEventBoList == null) {
-                    continue;
-                }
-
-                // find dest elapsed time
-                for (SpanEventBo spanEventBo : spanEventBoList) {
-                    if (destinationApplication.equals(spanEventBo.getDestinationId(), registry.findServiceType(spanEventBo.getServiceType()))) {
-                        // find exception
-                        boolean hasException = spanEventBo.hasException();
-                        // add sample
-                        // TODO : need timeslot value instead of the actual value
-                        statistics.addSample(span.getStartTime() + spanEventBo.getStartElapsed(), spanEventBo.getEndElapsed(), 1, hasException);
-                        break;
-                    }
+        selectSpans(traceIdSet, filter, filteredTransactionList -> {
+            for (List<SpanBo> transaction : filteredTransactionList) {
+                for (SpanBo span : transaction) {
+                    addLinkSample(statistics, span, sourceApplication, destinationApplication);
                 }
             }
-        }
+        });
 
         watch.stop();
         logger.info("Fetch link statistics elapsed. {}ms", watch.getLastTaskTimeMillis());
@@ -180,14 +181,26 @@ public class FilteredMapServiceImpl implements FilteredMapService {
         return statistics;
     }
 
-    private List<SpanBo> filterList(List<List<SpanBo>> transactionList, Filter filter) {
-        final List<SpanBo> filteredResult = new ArrayList<>();
-        for (List<SpanBo> transaction : transactionList) {
-            if (filter.include(transaction)) {
-                filteredResult.addAll(transaction);
+    private void addLinkSample(LoadFactor statistics, SpanBo span, Application sourceApplication, Application destinationApplication) {
+        if (!sourceApplication.equals(span.getApplicationId(), registry.findServiceType(span.getApplicationServiceType()))) {
+            return;
+        }
+        List<SpanEventBo> spanEventBoList = span.getSpanEventBoList();
+        if (spanEventBoList == null) {
+            return;
+        }
+
+        // find dest elapsed time
+        for (SpanEventBo spanEventBo : spanEventBoList) {
+            if (destinationApplication.equals(spanEventBo.getDestinationId(), registry.findServiceType(spanEventBo.getServiceType()))) {
+                // find exception
+                boolean hasException = spanEventBo.hasException();
+                // add sample
+                // TODO : need timeslot value instead of the actual value
+                statistics.addSample(span.getStartTime() + spanEventBo.getStartElapsed(), spanEventBo.getEndElapsed(), 1, hasException);
+                break;
             }
         }
-        return filteredResult;
     }
 
     private List<List<SpanBo>> filterList2(List<List<SpanBo>> transactionList, Filter filter) {
@@ -209,10 +222,9 @@ public class FilteredMapServiceImpl implements FilteredMapService {
         // FIXME from,to -1
         Range range = new Range(-1, -1);
 
-        final List<List<SpanBo>> filterList = selectFilteredSpan(transactionIdList, Filter.NONE);
         FilteredMapBuilder filteredMapBuilder = new FilteredMapBuilder(applicationFactory, registry, range, version);
         filteredMapBuilder.serverMapDataFilter(serverMapDataFilter);
-        filteredMapBuilder.addTransactions(filterList);
+        selectFilteredSpan(transactionIdList, Filter.NONE, filteredMapBuilder::addTransactions);
         FilteredMap filteredMap = filteredMapBuilder.build();
 
         ApplicationMap map = createMap(range, filteredMap);
@@ -231,10 +243,9 @@ public class FilteredMapServiceImpl implements FilteredMapService {
         StopWatch watch = new StopWatch();
         watch.start();
 
-        final List<List<SpanBo>> filterList = selectFilteredSpan(transactionIdList, filter);
         FilteredMapBuilder filteredMapBuilder = new FilteredMapBuilder(applicationFactory, registry, originalRange, version);
         filteredMapBuilder.serverMapDataFilter(serverMapDataFilter);
-        filteredMapBuilder.addTransactions(filterList);
+        selectFilteredSpan(transactionIdList, filter, filteredMapBuilder::addTransactions);
         FilteredMap filteredMap = filteredMapBuilder.build();
 
         ApplicationMap map = createMap(originalRange, filteredMap);
@@ -248,15 +259,55 @@ public class FilteredMapServiceImpl implements FilteredMapService {
         return applicationMapWithScatterData;
     }
 
-    private List<List<SpanBo>> selectFilteredSpan(List<TransactionId> transactionIdList, Filter filter) {
+    private void selectFilteredSpan(List<TransactionId> transactionIdList, Filter filter, Consumer<List<List<SpanBo>>> filteredSpanConsumer) {
         // filters out recursive calls by looking at each objects
         // do not filter here if we change to a tree-based collision check in the future. 
         final List<TransactionId> recursiveFilterList = recursiveCallFilter(transactionIdList);
 
-        // FIXME might be better to simply traverse the List<Span> and create a process chain for execution
-        final List<List<SpanBo>> originalList = this.traceDao.selectAllSpans(recursiveFilterList);
+        selectSpans(recursiveFilterList, filter, filteredSpanConsumer);
+    }
+
+    /**
+     * Selects spans in batches of {@code spanSelectBatchSize} transactions, at most {@code spanSelectParallelism} batches at a time.
+     * Each filtered batch is passed to the consumer on the caller thread as soon as it completes, so the consumer needs no synchronization
+     * and only the batches in flight are held in memory.
+     */
+    private void selectSpans(List<TransactionId> transactionIdList, Filter filter, Consumer<List<List<SpanBo>>> filteredSpanConsumer) {
+        if (spanSelectExecutor == null || transactionIdList == null || transactionIdList.size() <= spanSelectBatchSize) {
+            final List<List<SpanBo>> originalList = this.traceDao.selectAllSpans(transactionIdList);
+            filteredSpanConsumer.accept(filterList2(originalList, filter));
+            return;
+        }
 
-        return filterList2(originalList, filter);
+        final List<List<TransactionId>> batchList = Lists.partition(transactionIdList, spanSelectBatchSize);
+        final CompletionService<List<List<SpanBo>>> completionService = new ExecutorCompletionService<>(spanSelectExecutor);
+        final List<Future<List<List<SpanBo>>>> futureList = new ArrayList<>(batchList.size());
+        int completed = 0;
+        try {
+            while (completed < batchList.size()) {
+                while (futureList.size() < batchList.size() && futureList.size() - completed < spanSelectParallelism) {
+                    final List<TransactionId> batch = batchList.get(futureList.size());
+                    futureList.add(completionService.submit(() -> filterList2(traceDao.selectAllSpans(batch), filter)));
+                }
+                final List<List<SpanBo>> filteredBatch = completionService.take().get();
+                completed++;
+                filteredSpanConsumer.accept(filteredBatch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("selectSpans interrupted", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("selectSpans failed. Caused:" + cause.getMessage(), cause);
+        } finally {
+            // no-op for completed batches
+            for (Future<List<List<SpanBo>>> future : futureList) {
+                future.cancel(true);
+            }
+        }
     }
 
     private ApplicationMap createMap(Range range, FilteredMap filteredMap) {
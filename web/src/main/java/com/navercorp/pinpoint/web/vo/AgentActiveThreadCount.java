@@ -49,6 +49,26 @@ public class AgentActiveThreadCount {
         return status.codeMessage;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        AgentActiveThreadCount that = (AgentActiveThreadCount) o;
+
+        if (!agentId.equals(that.agentId)) return false;
+        if (!activeThreadCountList.equals(that.activeThreadCountList)) return false;
+        return status.equals(that.status);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = agentId.hashCode();
+        result = 31 * result + activeThreadCountList.hashCode();
+        result = 31 * result + status.hashCode();
+        return result;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("AgentActiveThreadCount{");
@@ -118,6 +138,24 @@ public class AgentActiveThreadCount {
             this.codeMessage = codeMessage;
         }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Status status = (Status) o;
+
+            if (code != status.code) return false;
+            return codeMessage != null ? codeMessage.equals(status.codeMessage) : status.codeMessage == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) code;
+            result = 31 * result + (codeMessage != null ? codeMessage.hashCode() : 0);
+            return result;
+        }
+
     }
 
 }
@@ -45,6 +45,39 @@ public class AgentActiveThreadCountList {
         agentActiveThreadRepository.add(agentActiveThreadStatus);
     }
 
+    public int size() {
+        return agentActiveThreadRepository.size();
+    }
+
+    /**
+     * Sums each histogram slot across agents that responded successfully.
+     */
+    public List<Integer> sumActiveThreadCount() {
+        int[] sum = null;
+        for (AgentActiveThreadCount agentActiveThreadCount : agentActiveThreadRepository) {
+            if (agentActiveThreadCount.getCode() != 0) {
+                continue;
+            }
+            final List<Integer> activeThreadCountList = agentActiveThreadCount.getActiveThreadCountList();
+            if (sum == null) {
+                sum = new int[activeThreadCountList.size()];
+            }
+            final int length = Math.min(sum.length, activeThreadCountList.size());
+            for (int i = 0; i < length; i++) {
+                sum[i] += activeThreadCountList.get(i);
+            }
+        }
+
+        if (sum == null) {
+            return Collections.emptyList();
+        }
+        final List<Integer> result = new ArrayList<>(sum.length);
+        for (int count : sum) {
+            result.add(count);
+        }
+        return result;
+    }
+
     public List<AgentActiveThreadCount> getAgentActiveThreadRepository() {
         // sort agentId
         agentActiveThreadRepository.sort(new Comparator<AgentActiveThreadCount>() {
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo.stat.chart;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Growable primitive buffer of long values for a single metric within a time window.
+ * Computes the same min/max/avg/sum as {@link DownSamplers#getLongDownSampler(long)} without boxing each value.
+ */
+public class LongSampleBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final long defaultValue;
+    private long[] values;
+    private int size;
+
+    public LongSampleBuffer(long defaultValue) {
+        this(defaultValue, DEFAULT_CAPACITY);
+    }
+
+    public LongSampleBuffer(long defaultValue, int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("negative initialCapacity:" + initialCapacity);
+        }
+        this.defaultValue = defaultValue;
+        this.values = new long[initialCapacity];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY, size << 1));
+        }
+        values[size++] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public long min() {
+        if (size == 0) {
+            return defaultValue;
+        }
+        long min = values[0];
+        for (int i = 1; i < size; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    public long max() {
+        if (size == 0) {
+            return defaultValue;
+        }
+        long max = values[0];
+        for (int i = 1; i < size; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    public double avg() {
+        if (size == 0) {
+            return defaultValue;
+        }
+        double avg = 0;
+        for (int i = 0; i < size; i++) {
+            avg += (values[i] - avg) / (i + 1);
+        }
+        return avg;
+    }
+
+    public double avg(int numDecimals) {
+        return BigDecimal.valueOf(avg()).setScale(numDecimals, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    public long sum() {
+        if (size == 0) {
+            return defaultValue;
+        }
+        long sum = 0L;
+        for (int i = 0; i < size; i++) {
+            long value = values[i];
+            long newSum = sum + value;
+            // Checks long overflow - from JDK8 Math.addExact(long, long)
+            if (((sum ^ newSum) & (value ^ newSum)) < 0) {
+                return Long.MAX_VALUE;
+            }
+            sum = newSum;
+        }
+        return sum;
+    }
+}
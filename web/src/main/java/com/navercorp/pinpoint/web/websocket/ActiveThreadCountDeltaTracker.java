@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.websocket;
+
+import com.navercorp.pinpoint.web.vo.AgentActiveThreadCount;
+import com.navercorp.pinpoint.web.vo.AgentActiveThreadCountList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the last flushed {@link AgentActiveThreadCount} of every agent so that
+ * delta subscribers only receive agents whose histogram or status changed.
+ * Not thread-safe, the aggregator calls it from the flush timer only.
+ */
+class ActiveThreadCountDeltaTracker {
+
+    private Map<String, AgentActiveThreadCount> lastFlushedMap = new HashMap<>();
+
+    Delta update(AgentActiveThreadCountList current) {
+        if (current == null) {
+            throw new NullPointerException("current must not be null");
+        }
+
+        final Map<String, AgentActiveThreadCount> previousMap = this.lastFlushedMap;
+        final Map<String, AgentActiveThreadCount> currentMap = new HashMap<>(current.size());
+        final AgentActiveThreadCountList changed = new AgentActiveThreadCountList();
+
+        for (AgentActiveThreadCount agentActiveThreadCount : current.getAgentActiveThreadRepository()) {
+            final String agentId = agentActiveThreadCount.getAgentId();
+            currentMap.put(agentId, agentActiveThreadCount);
+
+            final AgentActiveThreadCount previous = previousMap.remove(agentId);
+            if (!agentActiveThreadCount.equals(previous)) {
+                changed.add(agentActiveThreadCount);
+            }
+        }
+
+        final List<String> removedAgentIds;
+        if (previousMap.isEmpty()) {
+            removedAgentIds = Collections.emptyList();
+        } else {
+            removedAgentIds = new ArrayList<>(previousMap.keySet());
+            Collections.sort(removedAgentIds);
+        }
+
+        this.lastFlushedMap = currentMap;
+        return new Delta(changed, removedAgentIds);
+    }
+
+    static class Delta {
+
+        private final AgentActiveThreadCountList changed;
+        private final List<String> removedAgentIds;
+
+        Delta(AgentActiveThreadCountList changed, List<String> removedAgentIds) {
+            this.changed = changed;
+            this.removedAgentIds = removedAgentIds;
+        }
+
+        AgentActiveThreadCountList getChanged() {
+            return changed;
+        }
+
+        List<String> getRemovedAgentIds() {
+            return removedAgentIds;
+        }
+
+    }
+
+}
@@ -52,6 +52,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class ActiveThreadCountHandler extends TextWebSocketHandler implements PinpointWebSocketHandler {
 
     public static final String APPLICATION_NAME_KEY = "applicationName";
+    public static final String DELTA_KEY = "delta";
 
     static final String API_ACTIVE_THREAD_COUNT = "activeThreadCount";
 
@@ -227,6 +228,7 @@ public class ActiveThreadCountHandler extends TextWebSocketHandler implements Pi
         final String applicationName = MapUtils.getString(requestMessage.getParameters(), APPLICATION_NAME_KEY);
         if (applicationName != null) {
             final WebSocketSessionContext sessionContext = getSessionContext(webSocketSession);
+            sessionContext.setDeltaMode(MapUtils.getBoolean(requestMessage.getParameters(), DELTA_KEY, false));
             synchronized (lock) {
                 if (StringUtils.equals(applicationName, sessionContext.getApplicationName())) {
                     return;
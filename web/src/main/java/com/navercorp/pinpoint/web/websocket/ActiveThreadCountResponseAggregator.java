@@ -32,6 +32,7 @@ import org.springframework.web.socket.WebSocketSession;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Timer;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -47,8 +48,13 @@ public class ActiveThreadCountResponseAggregator implements PinpointWebSocketRes
     private static final String APPLICATION_NAME = "applicationName";
     private static final String ACTIVE_THREAD_COUNTS = "activeThreadCounts";
     private static final String TIME_STAMP = "timeStamp";
+    private static final String APPLICATION_ACTIVE_THREAD_COUNT = "applicationActiveThreadCount";
+    private static final String DELTA = "delta";
+    private static final String REMOVED_AGENT_IDS = "removedAgentIds";
 
     private final static int LOG_RECORD_RATE = 60;
+    // delta subscribers are resynchronized with a full snapshot every FULL_SNAPSHOT_RATE flushes
+    private final static int FULL_SNAPSHOT_RATE = 60;
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
@@ -58,12 +64,14 @@ public class ActiveThreadCountResponseAggregator implements PinpointWebSocketRes
 
     private final Object workerManagingLock = new Object();
     private final List<WebSocketSession> webSocketSessions = new CopyOnWriteArrayList<>();
+    private final Set<WebSocketSession> snapshotRequiredSessions = ConcurrentHashMap.newKeySet();
     private final ConcurrentMap<String, ActiveThreadCountWorker> activeThreadCountWorkerRepository = new ConcurrentHashMap<>();
 
     private final Object aggregatorLock = new Object();
     private final PinpointWebSocketMessageConverter messageConverter;
 
     private final AtomicInteger flushCount = new AtomicInteger(0);
+    private final ActiveThreadCountDeltaTracker deltaTracker = new ActiveThreadCountDeltaTracker();
 
     private volatile boolean isStopped = false;
     private WorkerActiveManager workerActiveManager;
@@ -128,6 +136,7 @@ public class ActiveThreadCountResponseAggregator implements PinpointWebSocketRes
                 }
             }
 
+            snapshotRequiredSessions.add(webSocketSession);
             boolean added = webSocketSessions.add(webSocketSession);
             if (added && webSocketSessions.size() == 1) {
                 workerActiveManager.startAgentCheckJob();
@@ -149,6 +158,7 @@ public class ActiveThreadCountResponseAggregator implements PinpointWebSocketRes
                 return true;
             }
 
+            snapshotRequiredSessions.remove(webSocketSession);
             boolean removed = webSocketSessions.remove(webSocketSession);
             if (removed && webSocketSessions.isEmpty()) {
                 for (ActiveThreadCountWorker activeThreadCountWorker : activeThreadCountWorkerRepository.values()) {
@@ -212,7 +222,8 @@ public class ActiveThreadCountResponseAggregator implements PinpointWebSocketRes
 
     @Override
     public void flush(Executor executor) throws Exception {
-        if ((flushCount.getAndIncrement() % LOG_RECORD_RATE) == 0) {
+        final int currentFlushCount = flushCount.getAndIncrement();
+        if ((currentFlushCount % LOG_RECORD_RATE) == 0) {
             logger.info("flush started. applicationName:{}", applicationName);
         }
 
@@ -235,18 +246,50 @@ public class ActiveThreadCountResponseAggregator implements PinpointWebSocketRes
             activeThreadCountMap = new HashMap<>(activeThreadCountWorkerRepository.size());
         }
 
-        TextMessage webSocketTextMessage = createWebSocketTextMessage(response);
-        if (webSocketTextMessage != null) {
-            if (executor == null) {
-                flush0(webSocketTextMessage);
+        final long timeStamp = System.currentTimeMillis();
+        final List<Integer> applicationActiveThreadCount = response.sumActiveThreadCount();
+        final ActiveThreadCountDeltaTracker.Delta delta = deltaTracker.update(response);
+        final boolean fullSnapshotTurn = (currentFlushCount % FULL_SNAPSHOT_RATE) == 0;
+
+        // serialize once per message kind, every session watching this application shares the same payload
+        TextMessage fullMessage = null;
+        TextMessage deltaMessage = null;
+        for (WebSocketSession webSocketSession : webSocketSessions) {
+            if (webSocketSession == null) {
+                logger.warn("failed caused webSocketSession is null. applicationName:{}", applicationName);
+                continue;
+            }
+
+            final TextMessage webSocketTextMessage;
+            if (isDeltaSubscriber(webSocketSession) && !fullSnapshotTurn && !snapshotRequiredSessions.contains(webSocketSession)) {
+                if (deltaMessage == null) {
+                    deltaMessage = createWebSocketTextMessage(createDeltaResultMap(delta, applicationActiveThreadCount, timeStamp));
+                }
+                webSocketTextMessage = deltaMessage;
             } else {
-                flushAsync0(webSocketTextMessage, executor);
+                if (fullMessage == null) {
+                    fullMessage = createWebSocketTextMessage(createResultMap(response, applicationActiveThreadCount, timeStamp));
+                }
+                webSocketTextMessage = fullMessage;
+                snapshotRequiredSessions.remove(webSocketSession);
+            }
+
+            if (webSocketTextMessage != null) {
+                if (executor == null) {
+                    flush0(webSocketSession, webSocketTextMessage);
+                } else {
+                    flushAsync0(webSocketSession, webSocketTextMessage, executor);
+                }
             }
         }
     }
 
-    private TextMessage createWebSocketTextMessage(AgentActiveThreadCountList activeThreadCountList) {
-        Map resultMap = createResultMap(activeThreadCountList, System.currentTimeMillis());
+    private boolean isDeltaSubscriber(WebSocketSession webSocketSession) {
+        final WebSocketSessionContext sessionContext = WebSocketSessionContext.getSessionContext(webSocketSession);
+        return sessionContext != null && sessionContext.isDeltaMode();
+    }
+
+    private TextMessage createWebSocketTextMessage(Map resultMap) {
         try {
             String response = messageConverter.getResponseTextMessage(ActiveThreadCountHandler.API_ACTIVE_THREAD_COUNT, resultMap);
             TextMessage responseTextMessage = new TextMessage(response);
@@ -257,25 +300,17 @@ public class ActiveThreadCountResponseAggregator implements PinpointWebSocketRes
         return null;
     }
 
-    private void flush0(TextMessage webSocketMessage) {
-        for (WebSocketSession webSocketSession : webSocketSessions) {
-            try {
-                logger.debug("flush webSocketSession:{}, response:{}", webSocketSession, webSocketMessage);
-                webSocketSession.sendMessage(webSocketMessage);
-            } catch (Exception e) {
-                logger.warn("failed while flushing message to webSocket. session:{}, message:{}, error:{}", webSocketSession, webSocketMessage, e.getMessage(), e);
-            }
+    private void flush0(WebSocketSession webSocketSession, TextMessage webSocketMessage) {
+        try {
+            logger.debug("flush webSocketSession:{}, response:{}", webSocketSession, webSocketMessage);
+            webSocketSession.sendMessage(webSocketMessage);
+        } catch (Exception e) {
+            logger.warn("failed while flushing message to webSocket. session:{}, message:{}, error:{}", webSocketSession, webSocketMessage, e.getMessage(), e);
         }
     }
 
-    private void flushAsync0(TextMessage webSocketMessage, Executor executor) {
-        for (WebSocketSession webSocketSession : webSocketSessions) {
-            if (webSocketSession == null) {
-                logger.warn("failed caused webSocketSession is null. applicationName:{}", applicationName);
-                continue;
-            }
-            executor.execute(new OrderedWebSocketFlushRunnable(webSocketSession, webSocketMessage));
-        }
+    private void flushAsync0(WebSocketSession webSocketSession, TextMessage webSocketMessage, Executor executor) {
+        executor.execute(new OrderedWebSocketFlushRunnable(webSocketSession, webSocketMessage));
     }
 
     @Override
@@ -283,11 +318,26 @@ public class ActiveThreadCountResponseAggregator implements PinpointWebSocketRes
         return applicationName;
     }
 
-    private Map createResultMap(AgentActiveThreadCountList activeThreadCount, long timeStamp) {
+    private Map createResultMap(AgentActiveThreadCountList activeThreadCount, List<Integer> applicationActiveThreadCount, long timeStamp) {
         Map<String, Object> response = new HashMap<>();
 
         response.put(APPLICATION_NAME, applicationName);
         response.put(ACTIVE_THREAD_COUNTS, activeThreadCount);
+        response.put(APPLICATION_ACTIVE_THREAD_COUNT, applicationActiveThreadCount);
+        response.put(DELTA, false);
+        response.put(TIME_STAMP, timeStamp);
+
+        return response;
+    }
+
+    private Map createDeltaResultMap(ActiveThreadCountDeltaTracker.Delta delta, List<Integer> applicationActiveThreadCount, long timeStamp) {
+        Map<String, Object> response = new HashMap<>();
+
+        response.put(APPLICATION_NAME, applicationName);
+        response.put(ACTIVE_THREAD_COUNTS, delta.getChanged());
+        response.put(REMOVED_AGENT_IDS, delta.getRemovedAgentIds());
+        response.put(APPLICATION_ACTIVE_THREAD_COUNT, applicationActiveThreadCount);
+        response.put(DELTA, true);
         response.put(TIME_STAMP, timeStamp);
 
         return response;
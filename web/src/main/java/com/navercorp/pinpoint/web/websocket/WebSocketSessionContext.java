@@ -29,6 +29,7 @@ public class WebSocketSessionContext {
 
     private final AtomicBoolean healthCheckSuccess;
     private String applicationName;
+    private volatile boolean deltaMode;
 
     static WebSocketSessionContext getSessionContext(WebSocketSession webSocketSession) {
         final Object context = webSocketSession.getAttributes().get(WEBSOCKET_SESSION_CONTEXT_KEY);
@@ -62,11 +63,20 @@ public class WebSocketSessionContext {
         this.applicationName = applicationName;
     }
 
+    public boolean isDeltaMode() {
+        return deltaMode;
+    }
+
+    public void setDeltaMode(boolean deltaMode) {
+        this.deltaMode = deltaMode;
+    }
+
     @Override
     public String toString() {
         return "WebSocketSessionContext{" +
                 "changeHealthCheckSuccess=" + healthCheckSuccess +
                 ", applicationName='" + applicationName + '\'' +
+                ", deltaMode=" + deltaMode +
                 '}';
     }
 }
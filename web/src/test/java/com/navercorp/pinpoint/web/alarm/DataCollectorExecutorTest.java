@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.alarm;
+
+import com.navercorp.pinpoint.web.alarm.DataCollectorFactory.DataCollectorCategory;
+import com.navercorp.pinpoint.web.alarm.collector.DataCollector;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DataCollectorExecutorTest {
+
+    private DataCollectorExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new DataCollectorExecutor(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void collectAll() {
+        AtomicInteger collectCount = new AtomicInteger();
+        List<DataCollector> dataCollectors = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            dataCollectors.add(new TestDataCollector(() -> collectCount.incrementAndGet()));
+        }
+
+        Assert.assertEquals(0, executor.collect(dataCollectors));
+        Assert.assertEquals(10, collectCount.get());
+    }
+
+    @Test
+    public void collectConcurrently() {
+        // every collector waits for the others, this only completes when they run in parallel
+        CountDownLatch latch = new CountDownLatch(4);
+        List<DataCollector> dataCollectors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            dataCollectors.add(new TestDataCollector(() -> {
+                latch.countDown();
+                try {
+                    if (!latch.await(5, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("collectors are not running concurrently");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        Assert.assertEquals(0, executor.collect(dataCollectors));
+    }
+
+    @Test
+    public void failureDoesNotAffectOtherCollectors() {
+        AtomicInteger collectCount = new AtomicInteger();
+        List<DataCollector> dataCollectors = new ArrayList<>();
+        dataCollectors.add(new TestDataCollector(() -> {
+            throw new RuntimeException("test");
+        }));
+        dataCollectors.add(new TestDataCollector(() -> collectCount.incrementAndGet()));
+
+        Assert.assertEquals(1, executor.collect(dataCollectors));
+        Assert.assertEquals(1, collectCount.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreadSize() {
+        new DataCollectorExecutor(0);
+    }
+
+    private static class TestDataCollector extends DataCollector {
+
+        private final Runnable collectTask;
+
+        TestDataCollector(Runnable collectTask) {
+            super(DataCollectorCategory.RESPONSE_TIME);
+            this.collectTask = collectTask;
+        }
+
+        @Override
+        public void collect() {
+            collectTask.run();
+        }
+    }
+
+}
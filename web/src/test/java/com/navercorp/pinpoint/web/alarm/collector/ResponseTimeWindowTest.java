@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.alarm.collector;
+
+import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.DefaultTimeSlot;
+import com.navercorp.pinpoint.web.alarm.DataCollectorFactory.DataCollectorCategory;
+import com.navercorp.pinpoint.web.applicationmap.histogram.TimeHistogram;
+import com.navercorp.pinpoint.web.dao.MapResponseDao;
+import com.navercorp.pinpoint.web.vo.Application;
+import com.navercorp.pinpoint.web.vo.Range;
+import com.navercorp.pinpoint.web.vo.ResponseTime;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResponseTimeWindowTest {
+
+    private static final String APPLICATION_NAME = "app";
+    private static final long MINUTE = 60 * 1000;
+    private static final long SLOT_INTERVAL = 5 * MINUTE;
+    private static final long BASE_TIME = 1500000000000L - (1500000000000L % MINUTE);
+
+    private final Application application = new Application(APPLICATION_NAME, ServiceType.STAND_ALONE);
+
+    @Test
+    public void firstCycleReadsWholeWindow() {
+        RecordingMapResponseDao dao = new RecordingMapResponseDao();
+        ResponseTimeWindow window = new ResponseTimeWindow(new DefaultTimeSlot());
+
+        long endTime = BASE_TIME + 10 * MINUTE + 30000;
+        ResponseTimeDataCollector collector = newCollector(dao, endTime, window);
+        collector.collect();
+
+        Assert.assertEquals(endTime - SLOT_INTERVAL, dao.lastRange.getFrom());
+        Assert.assertEquals(endTime, dao.lastRange.getTo());
+        // 6 time slots from 10:05 to 10:10, one call per slot
+        Assert.assertEquals(6, collector.getTotalCount());
+        Assert.assertEquals(6, collector.getSlowCount());
+    }
+
+    @Test
+    public void nextCycleReadsOnlyNewSlots() {
+        RecordingMapResponseDao dao = new RecordingMapResponseDao();
+        ResponseTimeWindow window = new ResponseTimeWindow(new DefaultTimeSlot());
+
+        long endTime = BASE_TIME + 10 * MINUTE + 30000;
+        newCollector(dao, endTime, window).collect();
+
+        long nextEndTime = endTime + MINUTE;
+        ResponseTimeDataCollector collector = newCollector(dao, nextEndTime, window);
+        collector.collect();
+
+        // the slot that was still filling up during the previous cycle is read again
+        Assert.assertEquals(BASE_TIME + 10 * MINUTE, dao.lastRange.getFrom());
+        Assert.assertEquals(nextEndTime, dao.lastRange.getTo());
+        Assert.assertEquals(6, window.getSlotSize());
+
+        ResponseTimeDataCollector fullCollector = newCollector(new RecordingMapResponseDao(), nextEndTime, null);
+        fullCollector.collect();
+        Assert.assertEquals(fullCollector.getTotalCount(), collector.getTotalCount());
+        Assert.assertEquals(fullCollector.getSlowCount(), collector.getSlowCount());
+        Assert.assertEquals(fullCollector.getErrorCount(), collector.getErrorCount());
+    }
+
+    @Test
+    public void staleWindowReadsWholeWindow() {
+        RecordingMapResponseDao dao = new RecordingMapResponseDao();
+        ResponseTimeWindow window = new ResponseTimeWindow(new DefaultTimeSlot());
+
+        long endTime = BASE_TIME + 10 * MINUTE + 30000;
+        newCollector(dao, endTime, window).collect();
+
+        long nextEndTime = endTime + 2 * SLOT_INTERVAL;
+        newCollector(dao, nextEndTime, window).collect();
+
+        Assert.assertEquals(nextEndTime - SLOT_INTERVAL, dao.lastRange.getFrom());
+        Assert.assertEquals(6, window.getSlotSize());
+    }
+
+    private ResponseTimeDataCollector newCollector(MapResponseDao dao, long timeSlotEndTime, ResponseTimeWindow window) {
+        return new ResponseTimeDataCollector(DataCollectorCategory.RESPONSE_TIME, application, dao, timeSlotEndTime, SLOT_INTERVAL, window);
+    }
+
+    /**
+     * Returns one slow call for every time slot of the requested range.
+     */
+    private static class RecordingMapResponseDao implements MapResponseDao {
+
+        private Range lastRange;
+
+        @Override
+        public List<ResponseTime> selectResponseTime(Application application, Range range) {
+            this.lastRange = range;
+
+            List<ResponseTime> responseTimes = new ArrayList<>();
+            long from = range.getFrom() - (range.getFrom() % MINUTE);
+            for (long timeStamp = from; timeStamp <= range.getTo(); timeStamp += MINUTE) {
+                ResponseTime responseTime = new ResponseTime(APPLICATION_NAME, ServiceType.STAND_ALONE, timeStamp);
+                TimeHistogram histogram = new TimeHistogram(ServiceType.STAND_ALONE, timeStamp);
+                histogram.addCallCountByElapsedTime(6000, false);
+                responseTime.addResponseTime("agent", histogram);
+                responseTimes.add(responseTime);
+            }
+            return responseTimes;
+        }
+    }
+
+}
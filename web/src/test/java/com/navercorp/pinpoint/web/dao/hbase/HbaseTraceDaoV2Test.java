@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.dao.hbase;
+
+import com.navercorp.pinpoint.common.hbase.HbaseOperations2;
+import com.navercorp.pinpoint.common.hbase.RowMapper;
+import com.navercorp.pinpoint.common.hbase.TableNameProvider;
+import com.navercorp.pinpoint.common.server.bo.SpanBo;
+import com.navercorp.pinpoint.common.server.bo.serializer.RowKeyEncoder;
+import com.navercorp.pinpoint.common.util.TransactionId;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HbaseTraceDaoV2Test {
+
+    @Mock
+    private HbaseOperations2 template2;
+
+    @Mock
+    private RowKeyEncoder<TransactionId> rowKeyEncoder;
+
+    @Mock
+    private RowMapper<List<SpanBo>> spanMapper;
+
+    private final TableNameProvider tableNameProvider = new TableNameProvider() {
+        @Override
+        public TableName getTableName(String tableName) {
+            return TableName.valueOf(tableName);
+        }
+    };
+
+    private HbaseTraceDaoV2 traceDao;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        traceDao = new HbaseTraceDaoV2();
+        ReflectionTestUtils.setField(traceDao, "template2", template2);
+        ReflectionTestUtils.setField(traceDao, "tableNameProvider", tableNameProvider);
+        ReflectionTestUtils.setField(traceDao, "rowKeyEncoder", rowKeyEncoder);
+        ReflectionTestUtils.setField(traceDao, "spanMapperV2", spanMapper);
+        ReflectionTestUtils.setField(traceDao, "selectSpansLimit", 500);
+        ReflectionTestUtils.setField(traceDao, "selectAllSpansLimit", 500);
+        ReflectionTestUtils.setField(traceDao, "traceCacheEnable", true);
+        ReflectionTestUtils.setField(traceDao, "traceCacheMinRowAgeMillis", 60000L);
+        ReflectionTestUtils.setField(traceDao, "cacheManager", new ConcurrentMapCacheManager("traceResult"));
+        traceDao.setup();
+
+        when(rowKeyEncoder.encodeRowKey(any(TransactionId.class))).thenAnswer(invocation -> {
+            TransactionId transactionId = invocation.getArgument(0);
+            return Bytes.toBytes(transactionId.getTransactionSequence());
+        });
+        when(spanMapper.mapRow(any(Result.class), anyInt())).thenAnswer(invocation -> {
+            Result result = invocation.getArgument(0);
+            if (result.isEmpty()) {
+                return Collections.emptyList();
+            }
+            SpanBo spanBo = new SpanBo();
+            spanBo.setTransactionId(new TransactionId("agent", 0, Bytes.toLong(result.getRow())));
+            return Collections.singletonList(spanBo);
+        });
+        when(template2.get(any(TableName.class), anyList(), any(RowMapper.class))).thenAnswer(invocation -> {
+            List<Get> gets = invocation.getArgument(1);
+            List<Result> results = new ArrayList<>(gets.size());
+            for (Get get : gets) {
+                long sequence = Bytes.toLong(get.getRow());
+                if (sequence < 0) {
+                    // not written yet
+                    results.add(Result.create(new Cell[0]));
+                } else {
+                    // sequence 0 is written just now, the others long ago
+                    long timestamp = sequence == 0 ? System.currentTimeMillis() : 1000L;
+                    Cell cell = new KeyValue(get.getRow(), Bytes.toBytes("S"), Bytes.toBytes("Q"), timestamp, Bytes.toBytes(sequence));
+                    results.add(Result.create(new Cell[]{cell}));
+                }
+            }
+            return results;
+        });
+    }
+
+    @Test
+    public void selectAllSpansFromCache() {
+        List<TransactionId> transactionIds = Arrays.asList(newTransactionId(1), newTransactionId(2));
+
+        List<List<SpanBo>> first = traceDao.selectAllSpans(transactionIds);
+        List<List<SpanBo>> second = traceDao.selectAllSpans(transactionIds);
+        List<SpanBo> single = traceDao.selectSpan(newTransactionId(2));
+
+        verify(template2, times(1)).get(any(TableName.class), anyList(), any(RowMapper.class));
+        Assert.assertEquals(2, second.size());
+        Assert.assertEquals(first.get(0).get(0).getTransactionId(), second.get(0).get(0).getTransactionId());
+        Assert.assertEquals(newTransactionId(2), single.get(0).getTransactionId());
+        // spans are decoded again for every request
+        Assert.assertNotSame(first.get(0).get(0), second.get(0).get(0));
+        Assert.assertEquals(3, traceDao.getTraceCacheHitCount());
+        Assert.assertEquals(2, traceDao.getTraceCacheMissCount());
+    }
+
+    @Test
+    public void filteredRowsCachedSeparately() {
+        List<TransactionId> transactionIds = Collections.singletonList(newTransactionId(1));
+
+        traceDao.selectAllSpans(transactionIds);
+        traceDao.selectSpans(transactionIds);
+        traceDao.selectSpans(transactionIds);
+
+        verify(template2, times(2)).get(any(TableName.class), anyList(), any(RowMapper.class));
+    }
+
+    @Test
+    public void emptyRowNotCached() {
+        List<TransactionId> transactionIds = Collections.singletonList(newTransactionId(-1));
+
+        Assert.assertTrue(traceDao.selectAllSpans(transactionIds).get(0).isEmpty());
+        Assert.assertTrue(traceDao.selectAllSpans(transactionIds).get(0).isEmpty());
+
+        verify(template2, times(2)).get(any(TableName.class), anyList(), any(RowMapper.class));
+    }
+
+    @Test
+    public void recentRowNotCached() {
+        List<TransactionId> transactionIds = Collections.singletonList(newTransactionId(0));
+
+        Assert.assertEquals(1, traceDao.selectAllSpans(transactionIds).get(0).size());
+        Assert.assertEquals(1, traceDao.selectAllSpans(transactionIds).get(0).size());
+
+        verify(template2, times(2)).get(any(TableName.class), anyList(), any(RowMapper.class));
+        Assert.assertEquals(0, traceDao.getTraceCacheHitCount());
+        Assert.assertEquals(2, traceDao.getTraceCacheSkipCount());
+    }
+
+    private TransactionId newTransactionId(long sequence) {
+        return new TransactionId("agent", 0, sequence);
+    }
+}
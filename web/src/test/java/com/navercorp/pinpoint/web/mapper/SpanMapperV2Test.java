@@ -91,6 +91,40 @@ public class SpanMapperV2Test {
 
     }
 
+    @Test
+    public void lazySpanEvent() {
+        SpanBo span = new SpanBo();
+        span.setServiceType((short) 1000);
+
+        SpanEventBo firstSpanEventBo = new SpanEventBo();
+        firstSpanEventBo.setServiceType((short) 1003);
+        firstSpanEventBo.setSequence((short) 0);
+        span.addSpanEvent(firstSpanEventBo);
+
+        SpanEncodingContext<SpanBo> encodingContext = new SpanEncodingContext<>(span);
+        SpanEncoder encoder = new SpanEncoderV0();
+        ByteBuffer byteBuffer = encoder.encodeSpanColumnValue(encodingContext);
+
+        Buffer buffer = new OffsetFixedBuffer(byteBuffer.array(), byteBuffer.arrayOffset(), byteBuffer.remaining());
+
+        SpanBo readSpan = new SpanBo();
+        decoder.readSpanValue(buffer, readSpan, new SpanEventBo(), new SpanDecodingContext());
+
+        // span event of span chunk added before the span events are decoded
+        SpanEventBo chunkSpanEventBo = new SpanEventBo();
+        chunkSpanEventBo.setServiceType((short) 2003);
+        chunkSpanEventBo.setSequence((short) 1);
+        readSpan.addSpanEvent(chunkSpanEventBo);
+
+        List<SpanEventBo> spanEventBoList = readSpan.getSpanEventBoList();
+        Assert.assertEquals(spanEventBoList.size(), 2);
+        Assert.assertEquals(spanEventBoList.get(0).getServiceType(), 1003);
+        Assert.assertSame(spanEventBoList.get(1), chunkSpanEventBo);
+
+        Assert.assertSame(readSpan.getSpanEventBoList(), spanEventBoList);
+        Assert.assertEquals(readSpan.getSpanEventBoList().size(), 2);
+    }
+
     private AnnotationBo newAnnotation(int key, Object value) {
         AnnotationBo annotationBo = new AnnotationBo();
         annotationBo.setKey(key);
@@ -22,6 +22,7 @@ import com.navercorp.pinpoint.common.service.ServiceTypeRegistryService;
 import com.navercorp.pinpoint.common.trace.HistogramSchema;
 import com.navercorp.pinpoint.common.trace.HistogramSlot;
 import com.navercorp.pinpoint.common.trace.ServiceType;
+import com.navercorp.pinpoint.common.util.TransactionId;
 import com.navercorp.pinpoint.web.TestTraceUtils;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMap;
 import com.navercorp.pinpoint.web.applicationmap.ApplicationMapBuilderFactory;
@@ -50,8 +51,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.CollectionUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -67,6 +70,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyShort;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -310,6 +315,49 @@ public class FilteredMapServiceImplTest {
         }
     }
 
+    /**
+     * USER -> ROOT_APP, transactions selected in batches
+     */
+    @Test
+    public void batchedSelect() {
+        // Given
+        ReflectionTestUtils.setField(filteredMapService, "spanSelectExecutor", executor);
+        ReflectionTestUtils.setField(filteredMapService, "spanSelectBatchSize", 2);
+        ReflectionTestUtils.setField(filteredMapService, "spanSelectParallelism", 2);
+
+        Range originalRange = new Range(1000, 2000);
+        Range scanRange = new Range(1000, 2000);
+        final int numTransactions = 5;
+        List<TransactionId> transactionIdList = new ArrayList<>(numTransactions);
+        for (int i = 0; i < numTransactions; i++) {
+            transactionIdList.add(new TransactionId("root-agent", 0, i));
+        }
+        when(traceDao.selectAllSpans(anyList())).thenAnswer(invocation -> {
+            List<TransactionId> batch = invocation.getArgument(0);
+            List<List<SpanBo>> transactions = new ArrayList<>(batch.size());
+            for (TransactionId transactionId : batch) {
+                SpanBo rootSpan = new TestTraceUtils.SpanBuilder("ROOT_APP", "root-agent")
+                        .spanId(RANDOM.nextLong())
+                        .startTime(1000L)
+                        .collectorAcceptTime(1100L)
+                        .elapsed(100)
+                        .build();
+                transactions.add(Collections.singletonList(rootSpan));
+            }
+            return transactions;
+        });
+
+        // When
+        ApplicationMap applicationMap = filteredMapService.selectApplicationMapWithScatterData(transactionIdList, originalRange, scanRange, 1, 1, Filter.NONE, 0);
+
+        // Then
+        verify(traceDao, times(3)).selectAllSpans(anyList());
+        Collection<Link> links = applicationMap.getLinks();
+        Assert.assertEquals(1, links.size());
+        Histogram histogram = links.iterator().next().getHistogram();
+        assertHistogram(histogram, numTransactions, 0, 0, 0, 0);
+    }
+
     private void assertHistogram(Histogram histogram, int fastCount, int normalCount, int slowCount, int verySlowCount, int totalErrorCount) {
         Assert.assertEquals(fastCount, histogram.getFastCount());
         Assert.assertEquals(normalCount, histogram.getNormalCount());
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navercorp.pinpoint.web.vo.stat.chart;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class LongSampleBufferTest {
+
+    private static final long DEFAULT_VALUE = -1L;
+
+    private final DownSampler<Long> downSampler = DownSamplers.getLongDownSampler(DEFAULT_VALUE);
+
+    @Test
+    public void emptyBufferShouldReturnDefaultValue() {
+        LongSampleBuffer buffer = new LongSampleBuffer(DEFAULT_VALUE);
+
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertEquals(DEFAULT_VALUE, buffer.min());
+        Assert.assertEquals(DEFAULT_VALUE, buffer.max());
+        Assert.assertEquals(DEFAULT_VALUE, buffer.sum());
+        Assert.assertEquals(DEFAULT_VALUE, buffer.avg(0), 0);
+    }
+
+    @Test
+    public void shouldSampleSameAsDownSampler() {
+        Random random = new Random();
+        LongSampleBuffer buffer = new LongSampleBuffer(DEFAULT_VALUE, 1);
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            long value = random.nextInt(1000000);
+            buffer.add(value);
+            values.add(value);
+        }
+
+        Assert.assertEquals(values.size(), buffer.size());
+        Assert.assertEquals(downSampler.sampleMin(values).longValue(), buffer.min());
+        Assert.assertEquals(downSampler.sampleMax(values).longValue(), buffer.max());
+        Assert.assertEquals(downSampler.sampleSum(values).longValue(), buffer.sum());
+        Assert.assertEquals(downSampler.sampleAvg(values, 0), buffer.avg(0), 0);
+        Assert.assertEquals(downSampler.sampleAvg(values), buffer.avg(), 0);
+    }
+
+    @Test
+    public void sumShouldSaturateOnOverflow() {
+        LongSampleBuffer buffer = new LongSampleBuffer(DEFAULT_VALUE);
+        buffer.add(Long.MAX_VALUE);
+        buffer.add(1L);
+
+        Assert.assertEquals(Long.MAX_VALUE, buffer.sum());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 NAVER Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navercorp.pinpoint.web.websocket;
+
+import com.navercorp.pinpoint.thrift.dto.command.TCmdActiveThreadCountRes;
+import com.navercorp.pinpoint.thrift.dto.command.TRouteResult;
+import com.navercorp.pinpoint.web.vo.AgentActiveThreadCount;
+import com.navercorp.pinpoint.web.vo.AgentActiveThreadCountFactory;
+import com.navercorp.pinpoint.web.vo.AgentActiveThreadCountList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ActiveThreadCountDeltaTrackerTest {
+
+    @Test
+    public void firstUpdateContainsAllAgents() {
+        ActiveThreadCountDeltaTracker tracker = new ActiveThreadCountDeltaTracker();
+
+        ActiveThreadCountDeltaTracker.Delta delta = tracker.update(newList(success("agent1", 1, 2, 3, 4), success("agent2", 0, 0, 0, 1)));
+
+        Assert.assertEquals(2, delta.getChanged().size());
+        Assert.assertTrue(delta.getRemovedAgentIds().isEmpty());
+    }
+
+    @Test
+    public void onlyChangedAgentsAreReported() {
+        ActiveThreadCountDeltaTracker tracker = new ActiveThreadCountDeltaTracker();
+        tracker.update(newList(success("agent1", 1, 2, 3, 4), success("agent2", 0, 0, 0, 1)));
+
+        ActiveThreadCountDeltaTracker.Delta delta = tracker.update(newList(success("agent1", 1, 2, 3, 4), success("agent2", 0, 0, 1, 1)));
+
+        List<AgentActiveThreadCount> changed = delta.getChanged().getAgentActiveThreadRepository();
+        Assert.assertEquals(1, changed.size());
+        Assert.assertEquals("agent2", changed.get(0).getAgentId());
+        Assert.assertTrue(delta.getRemovedAgentIds().isEmpty());
+    }
+
+    @Test
+    public void statusChangeIsReported() {
+        ActiveThreadCountDeltaTracker tracker = new ActiveThreadCountDeltaTracker();
+        tracker.update(newList(success("agent1", 1, 2, 3, 4)));
+
+        ActiveThreadCountDeltaTracker.Delta delta = tracker.update(newList(fail("agent1")));
+
+        Assert.assertEquals(1, delta.getChanged().size());
+    }
+
+    @Test
+    public void removedAgentsAreReported() {
+        ActiveThreadCountDeltaTracker tracker = new ActiveThreadCountDeltaTracker();
+        tracker.update(newList(success("agent1", 1, 2, 3, 4), success("agent2", 0, 0, 0, 1)));
+
+        ActiveThreadCountDeltaTracker.Delta delta = tracker.update(newList(success("agent1", 1, 2, 3, 4)));
+
+        Assert.assertEquals(0, delta.getChanged().size());
+        Assert.assertEquals(Collections.singletonList("agent2"), delta.getRemovedAgentIds());
+
+        delta = tracker.update(newList(success("agent1", 1, 2, 3, 4)));
+        Assert.assertTrue(delta.getRemovedAgentIds().isEmpty());
+    }
+
+    @Test
+    public void sumActiveThreadCount() {
+        AgentActiveThreadCountList list = newList(success("agent1", 1, 2, 3, 4), success("agent2", 10, 20, 30, 40), fail("agent3"));
+
+        Assert.assertEquals(Arrays.asList(11, 22, 33, 44), list.sumActiveThreadCount());
+        Assert.assertTrue(new AgentActiveThreadCountList().sumActiveThreadCount().isEmpty());
+    }
+
+    private AgentActiveThreadCountList newList(AgentActiveThreadCount... agentActiveThreadCounts) {
+        AgentActiveThreadCountList list = new AgentActiveThreadCountList();
+        for (AgentActiveThreadCount agentActiveThreadCount : agentActiveThreadCounts) {
+            list.add(agentActiveThreadCount);
+        }
+        return list;
+    }
+
+    private AgentActiveThreadCount success(String agentId, Integer... activeThreadCount) {
+        AgentActiveThreadCountFactory factory = new AgentActiveThreadCountFactory();
+        factory.setAgentId(agentId);
+
+        TCmdActiveThreadCountRes response = new TCmdActiveThreadCountRes();
+        response.setActiveThreadCount(Arrays.asList(activeThreadCount));
+        return factory.create(response);
+    }
+
+    private AgentActiveThreadCount fail(String agentId) {
+        AgentActiveThreadCountFactory factory = new AgentActiveThreadCountFactory();
+        factory.setAgentId(agentId);
+        return factory.createFail(TRouteResult.NOT_ACCEPTABLE.name());
+    }
+
+}